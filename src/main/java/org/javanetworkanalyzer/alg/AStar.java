@@ -0,0 +1,319 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import org.javanetworkanalyzer.model.Edge;
+import org.javanetworkanalyzer.model.WeightProfile;
+import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * A* point-to-point shortest path search: a Dijkstra search in which each
+ * vertex v is keyed by d(s,v) plus a lower bound on d(v,t) given by a
+ * {@link Heuristic}. The better the bound, the narrower the region of the
+ * graph explored around the shortest path.
+ *
+ * The distance returned is exact as long as the heuristic never
+ * overestimates; vertices are settled again if a shorter path to them is
+ * found later, which only happens if the heuristic is not consistent.
+ * Labels are kept in per-query maps, so the vertices are left untouched.
+ *
+ * With several targets, each vertex is keyed by the smallest lower bound on
+ * its distance to a target not settled yet, and the search stops once every
+ * target is settled.
+ *
+ * @param <V> Vertex
+ * @param <E> Edge
+ *
+ * @author Adam Gouge
+ */
+public class AStar<V, E> {
+
+    /**
+     * The graph.
+     */
+    private final Graph<V, E> graph;
+    /**
+     * Lower bound on the distance to the target.
+     */
+    private final Heuristic<V> heuristic;
+    /**
+     * Weight profile giving the edge weights, or null.
+     */
+    private WeightProfile profile;
+    /**
+     * Labels of the vertices reached by the last search.
+     */
+    private final Map<V, Label<E>> labels = new HashMap<V, Label<E>>();
+    /**
+     * Target of the last one-to-one search, or null.
+     */
+    private V target;
+    /**
+     * Targets not settled yet.
+     */
+    private final Set<V> remaining = new HashSet<V>();
+    /**
+     * Number of vertices settled by the last search.
+     */
+    private int settledCount;
+
+    /**
+     * Constructor.
+     *
+     * @param graph     The graph
+     * @param heuristic Lower bound on the distance to the target
+     */
+    public AStar(Graph<V, E> graph, Heuristic<V> heuristic) {
+        this.graph = graph;
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Sets the weight profile giving the edge weights, or null to use the
+     * weights of the graph (the default). The heuristic must bound these
+     * weights.
+     *
+     * @param profile Weight profile, or null
+     */
+    public void setWeightProfile(WeightProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Returns the distance from the source to the target, and records a
+     * shortest path between them (see {@link #getPath()}).
+     *
+     * @param source Source
+     * @param target Target
+     *
+     * @return The distance from the source to the target, or infinity if the
+     *         target is not reachable
+     */
+    public double oneToOne(V source, V target) {
+        if (target == null || !graph.containsVertex(target)) {
+            throw new IllegalArgumentException(
+                    "Target vertex not found in graph.");
+        }
+        search(source, Collections.singleton(target));
+        this.target = target;
+        final Label<E> label = labels.get(target);
+        return label != null && label.settled
+                ? label.distance : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the distances from the source to the given targets, settling
+     * vertices until every target is settled.
+     *
+     * @param source  Source
+     * @param targets Targets
+     *
+     * @return A map of distances from the source keyed by target, infinite
+     *         for targets which are not reachable
+     */
+    public Map<V, Double> oneToMany(V source, Set<V> targets) {
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "Please specify at least one target.");
+        }
+        for (V t : targets) {
+            if (!graph.containsVertex(t)) {
+                throw new IllegalArgumentException(
+                        "Target vertex not found in graph.");
+            }
+        }
+        search(source, targets);
+        final Map<V, Double> distances = new HashMap<V, Double>();
+        for (V t : targets) {
+            final Label<E> label = labels.get(t);
+            distances.put(t, label != null && label.settled
+                    ? label.distance : Double.POSITIVE_INFINITY);
+        }
+        return distances;
+    }
+
+    /**
+     * Searches from the source until every target is settled.
+     *
+     * @param source  Source
+     * @param targets Targets
+     */
+    private void search(V source, Set<V> targets) {
+        if (source == null || !graph.containsVertex(source)) {
+            throw new IllegalArgumentException(
+                    "Source vertex not found in graph.");
+        }
+        this.target = null;
+        labels.clear();
+        remaining.clear();
+        remaining.addAll(targets);
+        settledCount = 0;
+
+        final PriorityQueue<Entry<V>> queue = new PriorityQueue<Entry<V>>();
+        label(source, 0.0, null, queue);
+        while (!queue.isEmpty()) {
+            final Entry<V> entry = queue.poll();
+            final Label<E> uLabel = labels.get(entry.vertex);
+            // Skip stale entries.
+            if (uLabel.settled || uLabel.distance + uLabel.estimate
+                                  != entry.key) {
+                continue;
+            }
+            final V u = entry.vertex;
+            uLabel.settled = true;
+            settledCount++;
+            if (remaining.remove(u) && remaining.isEmpty()) {
+                return;
+            }
+            for (E e : (Iterable<E>) GraphSearchAlgorithm
+                    .outgoingEdgesOf(graph, u)) {
+                final V v = Graphs.getOppositeVertex(graph, e, u);
+                final double distance = uLabel.distance + edgeWeight(e);
+                final Label<E> vLabel = labels.get(v);
+                if (vLabel == null || distance < vLabel.distance) {
+                    label(v, distance, e, queue);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the edges of the shortest path found by the last call to
+     * {@link #oneToOne}, from the source to the target; empty if the source
+     * is the target or if the target is not reachable.
+     *
+     * @return The edges of the shortest path
+     */
+    public List<E> getPath() {
+        final List<E> path = new ArrayList<E>();
+        Label<E> label = target == null ? null : labels.get(target);
+        if (label == null || !label.settled) {
+            return path;
+        }
+        V v = target;
+        while (label.edge != null) {
+            path.add(label.edge);
+            v = Graphs.getOppositeVertex(graph, label.edge, v);
+            label = labels.get(v);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Returns the number of vertices settled by the last call to
+     * {@link #oneToOne} or {@link #oneToMany}.
+     *
+     * @return The number of settled vertices
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    /**
+     * Sets the distance and predecessor edge of the given vertex and adds it
+     * to the queue.
+     *
+     * @param v        Vertex
+     * @param distance Distance
+     * @param edge     Predecessor edge, or null
+     * @param queue    Queue
+     */
+    private void label(V v, double distance, E edge,
+                       PriorityQueue<Entry<V>> queue) {
+        Label<E> label = labels.get(v);
+        if (label == null) {
+            label = new Label<E>();
+            labels.put(v, label);
+        }
+        // Lower bound on the distance to the closest remaining target.
+        label.estimate = Double.POSITIVE_INFINITY;
+        for (V t : remaining) {
+            label.estimate = Math.min(label.estimate,
+                                      heuristic.estimate(v, t));
+        }
+        label.distance = distance;
+        label.edge = edge;
+        label.settled = false;
+        // No remaining target is reachable from v.
+        if (label.estimate < Double.POSITIVE_INFINITY) {
+            queue.add(new Entry<V>(v, distance + label.estimate));
+        }
+    }
+
+    /**
+     * Returns the weight of the given edge.
+     *
+     * @param e Edge
+     *
+     * @return The weight of e
+     */
+    private double edgeWeight(E e) {
+        return profile == null
+                ? graph.getEdgeWeight(e)
+                : profile.getWeight((Edge) e);
+    }
+
+    /**
+     * Distance, lower bound to the target and predecessor edge of a vertex.
+     */
+    private static class Label<E> {
+
+        private double distance;
+        private double estimate;
+        private E edge;
+        private boolean settled;
+    }
+
+    /**
+     * Queue entry; an entry whose key is not the key of its vertex any more
+     * is stale and skipped.
+     */
+    private static class Entry<V> implements Comparable<Entry<V>> {
+
+        private final V vertex;
+        private final double key;
+
+        private Entry(V vertex, double key) {
+            this.vertex = vertex;
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(Entry<V> other) {
+            return Double.compare(key, other.key);
+        }
+    }
+}
@@ -29,7 +29,9 @@ import org.javanetworkanalyzer.model.EdgeSPT;
 import org.jgrapht.Graph;
 import org.jgrapht.Graphs;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -49,6 +51,20 @@ public class BFS<V extends VBFS, E extends EdgeSPT>
      * BFS queue.
      */
     private final LinkedList<V> queue;
+    /**
+     * Whether to switch between top-down and bottom-up steps.
+     */
+    private boolean directionOptimizing;
+    /**
+     * A bottom-up step is taken once the frontier has more than 1/ALPHA of
+     * the edges incident to unexplored nodes.
+     */
+    private static final int ALPHA = 14;
+    /**
+     * Top-down steps are taken again once the frontier is shrinking and has
+     * fewer than 1/BETA of the nodes.
+     */
+    private static final int BETA = 24;
 
     /**
      * Constructor.
@@ -68,46 +84,222 @@ public class BFS<V extends VBFS, E extends EdgeSPT>
     @Override
     public void calculate(V startNode) {
 
+        if (directionOptimizing && !isBounded()) {
+            calculateDirectionOptimizing(startNode);
+            return;
+        }
+
         init(startNode);
 
         // While the queue is not empty ...
         while (!queue.isEmpty()) {
             V current = dequeueStep(queue);
+            // A null node means the search should be stopped.
+            if (current == null) {
+                break;
+            }
+            topDownStep(current);
+        }
+    }
+
+    /**
+     * Sets whether {@link #calculate} should switch between top-down and
+     * bottom-up steps, as in Beamer, Asanovi&#263; and Patterson,
+     * <i>Direction-Optimizing Breadth-First Search</i>, 2012. This saves
+     * edge checks on graphs of small diameter, where most nodes are found in
+     * a few very large frontiers.
+     *
+     * A bottom-up step scans the incoming edges of every unexplored node for
+     * nodes in the frontier. Since all shortest paths must be found, the
+     * scan does not stop at the first such node; the hooks are called with
+     * the same arguments as in a top-down step, so shortest path counts and
+     * predecessors are unchanged. The nodes of a level may be found in a
+     * different order.
+     *
+     * @param directionOptimizing True to switch between top-down and
+     *                            bottom-up steps
+     */
+    public void setDirectionOptimizing(boolean directionOptimizing) {
+        this.directionOptimizing = directionOptimizing;
+    }
+
+    /**
+     * Returns true if {@link #calculate} switches between top-down and
+     * bottom-up steps.
+     *
+     * @return True if {@link #calculate} switches between top-down and
+     *         bottom-up steps
+     */
+    public boolean isDirectionOptimizing() {
+        return directionOptimizing;
+    }
+
+    /**
+     * Scans the outgoing edges of the current node, finding its neighbors.
+     *
+     * @param current Current node
+     */
+    private void topDownStep(V current) {
+        // For every neighbor of the current node ...
+        Set<E> outgoingEdges = outgoingEdgesOf(current);
+        for (E e : outgoingEdges) {
+            V neighbor = Graphs.getOppositeVertex(graph, e, current);
+            // If this neighbor is found for the first time ...
+            if (neighbor.getDistance() < 0) {
+                enqueueAndUpdateDistance(current, neighbor, queue);
+                firstTimeFoundStep(current, neighbor);
+            }
+            // If this is a shortest path from startNode to neighbor
+            // via current ...
+            if (neighbor.getDistance() == current.getDistance() + 1) {
+                shortestPathStep(current, neighbor, e);
+            }
+        }
+    }
+
+    /**
+     * Scans the incoming edges of the given unexplored node for nodes in the
+     * frontier at the given distance.
+     *
+     * @param node     Unexplored node
+     * @param distance Distance of the frontier
+     *
+     * @return True if the node was found
+     */
+    private boolean bottomUpStep(V node, int distance) {
+        boolean found = false;
+        Set<E> incomingEdges = GraphSearchAlgorithm.incomingEdgesOf(graph, node);
+        for (E e : incomingEdges) {
+            V parent = Graphs.getOppositeVertex(graph, e, node);
+            if (parent.getDistance() == distance) {
+                if (!found) {
+                    enqueueAndUpdateDistance(parent, node, queue);
+                    firstTimeFoundStep(parent, node);
+                    found = true;
+                }
+                shortestPathStep(parent, node, e);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Does a breadth first search from the given start node, one level at a
+     * time, choosing between a top-down and a bottom-up step at each level.
+     *
+     * @param startNode Start node
+     */
+    private void calculateDirectionOptimizing(V startNode) {
+
+        init(startNode);
+
+        final int nodeCount = graph.vertexSet().size();
+        long unexploredEdges = 0;
+        for (V node : graph.vertexSet()) {
+            if (node != startNode) {
+                unexploredEdges += GraphSearchAlgorithm
+                        .incomingEdgesOf(graph, node).size();
+            }
+        }
+        long frontierEdges = outgoingEdgesOf(startNode).size();
+        int previousFrontierSize = 0;
+        // Unexplored nodes, kept between consecutive bottom-up steps.
+        List<V> unexplored = null;
+        boolean bottomUp = false;
+        int distance = 0;
 
-            // For every neighbor of the current node ...
-            Set<E> outgoingEdges = outgoingEdgesOf(current);
-            for (E e : outgoingEdges) {
-                V neighbor = Graphs.getOppositeVertex(graph, e, current);
-                // If this neighbor is found for the first time ...
-                if (neighbor.getDistance() < 0) {
-                    enqueueAndUpdateDistance(current, neighbor, queue);
-                    firstTimeFoundStep(current, neighbor);
+        while (!queue.isEmpty()) {
+            final int frontierSize = queue.size();
+            if (!bottomUp) {
+                bottomUp = frontierEdges > unexploredEdges / ALPHA;
+            } else {
+                bottomUp = frontierSize >= previousFrontierSize
+                        || frontierSize >= nodeCount / BETA;
+            }
+
+            if (bottomUp) {
+                for (int i = 0; i < frontierSize; i++) {
+                    // A null node means the search should be stopped.
+                    if (dequeueStep(queue) == null) {
+                        return;
+                    }
+                }
+                if (unexplored == null) {
+                    unexplored = new ArrayList<V>();
+                    for (V node : graph.vertexSet()) {
+                        if (node.getDistance() < 0) {
+                            unexplored.add(node);
+                        }
+                    }
                 }
-                // If this is a shortest path from startNode to neighbor
-                // via current ...
-                if (neighbor.getDistance() == current.getDistance() + 1) {
-                    shortestPathStep(current, neighbor, e);
+                final List<V> stillUnexplored =
+                        new ArrayList<V>(unexplored.size());
+                for (V node : unexplored) {
+                    if (!bottomUpStep(node, distance)) {
+                        stillUnexplored.add(node);
+                    }
                 }
+                unexplored = stillUnexplored;
+            } else {
+                for (int i = 0; i < frontierSize; i++) {
+                    V current = dequeueStep(queue);
+                    // A null node means the search should be stopped.
+                    if (current == null) {
+                        return;
+                    }
+                    topDownStep(current);
+                }
+                unexplored = null;
+            }
+
+            // Collect statistics on the new frontier.
+            previousFrontierSize = frontierSize;
+            frontierEdges = 0;
+            for (V node : queue) {
+                frontierEdges += outgoingEdgesOf(node).size();
+                unexploredEdges -= GraphSearchAlgorithm
+                        .incomingEdgesOf(graph, node).size();
             }
+            distance++;
         }
     }
 
     @Override
     protected void init(V startNode) {
         super.init(startNode);
-        for (V node : graph.vertexSet()) {
-            node.reset();
-        }
+        resetNodes();
         startNode.setSource();
         queue.clear();
         queue.add(startNode);
     }
 
     /**
-     * Dequeues a node from the given queue.
+     * Resets the nodes before a new search. Subclasses which know the nodes
+     * reached by the previous search may reset only those.
+     */
+    protected void resetNodes() {
+        for (V node : graph.vertexSet()) {
+            node.reset();
+        }
+    }
+
+    /**
+     * Returns true if the search stops before reaching every node it could
+     * reach. Such searches never take bottom-up steps, which scan every
+     * unexplored node.
+     *
+     * @return True if the search is bounded
+     */
+    protected boolean isBounded() {
+        return false;
+    }
+
+    /**
+     * Dequeues a node from the given queue. Subclasses may return null to stop
+     * the search.
      *
      * @param queue The queue.
-     * @return The newly dequeued node.
+     * @return The newly dequeued node, or null to stop the search.
      */
     protected V dequeueStep(LinkedList<V> queue) {
         return queue.poll();
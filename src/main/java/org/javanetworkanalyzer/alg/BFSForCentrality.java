@@ -25,7 +25,9 @@
 package org.javanetworkanalyzer.alg;
 
 import org.javanetworkanalyzer.data.UnweightedPathLengthData;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Stack;
 import org.javanetworkanalyzer.data.VUCent;
 import org.javanetworkanalyzer.model.EdgeSPT;
@@ -48,6 +50,19 @@ public class BFSForCentrality<E extends EdgeSPT> extends BFS<VUCent, E>
      * Data structure used to hold information used to calculate closeness.
      */
     private final UnweightedPathLengthData pathsFromStartNode;
+    /**
+     * Whether the stack, shortest path counts and predecessors are recorded.
+     */
+    private boolean recordingShortestPaths = true;
+    /**
+     * Distance beyond which nodes are not explored.
+     */
+    private double radius = Double.POSITIVE_INFINITY;
+    /**
+     * Nodes reached by the previous bounded search, or null if every node
+     * must be reset.
+     */
+    private List<VUCent> reached;
 
     /**
      * Constructs a new {@link BFSForCentrality} object.
@@ -63,26 +78,123 @@ public class BFSForCentrality<E extends EdgeSPT> extends BFS<VUCent, E>
         this.pathsFromStartNode = new UnweightedPathLengthData();
     }
 
+    /**
+     * Sets whether the stack, shortest path counts and predecessors are
+     * recorded (true by default). They are needed only for betweenness; if
+     * they are not recorded, only distances and shortest path lengths are.
+     *
+     * @param recordingShortestPaths True to record shortest paths
+     */
+    public void setRecordingShortestPaths(boolean recordingShortestPaths) {
+        this.recordingShortestPaths = recordingShortestPaths;
+    }
+
+    /**
+     * Sets the distance beyond which nodes are not explored (infinite by
+     * default). Only shortest paths of length at most the radius are
+     * recorded (counted in edges), so the stack holds the nodes within the radius and the
+     * dependencies accumulated over it are those of the truncated shortest
+     * path DAG. Bounded searches only reset the nodes reached by the
+     * previous search, so they cost time proportional to the size of the
+     * neighborhood rather than that of the graph. Any other algorithm
+     * run on the same nodes in between must be followed by a call to
+     * {@link #forgetReachedNodes()}.
+     *
+     * @param radius Radius
+     */
+    public void setRadius(double radius) {
+        if (radius != this.radius) {
+            this.radius = radius;
+            reached = null;
+        }
+    }
+
+    /**
+     * Makes the next search reset every node rather than only those reached
+     * by the previous search. This must be called after another algorithm
+     * has changed the nodes, since a bounded search would otherwise start
+     * from the labels that algorithm left behind.
+     */
+    public void forgetReachedNodes() {
+        reached = null;
+    }
+
+    /**
+     * Returns the distance beyond which nodes are not explored.
+     *
+     * @return The radius
+     */
+    public double getRadius() {
+        return radius;
+    }
+
     @Override
     protected void init(VUCent startNode) {
         super.init(startNode);
         stack.clear();
         pathsFromStartNode.clear();
+        reached(startNode);
+    }
+
+    @Override
+    protected void resetNodes() {
+        if (reached == null) {
+            super.resetNodes();
+        } else {
+            for (VUCent node : reached) {
+                node.reset();
+            }
+        }
+        if (radius < Double.POSITIVE_INFINITY) {
+            reached = new ArrayList<VUCent>();
+        } else {
+            reached = null;
+        }
+    }
+
+    /**
+     * Records that the given node was reached, if this search is bounded.
+     *
+     * @param node Node
+     */
+    private void reached(VUCent node) {
+        if (reached != null) {
+            reached.add(node);
+        }
+    }
+
+    @Override
+    protected boolean isBounded() {
+        return radius < Double.POSITIVE_INFINITY;
     }
 
     /**
-     * Dequeues a node from the given queue and pushes it to the stack.
+     * Dequeues a node from the given queue and pushes it to the stack. Once
+     * the neighbors of the dequeued node would lie beyond the radius, the
+     * rest of the queue is pushed as well and the search is stopped.
      *
      * @param queue The queue.
      *
-     * @return The newly dequeued node.
+     * @return The newly dequeued node, or null to stop the search.
      */
     @Override
     protected VUCent dequeueStep(LinkedList<VUCent> queue) {
         // Dequeue a node.
         VUCent current = queue.poll();
         // Push it to the stack.
-        stack.push(current);
+        if (recordingShortestPaths) {
+            stack.push(current);
+        }
+        if (current.getDistance() + 1 > radius) {
+            // The rest of the queue is at the same distance.
+            while (!queue.isEmpty()) {
+                VUCent node = queue.poll();
+                if (recordingShortestPaths) {
+                    stack.push(node);
+                }
+            }
+            return null;
+        }
         // Return it.
         return current;
     }
@@ -91,6 +203,7 @@ public class BFSForCentrality<E extends EdgeSPT> extends BFS<VUCent, E>
     protected void firstTimeFoundStep(
             final VUCent current,
             final VUCent neighbor) {
+        reached(neighbor);
         // Add this to the path length data. (For closeness)
         pathsFromStartNode.addSPLength(neighbor.getDistance());
     }
@@ -98,6 +211,9 @@ public class BFSForCentrality<E extends EdgeSPT> extends BFS<VUCent, E>
     @Override
     protected void shortestPathStep(VUCent current,
                                     VUCent neighbor, E e) {
+        if (!recordingShortestPaths) {
+            return;
+        }
         // Add currentNode to the set of predecessors of neighbor.
         super.shortestPathStep(current, neighbor, e);
         // Update the number of shortest paths.
@@ -0,0 +1,279 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import org.javanetworkanalyzer.model.GraphIndex;
+import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Stack;
+
+/**
+ * Finds the biconnected components (blocks), articulation points and bridges
+ * of a graph with an iterative version of the algorithm of Hopcroft and
+ * Tarjan, <i>Efficient algorithms for graph manipulation</i>, 1973, so that
+ * deep graphs such as long roads do not overflow the call stack.
+ *
+ * Edge directions are ignored. Parallel edges are handled correctly (two
+ * parallel edges form a block, not two bridges); loops belong to no block.
+ * Isolated vertices belong to no block either.
+ *
+ * @param <V> Vertex
+ * @param <E> Edge
+ *
+ * @author Adam Gouge
+ */
+public class BiconnectedComponents<V, E> {
+
+    /**
+     * The graph.
+     */
+    private final Graph<V, E> graph;
+    /**
+     * Vertex numbering.
+     */
+    private final GraphIndex<V, E> index;
+    /**
+     * Edges of each block.
+     */
+    private final List<List<E>> blockEdges;
+    /**
+     * Vertices of each block.
+     */
+    private final List<List<V>> blockVertices;
+    /**
+     * Articulation points.
+     */
+    private final Set<V> articulationPoints;
+    /**
+     * Bridges.
+     */
+    private final Set<E> bridges;
+
+    /**
+     * Decomposes the given graph.
+     *
+     * @param graph The graph
+     */
+    public BiconnectedComponents(Graph<V, E> graph) {
+        this.graph = graph;
+        this.index = new GraphIndex<V, E>(graph);
+        this.blockEdges = new ArrayList<List<E>>();
+        this.blockVertices = new ArrayList<List<V>>();
+        this.articulationPoints = new HashSet<V>();
+        this.bridges = new HashSet<E>();
+        decompose();
+    }
+
+    /**
+     * A vertex of the depth-first search, with its remaining edges.
+     */
+    private class Frame {
+
+        private final int vertex;
+        private final E parentEdge;
+        private final Iterator<E> edges;
+
+        private Frame(int vertex, E parentEdge) {
+            this.vertex = vertex;
+            this.parentEdge = parentEdge;
+            this.edges = graph.edgesOf(index.getVertex(vertex)).iterator();
+        }
+    }
+
+    /**
+     * Runs the depth-first search from every vertex not yet visited.
+     */
+    private void decompose() {
+        final int n = index.getVertexCount();
+        // Discovery time and low point of each vertex, -1 if not visited.
+        final int[] discovery = new int[n];
+        final int[] low = new int[n];
+        for (int i = 0; i < n; i++) {
+            discovery[i] = -1;
+        }
+        // Marks the vertices already added to the current block.
+        final int[] lastBlock = new int[n];
+        for (int i = 0; i < n; i++) {
+            lastBlock[i] = -1;
+        }
+        final Stack<E> edgeStack = new Stack<E>();
+        final Stack<Frame> frames = new Stack<Frame>();
+        int time = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (discovery[root] >= 0) {
+                continue;
+            }
+            discovery[root] = low[root] = time++;
+            frames.push(new Frame(root, null));
+            int rootChildren = 0;
+            while (!frames.isEmpty()) {
+                final Frame frame = frames.peek();
+                final int v = frame.vertex;
+                if (frame.edges.hasNext()) {
+                    final E e = frame.edges.next();
+                    final V source = graph.getEdgeSource(e);
+                    if (e == frame.parentEdge
+                        || source == graph.getEdgeTarget(e)) {
+                        continue;
+                    }
+                    final int w = index.indexOf(Graphs.getOppositeVertex(
+                            graph, e, index.getVertex(v)));
+                    if (discovery[w] < 0) {
+                        // Tree edge.
+                        edgeStack.push(e);
+                        discovery[w] = low[w] = time++;
+                        frames.push(new Frame(w, e));
+                        if (v == root) {
+                            rootChildren++;
+                        }
+                    } else if (discovery[w] < discovery[v]) {
+                        // Back edge, seen from its lower end first.
+                        edgeStack.push(e);
+                        low[v] = Math.min(low[v], discovery[w]);
+                    }
+                } else {
+                    frames.pop();
+                    if (frames.isEmpty()) {
+                        break;
+                    }
+                    final int u = frames.peek().vertex;
+                    low[u] = Math.min(low[u], low[v]);
+                    if (low[v] >= discovery[u]) {
+                        // u separates the subtree of v from the rest.
+                        if (u != root) {
+                            articulationPoints.add(index.getVertex(u));
+                        }
+                        popBlock(edgeStack, frame.parentEdge, lastBlock);
+                    }
+                }
+            }
+            if (rootChildren > 1) {
+                articulationPoints.add(index.getVertex(root));
+            }
+        }
+    }
+
+    /**
+     * Pops the edges of a new block from the edge stack, down to the given
+     * tree edge.
+     *
+     * @param edgeStack Edge stack
+     * @param treeEdge  The tree edge entering the block
+     * @param lastBlock Last block to which each vertex was added
+     */
+    private void popBlock(Stack<E> edgeStack, E treeEdge, int[] lastBlock) {
+        final int block = blockEdges.size();
+        final List<E> edges = new ArrayList<E>();
+        final List<V> vertices = new ArrayList<V>();
+        E e;
+        do {
+            e = edgeStack.pop();
+            edges.add(e);
+            addVertex(graph.getEdgeSource(e), block, vertices, lastBlock);
+            addVertex(graph.getEdgeTarget(e), block, vertices, lastBlock);
+        } while (e != treeEdge);
+        if (edges.size() == 1) {
+            bridges.add(treeEdge);
+        }
+        blockEdges.add(edges);
+        blockVertices.add(vertices);
+    }
+
+    /**
+     * Adds the given vertex to the given block if it is not there yet.
+     *
+     * @param v         Vertex
+     * @param block     Block
+     * @param vertices  Vertices of the block
+     * @param lastBlock Last block to which each vertex was added
+     */
+    private void addVertex(V v, int block, List<V> vertices,
+                           int[] lastBlock) {
+        final int i = index.indexOf(v);
+        if (lastBlock[i] != block) {
+            lastBlock[i] = block;
+            vertices.add(v);
+        }
+    }
+
+    /**
+     * Returns the number of blocks.
+     *
+     * @return The number of blocks
+     */
+    public int getNumberOfBlocks() {
+        return blockEdges.size();
+    }
+
+    /**
+     * Returns the edges of the given block.
+     *
+     * @param block Block number, between 0 and the number of blocks
+     *
+     * @return The edges of the given block
+     */
+    public List<E> getBlockEdges(int block) {
+        return Collections.unmodifiableList(blockEdges.get(block));
+    }
+
+    /**
+     * Returns the vertices of the given block.
+     *
+     * @param block Block number, between 0 and the number of blocks
+     *
+     * @return The vertices of the given block
+     */
+    public List<V> getBlockVertices(int block) {
+        return Collections.unmodifiableList(blockVertices.get(block));
+    }
+
+    /**
+     * Returns the articulation points, i.e., the vertices whose removal
+     * disconnects their connected component.
+     *
+     * @return The articulation points
+     */
+    public Set<V> getArticulationPoints() {
+        return Collections.unmodifiableSet(articulationPoints);
+    }
+
+    /**
+     * Returns the bridges, i.e., the edges whose removal disconnects their
+     * connected component.
+     *
+     * @return The bridges
+     */
+    public Set<E> getBridges() {
+        return Collections.unmodifiableSet(bridges);
+    }
+}
@@ -0,0 +1,378 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import org.javanetworkanalyzer.model.Edge;
+import org.javanetworkanalyzer.model.WeightProfile;
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
+import org.jgrapht.graph.EdgeReversedGraph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Point-to-point shortest path search running a Dijkstra search forward from
+ * the source and another backward from the target (on the edge-reversed
+ * graph if the graph is directed), alternating between the two.
+ *
+ * Let mu be the length of the shortest path found so far through a vertex
+ * labeled by both searches. The search stops as soon as the sum of the
+ * smallest keys of the two queues is at least mu, at which point mu is the
+ * distance from the source to the target. Each search roughly explores a
+ * ball of half the radius explored by {@link Dijkstra#oneToOne}, which on
+ * road networks means about half as many settled vertices.
+ *
+ * Labels are kept in maps rather than in the vertices, so both searches can
+ * label the same vertex and each query only costs the size of the region it
+ * explores. The vertices are left untouched.
+ *
+ * @param <V> Vertex
+ * @param <E> Edge
+ *
+ * @author Adam Gouge
+ */
+public class BidirectionalDijkstra<V, E> {
+
+    /**
+     * The graph.
+     */
+    private final Graph<V, E> graph;
+    /**
+     * The graph with the direction of every edge reversed, or the graph
+     * itself if it is undirected.
+     */
+    private final Graph<V, E> reversedGraph;
+    /**
+     * Weight profile giving the edge weights, or null.
+     */
+    private WeightProfile profile;
+    /**
+     * Number of fixed-point units per unit of weight, or zero if distances
+     * are floating point.
+     */
+    private double fixedPointScale;
+    /**
+     * Forward labels.
+     */
+    private final Map<V, Label<E>> forward = new HashMap<V, Label<E>>();
+    /**
+     * Backward labels.
+     */
+    private final Map<V, Label<E>> backward = new HashMap<V, Label<E>>();
+    /**
+     * Vertex through which the shortest path found so far goes, or null.
+     */
+    private V meetingVertex;
+    /**
+     * Length of the shortest path found so far.
+     */
+    private double mu;
+    /**
+     * Number of vertices settled by the last search, in both directions.
+     */
+    private int settledCount;
+
+    /**
+     * Constructor.
+     *
+     * @param graph The graph
+     */
+    public BidirectionalDijkstra(Graph<V, E> graph) {
+        this.graph = graph;
+        if (graph instanceof DirectedGraph) {
+            this.reversedGraph =
+                    new EdgeReversedGraph<V, E>((DirectedGraph<V, E>) graph);
+        } else {
+            this.reversedGraph = graph;
+        }
+    }
+
+    /**
+     * Sets the weight profile giving the edge weights, or null to use the
+     * weights of the graph (the default).
+     *
+     * @param profile Weight profile, or null
+     */
+    public void setWeightProfile(WeightProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Sets the number of fixed-point units per unit of weight, or zero for
+     * floating point distances (the default), as in
+     * {@link Dijkstra#setFixedPointScale}. In fixed-point mode, each edge
+     * weight is rounded to a whole number of units, so the distance
+     * returned by {@link #calculate} is the one {@link Dijkstra} finds with
+     * the same scale. Weights must be nonnegative.
+     *
+     * @param scale Number of fixed-point units per unit of weight, or zero
+     */
+    public void setFixedPointScale(double scale) {
+        if (!(scale >= 0) || Double.isInfinite(scale)) {
+            throw new IllegalArgumentException(
+                    "The fixed-point scale must be nonnegative and finite.");
+        }
+        fixedPointScale = scale;
+    }
+
+    /**
+     * Returns the number of fixed-point units per unit of weight, or zero if
+     * distances are floating point.
+     *
+     * @return The fixed-point scale
+     */
+    public double getFixedPointScale() {
+        return fixedPointScale;
+    }
+
+    /**
+     * Returns the distance from the source to the target, and records a
+     * shortest path between them (see {@link #getPath()}).
+     *
+     * @param source Source
+     * @param target Target
+     *
+     * @return The distance from the source to the target, or infinity if the
+     *         target is not reachable
+     */
+    public double calculate(V source, V target) {
+        if (source == null || !graph.containsVertex(source)) {
+            throw new IllegalArgumentException(
+                    "Source vertex not found in graph.");
+        }
+        if (target == null || !graph.containsVertex(target)) {
+            throw new IllegalArgumentException(
+                    "Target vertex not found in graph.");
+        }
+        forward.clear();
+        backward.clear();
+        settledCount = 0;
+        mu = Double.POSITIVE_INFINITY;
+        meetingVertex = null;
+
+        final PriorityQueue<Entry<V>> forwardQueue =
+                new PriorityQueue<Entry<V>>();
+        final PriorityQueue<Entry<V>> backwardQueue =
+                new PriorityQueue<Entry<V>>();
+        label(source, 0.0, null, forward, backward, forwardQueue);
+        label(target, 0.0, null, backward, forward, backwardQueue);
+
+        boolean forwardTurn = true;
+        while (true) {
+            final Entry<V> f = peek(forwardQueue, forward);
+            final Entry<V> b = peek(backwardQueue, backward);
+            if (f == null || b == null || f.key + b.key >= mu) {
+                break;
+            }
+            if (forwardTurn) {
+                settle(forwardQueue.poll().vertex, graph,
+                       forward, backward, forwardQueue);
+            } else {
+                settle(backwardQueue.poll().vertex, reversedGraph,
+                       backward, forward, backwardQueue);
+            }
+            forwardTurn = !forwardTurn;
+        }
+        return (fixedPointScale > 0) ? mu / fixedPointScale : mu;
+    }
+
+    /**
+     * Returns the edges of the shortest path found by the last call to
+     * {@link #calculate}, from the source to the target; empty if the source
+     * is the target or if the target is not reachable.
+     *
+     * @return The edges of the shortest path
+     */
+    public List<E> getPath() {
+        final List<E> path = new ArrayList<E>();
+        if (meetingVertex == null) {
+            return path;
+        }
+        // From the meeting vertex back to the source.
+        V v = meetingVertex;
+        Label<E> label = forward.get(v);
+        while (label.edge != null) {
+            path.add(label.edge);
+            v = Graphs.getOppositeVertex(graph, label.edge, v);
+            label = forward.get(v);
+        }
+        Collections.reverse(path);
+        // From the meeting vertex on to the target.
+        v = meetingVertex;
+        label = backward.get(v);
+        while (label.edge != null) {
+            path.add(label.edge);
+            v = Graphs.getOppositeVertex(graph, label.edge, v);
+            label = backward.get(v);
+        }
+        return path;
+    }
+
+    /**
+     * Returns the number of vertices settled by the last call to
+     * {@link #calculate}, counting both directions.
+     *
+     * @return The number of settled vertices
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    /**
+     * Settles the given vertex and relaxes its outgoing edges in the given
+     * graph.
+     *
+     * @param u      Vertex
+     * @param g      Graph searched in this direction
+     * @param labels Labels of this direction
+     * @param other  Labels of the other direction
+     * @param queue  Queue of this direction
+     */
+    private void settle(V u, Graph<V, E> g,
+                        Map<V, Label<E>> labels, Map<V, Label<E>> other,
+                        PriorityQueue<Entry<V>> queue) {
+        final Label<E> uLabel = labels.get(u);
+        uLabel.settled = true;
+        settledCount++;
+        for (E e : (Iterable<E>) GraphSearchAlgorithm.outgoingEdgesOf(g, u)) {
+            final V v = Graphs.getOppositeVertex(g, e, u);
+            final double distance = uLabel.distance + edgeWeight(e);
+            final Label<E> vLabel = labels.get(v);
+            if (vLabel == null || distance < vLabel.distance) {
+                label(v, distance, e, labels, other, queue);
+            }
+        }
+    }
+
+    /**
+     * Sets the distance and predecessor edge of the given vertex in one
+     * direction, and updates mu if the other direction reached it too.
+     *
+     * @param v        Vertex
+     * @param distance Distance
+     * @param edge     Predecessor edge, or null
+     * @param labels   Labels of this direction
+     * @param other    Labels of the other direction
+     * @param queue    Queue of this direction
+     */
+    private void label(V v, double distance, E edge,
+                       Map<V, Label<E>> labels, Map<V, Label<E>> other,
+                       PriorityQueue<Entry<V>> queue) {
+        Label<E> label = labels.get(v);
+        if (label == null) {
+            label = new Label<E>();
+            labels.put(v, label);
+        }
+        label.distance = distance;
+        label.edge = edge;
+        queue.add(new Entry<V>(v, distance));
+        final Label<E> otherLabel = other.get(v);
+        if (otherLabel != null && distance + otherLabel.distance < mu) {
+            mu = distance + otherLabel.distance;
+            meetingVertex = v;
+        }
+    }
+
+    /**
+     * Returns the entry of smallest key which is not stale, or null if there
+     * is none.
+     *
+     * @param queue  Queue
+     * @param labels Labels of the direction of this queue
+     *
+     * @return The entry of smallest key, or null
+     */
+    private Entry<V> peek(PriorityQueue<Entry<V>> queue,
+                          Map<V, Label<E>> labels) {
+        while (!queue.isEmpty()) {
+            final Entry<V> entry = queue.peek();
+            final Label<E> label = labels.get(entry.vertex);
+            if (!label.settled && label.distance == entry.key) {
+                return entry;
+            }
+            queue.poll();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the weight of the given edge, in fixed-point units (a whole
+     * number, so sums of weights are exact) in fixed-point mode.
+     *
+     * @param e Edge
+     *
+     * @return The weight of e
+     */
+    private double edgeWeight(E e) {
+        final double weight = profile == null
+                ? graph.getEdgeWeight(e)
+                : profile.getWeight((Edge) e);
+        if (fixedPointScale > 0) {
+            final long fixedWeight = Math.round(weight * fixedPointScale);
+            if (fixedWeight < 0) {
+                throw new IllegalArgumentException(
+                        "Negative edge weight " + weight + ".");
+            }
+            return fixedWeight;
+        }
+        return weight;
+    }
+
+    /**
+     * Distance and predecessor edge of a vertex in one direction.
+     */
+    private static class Label<E> {
+
+        private double distance;
+        private E edge;
+        private boolean settled;
+    }
+
+    /**
+     * Queue entry; an entry whose key is not the distance of its vertex any
+     * more is stale and skipped.
+     */
+    private static class Entry<V> implements Comparable<Entry<V>> {
+
+        private final V vertex;
+        private final double key;
+
+        private Entry(V vertex, double key) {
+            this.vertex = vertex;
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(Entry<V> other) {
+            return Double.compare(key, other.key);
+        }
+    }
+}
@@ -0,0 +1,472 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import org.javanetworkanalyzer.data.VId;
+import org.javanetworkanalyzer.model.Edge;
+import org.jgrapht.Graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Contraction hierarchy of a weighted graph, built by a
+ * {@link ContractionHierarchyBuilder} and queried by a
+ * {@link ContractionHierarchyQuery}.
+ *
+ * Every vertex has a rank, its position in the contraction order, and the
+ * hierarchy holds the arcs of the graph (one per direction for undirected
+ * edges) plus the shortcuts added while contracting. A shortcut u-&gt;w
+ * replaces a path u-&gt;v-&gt;w through a vertex v of lower rank and stands
+ * for its two arcs, so paths are unpacked recursively into edges of the
+ * graph. Arcs are stored in primitive arrays; for queries, they are grouped
+ * by vertex into the arcs leading up from each vertex and the arcs coming
+ * down into each vertex.
+ *
+ * A hierarchy is immutable once built and can be shared by several queries.
+ * It can be saved to a file and loaded again for the same graph.
+ *
+ * @param <V> Vertex
+ * @param <E> Edge
+ *
+ * @author Adam Gouge
+ */
+public class ContractionHierarchy<V extends VId, E> {
+
+    /**
+     * Identifies contraction hierarchy files.
+     */
+    private static final int MAGIC = 0x4A4E4348;
+    /**
+     * Version of the file format.
+     */
+    private static final int VERSION = 1;
+    /**
+     * The graph.
+     */
+    private final Graph<V, E> graph;
+    /**
+     * Vertex ids, by position.
+     */
+    private final int[] vertexIds;
+    /**
+     * Vertex positions, by id, or -1.
+     */
+    private final int[] positions;
+    /**
+     * Rank of each vertex, by position.
+     */
+    private final int[] rank;
+    /**
+     * Tail of each arc.
+     */
+    private final int[] arcFrom;
+    /**
+     * Head of each arc.
+     */
+    private final int[] arcTo;
+    /**
+     * Weight of each arc.
+     */
+    private final double[] arcWeight;
+    /**
+     * First half of each shortcut, or -1 for arcs of the graph.
+     */
+    private final int[] arcFirst;
+    /**
+     * Second half of each shortcut, or -1 for arcs of the graph.
+     */
+    private final int[] arcSecond;
+    /**
+     * Edge of each arc of the graph, by index into {@link #edges}, or -1
+     * for shortcuts.
+     */
+    private final int[] arcEdge;
+    /**
+     * Edges of the graph referred to by the arcs.
+     */
+    private final List<E> edges;
+    /**
+     * Arcs u-&gt;w with rank(w) &gt; rank(u), grouped by u.
+     */
+    private final int[] upStart;
+    private final int[] upArcs;
+    /**
+     * Arcs w-&gt;u with rank(w) &gt; rank(u), grouped by u.
+     */
+    private final int[] downStart;
+    private final int[] downArcs;
+
+    /**
+     * Constructs a new {@link ContractionHierarchy}.
+     *
+     * @param graph     The graph
+     * @param vertexIds Vertex ids, by position
+     * @param rank      Rank of each vertex, by position
+     * @param arcFrom   Tail of each arc
+     * @param arcTo     Head of each arc
+     * @param arcWeight Weight of each arc
+     * @param arcFirst  First half of each shortcut, or -1
+     * @param arcSecond Second half of each shortcut, or -1
+     * @param arcEdge   Edge of each arc of the graph, or -1
+     * @param edges     Edges referred to by the arcs
+     */
+    ContractionHierarchy(Graph<V, E> graph, int[] vertexIds, int[] rank,
+                         int[] arcFrom, int[] arcTo, double[] arcWeight,
+                         int[] arcFirst, int[] arcSecond, int[] arcEdge,
+                         List<E> edges) {
+        this.graph = graph;
+        this.vertexIds = vertexIds;
+        this.rank = rank;
+        this.arcFrom = arcFrom;
+        this.arcTo = arcTo;
+        this.arcWeight = arcWeight;
+        this.arcFirst = arcFirst;
+        this.arcSecond = arcSecond;
+        this.arcEdge = arcEdge;
+        this.edges = edges;
+        int maxId = -1;
+        for (int id : vertexIds) {
+            maxId = Math.max(maxId, id);
+        }
+        this.positions = new int[maxId + 1];
+        Arrays.fill(positions, -1);
+        for (int p = 0; p < vertexIds.length; p++) {
+            positions[vertexIds[p]] = p;
+        }
+        // Group the arcs going up by tail and the arcs coming down by head.
+        final int n = vertexIds.length;
+        upStart = new int[n + 1];
+        downStart = new int[n + 1];
+        int upCount = 0;
+        for (int a = 0; a < arcFrom.length; a++) {
+            if (rank[arcTo[a]] > rank[arcFrom[a]]) {
+                upStart[arcFrom[a] + 1]++;
+                upCount++;
+            } else if (rank[arcFrom[a]] > rank[arcTo[a]]) {
+                downStart[arcTo[a] + 1]++;
+            }
+        }
+        for (int p = 0; p < n; p++) {
+            upStart[p + 1] += upStart[p];
+            downStart[p + 1] += downStart[p];
+        }
+        upArcs = new int[upCount];
+        downArcs = new int[downStart[n]];
+        final int[] upNext = Arrays.copyOf(upStart, n);
+        final int[] downNext = Arrays.copyOf(downStart, n);
+        for (int a = 0; a < arcFrom.length; a++) {
+            if (rank[arcTo[a]] > rank[arcFrom[a]]) {
+                upArcs[upNext[arcFrom[a]]++] = a;
+            } else if (rank[arcFrom[a]] > rank[arcTo[a]]) {
+                downArcs[downNext[arcTo[a]]++] = a;
+            }
+        }
+    }
+
+    /**
+     * Returns the graph.
+     *
+     * @return The graph
+     */
+    public Graph<V, E> getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return The number of vertices
+     */
+    public int getVertexCount() {
+        return vertexIds.length;
+    }
+
+    /**
+     * Returns the number of arcs, shortcuts included.
+     *
+     * @return The number of arcs
+     */
+    public int getArcCount() {
+        return arcFrom.length;
+    }
+
+    /**
+     * Returns the number of shortcuts.
+     *
+     * @return The number of shortcuts
+     */
+    public int getShortcutCount() {
+        int count = 0;
+        for (int a = 0; a < arcEdge.length; a++) {
+            if (arcEdge[a] < 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the rank of the given vertex in the contraction order.
+     *
+     * @param v Vertex
+     *
+     * @return The rank of v
+     */
+    public int getRank(V v) {
+        return rank[position(v)];
+    }
+
+    /**
+     * Returns the position of the given vertex.
+     *
+     * @param v Vertex
+     *
+     * @return The position of v
+     */
+    int position(V v) {
+        final int id = v.getID();
+        if (id < 0 || id >= positions.length || positions[id] < 0) {
+            throw new IllegalArgumentException(
+                    "Vertex " + id + " is not in the hierarchy.");
+        }
+        return positions[id];
+    }
+
+    int[] getUpStart() {
+        return upStart;
+    }
+
+    int[] getUpArcs() {
+        return upArcs;
+    }
+
+    int[] getDownStart() {
+        return downStart;
+    }
+
+    int[] getDownArcs() {
+        return downArcs;
+    }
+
+    int[] getArcFrom() {
+        return arcFrom;
+    }
+
+    int[] getArcTo() {
+        return arcTo;
+    }
+
+    double[] getArcWeight() {
+        return arcWeight;
+    }
+
+    /**
+     * Appends the edges of the graph the given arc stands for, in order, to
+     * the given path.
+     *
+     * @param arc  Arc
+     * @param path Path
+     */
+    void unpack(int arc, List<E> path) {
+        final int[] stack = new int[64];
+        int[] s = stack;
+        int top = 0;
+        s[top++] = arc;
+        while (top > 0) {
+            final int a = s[--top];
+            if (arcEdge[a] >= 0) {
+                path.add(edges.get(arcEdge[a]));
+            } else {
+                if (top + 2 > s.length) {
+                    s = Arrays.copyOf(s, 2 * s.length);
+                }
+                // Push the second half first so the first is unpacked first.
+                s[top++] = arcSecond[a];
+                s[top++] = arcFirst[a];
+            }
+        }
+    }
+
+    /**
+     * Saves the hierarchy to the given file. The edges of the graph are
+     * recorded by their endpoints, id (see {@link Edge#getID()}) and weight,
+     * to be found again by {@link #load(File, Graph)}.
+     *
+     * @param file File
+     *
+     * @throws IOException If the file cannot be written
+     */
+    public void save(File file) throws IOException {
+        final DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(vertexIds.length);
+            for (int p = 0; p < vertexIds.length; p++) {
+                out.writeInt(vertexIds[p]);
+                out.writeInt(rank[p]);
+            }
+            out.writeInt(edges.size());
+            for (E e : edges) {
+                out.writeInt(graph.getEdgeSource(e).getID());
+                out.writeInt(graph.getEdgeTarget(e).getID());
+                out.writeInt(e instanceof Edge ? ((Edge) e).getID() : -1);
+                out.writeDouble(graph.getEdgeWeight(e));
+            }
+            out.writeInt(arcFrom.length);
+            for (int a = 0; a < arcFrom.length; a++) {
+                out.writeInt(arcFrom[a]);
+                out.writeInt(arcTo[a]);
+                out.writeDouble(arcWeight[a]);
+                out.writeInt(arcFirst[a]);
+                out.writeInt(arcSecond[a]);
+                out.writeInt(arcEdge[a]);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Loads a hierarchy saved by {@link #save(File)} for the given graph,
+     * which must have the same vertices and edges as the graph it was built
+     * on. Each edge is found by its endpoints and, if it has one, its id;
+     * otherwise by its weight.
+     *
+     * @param file  File
+     * @param graph The graph
+     * @param <V>   Vertex
+     * @param <E>   Edge
+     *
+     * @return The hierarchy
+     *
+     * @throws IOException If the file cannot be read, is not a contraction
+     *                     hierarchy file or does not match the graph
+     */
+    public static <V extends VId, E> ContractionHierarchy<V, E> load(
+            File file, Graph<V, E> graph) throws IOException {
+        final DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(
+                        file + " is not a contraction hierarchy file.");
+            }
+            final int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported contraction hierarchy "
+                                      + "file version " + version + ".");
+            }
+            final int n = in.readInt();
+            final int[] vertexIds = new int[n];
+            final int[] rank = new int[n];
+            for (int p = 0; p < n; p++) {
+                vertexIds[p] = in.readInt();
+                rank[p] = in.readInt();
+            }
+            final Map<Integer, V> vertices = new HashMap<Integer, V>();
+            for (V v : graph.vertexSet()) {
+                vertices.put(v.getID(), v);
+            }
+            final int edgeCount = in.readInt();
+            final List<E> edges = new ArrayList<E>(edgeCount);
+            for (int i = 0; i < edgeCount; i++) {
+                edges.add(findEdge(graph, vertices, in.readInt(), in.readInt(),
+                                   in.readInt(), in.readDouble()));
+            }
+            final int arcCount = in.readInt();
+            final int[] arcFrom = new int[arcCount];
+            final int[] arcTo = new int[arcCount];
+            final double[] arcWeight = new double[arcCount];
+            final int[] arcFirst = new int[arcCount];
+            final int[] arcSecond = new int[arcCount];
+            final int[] arcEdge = new int[arcCount];
+            for (int a = 0; a < arcCount; a++) {
+                arcFrom[a] = in.readInt();
+                arcTo[a] = in.readInt();
+                arcWeight[a] = in.readDouble();
+                arcFirst[a] = in.readInt();
+                arcSecond[a] = in.readInt();
+                arcEdge[a] = in.readInt();
+            }
+            return new ContractionHierarchy<V, E>(
+                    graph, vertexIds, rank, arcFrom, arcTo, arcWeight,
+                    arcFirst, arcSecond, arcEdge, edges);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Returns the edge of the graph with the given endpoints and id, or
+     * weight if the id is -1.
+     */
+    private static <V extends VId, E> E findEdge(Graph<V, E> graph,
+                                                 Map<Integer, V> vertices,
+                                                 int sourceId, int targetId,
+                                                 int edgeId, double weight)
+            throws IOException {
+        final V source = findVertex(vertices, sourceId);
+        final V target = findVertex(vertices, targetId);
+        final Set<E> candidates = graph.getAllEdges(source, target);
+        if (candidates != null) {
+            for (E e : candidates) {
+                if (edgeId >= 0
+                    ? e instanceof Edge && ((Edge) e).getID() == edgeId
+                    : graph.getEdgeWeight(e) == weight) {
+                    return e;
+                }
+            }
+        }
+        throw new IOException("No edge " + sourceId + "->" + targetId
+                              + " matches the contraction hierarchy.");
+    }
+
+    /**
+     * Returns the vertex with the given id.
+     */
+    private static <V> V findVertex(Map<Integer, V> vertices, int id)
+            throws IOException {
+        final V v = vertices.get(id);
+        if (v == null) {
+            throw new IOException("No vertex " + id + " in the graph.");
+        }
+        return v;
+    }
+}
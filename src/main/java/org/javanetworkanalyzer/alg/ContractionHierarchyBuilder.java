@@ -0,0 +1,430 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import org.javanetworkanalyzer.data.VId;
+import org.javanetworkanalyzer.model.Edge;
+import org.javanetworkanalyzer.model.WeightProfile;
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.Graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the {@link ContractionHierarchy} of a graph, directed or not.
+ *
+ * Vertices are contracted one at a time in order of priority, the priority
+ * of a vertex v being its edge difference (the number of shortcuts
+ * contracting v would add, minus the number of arcs it would remove) plus
+ * the number of its neighbors already contracted, which spreads the
+ * contraction evenly over the graph. Priorities are updated lazily: the
+ * vertex of smallest priority is re-evaluated before being contracted and
+ * put back if it is no longer the smallest.
+ *
+ * Contracting v adds a shortcut u-&gt;w for each pair of arcs u-&gt;v and
+ * v-&gt;w unless a witness search, a Dijkstra search from u avoiding v,
+ * finds a path from u to w no longer than u-&gt;v-&gt;w. Witness searches
+ * stop after settling a bounded number of vertices ({@link
+ * #setWitnessSettleLimit(int)}); a search stopped early may add a
+ * superfluous shortcut, which does not affect the results of the queries.
+ *
+ * Parallel edges are reduced to the lightest one and self-loops are
+ * ignored. Weights must be nonnegative.
+ *
+ * @param <V> Vertex
+ * @param <E> Edge
+ *
+ * @author Adam Gouge
+ */
+public class ContractionHierarchyBuilder<V extends VId, E> {
+
+    /**
+     * Default number of vertices a witness search settles at most.
+     */
+    public static final int DEFAULT_WITNESS_SETTLE_LIMIT = 500;
+    /**
+     * The graph.
+     */
+    private final Graph<V, E> graph;
+    /**
+     * Weight profile giving the edge weights, or null.
+     */
+    private WeightProfile profile;
+    /**
+     * Number of vertices a witness search settles at most.
+     */
+    private int witnessSettleLimit = DEFAULT_WITNESS_SETTLE_LIMIT;
+
+    // Arcs, shortcuts included.
+    private int arcCount;
+    private int[] arcFrom;
+    private int[] arcTo;
+    private double[] arcWeight;
+    private int[] arcFirst;
+    private int[] arcSecond;
+    private int[] arcEdge;
+    // Arcs leaving and entering each vertex, by position.
+    private int[][] outArcs;
+    private int[] outSize;
+    private int[][] inArcs;
+    private int[] inSize;
+    private boolean[] contracted;
+    // Witness search buffers.
+    private double[] witnessDist;
+    private int[] touched;
+    private IntDoubleHeap witnessQueue;
+
+    /**
+     * Constructs a new {@link ContractionHierarchyBuilder}.
+     *
+     * @param graph The graph
+     */
+    public ContractionHierarchyBuilder(Graph<V, E> graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Sets the weight profile giving the edge weights, or null to use the
+     * weights of the graph (the default).
+     *
+     * @param profile Weight profile, or null
+     */
+    public void setWeightProfile(WeightProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Sets the number of vertices a witness search settles at most.
+     *
+     * @param witnessSettleLimit Number of vertices
+     */
+    public void setWitnessSettleLimit(int witnessSettleLimit) {
+        if (witnessSettleLimit < 1) {
+            throw new IllegalArgumentException(
+                    "A witness search must settle at least one vertex.");
+        }
+        this.witnessSettleLimit = witnessSettleLimit;
+    }
+
+    /**
+     * Builds the hierarchy.
+     *
+     * @return The hierarchy
+     */
+    public ContractionHierarchy<V, E> build() {
+        final int n = graph.vertexSet().size();
+        final int[] vertexIds = new int[n];
+        final Map<V, Integer> positions = new HashMap<V, Integer>();
+        int p = 0;
+        for (V v : graph.vertexSet()) {
+            vertexIds[p] = v.getID();
+            positions.put(v, p++);
+        }
+        outArcs = new int[n][];
+        inArcs = new int[n][];
+        outSize = new int[n];
+        inSize = new int[n];
+        for (int i = 0; i < n; i++) {
+            outArcs[i] = new int[4];
+            inArcs[i] = new int[4];
+        }
+        contracted = new boolean[n];
+        witnessDist = new double[n];
+        Arrays.fill(witnessDist, Double.POSITIVE_INFINITY);
+        touched = new int[n];
+        witnessQueue = new IntDoubleHeap(16);
+        arcCount = 0;
+        final int capacity = 2 * graph.edgeSet().size() + 16;
+        arcFrom = new int[capacity];
+        arcTo = new int[capacity];
+        arcWeight = new double[capacity];
+        arcFirst = new int[capacity];
+        arcSecond = new int[capacity];
+        arcEdge = new int[capacity];
+
+        final List<E> edges = new ArrayList<E>();
+        addArcs(positions, edges);
+
+        // Order and contract the vertices.
+        final int[] deleted = new int[n];
+        final int[] rank = new int[n];
+        final IntDoubleHeap queue = new IntDoubleHeap(n);
+        for (int v = 0; v < n; v++) {
+            queue.add(v, priority(v, deleted));
+        }
+        int nextRank = 0;
+        while (!queue.isEmpty()) {
+            final int v = queue.poll();
+            final double priority = priority(v, deleted);
+            if (!queue.isEmpty() && priority > queue.peekKey()) {
+                queue.add(v, priority);
+                continue;
+            }
+            contract(v, false);
+            contracted[v] = true;
+            rank[v] = nextRank++;
+            for (int i = 0; i < outSize[v]; i++) {
+                final int w = arcTo[outArcs[v][i]];
+                if (!contracted[w]) {
+                    deleted[w]++;
+                }
+            }
+            for (int i = 0; i < inSize[v]; i++) {
+                final int u = arcFrom[inArcs[v][i]];
+                if (!contracted[u]) {
+                    deleted[u]++;
+                }
+            }
+        }
+
+        final ContractionHierarchy<V, E> hierarchy =
+                new ContractionHierarchy<V, E>(
+                        graph, vertexIds, rank,
+                        Arrays.copyOf(arcFrom, arcCount),
+                        Arrays.copyOf(arcTo, arcCount),
+                        Arrays.copyOf(arcWeight, arcCount),
+                        Arrays.copyOf(arcFirst, arcCount),
+                        Arrays.copyOf(arcSecond, arcCount),
+                        Arrays.copyOf(arcEdge, arcCount),
+                        edges);
+        outArcs = null;
+        inArcs = null;
+        witnessDist = null;
+        touched = null;
+        witnessQueue = null;
+        return hierarchy;
+    }
+
+    /**
+     * Adds an arc for each edge of the graph, or two for undirected edges,
+     * keeping the lightest arc between each ordered pair of vertices.
+     */
+    private void addArcs(Map<V, Integer> positions, List<E> edges) {
+        final boolean directed = graph instanceof DirectedGraph;
+        final Map<Long, Integer> arcs = new HashMap<Long, Integer>();
+        final long n = positions.size();
+        for (E e : graph.edgeSet()) {
+            final int s = positions.get(graph.getEdgeSource(e));
+            final int t = positions.get(graph.getEdgeTarget(e));
+            if (s == t) {
+                continue;
+            }
+            final double weight = edgeWeight(e);
+            if (weight < 0) {
+                throw new IllegalArgumentException(
+                        "Contraction hierarchies do not support negative "
+                        + "weights.");
+            }
+            final int edge = edges.size();
+            edges.add(e);
+            addArc(arcs, n, s, t, weight, edge);
+            if (!directed) {
+                addArc(arcs, n, t, s, weight, edge);
+            }
+        }
+    }
+
+    private void addArc(Map<Long, Integer> arcs, long n, int s, int t,
+                        double weight, int edge) {
+        final Long key = s * n + t;
+        final Integer arc = arcs.get(key);
+        if (arc == null) {
+            arcs.put(key, newArc(s, t, weight, -1, -1, edge));
+        } else if (weight < arcWeight[arc]) {
+            arcWeight[arc] = weight;
+            arcEdge[arc] = edge;
+        }
+    }
+
+    /**
+     * Returns the priority of the given vertex.
+     */
+    private double priority(int v, int[] deleted) {
+        int removed = 0;
+        for (int i = 0; i < outSize[v]; i++) {
+            if (!contracted[arcTo[outArcs[v][i]]]) {
+                removed++;
+            }
+        }
+        for (int i = 0; i < inSize[v]; i++) {
+            if (!contracted[arcFrom[inArcs[v][i]]]) {
+                removed++;
+            }
+        }
+        return contract(v, true) - removed + deleted[v];
+    }
+
+    /**
+     * Adds the shortcuts needed to contract the given vertex, or only
+     * counts them when simulating.
+     *
+     * @return The number of shortcuts
+     */
+    private int contract(int v, boolean simulate) {
+        int shortcuts = 0;
+        double maxOut = 0;
+        for (int j = 0; j < outSize[v]; j++) {
+            final int a = outArcs[v][j];
+            if (!contracted[arcTo[a]]) {
+                maxOut = Math.max(maxOut, arcWeight[a]);
+            }
+        }
+        for (int i = 0; i < inSize[v]; i++) {
+            final int in = inArcs[v][i];
+            final int u = arcFrom[in];
+            if (contracted[u]) {
+                continue;
+            }
+            final int settled = witnessSearch(
+                    u, v, arcWeight[in] + maxOut);
+            for (int j = 0; j < outSize[v]; j++) {
+                final int out = outArcs[v][j];
+                final int w = arcTo[out];
+                if (contracted[w] || w == u) {
+                    continue;
+                }
+                final double via = arcWeight[in] + arcWeight[out];
+                if (witnessDist[w] <= via) {
+                    continue;
+                }
+                shortcuts++;
+                if (!simulate) {
+                    addShortcut(u, w, via, in, out);
+                }
+            }
+            resetWitnessSearch(settled);
+        }
+        return shortcuts;
+    }
+
+    /**
+     * Adds the shortcut u-&gt;w, or makes the existing arc u-&gt;w the
+     * shortcut if it is heavier. Arcs between uncontracted vertices are
+     * not part of any shortcut yet, so they can be changed in place.
+     */
+    private void addShortcut(int u, int w, double weight, int first,
+                             int second) {
+        for (int i = 0; i < outSize[u]; i++) {
+            final int a = outArcs[u][i];
+            if (arcTo[a] == w) {
+                if (weight < arcWeight[a]) {
+                    arcWeight[a] = weight;
+                    arcFirst[a] = first;
+                    arcSecond[a] = second;
+                    arcEdge[a] = -1;
+                }
+                return;
+            }
+        }
+        newArc(u, w, weight, first, second, -1);
+    }
+
+    /**
+     * Runs a Dijkstra search from u avoiding v, up to the given distance,
+     * and returns the number of vertices whose distance was set.
+     */
+    private int witnessSearch(int u, int v, double maxDistance) {
+        int touchedCount = 0;
+        int settled = 0;
+        witnessDist[u] = 0;
+        touched[touchedCount++] = u;
+        witnessQueue.add(u, 0);
+        while (!witnessQueue.isEmpty()) {
+            final double d = witnessQueue.peekKey();
+            final int x = witnessQueue.poll();
+            if (d > witnessDist[x]) {
+                continue;
+            }
+            if (d > maxDistance || ++settled > witnessSettleLimit) {
+                break;
+            }
+            for (int i = 0; i < outSize[x]; i++) {
+                final int a = outArcs[x][i];
+                final int y = arcTo[a];
+                if (y == v || contracted[y]) {
+                    continue;
+                }
+                final double distance = d + arcWeight[a];
+                if (distance < witnessDist[y]) {
+                    if (witnessDist[y] == Double.POSITIVE_INFINITY) {
+                        touched[touchedCount++] = y;
+                    }
+                    witnessDist[y] = distance;
+                    witnessQueue.add(y, distance);
+                }
+            }
+        }
+        witnessQueue.clear();
+        return touchedCount;
+    }
+
+    private void resetWitnessSearch(int touchedCount) {
+        for (int i = 0; i < touchedCount; i++) {
+            witnessDist[touched[i]] = Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Adds an arc and returns its index.
+     */
+    private int newArc(int s, int t, double weight, int first, int second,
+                       int edge) {
+        if (arcCount == arcFrom.length) {
+            final int capacity = 2 * arcCount;
+            arcFrom = Arrays.copyOf(arcFrom, capacity);
+            arcTo = Arrays.copyOf(arcTo, capacity);
+            arcWeight = Arrays.copyOf(arcWeight, capacity);
+            arcFirst = Arrays.copyOf(arcFirst, capacity);
+            arcSecond = Arrays.copyOf(arcSecond, capacity);
+            arcEdge = Arrays.copyOf(arcEdge, capacity);
+        }
+        final int a = arcCount++;
+        arcFrom[a] = s;
+        arcTo[a] = t;
+        arcWeight[a] = weight;
+        arcFirst[a] = first;
+        arcSecond[a] = second;
+        arcEdge[a] = edge;
+        if (outSize[s] == outArcs[s].length) {
+            outArcs[s] = Arrays.copyOf(outArcs[s], 2 * outSize[s]);
+        }
+        outArcs[s][outSize[s]++] = a;
+        if (inSize[t] == inArcs[t].length) {
+            inArcs[t] = Arrays.copyOf(inArcs[t], 2 * inSize[t]);
+        }
+        inArcs[t][inSize[t]++] = a;
+        return a;
+    }
+
+    private double edgeWeight(E e) {
+        return profile == null
+                ? graph.getEdgeWeight(e)
+                : profile.getWeight((Edge) e);
+    }
+}
@@ -0,0 +1,265 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import org.javanetworkanalyzer.data.VId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Many-to-many distance tables on a {@link ContractionHierarchy}, by the
+ * bucket algorithm (Knopp et al., <i>Computing many-to-many shortest paths
+ * using highway hierarchies</i>, 2007).
+ *
+ * A backward search up the hierarchy from each target t leaves an entry
+ * (t, d(v, t)) in the bucket of every vertex v it settles. A forward search
+ * up the hierarchy from each source s then scans the buckets of the
+ * vertices it settles: the shortest path from s to t has a highest vertex,
+ * settled by both searches, so the smallest d(s, v) + d(v, t) over the
+ * scanned entries is the shortest distance. Each search is a plain upward
+ * search, which only settles a small part of the graph, so computing an
+ * |S| x |T| table costs |S| + |T| such searches plus the bucket scans,
+ * rather than |S| full Dijkstra searches.
+ *
+ * Both phases run in parallel, each thread with its own
+ * {@link ContractionHierarchyQuery}; the sources are shared out between
+ * threads and each source fills its own row of the table.
+ *
+ * @param <V> Vertex
+ * @param <E> Edge
+ *
+ * @author Adam Gouge
+ */
+public class ContractionHierarchyManyToMany<V extends VId, E> {
+
+    /**
+     * The hierarchy.
+     */
+    private final ContractionHierarchy<V, E> hierarchy;
+    /**
+     * Number of threads.
+     */
+    private int numberOfThreads = 1;
+
+    /**
+     * Constructs a new {@link ContractionHierarchyManyToMany}.
+     *
+     * @param hierarchy The hierarchy
+     */
+    public ContractionHierarchyManyToMany(
+            ContractionHierarchy<V, E> hierarchy) {
+        this.hierarchy = hierarchy;
+    }
+
+    /**
+     * Sets the number of threads (one by default).
+     *
+     * @param numberOfThreads Number of threads
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException(
+                    "The number of threads must be positive.");
+        }
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * Computes the shortest distance from each source to each target.
+     *
+     * @param sources Sources
+     * @param targets Targets
+     *
+     * @return The distances, the distance from sources.get(i) to
+     *         targets.get(j) being at index i * targets.size() + j
+     *         (infinity if the target is unreachable)
+     */
+    public double[] calculate(List<V> sources, final List<V> targets) {
+        final int[] sourcePositions = positions(sources);
+        final int[] targetPositions = positions(targets);
+        final int columns = targets.size();
+        final double[] table = new double[sources.size() * columns];
+        Arrays.fill(table, Double.POSITIVE_INFINITY);
+        if (table.length == 0) {
+            return table;
+        }
+
+        // Backward searches from the targets.
+        final int n = hierarchy.getVertexCount();
+        final int[][] settledVertices = new int[columns][];
+        final double[][] settledDistances = new double[columns][];
+        runSearches(columns, new Search<V, E>() {
+            @Override
+            public void run(ContractionHierarchyQuery<V, E> query, int i,
+                            int[] vertices, double[] distances) {
+                final int count = query.upwardSearch(
+                        targetPositions[i], false, vertices, distances);
+                settledVertices[i] = Arrays.copyOf(vertices, count);
+                settledDistances[i] = Arrays.copyOf(distances, count);
+            }
+        });
+
+        // Group the entries into buckets, by vertex.
+        final int[] bucketStart = new int[n + 1];
+        for (int[] vertices : settledVertices) {
+            for (int v : vertices) {
+                bucketStart[v + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            bucketStart[v + 1] += bucketStart[v];
+        }
+        final int[] bucketTarget = new int[bucketStart[n]];
+        final double[] bucketDistance = new double[bucketStart[n]];
+        final int[] next = Arrays.copyOf(bucketStart, n);
+        for (int j = 0; j < columns; j++) {
+            for (int k = 0; k < settledVertices[j].length; k++) {
+                final int entry = next[settledVertices[j][k]]++;
+                bucketTarget[entry] = j;
+                bucketDistance[entry] = settledDistances[j][k];
+            }
+            settledVertices[j] = null;
+            settledDistances[j] = null;
+        }
+
+        // Forward searches from the sources, scanning the buckets.
+        runSearches(sources.size(), new Search<V, E>() {
+            @Override
+            public void run(ContractionHierarchyQuery<V, E> query, int i,
+                            int[] vertices, double[] distances) {
+                final int count = query.upwardSearch(
+                        sourcePositions[i], true, vertices, distances);
+                final int row = i * columns;
+                for (int k = 0; k < count; k++) {
+                    final int v = vertices[k];
+                    final double d = distances[k];
+                    for (int e = bucketStart[v]; e < bucketStart[v + 1];
+                         e++) {
+                        final double distance = d + bucketDistance[e];
+                        if (distance < table[row + bucketTarget[e]]) {
+                            table[row + bucketTarget[e]] = distance;
+                        }
+                    }
+                }
+            }
+        });
+        return table;
+    }
+
+    /**
+     * One search of a phase.
+     */
+    private interface Search<V extends VId, E> {
+
+        /**
+         * Runs the i-th search of the phase.
+         *
+         * @param query     Query of the current thread
+         * @param i         Index of the search
+         * @param vertices  Buffer for the settled vertices
+         * @param distances Buffer for their distances
+         */
+        void run(ContractionHierarchyQuery<V, E> query, int i,
+                 int[] vertices, double[] distances);
+    }
+
+    /**
+     * Runs the given number of searches on {@link #numberOfThreads}
+     * threads, each thread taking the next search until none are left.
+     */
+    private void runSearches(final int searches, final Search<V, E> search) {
+        final AtomicInteger next = new AtomicInteger();
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int t = 0; t < Math.min(numberOfThreads, searches); t++) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    final ContractionHierarchyQuery<V, E> query =
+                            new ContractionHierarchyQuery<V, E>(hierarchy);
+                    final int[] vertices =
+                            new int[hierarchy.getVertexCount()];
+                    final double[] distances =
+                            new double[hierarchy.getVertexCount()];
+                    int i;
+                    while ((i = next.getAndIncrement()) < searches) {
+                        search.run(query, i, vertices, distances);
+                    }
+                    return null;
+                }
+            });
+        }
+        runTasks(tasks);
+    }
+
+    /**
+     * Runs the given tasks on {@link #numberOfThreads} threads and waits for
+     * all of them to finish, rethrowing the first exception encountered.
+     *
+     * @param tasks Tasks
+     */
+    private void runTasks(List<Callable<Void>> tasks) {
+        final ExecutorService executor =
+                Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing "
+                                            + "the distance table.", ex);
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int[] positions(List<V> vertices) {
+        final int[] positions = new int[vertices.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = hierarchy.position(vertices.get(i));
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,329 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import org.javanetworkanalyzer.data.VId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Point-to-point shortest path queries on a {@link ContractionHierarchy}.
+ *
+ * A query runs two Dijkstra searches that only go up the hierarchy: a
+ * forward search from the source along arcs to vertices of higher rank, and
+ * a backward search from the target along arcs from vertices of higher
+ * rank. Every shortest path has a highest vertex, which both searches
+ * reach, so the shortest distance is the smallest sum of the two distances
+ * over the vertices they both settle. The searches alternate by smallest
+ * key and stop once neither can improve on the best sum found.
+ *
+ * With stall-on-demand, a vertex u settled by the forward search is not
+ * expanded if some vertex of higher rank reaches it by a shorter path going
+ * down an arc, since the distance of u is then not a shortest distance
+ * (the backward search is symmetric). The path found is unpacked into
+ * edges of the graph.
+ *
+ * A query holds its own search buffers: several queries on the same
+ * hierarchy can run in parallel, one per thread.
+ *
+ * @param <V> Vertex
+ * @param <E> Edge
+ *
+ * @author Adam Gouge
+ */
+public class ContractionHierarchyQuery<V extends VId, E> {
+
+    private final ContractionHierarchy<V, E> hierarchy;
+    private final int[] arcFrom;
+    private final int[] arcTo;
+    private final double[] arcWeight;
+    private final int[] upStart;
+    private final int[] upArcs;
+    private final int[] downStart;
+    private final int[] downArcs;
+    /**
+     * Forward and backward distances, by position.
+     */
+    private final double[] forwardDist;
+    private final double[] backwardDist;
+    /**
+     * Arcs by which the forward and backward searches reached each vertex,
+     * or -1.
+     */
+    private final int[] forwardArc;
+    private final int[] backwardArc;
+    /**
+     * Vertices whose distances were set by the last query.
+     */
+    private final int[] touched;
+    private int touchedCount;
+    private final IntDoubleHeap forwardQueue;
+    private final IntDoubleHeap backwardQueue;
+    /**
+     * Vertex where the searches met on a shortest path, or -1.
+     */
+    private int meeting = -1;
+    /**
+     * Number of vertices settled by the last query.
+     */
+    private int settledCount;
+
+    /**
+     * Constructs a new {@link ContractionHierarchyQuery}.
+     *
+     * @param hierarchy The hierarchy
+     */
+    public ContractionHierarchyQuery(ContractionHierarchy<V, E> hierarchy) {
+        this.hierarchy = hierarchy;
+        this.arcFrom = hierarchy.getArcFrom();
+        this.arcTo = hierarchy.getArcTo();
+        this.arcWeight = hierarchy.getArcWeight();
+        this.upStart = hierarchy.getUpStart();
+        this.upArcs = hierarchy.getUpArcs();
+        this.downStart = hierarchy.getDownStart();
+        this.downArcs = hierarchy.getDownArcs();
+        final int n = hierarchy.getVertexCount();
+        forwardDist = new double[n];
+        backwardDist = new double[n];
+        Arrays.fill(forwardDist, Double.POSITIVE_INFINITY);
+        Arrays.fill(backwardDist, Double.POSITIVE_INFINITY);
+        forwardArc = new int[n];
+        backwardArc = new int[n];
+        touched = new int[n];
+        forwardQueue = new IntDoubleHeap(16);
+        backwardQueue = new IntDoubleHeap(16);
+    }
+
+    /**
+     * Computes the shortest distance from the source to the target.
+     *
+     * @param source Source
+     * @param target Target
+     *
+     * @return The shortest distance, or infinity if the target is
+     *         unreachable
+     */
+    public double oneToOne(V source, V target) {
+        final int s = hierarchy.position(source);
+        final int t = hierarchy.position(target);
+        reset();
+        reach(forwardDist, forwardArc, backwardDist, s, 0, -1);
+        forwardQueue.add(s, 0);
+        reach(backwardDist, backwardArc, forwardDist, t, 0, -1);
+        backwardQueue.add(t, 0);
+
+        double best = Double.POSITIVE_INFINITY;
+        while (true) {
+            final double forwardKey = forwardQueue.isEmpty()
+                    ? Double.POSITIVE_INFINITY : forwardQueue.peekKey();
+            final double backwardKey = backwardQueue.isEmpty()
+                    ? Double.POSITIVE_INFINITY : backwardQueue.peekKey();
+            if (Math.min(forwardKey, backwardKey) >= best) {
+                break;
+            }
+            final boolean forward = forwardKey <= backwardKey;
+            final double[] dist = forward ? forwardDist : backwardDist;
+            final double[] otherDist = forward ? backwardDist : forwardDist;
+            final int u = forward ? forwardQueue.poll() : backwardQueue.poll();
+            final double d = forward ? forwardKey : backwardKey;
+            if (d > dist[u]) {
+                continue;
+            }
+            settledCount++;
+            if (d + otherDist[u] < best) {
+                best = d + otherDist[u];
+                meeting = u;
+            }
+            if (!(forward ? stalledForward(u, d) : stalledBackward(u, d))) {
+                relax(u, d, forward);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Runs a search up the hierarchy from the given vertex, forward or
+     * backward, until its queue is empty, and records the vertices settled
+     * and not stalled with their distances.
+     *
+     * @param origin    Position of the origin
+     * @param forward   True for a forward search
+     * @param vertices  Receives the positions of the vertices
+     * @param distances Receives the distances of the vertices
+     *
+     * @return The number of vertices recorded
+     */
+    int upwardSearch(int origin, boolean forward, int[] vertices,
+                     double[] distances) {
+        reset();
+        final double[] dist = forward ? forwardDist : backwardDist;
+        final IntDoubleHeap queue = forward ? forwardQueue : backwardQueue;
+        reach(dist, forward ? forwardArc : backwardArc,
+              forward ? backwardDist : forwardDist, origin, 0, -1);
+        queue.add(origin, 0);
+        int count = 0;
+        while (!queue.isEmpty()) {
+            final double d = queue.peekKey();
+            final int u = queue.poll();
+            if (d > dist[u]) {
+                continue;
+            }
+            settledCount++;
+            if (forward ? stalledForward(u, d) : stalledBackward(u, d)) {
+                continue;
+            }
+            vertices[count] = u;
+            distances[count++] = d;
+            relax(u, d, forward);
+        }
+        return count;
+    }
+
+    /**
+     * Relaxes the arcs going up from u in the forward search, or the arcs
+     * coming down into u in the backward search.
+     */
+    private void relax(int u, double d, boolean forward) {
+        if (forward) {
+            for (int i = upStart[u]; i < upStart[u + 1]; i++) {
+                final int a = upArcs[i];
+                final int w = arcTo[a];
+                final double distance = d + arcWeight[a];
+                if (distance < forwardDist[w]) {
+                    reach(forwardDist, forwardArc, backwardDist,
+                          w, distance, a);
+                    forwardQueue.add(w, distance);
+                }
+            }
+        } else {
+            for (int i = downStart[u]; i < downStart[u + 1]; i++) {
+                final int a = downArcs[i];
+                final int w = arcFrom[a];
+                final double distance = d + arcWeight[a];
+                if (distance < backwardDist[w]) {
+                    reach(backwardDist, backwardArc, forwardDist,
+                          w, distance, a);
+                    backwardQueue.add(w, distance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if a vertex of higher rank reaches u by a shorter path
+     * than the forward search.
+     */
+    private boolean stalledForward(int u, double d) {
+        for (int i = downStart[u]; i < downStart[u + 1]; i++) {
+            final int a = downArcs[i];
+            if (forwardDist[arcFrom[a]] + arcWeight[a] < d) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if u reaches the target through a vertex of higher rank
+     * by a shorter path than the backward search.
+     */
+    private boolean stalledBackward(int u, double d) {
+        for (int i = upStart[u]; i < upStart[u + 1]; i++) {
+            final int a = upArcs[i];
+            if (backwardDist[arcTo[a]] + arcWeight[a] < d) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the distance of a vertex in one direction.
+     */
+    private void reach(double[] dist, int[] arcs, double[] otherDist,
+                       int v, double distance, int arc) {
+        if (dist[v] == Double.POSITIVE_INFINITY
+            && otherDist[v] == Double.POSITIVE_INFINITY) {
+            touched[touchedCount++] = v;
+        }
+        dist[v] = distance;
+        arcs[v] = arc;
+    }
+
+    /**
+     * Clears the labels of the last query.
+     */
+    private void reset() {
+        for (int i = 0; i < touchedCount; i++) {
+            forwardDist[touched[i]] = Double.POSITIVE_INFINITY;
+            backwardDist[touched[i]] = Double.POSITIVE_INFINITY;
+        }
+        touchedCount = 0;
+        forwardQueue.clear();
+        backwardQueue.clear();
+        meeting = -1;
+        settledCount = 0;
+    }
+
+    /**
+     * Returns the edges of the shortest path found by the last query, from
+     * the source to the target; empty if the source is the target or if the
+     * target is not reachable, as for {@link BidirectionalDijkstra#getPath()}
+     * and {@link AStar#getPath()}.
+     *
+     * @return The edges of the shortest path
+     */
+    public List<E> getPath() {
+        final List<E> path = new ArrayList<E>();
+        if (meeting < 0) {
+            return path;
+        }
+        final List<Integer> up = new ArrayList<Integer>();
+        for (int v = meeting; forwardArc[v] >= 0; v = arcFrom[forwardArc[v]]) {
+            up.add(forwardArc[v]);
+        }
+        Collections.reverse(up);
+        for (int a : up) {
+            hierarchy.unpack(a, path);
+        }
+        for (int v = meeting; backwardArc[v] >= 0;
+             v = arcTo[backwardArc[v]]) {
+            hierarchy.unpack(backwardArc[v], path);
+        }
+        return path;
+    }
+
+    /**
+     * Returns the number of vertices settled by the last query.
+     *
+     * @return The number of vertices settled
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+}
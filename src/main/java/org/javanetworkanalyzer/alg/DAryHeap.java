@@ -0,0 +1,252 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import org.javanetworkanalyzer.data.VDijkstra;
+
+import java.util.Arrays;
+
+/**
+ * Indexed d-ary min-heap of vertices keyed by their distance, used as the
+ * Dijkstra queue.
+ *
+ * Each vertex stores its position in the heap (see
+ * {@link VDijkstra#getHeapIndex()}), so that decreasing its key costs
+ * O(log n) instead of the linear scan of
+ * {@link java.util.PriorityQueue#remove(Object)}. Keys are copied into a
+ * primitive array when vertices are added or decreased, so the vertex
+ * distance must be set before calling {@link #add} or {@link #decreaseKey}.
+ *
+ * A vertex can only be in one heap at a time.
+ *
+ * @param <V> Vertex
+ *
+ * @author Adam Gouge
+ */
+public class DAryHeap<V extends VDijkstra> implements DijkstraQueue<V> {
+
+    /**
+     * Default arity; four children per node makes the heap shallower than a
+     * binary heap while keeping the children of a node close in memory.
+     */
+    public static final int DEFAULT_ARITY = 4;
+    /**
+     * Number of children per node.
+     */
+    private final int arity;
+    /**
+     * Vertices, in heap order.
+     */
+    private VDijkstra[] nodes;
+    /**
+     * Keys of the vertices, in the same order.
+     */
+    private double[] keys;
+    /**
+     * Number of vertices in the heap.
+     */
+    private int size;
+
+    /**
+     * Constructs a new heap of arity {@link #DEFAULT_ARITY}.
+     *
+     * @param capacity Initial capacity
+     */
+    public DAryHeap(int capacity) {
+        this(capacity, DEFAULT_ARITY);
+    }
+
+    /**
+     * Constructs a new heap.
+     *
+     * @param capacity Initial capacity
+     * @param arity    Number of children per node
+     */
+    public DAryHeap(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("The arity must be at least 2.");
+        }
+        this.arity = arity;
+        final int initialCapacity = Math.max(capacity, 1);
+        this.nodes = new VDijkstra[initialCapacity];
+        this.keys = new double[initialCapacity];
+    }
+
+    /**
+     * Returns true if the heap is empty.
+     *
+     * @return True if the heap is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of vertices in the heap.
+     *
+     * @return The number of vertices in the heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the given vertex is in the heap.
+     *
+     * @param v Vertex
+     *
+     * @return True if v is in the heap
+     */
+    public boolean contains(V v) {
+        final int i = v.getHeapIndex();
+        return i >= 0 && i < size && nodes[i] == v;
+    }
+
+    /**
+     * Adds the given vertex, keyed by its current distance. The vertex must
+     * not be in the heap.
+     *
+     * @param v Vertex
+     */
+    @Override
+    public void add(V v) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, 2 * size);
+            keys = Arrays.copyOf(keys, 2 * size);
+        }
+        siftUp(size++, v, v.getDistance());
+    }
+
+    @Override
+    public void decreaseKey(V v) {
+        if (contains(v)) {
+            siftUp(v.getHeapIndex(), v, v.getDistance());
+        } else {
+            add(v);
+        }
+    }
+
+    /**
+     * Returns the vertex of smallest key without removing it, or null if
+     * the heap is empty.
+     *
+     * @return The vertex of smallest key, or null
+     */
+    public V peek() {
+        return size == 0 ? null : (V) nodes[0];
+    }
+
+    @Override
+    public V poll() {
+        if (size == 0) {
+            return null;
+        }
+        final V min = (V) nodes[0];
+        min.setHeapIndex(-1);
+        size--;
+        if (size > 0) {
+            final VDijkstra last = nodes[size];
+            final double lastKey = keys[size];
+            nodes[size] = null;
+            siftDown(0, last, lastKey);
+        } else {
+            nodes[0] = null;
+        }
+        return min;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            nodes[i].setHeapIndex(-1);
+            nodes[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Moves the given vertex up from position i until its parent has a
+     * smaller key.
+     *
+     * @param i   Position
+     * @param v   Vertex
+     * @param key Key of v
+     */
+    private void siftUp(int i, VDijkstra v, double key) {
+        while (i > 0) {
+            final int parent = (i - 1) / arity;
+            if (keys[parent] <= key) {
+                break;
+            }
+            place(i, nodes[parent], keys[parent]);
+            i = parent;
+        }
+        place(i, v, key);
+    }
+
+    /**
+     * Moves the given vertex down from position i until its children have
+     * larger keys.
+     *
+     * @param i   Position
+     * @param v   Vertex
+     * @param key Key of v
+     */
+    private void siftDown(int i, VDijkstra v, double key) {
+        while (true) {
+            final int first = arity * i + 1;
+            if (first >= size) {
+                break;
+            }
+            // Find the child of smallest key.
+            final int end = Math.min(first + arity, size);
+            int min = first;
+            for (int c = first + 1; c < end; c++) {
+                if (keys[c] < keys[min]) {
+                    min = c;
+                }
+            }
+            if (keys[min] >= key) {
+                break;
+            }
+            place(i, nodes[min], keys[min]);
+            i = min;
+        }
+        place(i, v, key);
+    }
+
+    /**
+     * Puts the given vertex at position i.
+     *
+     * @param i   Position
+     * @param v   Vertex
+     * @param key Key of v
+     */
+    private void place(int i, VDijkstra v, double key) {
+        nodes[i] = v;
+        keys[i] = key;
+        v.setHeapIndex(i);
+    }
+}
@@ -25,7 +25,9 @@
 package org.javanetworkanalyzer.alg;
 
 import org.javanetworkanalyzer.data.VDijkstra;
+import org.javanetworkanalyzer.model.Edge;
 import org.javanetworkanalyzer.model.EdgeSPT;
+import org.javanetworkanalyzer.model.WeightProfile;
 import org.jgrapht.DirectedGraph;
 import org.jgrapht.Graph;
 import org.jgrapht.Graphs;
@@ -46,12 +48,27 @@ public class Dijkstra<V extends VDijkstra, E extends EdgeSPT>
     /**
      * Dijkstra queue.
      */
-    private final PriorityQueue<V> queue;
+    private DijkstraQueue<V> queue;
+    /**
+     * Number of fixed-point units per unit of weight, or zero if distances
+     * are floating point.
+     */
+    private double fixedPointScale;
+    /**
+     * In fixed-point mode, the exact distance to the vertex whose shortest
+     * path so far is being updated by {@link #relax}.
+     */
+    private long relaxedFixedDistance;
     /**
      * Tolerance to be used when determining if two potential shortest paths
      * have the same length.
      */
     protected static final double TOLERANCE = 0.000000001;
+    /**
+     * Weight profile giving the edge weights, or null to use the weights of
+     * the graph.
+     */
+    private WeightProfile profile;
 
     /**
      * Constructor.
@@ -63,6 +80,93 @@ public class Dijkstra<V extends VDijkstra, E extends EdgeSPT>
         queue = createPriorityQueue();
     }
 
+    /**
+     * Sets the weight profile giving the edge weights of the next searches,
+     * or null to use the weights of the graph (the default). The edges must
+     * have been numbered by the graph creator which computed the profile.
+     *
+     * @param profile Weight profile, or null
+     */
+    public void setWeightProfile(WeightProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Returns the weight profile giving the edge weights, or null.
+     *
+     * @return The weight profile, or null
+     */
+    public WeightProfile getWeightProfile() {
+        return profile;
+    }
+
+    /**
+     * Returns the weight of the given edge, from the weight profile if one
+     * is set and from the graph otherwise.
+     *
+     * @param e Edge
+     *
+     * @return The weight of e
+     */
+    protected double edgeWeight(E e) {
+        return profile == null
+                ? graph.getEdgeWeight(e)
+                : profile.getWeight((Edge) e);
+    }
+
+    /**
+     * Sets the number of fixed-point units per unit of weight, or zero for
+     * floating point distances (the default). For instance, a scale of 10
+     * measures weights in meters to the nearest decimeter.
+     *
+     * In fixed-point mode, each edge weight is rounded to a whole number of
+     * units and distances are summed as longs (see
+     * {@link VDijkstra#getFixedDistance()}), so ties, hence multiple
+     * shortest paths, are detected exactly rather than up to
+     * {@link #TOLERANCE}. The queue is a {@link RadixHeap}. The
+     * floating point distance of each node is still set, to its fixed-point
+     * distance divided by the scale. Weights must be nonnegative.
+     *
+     * @param scale Number of fixed-point units per unit of weight, or zero
+     */
+    public void setFixedPointScale(double scale) {
+        if (!(scale >= 0) || Double.isInfinite(scale)) {
+            throw new IllegalArgumentException(
+                    "The fixed-point scale must be nonnegative and finite.");
+        }
+        if ((scale > 0) != (fixedPointScale > 0)) {
+            queue = scale > 0 ? new RadixHeap<V>() : createPriorityQueue();
+        }
+        fixedPointScale = scale;
+    }
+
+    /**
+     * Returns the number of fixed-point units per unit of weight, or zero if
+     * distances are floating point.
+     *
+     * @return The fixed-point scale
+     */
+    public double getFixedPointScale() {
+        return fixedPointScale;
+    }
+
+    /**
+     * Returns the weight of the given edge rounded to a whole number of
+     * fixed-point units.
+     *
+     * @param e Edge
+     *
+     * @return The fixed-point weight of e
+     */
+    protected long fixedPointWeight(E e) {
+        final long weight = Math.round(edgeWeight(e) * fixedPointScale);
+        if (weight < 0) {
+            throw new IllegalArgumentException(
+                    "Negative edge weight " + edgeWeight(e) + ".");
+        }
+        return weight;
+    }
+
     /**
      * Does a Dijkstra search from the given start node to all other nodes.
      *
@@ -73,9 +177,9 @@ public class Dijkstra<V extends VDijkstra, E extends EdgeSPT>
 
         init(startNode);
 
-        while (!queue.isEmpty()) {
-            // Extract the minimum element.
-            V u = queue.poll();
+        // Extract the minimum element.
+        V u;
+        while ((u = queue.poll()) != null) {
             // Do any pre-relax step.
             if (preRelaxStep(startNode, u)) {
                 break;
@@ -91,14 +195,22 @@ public class Dijkstra<V extends VDijkstra, E extends EdgeSPT>
     @Override
     protected void init(V startNode) {
         super.init(startNode);
-        for (V node : graph.vertexSet()) {
-            node.reset();
-        }
+        resetNodes();
         startNode.setSource();
         queue.clear();
         queue.add(startNode);
     }
 
+    /**
+     * Resets the nodes before a new search. Subclasses which know the nodes
+     * reached by the previous search may reset only those.
+     */
+    protected void resetNodes() {
+        for (V node : graph.vertexSet()) {
+            node.reset();
+        }
+    }
+
     /**
      * Any work to be done using vertex u before relaxing the outgoing edges of
      * u. Must return true if the search should be stopped.
@@ -117,11 +229,26 @@ public class Dijkstra<V extends VDijkstra, E extends EdgeSPT>
      * @param e     Edge e.
      * @param queue The queue.
      */
-    protected void relax(V startNode, V u, E e, PriorityQueue<V> queue) {
+    protected void relax(V startNode, V u, E e, DijkstraQueue<V> queue) {
         // Get the target vertex.
         V v = Graphs.getOppositeVertex(graph, e, u);
+        // In fixed-point mode, compare distances exactly.
+        if (fixedPointScale > 0) {
+            final long uvFixedWeight = fixedPointWeight(e);
+            final long distance = u.getFixedDistance() + uvFixedWeight;
+            if (v.getFixedDistance() > distance) {
+                // Keep the exact distance for updateDistance.
+                relaxedFixedDistance = distance;
+                shortestPathSoFarUpdate(startNode, u, v,
+                                        uvFixedWeight / fixedPointScale,
+                                        e, queue);
+            } else if (v.getFixedDistance() == distance) {
+                multipleShortestPathUpdate(u, v, e);
+            }
+            return;
+        }
         // Get the weight.
-        double uvWeight = graph.getEdgeWeight(e);
+        double uvWeight = edgeWeight(e);
         // If a smaller distance estimate is available, make the necessary
         // updates.
         if (v.getDistance() > u.getDistance() + uvWeight) {
@@ -143,16 +270,33 @@ public class Dijkstra<V extends VDijkstra, E extends EdgeSPT>
      * @param queue    Queue
      */
     protected void shortestPathSoFarUpdate(V startNode, V u, V v, Double uvWeight,
-                                           E e, PriorityQueue<V> queue) {
+                                           E e, DijkstraQueue<V> queue) {
         // Reset the predecessors and add u as a predecessor
         v.clear();
         v.addPredecessor(u);
         v.addPredecessorEdge(e);
         // Set the distance
-        v.setDistance(u.getDistance() + uvWeight);
+        updateDistance(u, v, uvWeight);
         // Update the queue.
-        queue.remove(v);
-        queue.add(v);
+        queue.decreaseKey(v);
+    }
+
+    /**
+     * Sets the distance of v to that of u plus w(u,v). In fixed-point mode,
+     * the exact distance computed by {@link #relax} is used instead, and
+     * only converted to floating point to be stored.
+     *
+     * @param u        Vertex u
+     * @param v        Vertex v
+     * @param uvWeight w(u,v)
+     */
+    protected void updateDistance(V u, V v, double uvWeight) {
+        if (fixedPointScale > 0) {
+            v.setFixedDistance(relaxedFixedDistance);
+            v.setDistance(relaxedFixedDistance / fixedPointScale);
+        } else {
+            v.setDistance(u.getDistance() + uvWeight);
+        }
     }
 
     /**
@@ -175,17 +319,8 @@ public class Dijkstra<V extends VDijkstra, E extends EdgeSPT>
      *
      * @return The priority queue used in Dijkstra's algorithm.
      */
-    private PriorityQueue<V> createPriorityQueue() {
-        return new PriorityQueue<V>(
-                graph.vertexSet().size(),
-                new Comparator<V>() {
-                    @Override
-                    public int compare(V v1, V v2) {
-                        return Double.compare(
-                                v1.getDistance(),
-                                v2.getDistance());
-                    }
-                });
+    private DijkstraQueue<V> createPriorityQueue() {
+        return new DAryHeap<V>(graph.vertexSet().size());
     }
 
     /**
@@ -212,7 +347,7 @@ public class Dijkstra<V extends VDijkstra, E extends EdgeSPT>
                 return source.getDistance();
             } else {
                 // Otherwise we have to search.
-                new Dijkstra<V, E>(graph) {
+                final Dijkstra<V, E> search = new Dijkstra<V, E>(graph) {
                     @Override
                     protected boolean preRelaxStep(V startNode, V u) {
                         // If we have reached the target, then stop the search.
@@ -222,13 +357,36 @@ public class Dijkstra<V extends VDijkstra, E extends EdgeSPT>
                         // Otherwise we have to keep going.
                         return false;
                     }
-                }.calculate(source);
+                };
+                search.setWeightProfile(profile);
+                search.setFixedPointScale(fixedPointScale);
+                search.calculate(source);
                 // Return the distance to the target.
                 return target.getDistance();
             }
         }
     }
 
+    /**
+     * Returns the distance from the source to the target computed by a
+     * {@link BidirectionalDijkstra} search with the same weight profile and
+     * fixed-point scale, which settles about half as many vertices as
+     * {@link #oneToOne} on road networks. Unlike
+     * {@link #oneToOne}, the vertices are left untouched; use a
+     * {@link BidirectionalDijkstra} directly to obtain the shortest path.
+     *
+     * @param source Source
+     * @param target Target
+     * @return The distance from the source to the target.
+     */
+    public double bidirectionalOneToOne(V source, V target) {
+        final BidirectionalDijkstra<V, E> search =
+                new BidirectionalDijkstra<V, E>(graph);
+        search.setWeightProfile(profile);
+        search.setFixedPointScale(fixedPointScale);
+        return search.calculate(source, target);
+    }
+
     /**
      * Performs a Dijkstra search from the source, stopping once all the
      * targets are found.
@@ -256,7 +414,7 @@ public class Dijkstra<V extends VDijkstra, E extends EdgeSPT>
                 // Instead of looping through the targets and using oneToOne (which
                 // would require one search per target), we do just one search until
                 // all targets are found.
-                new Dijkstra<V, E>(graph) {
+                final Dijkstra<V, E> search = new Dijkstra<V, E>(graph) {
                     @Override
                     protected boolean preRelaxStep(V startNode, V u) {
                         // If there are no more targets, then stop the search.
@@ -275,7 +433,10 @@ public class Dijkstra<V extends VDijkstra, E extends EdgeSPT>
                         }
                         return false;
                     }
-                }.calculate(source);
+                };
+                search.setWeightProfile(profile);
+                search.setFixedPointScale(fixedPointScale);
+                search.calculate(source);
             }
             return distances;
         }
@@ -301,8 +462,11 @@ public class Dijkstra<V extends VDijkstra, E extends EdgeSPT>
             if (graph instanceof DirectedGraph) {
                 EdgeReversedGraph<V, E> reversedGraph =
                         new EdgeReversedGraph<V, E>((DirectedGraph) graph);
-                return new Dijkstra<V, E>(reversedGraph)
-                        .oneToMany(target, sources);
+                final Dijkstra<V, E> reversed =
+                        new Dijkstra<V, E>(reversedGraph);
+                reversed.setWeightProfile(profile);
+                reversed.setFixedPointScale(fixedPointScale);
+                return reversed.oneToMany(target, sources);
             } // For undirected graphs, there is no need to reverse the graph.
             else {
                 return oneToMany(target, sources);
@@ -316,6 +480,8 @@ public class Dijkstra<V extends VDijkstra, E extends EdgeSPT>
      * <p/>
      * Note: Using oneToMany rather than manyToOne is more efficient since we
      * don't have to create an edge-reversed graph.
+     * <p/>
+     * For large tables, see {@link ContractionHierarchyManyToMany}.
      *
      * @param sources Sources
      * @param targets Targets
@@ -24,7 +24,6 @@
  */
 package org.javanetworkanalyzer.alg;
 
-import java.util.PriorityQueue;
 import org.javanetworkanalyzer.data.VAccess;
 import org.javanetworkanalyzer.model.EdgeSPT;
 import org.jgrapht.Graph;
@@ -60,16 +59,16 @@ public class DijkstraForAccessibility<E extends EdgeSPT> extends Dijkstra<VAcces
      */
     @Override
     protected void shortestPathSoFarUpdate(VAccess startNode, VAccess u, VAccess v,
-                                           Double uvWeight, E e, PriorityQueue<VAccess> queue) {
+                                           Double uvWeight, E e, DijkstraQueue<VAccess> queue) {
+        super.shortestPathSoFarUpdate(startNode, u, v, uvWeight, e, queue);
         // If the distance from the start node to v (so the distance *from* v
         // *to* the destination represented by the start node in a reversed
         // graph) is less than the distance to any previously found closest
         // destination, then update v.
-        final double distance = u.getDistance() + uvWeight;
+        final double distance = v.getDistance();
         if (v.getDistanceToClosestDestination() > distance) {
             v.setDistanceToClosestDestination(distance);
             v.setClosestDestinationId(startNode.getID());
         }
-        super.shortestPathSoFarUpdate(startNode, u, v, uvWeight, e, queue);
     }
 }
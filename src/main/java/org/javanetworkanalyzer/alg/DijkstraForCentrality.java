@@ -26,7 +26,8 @@ package org.javanetworkanalyzer.alg;
 
 import org.javanetworkanalyzer.data.VWCent;
 import org.javanetworkanalyzer.data.WeightedPathLengthData;
-import java.util.PriorityQueue;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Stack;
 
 import org.javanetworkanalyzer.model.EdgeSPT;
@@ -50,6 +51,19 @@ public class DijkstraForCentrality<E extends EdgeSPT> extends Dijkstra<VWCent, E
      * Data structure used to hold information used to calculate closeness.
      */
     private final WeightedPathLengthData pathsFromStartNode;
+    /**
+     * Whether the stack, shortest path counts and predecessors are recorded.
+     */
+    private boolean recordingShortestPaths = true;
+    /**
+     * Distance beyond which nodes are not explored.
+     */
+    private double radius = Double.POSITIVE_INFINITY;
+    /**
+     * Nodes reached by the previous bounded search, or null if every node
+     * must be reset.
+     */
+    private List<VWCent> reached;
 
     /**
      * Constructs a new {@link DijkstraForCentrality} object.
@@ -66,23 +80,107 @@ public class DijkstraForCentrality<E extends EdgeSPT> extends Dijkstra<VWCent, E
         this.pathsFromStartNode = new WeightedPathLengthData();
     }
 
+    /**
+     * Sets whether the stack, shortest path counts and predecessors are
+     * recorded (true by default). They are needed only for betweenness; if
+     * they are not recorded, only distances and shortest path lengths are.
+     *
+     * @param recordingShortestPaths True to record shortest paths
+     */
+    public void setRecordingShortestPaths(boolean recordingShortestPaths) {
+        this.recordingShortestPaths = recordingShortestPaths;
+    }
+
+    /**
+     * Sets the distance beyond which nodes are not explored (infinite by
+     * default). Only shortest paths of length at most the radius are
+     * recorded, so the stack holds the nodes within the radius and the
+     * dependencies accumulated over it are those of the truncated shortest
+     * path DAG. Bounded searches only reset the nodes reached by the
+     * previous search, so they cost time proportional to the size of the
+     * neighborhood rather than that of the graph. Any other algorithm
+     * run on the same nodes in between must be followed by a call to
+     * {@link #forgetReachedNodes()}.
+     *
+     * @param radius Radius
+     */
+    public void setRadius(double radius) {
+        if (radius != this.radius) {
+            this.radius = radius;
+            reached = null;
+        }
+    }
+
+    /**
+     * Makes the next search reset every node rather than only those reached
+     * by the previous search. This must be called after another algorithm
+     * has changed the nodes, since a bounded search would otherwise start
+     * from the labels that algorithm left behind.
+     */
+    public void forgetReachedNodes() {
+        reached = null;
+    }
+
+    /**
+     * Returns the distance beyond which nodes are not explored.
+     *
+     * @return The radius
+     */
+    public double getRadius() {
+        return radius;
+    }
+
     @Override
     protected void init(VWCent startNode) {
         super.init(startNode);
         stack.clear();
         pathsFromStartNode.clear();
+        reached(startNode);
+    }
+
+    @Override
+    protected void resetNodes() {
+        if (reached == null) {
+            super.resetNodes();
+        } else {
+            for (VWCent node : reached) {
+                node.reset();
+            }
+        }
+        if (radius < Double.POSITIVE_INFINITY) {
+            reached = new ArrayList<VWCent>();
+        } else {
+            reached = null;
+        }
+    }
+
+    /**
+     * Records that the given node was reached, if this search is bounded.
+     *
+     * @param node Node
+     */
+    private void reached(VWCent node) {
+        if (reached != null) {
+            reached.add(node);
+        }
     }
 
     /**
      * Before relaxing the outgoing edges of u, we push it to the stack and
-     * record its shortest path length.
+     * record its shortest path length. The search stops at the first vertex
+     * beyond the radius.
      *
      * @param u Vertex u.
      */
     @Override
     protected boolean preRelaxStep(VWCent startNode, VWCent u) {
+        if (u.getDistance() > radius) {
+            return true;
+        }
         // Push it to the stack.
-        if (canPushToStack(u)) {
+        if (!recordingShortestPaths) {
+            // Nothing to push.
+        } else if (canPushToStack(u)) {
             stack.push(u);
         } else {
             throw new IllegalStateException(
@@ -116,7 +214,15 @@ public class DijkstraForCentrality<E extends EdgeSPT> extends Dijkstra<VWCent, E
     @Override
     protected void shortestPathSoFarUpdate(VWCent startNode, VWCent u, VWCent v,
                                            Double uvWeight,
-                                           E e, PriorityQueue<VWCent> queue) {
+                                           E e, DijkstraQueue<VWCent> queue) {
+        if (v.getDistance() == Double.POSITIVE_INFINITY) {
+            reached(v);
+        }
+        if (!recordingShortestPaths) {
+            updateDistance(u, v, uvWeight);
+            queue.decreaseKey(v);
+            return;
+        }
         // Reset the number of shortest paths
         v.setSPCount(u.getSPCount());
         super.shortestPathSoFarUpdate(startNode, u, v, uvWeight, e, queue);
@@ -124,6 +230,9 @@ public class DijkstraForCentrality<E extends EdgeSPT> extends Dijkstra<VWCent, E
 
     @Override
     protected void multipleShortestPathUpdate(VWCent u, VWCent v, E e) {
+        if (!recordingShortestPaths) {
+            return;
+        }
         // Accumulate the number of shortest paths
         v.accumulateSPCount(u.getSPCount());
         super.multipleShortestPathUpdate(u, v, e);
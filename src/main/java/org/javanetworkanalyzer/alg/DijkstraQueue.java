@@ -0,0 +1,66 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import org.javanetworkanalyzer.data.VDijkstra;
+
+/**
+ * Priority queue of vertices used by {@link Dijkstra}.
+ *
+ * @param <V> Vertex
+ *
+ * @author Adam Gouge
+ */
+public interface DijkstraQueue<V extends VDijkstra> {
+
+    /**
+     * Adds the given vertex, keyed by its current distance.
+     *
+     * @param v Vertex
+     */
+    void add(V v);
+
+    /**
+     * Updates the key of the given vertex to its current distance, which
+     * must not be greater than its key, or adds it if it is not in the
+     * queue.
+     *
+     * @param v Vertex
+     */
+    void decreaseKey(V v);
+
+    /**
+     * Removes and returns the vertex of smallest key, or null if the queue
+     * is empty.
+     *
+     * @return The vertex of smallest key, or null
+     */
+    V poll();
+
+    /**
+     * Removes every vertex from the queue.
+     */
+    void clear();
+}
@@ -0,0 +1,83 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import org.javanetworkanalyzer.data.VId;
+import org.javanetworkanalyzer.model.NodeCoordinates;
+
+/**
+ * Straight-line distance between two vertices divided by a maximum speed.
+ *
+ * With a speed of one, this is a lower bound on lengths as long as each
+ * edge is at least as long as the segment between its endpoints, which
+ * holds for lengths measured along the geometry. For travel times, the
+ * speed must be the largest speed of the network, in length units per time
+ * unit.
+ *
+ * @param <V> Vertex
+ *
+ * @author Adam Gouge
+ */
+public class EuclideanHeuristic<V extends VId> implements Heuristic<V> {
+
+    private final NodeCoordinates coordinates;
+    private final double maxSpeed;
+
+    /**
+     * Constructs a new heuristic giving lower bounds on lengths.
+     *
+     * @param coordinates Node coordinates
+     */
+    public EuclideanHeuristic(NodeCoordinates coordinates) {
+        this(coordinates, 1.0);
+    }
+
+    /**
+     * Constructs a new heuristic giving lower bounds on travel times.
+     *
+     * @param coordinates Node coordinates
+     * @param maxSpeed    Largest speed, in length units per time unit
+     */
+    public EuclideanHeuristic(NodeCoordinates coordinates, double maxSpeed) {
+        if (!(maxSpeed > 0)) {
+            throw new IllegalArgumentException(
+                    "The maximum speed must be positive.");
+        }
+        this.coordinates = coordinates;
+        this.maxSpeed = maxSpeed;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Vertices without coordinates get zero.
+     */
+    @Override
+    public double estimate(V v, V target) {
+        final double distance =
+                coordinates.distance(v.getID(), target.getID());
+        return Double.isNaN(distance) ? 0.0 : distance / maxSpeed;
+    }
+}
@@ -126,6 +126,22 @@ public abstract class GraphSearchAlgorithm<V extends VPred, E extends EdgeSPT>
         }
     }
 
+    /**
+     * Returns the incoming edges of a node for directed graphs and all edges of
+     * a node for undirected graphs.
+     *
+     * @param g    The graph.
+     * @param node The node.
+     * @return The incoming edges of the node.
+     */
+    public static Set incomingEdgesOf(Graph g, Object node) {
+        if (g instanceof DirectedGraph) {
+            return ((DirectedGraph) g).incomingEdgesOf(node);
+        } else {
+            return g.edgesOf(node);
+        }
+    }
+
     /**
      * Returns the successor list of a node for directed graphs or the neighbor
      * list of a node for undirected graphs. Used in BFS, DFS, Strahler.
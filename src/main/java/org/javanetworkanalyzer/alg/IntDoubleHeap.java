@@ -0,0 +1,136 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of int values keyed by doubles, for searches on graphs
+ * whose vertices are numbered. There is no decrease-key: a vertex whose
+ * distance improves is added again, and the caller skips the entries whose
+ * key is not the current distance of their vertex.
+ *
+ * @author Adam Gouge
+ */
+class IntDoubleHeap {
+
+    private double[] keys;
+    private int[] values;
+    private int size;
+
+    /**
+     * Constructs a new heap.
+     *
+     * @param capacity Initial capacity
+     */
+    IntDoubleHeap(int capacity) {
+        keys = new double[Math.max(capacity, 1)];
+        values = new int[keys.length];
+    }
+
+    /**
+     * Returns true if the heap is empty.
+     *
+     * @return True if the heap is empty
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value Value
+     * @param key   Key
+     */
+    void add(int value, double key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * size);
+            values = Arrays.copyOf(values, 2 * size);
+        }
+        int i = size++;
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            keys[i] = keys[parent];
+            values[i] = values[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    /**
+     * Returns the smallest key; the heap must not be empty.
+     *
+     * @return The smallest key
+     */
+    double peekKey() {
+        return keys[0];
+    }
+
+    /**
+     * Removes the entry of smallest key and returns its value; the heap
+     * must not be empty.
+     *
+     * @return The value of smallest key
+     */
+    int poll() {
+        final int min = values[0];
+        size--;
+        if (size > 0) {
+            final double key = keys[size];
+            final int value = values[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (keys[child] >= key) {
+                    break;
+                }
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+        return min;
+    }
+
+    /**
+     * Removes every entry.
+     */
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,532 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import org.javanetworkanalyzer.data.VDijkstra;
+import org.javanetworkanalyzer.data.VId;
+import org.javanetworkanalyzer.model.DirectedWeightedPseudoG;
+import org.javanetworkanalyzer.model.Edge;
+import org.javanetworkanalyzer.model.WeightProfile;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.javanetworkanalyzer.model.WeightedPseudoG;
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.EdgeReversedGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Selects landmarks and computes their distance tables (see
+ * {@link Landmarks}).
+ *
+ * Landmarks are selected one at a time, since each choice depends on the
+ * distances from the landmarks chosen before:
+ * <ul>
+ * <li>{@link #FARTHEST} picks the vertex farthest from the landmarks chosen
+ * so far (starting from the vertex farthest from a random vertex);</li>
+ * <li>{@link #AVOID} grows a shortest path tree from a random vertex,
+ * weighs each vertex by how badly the current landmarks bound its distance
+ * to the root, and picks a leaf of the heaviest subtree containing no
+ * landmark (Goldberg and Werneck, <i>Computing point-to-point shortest
+ * paths from external memory</i>, 2005).</li>
+ * </ul>
+ * The distances from the landmarks are obtained during the selection. On
+ * directed graphs, the distances to the landmarks are then computed by
+ * searches on the edge-reversed graph, run in parallel. When the landmarks
+ * are given, all searches run in parallel.
+ *
+ * Searches run on private copies of the graph (one per thread), so the
+ * vertices of the graph are left untouched. Vertices must have distinct
+ * nonnegative ids.
+ *
+ * @param <V> Vertex
+ * @param <E> Edge
+ *
+ * @author Adam Gouge
+ */
+public class LandmarkPreprocessor<V extends VId, E> {
+
+    /**
+     * Farthest landmark selection.
+     */
+    public static final int FARTHEST = 1;
+    /**
+     * Avoid landmark selection.
+     */
+    public static final int AVOID = 2;
+    /**
+     * The graph.
+     */
+    private final Graph<V, E> graph;
+    /**
+     * Landmark selection.
+     */
+    private int selection = AVOID;
+    /**
+     * Seed of the random choices made during selection.
+     */
+    private long seed;
+    /**
+     * Number of threads.
+     */
+    private int numberOfThreads = 1;
+    /**
+     * Weight profile giving the edge weights, or null.
+     */
+    private WeightProfile profile;
+    /**
+     * Vertex ids, by position.
+     */
+    private int[] vertexIds;
+    /**
+     * Vertex positions, by id, or -1.
+     */
+    private int[] positions;
+
+    /**
+     * Constructor.
+     *
+     * @param graph The graph
+     */
+    public LandmarkPreprocessor(Graph<V, E> graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Sets the landmark selection, {@link #FARTHEST} or {@link #AVOID} (the
+     * default).
+     *
+     * @param selection Landmark selection
+     */
+    public void setSelection(int selection) {
+        if (selection != FARTHEST && selection != AVOID) {
+            throw new IllegalArgumentException(
+                    "Unknown landmark selection " + selection + ".");
+        }
+        this.selection = selection;
+    }
+
+    /**
+     * Sets the seed of the random choices made during selection (zero by
+     * default).
+     *
+     * @param seed Seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the number of threads (one by default).
+     *
+     * @param numberOfThreads Number of threads
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException(
+                    "The number of threads must be positive.");
+        }
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * Sets the weight profile giving the edge weights, or null to use the
+     * weights of the graph (the default).
+     *
+     * @param profile Weight profile, or null
+     */
+    public void setWeightProfile(WeightProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Selects the given number of landmarks and computes their distance
+     * tables.
+     *
+     * @param count Number of landmarks
+     *
+     * @return The landmarks
+     */
+    public Landmarks<V> compute(int count) {
+        if (count < 1 || count > graph.vertexSet().size()) {
+            throw new IllegalArgumentException(
+                    "The number of landmarks must be between 1 and the "
+                    + "number of vertices.");
+        }
+        indexVertices();
+        final WeightedKeyedGraph<VDijkstra, Edge> copy = copyGraph();
+        final Dijkstra<VDijkstra, Edge> dijkstra =
+                new Dijkstra<VDijkstra, Edge>(copy);
+        final Random random = new Random(seed);
+        final int[] landmarkIds = new int[count];
+        final double[][] from = new double[count][];
+        for (int i = 0; i < count; i++) {
+            final int landmark = (selection == FARTHEST)
+                    ? farthest(dijkstra, copy, random, from, i)
+                    : avoid(dijkstra, copy, random, landmarkIds, from, i);
+            landmarkIds[i] = landmark;
+            dijkstra.calculate(copy.getVertex(landmark));
+            from[i] = distances(copy);
+        }
+        if (!(graph instanceof DirectedGraph)) {
+            return new Landmarks<V>(vertexIds, landmarkIds, from, from);
+        }
+        final double[][] to = new double[count][];
+        computeTables(landmarkIds, null, to);
+        return new Landmarks<V>(vertexIds, landmarkIds, from, to);
+    }
+
+    /**
+     * Computes the distance tables of the given landmarks.
+     *
+     * @param landmarkIds Landmark ids
+     *
+     * @return The landmarks
+     */
+    public Landmarks<V> compute(int[] landmarkIds) {
+        indexVertices();
+        for (int id : landmarkIds) {
+            positionOf(id);
+        }
+        final int[] ids = Arrays.copyOf(landmarkIds, landmarkIds.length);
+        final double[][] from = new double[ids.length][];
+        if (!(graph instanceof DirectedGraph)) {
+            computeTables(ids, from, null);
+            return new Landmarks<V>(vertexIds, ids, from, from);
+        }
+        final double[][] to = new double[ids.length][];
+        computeTables(ids, from, to);
+        return new Landmarks<V>(vertexIds, ids, from, to);
+    }
+
+    /**
+     * Returns the next landmark of farthest selection: the vertex farthest
+     * from a random vertex for the first landmark, then the vertex
+     * maximizing the distance from the closest landmark. Vertices no
+     * landmark reaches come first.
+     */
+    private int farthest(Dijkstra<VDijkstra, Edge> dijkstra,
+                         WeightedKeyedGraph<VDijkstra, Edge> copy,
+                         Random random, double[][] from, int i) {
+        final double[] closest;
+        if (i == 0) {
+            dijkstra.calculate(copy.getVertex(
+                    vertexIds[random.nextInt(vertexIds.length)]));
+            closest = distances(copy);
+        } else {
+            closest = new double[vertexIds.length];
+            Arrays.fill(closest, Double.POSITIVE_INFINITY);
+            for (int j = 0; j < i; j++) {
+                for (int p = 0; p < closest.length; p++) {
+                    closest[p] = Math.min(closest[p], from[j][p]);
+                }
+            }
+        }
+        int best = -1;
+        for (int p = 0; p < closest.length; p++) {
+            if (closest[p] > 0
+                && (best < 0 || closest[p] > closest[best])) {
+                best = p;
+            }
+        }
+        // Every vertex is a landmark or at distance zero from one.
+        return vertexIds[best < 0 ? random.nextInt(vertexIds.length) : best];
+    }
+
+    /**
+     * Returns the next landmark of avoid selection.
+     */
+    private int avoid(Dijkstra<VDijkstra, Edge> dijkstra,
+                      WeightedKeyedGraph<VDijkstra, Edge> copy,
+                      Random random, int[] landmarkIds, double[][] from,
+                      int i) {
+        final int n = vertexIds.length;
+        final int root = random.nextInt(n);
+        dijkstra.calculate(copy.getVertex(vertexIds[root]));
+        final double[] distance = distances(copy);
+        // Parent of each vertex in the shortest path tree, or -1.
+        final int[] parent = new int[n];
+        final Integer[] reached = new Integer[n];
+        int reachedCount = 0;
+        for (int p = 0; p < n; p++) {
+            parent[p] = -1;
+            if (distance[p] < Double.POSITIVE_INFINITY) {
+                reached[reachedCount++] = p;
+                if (p != root) {
+                    final VDijkstra pred = (VDijkstra) copy.getVertex(
+                            vertexIds[p]).getPredecessors().iterator().next();
+                    parent[p] = positionOf(pred.getID());
+                }
+            }
+        }
+        // Weight: d(r,v) minus the best landmark lower bound on it. Size:
+        // total weight of the subtree, or zero if it contains a landmark.
+        final double[] size = new double[n];
+        final boolean[] hasLandmark = new boolean[n];
+        for (int j = 0; j < i; j++) {
+            hasLandmark[positionOf(landmarkIds[j])] = true;
+        }
+        for (int k = 0; k < reachedCount; k++) {
+            final int p = reached[k];
+            double bound = 0.0;
+            for (int j = 0; j < i; j++) {
+                final double b = from[j][p] - from[j][root];
+                if (b > bound) {
+                    bound = b;
+                }
+            }
+            size[p] = distance[p] - bound;
+        }
+        // Accumulate the subtrees from the leaves up.
+        Arrays.sort(reached, 0, reachedCount, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(distance[b], distance[a]);
+            }
+        });
+        for (int k = 0; k < reachedCount; k++) {
+            final int p = reached[k];
+            if (parent[p] >= 0) {
+                hasLandmark[parent[p]] |= hasLandmark[p];
+                size[parent[p]] += size[p];
+            }
+        }
+        // Children lists, to walk down from the root.
+        final List<List<Integer>> children = new ArrayList<List<Integer>>(n);
+        for (int p = 0; p < n; p++) {
+            children.add(null);
+        }
+        for (int k = 0; k < reachedCount; k++) {
+            final int p = reached[k];
+            if (parent[p] >= 0) {
+                if (children.get(parent[p]) == null) {
+                    children.set(parent[p], new ArrayList<Integer>());
+                }
+                children.get(parent[p]).add(p);
+            }
+        }
+        int v = root;
+        while (children.get(v) != null) {
+            int next = -1;
+            for (int c : children.get(v)) {
+                if (!hasLandmark[c]
+                    && (next < 0 || size[c] > size[next])) {
+                    next = c;
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            v = next;
+        }
+        if (hasLandmark[v]) {
+            // Every subtree holds a landmark; fall back on a random vertex
+            // which is not one.
+            do {
+                v = random.nextInt(n);
+            } while (isLandmark(vertexIds[v], landmarkIds, i));
+        }
+        return vertexIds[v];
+    }
+
+    /**
+     * Computes the distances from (if from is not null) and to (if to is not
+     * null) the given landmarks, in parallel.
+     */
+    private void computeTables(final int[] landmarkIds,
+                               final double[][] from, final double[][] to) {
+        final int searches = (from == null ? 0 : landmarkIds.length)
+                             + (to == null ? 0 : landmarkIds.length);
+        final AtomicInteger next = new AtomicInteger();
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int t = 0; t < Math.min(numberOfThreads, searches); t++) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    final WeightedKeyedGraph<VDijkstra, Edge> copy =
+                            copyGraph();
+                    final Dijkstra<VDijkstra, Edge> forward =
+                            new Dijkstra<VDijkstra, Edge>(copy);
+                    final Dijkstra<VDijkstra, Edge> backward =
+                            (to == null) ? null
+                            : new Dijkstra<VDijkstra, Edge>(
+                            new EdgeReversedGraph<VDijkstra, Edge>(
+                            (DirectedGraph<VDijkstra, Edge>) copy));
+                    int s;
+                    while ((s = next.getAndIncrement()) < searches) {
+                        if (from != null && s < landmarkIds.length) {
+                            forward.calculate(copy.getVertex(landmarkIds[s]));
+                            from[s] = distances(copy);
+                        } else {
+                            final int i = (from == null)
+                                    ? s : s - landmarkIds.length;
+                            backward.calculate(
+                                    copy.getVertex(landmarkIds[i]));
+                            to[i] = distances(copy);
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        runTasks(tasks);
+    }
+
+    /**
+     * Runs the given tasks on {@link #numberOfThreads} threads and waits for
+     * all of them to finish, rethrowing the first exception encountered.
+     *
+     * @param tasks Tasks
+     */
+    private void runTasks(List<Callable<Void>> tasks) {
+        final ExecutorService executor =
+                Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing "
+                                            + "the landmark distances.", ex);
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Records the ids of the vertices, by position, and their positions, by
+     * id.
+     */
+    private void indexVertices() {
+        vertexIds = new int[graph.vertexSet().size()];
+        int maxId = -1;
+        int p = 0;
+        for (V v : graph.vertexSet()) {
+            if (v.getID() < 0) {
+                throw new IllegalArgumentException(
+                        "Negative vertex id " + v.getID() + ".");
+            }
+            vertexIds[p++] = v.getID();
+            maxId = Math.max(maxId, v.getID());
+        }
+        positions = new int[maxId + 1];
+        Arrays.fill(positions, -1);
+        for (p = 0; p < vertexIds.length; p++) {
+            positions[vertexIds[p]] = p;
+        }
+    }
+
+    /**
+     * Returns the position of the vertex of the given id.
+     *
+     * @param id Vertex id
+     *
+     * @return The position of the vertex
+     */
+    private int positionOf(int id) {
+        if (id < 0 || id >= positions.length || positions[id] < 0) {
+            throw new IllegalArgumentException(
+                    "Vertex " + id + " is not in the graph.");
+        }
+        return positions[id];
+    }
+
+    private static boolean isLandmark(int id, int[] landmarkIds, int count) {
+        for (int j = 0; j < count; j++) {
+            if (landmarkIds[j] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the distance of every vertex of the given copy from the last
+     * search, by position.
+     *
+     * @param copy Copy of the graph
+     *
+     * @return The distances, by position
+     */
+    private double[] distances(WeightedKeyedGraph<VDijkstra, Edge> copy) {
+        final double[] distances = new double[vertexIds.length];
+        for (int p = 0; p < distances.length; p++) {
+            distances[p] = copy.getVertex(vertexIds[p]).getDistance();
+        }
+        return distances;
+    }
+
+    /**
+     * Returns a copy of the graph with {@link VDijkstra} vertices carrying
+     * the same ids and edges carrying the weights used by this
+     * preprocessor.
+     *
+     * @return A copy of the graph
+     */
+    private WeightedKeyedGraph<VDijkstra, Edge> copyGraph() {
+        final WeightedKeyedGraph<VDijkstra, Edge> copy;
+        if (graph instanceof DirectedGraph) {
+            copy = new DirectedWeightedPseudoG<VDijkstra, Edge>(
+                    VDijkstra.class, Edge.class);
+        } else {
+            copy = new WeightedPseudoG<VDijkstra, Edge>(
+                    VDijkstra.class, Edge.class);
+        }
+        for (V v : graph.vertexSet()) {
+            copy.addVertex(v.getID());
+        }
+        for (E e : graph.edgeSet()) {
+            final Edge copyEdge = copy.addEdge(graph.getEdgeSource(e).getID(),
+                                               graph.getEdgeTarget(e).getID());
+            copy.setEdgeWeight(copyEdge, profile == null
+                    ? graph.getEdgeWeight(e)
+                    : profile.getWeight((Edge) e));
+        }
+        return copy;
+    }
+}
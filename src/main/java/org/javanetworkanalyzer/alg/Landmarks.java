@@ -0,0 +1,327 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import org.javanetworkanalyzer.data.VId;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Distances from and to a few landmark vertices, giving lower bounds on the
+ * distance between any two vertices by the triangle inequality (ALT):
+ * <pre>
+ * d(v,t) &gt;= d(L,t) - d(L,v)   and   d(v,t) &gt;= d(v,L) - d(t,L)
+ * </pre>
+ * for every landmark L. Used as the {@link Heuristic} of an {@link AStar}
+ * search, these bounds answer exact queries on graphs without coordinates.
+ *
+ * Landmarks are computed by a {@link LandmarkPreprocessor} and can be saved
+ * to and loaded from a file, so that preprocessing is done once per graph.
+ * The distances are stored in primitive tables indexed by landmark and
+ * vertex position; on undirected graphs, both directions share one table.
+ *
+ * @param <V> Vertex
+ *
+ * @author Adam Gouge
+ */
+public class Landmarks<V extends VId> implements Heuristic<V> {
+
+    /**
+     * Identifies landmark files.
+     */
+    private static final int MAGIC = 0x4A4E414C;
+    /**
+     * Version of the file format.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Vertex ids, by position.
+     */
+    private final int[] vertexIds;
+    /**
+     * Vertex positions, by id, or -1.
+     */
+    private final int[] positions;
+    /**
+     * Landmark ids.
+     */
+    private final int[] landmarkIds;
+    /**
+     * Distances from each landmark to each vertex.
+     */
+    private final double[][] from;
+    /**
+     * Distances from each vertex to each landmark; the same table as
+     * {@link #from} on undirected graphs.
+     */
+    private final double[][] to;
+
+    /**
+     * Constructs a new {@link Landmarks} object.
+     *
+     * @param vertexIds   Vertex ids, by position
+     * @param landmarkIds Landmark ids
+     * @param from        Distances from each landmark to each vertex
+     * @param to          Distances from each vertex to each landmark, or the
+     *                    same table as from on undirected graphs
+     */
+    Landmarks(int[] vertexIds, int[] landmarkIds,
+              double[][] from, double[][] to) {
+        this.vertexIds = vertexIds;
+        this.landmarkIds = landmarkIds;
+        this.from = from;
+        this.to = to;
+        int maxId = -1;
+        for (int id : vertexIds) {
+            if (id < 0) {
+                throw new IllegalArgumentException(
+                        "Negative vertex id " + id + ".");
+            }
+            maxId = Math.max(maxId, id);
+        }
+        this.positions = new int[maxId + 1];
+        Arrays.fill(positions, -1);
+        for (int p = 0; p < vertexIds.length; p++) {
+            positions[vertexIds[p]] = p;
+        }
+    }
+
+    /**
+     * Returns the number of landmarks.
+     *
+     * @return The number of landmarks
+     */
+    public int size() {
+        return landmarkIds.length;
+    }
+
+    /**
+     * Returns the ids of the landmarks.
+     *
+     * @return The ids of the landmarks
+     */
+    public int[] getLandmarkIds() {
+        return Arrays.copyOf(landmarkIds, landmarkIds.length);
+    }
+
+    /**
+     * Returns true if the graph was directed, i.e., if distances to the
+     * landmarks are stored apart from distances from the landmarks.
+     *
+     * @return True if the graph was directed
+     */
+    public boolean isDirected() {
+        return from != to;
+    }
+
+    /**
+     * Returns the distance from the i-th landmark to the vertex of the given
+     * id.
+     *
+     * @param i  Landmark index
+     * @param id Vertex id
+     *
+     * @return The distance from the landmark to the vertex
+     */
+    public double getDistanceFrom(int i, int id) {
+        return from[i][position(id)];
+    }
+
+    /**
+     * Returns the distance from the vertex of the given id to the i-th
+     * landmark.
+     *
+     * @param i  Landmark index
+     * @param id Vertex id
+     *
+     * @return The distance from the vertex to the landmark
+     */
+    public double getDistanceTo(int i, int id) {
+        return to[i][position(id)];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Vertices unknown to the landmarks get zero.
+     */
+    @Override
+    public double estimate(V v, V target) {
+        final int vId = v.getID();
+        final int tId = target.getID();
+        if (vId >= positions.length || tId >= positions.length
+            || positions[vId] < 0 || positions[tId] < 0) {
+            return 0.0;
+        }
+        return lowerBound(positions[vId], positions[tId]);
+    }
+
+    /**
+     * Returns the best landmark lower bound on the distance between the
+     * vertices at the given positions.
+     *
+     * @param v Position of the first vertex
+     * @param t Position of the second vertex
+     *
+     * @return A lower bound on the distance from v to t
+     */
+    double lowerBound(int v, int t) {
+        double bound = 0.0;
+        for (int i = 0; i < landmarkIds.length; i++) {
+            // d(v,t) >= d(L,t) - d(L,v). If L reaches t but not v, the
+            // difference is -infinity; if L reaches v but not t, then v
+            // does not reach t either and the bound is infinite, as it
+            // should. If L reaches neither, the difference is NaN and is
+            // ignored.
+            final double fromBound = from[i][t] - from[i][v];
+            if (fromBound > bound) {
+                bound = fromBound;
+            }
+            // d(v,t) >= d(v,L) - d(t,L).
+            final double toBound = to[i][v] - to[i][t];
+            if (toBound > bound) {
+                bound = toBound;
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * Saves the landmarks and their distance tables to the given file.
+     *
+     * @param file File
+     *
+     * @throws IOException If the file cannot be written
+     */
+    public void save(File file) throws IOException {
+        final DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeBoolean(isDirected());
+            out.writeInt(vertexIds.length);
+            out.writeInt(landmarkIds.length);
+            for (int id : vertexIds) {
+                out.writeInt(id);
+            }
+            for (int id : landmarkIds) {
+                out.writeInt(id);
+            }
+            writeTable(out, from);
+            if (isDirected()) {
+                writeTable(out, to);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Loads landmarks saved by {@link #save(File)}.
+     *
+     * @param file File
+     * @param <V>  Vertex
+     *
+     * @return The landmarks
+     *
+     * @throws IOException If the file cannot be read or is not a landmark
+     *                     file
+     */
+    public static <V extends VId> Landmarks<V> load(File file)
+            throws IOException {
+        final DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a landmark file.");
+            }
+            final int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException(
+                        "Unsupported landmark file version " + version + ".");
+            }
+            final boolean directed = in.readBoolean();
+            final int n = in.readInt();
+            final int k = in.readInt();
+            final int[] vertexIds = new int[n];
+            for (int p = 0; p < n; p++) {
+                vertexIds[p] = in.readInt();
+            }
+            final int[] landmarkIds = new int[k];
+            for (int i = 0; i < k; i++) {
+                landmarkIds[i] = in.readInt();
+            }
+            final double[][] from = readTable(in, k, n);
+            final double[][] to = directed ? readTable(in, k, n) : from;
+            return new Landmarks<V>(vertexIds, landmarkIds, from, to);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Returns the position of the vertex of the given id.
+     *
+     * @param id Vertex id
+     *
+     * @return The position of the vertex
+     */
+    private int position(int id) {
+        if (id < 0 || id >= positions.length || positions[id] < 0) {
+            throw new IllegalArgumentException(
+                    "Vertex " + id + " has no landmark distances.");
+        }
+        return positions[id];
+    }
+
+    private static void writeTable(DataOutputStream out, double[][] table)
+            throws IOException {
+        for (double[] row : table) {
+            for (double d : row) {
+                out.writeDouble(d);
+            }
+        }
+    }
+
+    private static double[][] readTable(DataInputStream in, int k, int n)
+            throws IOException {
+        final double[][] table = new double[k][n];
+        for (int i = 0; i < k; i++) {
+            for (int p = 0; p < n; p++) {
+                table[i][p] = in.readDouble();
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import org.javanetworkanalyzer.data.UnweightedPathLengthData;
+import org.javanetworkanalyzer.model.GraphIndex;
+import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs up to {@link #BATCH_SIZE} breadth first searches at once, as in Then,
+ * Kaufmann, Chirigati, Hoang-Vu, Pham, Kemper, Neumann and Vo, <i>The More
+ * the Merrier: Efficient Multi-Source Graph Traversal</i>, 2014.
+ *
+ * Every vertex holds one bit per search in a {@code long}, so the sets of
+ * visited nodes, of nodes in the current frontier and of nodes in the next
+ * frontier of all searches are updated with a few word-level operations per
+ * edge, and every edge is scanned once per level for all searches together.
+ *
+ * Only shortest path lengths are recorded, in the same
+ * {@link UnweightedPathLengthData} as {@link BFSForCentrality}; shortest path
+ * counts and predecessors are not.
+ *
+ * @param <V> Vertex
+ * @param <E> Edge
+ *
+ * @author Adam Gouge
+ */
+public class MultiSourceBFS<V, E> {
+
+    /**
+     * Maximum number of searches run at once.
+     */
+    public static final int BATCH_SIZE = Long.SIZE;
+    /**
+     * Vertex index.
+     */
+    private final GraphIndex<V, E> index;
+    /**
+     * Indices of the out-neighbors of every vertex.
+     */
+    private final int[][] successors;
+    /**
+     * Searches which have found each vertex.
+     */
+    private final long[] seen;
+    /**
+     * Searches having each vertex in their current frontier.
+     */
+    private long[] visit;
+    /**
+     * Searches having each vertex in their next frontier.
+     */
+    private long[] visitNext;
+    /**
+     * Distance beyond which nodes are not explored.
+     */
+    private double radius = Double.POSITIVE_INFINITY;
+
+    /**
+     * Constructor.
+     *
+     * @param graph The graph
+     */
+    public MultiSourceBFS(Graph<V, E> graph) {
+        this.index = new GraphIndex<V, E>(graph);
+        final int n = index.getVertexCount();
+        this.successors = new int[n][];
+        for (int i = 0; i < n; i++) {
+            final V v = index.getVertex(i);
+            final Set<E> outgoing =
+                    GraphSearchAlgorithm.outgoingEdgesOf(graph, v);
+            successors[i] = new int[outgoing.size()];
+            int j = 0;
+            for (E e : outgoing) {
+                successors[i][j++] =
+                        index.indexOf(Graphs.getOppositeVertex(graph, e, v));
+            }
+        }
+        this.seen = new long[n];
+        this.visit = new long[n];
+        this.visitNext = new long[n];
+    }
+
+    /**
+     * Sets the distance beyond which nodes are not explored (infinite by
+     * default), as in {@link BFSForCentrality#setRadius(double)}.
+     *
+     * @param radius Radius
+     */
+    public void setRadius(double radius) {
+        this.radius = radius;
+    }
+
+    /**
+     * Returns the distance beyond which nodes are not explored.
+     *
+     * @return The radius
+     */
+    public double getRadius() {
+        return radius;
+    }
+
+    /**
+     * Does a breadth first search from each of the given start nodes and
+     * returns the lengths of the shortest paths from each of them to every
+     * other node it can reach within the radius.
+     *
+     * @param startNodes At most {@link #BATCH_SIZE} start nodes
+     *
+     * @return The shortest path lengths from each start node, in the order of
+     *         the start nodes
+     */
+    public UnweightedPathLengthData[] calculate(List<V> startNodes) {
+        final int size = startNodes.size();
+        if (size > BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + BATCH_SIZE
+                    + " start nodes may be searched from at once.");
+        }
+        final UnweightedPathLengthData[] paths =
+                new UnweightedPathLengthData[size];
+        Arrays.fill(seen, 0L);
+        Arrays.fill(visit, 0L);
+        for (int i = 0; i < size; i++) {
+            paths[i] = new UnweightedPathLengthData();
+            final int s = index.indexOf(startNodes.get(i));
+            seen[s] |= 1L << i;
+            visit[s] |= 1L << i;
+        }
+
+        boolean frontierIsEmpty = (size == 0);
+        int level = 0;
+        // The next frontier is at distance level + 1.
+        while (!frontierIsEmpty && level + 1 <= radius) {
+            level++;
+            frontierIsEmpty = true;
+            Arrays.fill(visitNext, 0L);
+            for (int v = 0; v < visit.length; v++) {
+                final long searches = visit[v];
+                if (searches == 0L) {
+                    continue;
+                }
+                for (int w : successors[v]) {
+                    // The searches reaching w for the first time.
+                    long found = searches & ~seen[w];
+                    if (found != 0L) {
+                        seen[w] |= found;
+                        visitNext[w] |= found;
+                        frontierIsEmpty = false;
+                        while (found != 0L) {
+                            paths[Long.numberOfTrailingZeros(found)]
+                                    .addSPLength(level);
+                            found &= found - 1;
+                        }
+                    }
+                }
+            }
+            final long[] tmp = visit;
+            visit = visitNext;
+            visitNext = tmp;
+        }
+        return paths;
+    }
+}
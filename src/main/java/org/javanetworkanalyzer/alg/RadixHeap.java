@@ -0,0 +1,191 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import org.javanetworkanalyzer.data.VDijkstra;
+
+import java.util.Arrays;
+
+/**
+ * Radix heap of vertices keyed by their fixed-point distance (see
+ * {@link VDijkstra#getFixedDistance()}), used by {@link Dijkstra} in
+ * fixed-point mode.
+ *
+ * A radix heap is a monotone priority queue: keys may never be smaller than
+ * the last key polled, which holds in Dijkstra's algorithm with nonnegative
+ * weights. Bucket i holds the keys whose highest bit differing from the last
+ * key polled is bit i - 1, so each key moves down at most 64 times and every
+ * operation is a few integer operations, with no comparison between keys
+ * except when a bucket is emptied. Decreasing a key adds a new entry; the
+ * old one is skipped when it is polled, as it no longer matches the
+ * distance of its vertex.
+ *
+ * @param <V> Vertex
+ *
+ * @author Adam Gouge
+ */
+public class RadixHeap<V extends VDijkstra> implements DijkstraQueue<V> {
+
+    /**
+     * Number of buckets: one for the last key polled and one per bit.
+     */
+    private static final int BUCKETS = Long.SIZE + 1;
+    /**
+     * Initial capacity of each bucket.
+     */
+    private static final int INITIAL_CAPACITY = 4;
+    /**
+     * Keys of the entries of each bucket.
+     */
+    private final long[][] keys = new long[BUCKETS][];
+    /**
+     * Vertices of the entries of each bucket.
+     */
+    private final VDijkstra[][] nodes = new VDijkstra[BUCKETS][];
+    /**
+     * Number of entries in each bucket.
+     */
+    private final int[] sizes = new int[BUCKETS];
+    /**
+     * Number of entries, including stale ones.
+     */
+    private int size;
+    /**
+     * Last key polled.
+     */
+    private long last;
+
+    /**
+     * Constructs a new radix heap.
+     */
+    public RadixHeap() {
+        for (int i = 0; i < BUCKETS; i++) {
+            keys[i] = new long[INITIAL_CAPACITY];
+            nodes[i] = new VDijkstra[INITIAL_CAPACITY];
+        }
+    }
+
+    @Override
+    public void add(V v) {
+        final long key = v.getFixedDistance();
+        if (key < last) {
+            throw new IllegalArgumentException(
+                    "Key " + key + " is smaller than the last key polled ("
+                    + last + ").");
+        }
+        push(bucket(key), key, v);
+        size++;
+    }
+
+    @Override
+    public void decreaseKey(V v) {
+        add(v);
+    }
+
+    @Override
+    public V poll() {
+        while (size > 0) {
+            if (sizes[0] == 0) {
+                redistribute();
+            }
+            final int i = --sizes[0];
+            final long key = keys[0][i];
+            final V v = (V) nodes[0][i];
+            nodes[0][i] = null;
+            size--;
+            // Skip stale entries.
+            if (v.getFixedDistance() == key) {
+                return v;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        for (int b = 0; b < BUCKETS; b++) {
+            Arrays.fill(nodes[b], 0, sizes[b], null);
+            sizes[b] = 0;
+        }
+        size = 0;
+        last = 0;
+    }
+
+    /**
+     * Empties the first nonempty bucket into the lower buckets, taking its
+     * smallest key as the last key polled. Bucket 0 must be empty and the
+     * heap must not be.
+     */
+    private void redistribute() {
+        int b = 1;
+        while (sizes[b] == 0) {
+            b++;
+        }
+        final long[] bucketKeys = keys[b];
+        final VDijkstra[] bucketNodes = nodes[b];
+        final int bucketSize = sizes[b];
+        long min = bucketKeys[0];
+        for (int i = 1; i < bucketSize; i++) {
+            if (bucketKeys[i] < min) {
+                min = bucketKeys[i];
+            }
+        }
+        last = min;
+        sizes[b] = 0;
+        // Every key of bucket b now falls into a bucket below b.
+        for (int i = 0; i < bucketSize; i++) {
+            push(bucket(bucketKeys[i]), bucketKeys[i], bucketNodes[i]);
+            bucketNodes[i] = null;
+        }
+    }
+
+    /**
+     * Returns the bucket of the given key.
+     *
+     * @param key Key
+     *
+     * @return The bucket of the given key
+     */
+    private int bucket(long key) {
+        return key == last ? 0 : Long.SIZE - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    /**
+     * Adds an entry to the given bucket.
+     *
+     * @param b   Bucket
+     * @param key Key
+     * @param v   Vertex
+     */
+    private void push(int b, long key, VDijkstra v) {
+        final int i = sizes[b]++;
+        if (i == keys[b].length) {
+            keys[b] = Arrays.copyOf(keys[b], 2 * i);
+            nodes[b] = Arrays.copyOf(nodes[b], 2 * i);
+        }
+        keys[b][i] = key;
+        nodes[b][i] = v;
+    }
+}
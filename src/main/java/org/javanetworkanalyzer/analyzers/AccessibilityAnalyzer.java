@@ -28,6 +28,8 @@ import java.util.Set;
 import org.javanetworkanalyzer.alg.DijkstraForAccessibility;
 import org.javanetworkanalyzer.data.VAccess;
 import org.javanetworkanalyzer.model.EdgeSPT;
+import org.javanetworkanalyzer.model.WeightProfile;
+import org.javanetworkanalyzer.results.ResultSink;
 import org.jgrapht.DirectedGraph;
 import org.jgrapht.Graph;
 import org.jgrapht.graph.EdgeReversedGraph;
@@ -44,6 +46,14 @@ public class AccessibilityAnalyzer<E extends EdgeSPT> extends GeneralizedGraphAn
      * The set of destinations.
      */
     private Set<VAccess> destinations;
+    /**
+     * Sink receiving the results, or null.
+     */
+    private ResultSink sink;
+    /**
+     * Weight profile giving the edge weights, or null.
+     */
+    private WeightProfile profile;
 
     /**
      * Constructor: sets the graph.
@@ -57,6 +67,36 @@ public class AccessibilityAnalyzer<E extends EdgeSPT> extends GeneralizedGraphAn
         verifyDestinations();
     }
 
+    /**
+     * Sets the sink receiving the closest destination of every vertex and
+     * the distance to it once {@link #compute()} is done, or null to keep
+     * them in the vertices only (the default). The sink is not closed.
+     *
+     * @param sink Result sink, or null
+     */
+    public void setResultSink(ResultSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Returns the sink receiving the results, or null.
+     *
+     * @return The result sink, or null
+     */
+    public ResultSink getResultSink() {
+        return sink;
+    }
+
+    /**
+     * Sets the weight profile giving the edge weights, or null to use the
+     * weights of the graph (the default).
+     *
+     * @param profile Weight profile, or null
+     */
+    public void setWeightProfile(WeightProfile profile) {
+        this.profile = profile;
+    }
+
     /**
      * Performs accessibility analysis.
      */
@@ -71,6 +111,7 @@ public class AccessibilityAnalyzer<E extends EdgeSPT> extends GeneralizedGraphAn
         // Obtain a Dijkstra algorithm on the reversed graph.
         DijkstraForAccessibility<E> dijkstra =
                 new DijkstraForAccessibility<E>(g);
+        dijkstra.setWeightProfile(profile);
         // Now shortest paths from each destination the reversed graph
         // correspond to shortest paths to each destination in the original
         // graph.
@@ -82,6 +123,13 @@ public class AccessibilityAnalyzer<E extends EdgeSPT> extends GeneralizedGraphAn
             // the closest destination accordingly.
             dijkstra.calculate(dest);
         }
+        if (sink != null) {
+            for (VAccess v : nodeSet) {
+                sink.writeAccessibility(v.getID(),
+                                        v.getClosestDestinationId(),
+                                        v.getDistanceToClosestDestination());
+            }
+        }
     }
 
     /**
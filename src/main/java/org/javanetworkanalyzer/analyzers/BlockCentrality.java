@@ -0,0 +1,328 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import org.javanetworkanalyzer.alg.BiconnectedComponents;
+import org.javanetworkanalyzer.data.VCent;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.GraphIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Combines the betweenness and closeness computed separately on each block
+ * of an undirected graph, as in Puzis, Zilberman, Elovici, Dolev and
+ * Brandes, <i>Heuristics for speeding up betweenness centrality
+ * computation</i>, 2012.
+ *
+ * The blocks and articulation points form a forest, the block-cut tree. All
+ * paths between two blocks go through the articulation points separating
+ * them in this tree, so a vertex a of block B stands, as a source or a target
+ * of the searches on B, for itself and for all the vertices separated from B
+ * by a: this is the {@link #getWeights weight} of a in B. The searches on
+ * B, run with these weights (see {@link GraphAnalyzer#setBlockDecomposition}),
+ * give the contributions of the paths through the inside of B. Paths
+ * separated by an articulation point are added by
+ * {@link #addArticulationPointBetweenness()}.
+ *
+ * @param <V> Vertex
+ * @param <E> Edge
+ *
+ * @author Adam Gouge
+ */
+class BlockCentrality<V extends VCent, E extends EdgeCent> {
+
+    /**
+     * Vertex numbering.
+     */
+    private final GraphIndex<V, E> index;
+    /**
+     * The decomposition.
+     */
+    private final BiconnectedComponents<V, E> components;
+    /**
+     * Blocks in breadth-first order of the block-cut forest, roots first.
+     */
+    private final List<Integer> order;
+    /**
+     * Articulation point through which each block hangs on its parent block,
+     * or -1 for roots.
+     */
+    private final int[] parentCut;
+    /**
+     * Blocks of each vertex.
+     */
+    private final List<List<Integer>> blocksOf;
+    /**
+     * Number of vertices of the connected component of each block.
+     */
+    private final long[] componentSize;
+    /**
+     * Weight of each vertex of each block, in the order of
+     * {@link BiconnectedComponents#getBlockVertices}.
+     */
+    private final long[][] weights;
+    /**
+     * Weighted distance sum of each vertex of each block, in the order of
+     * {@link BiconnectedComponents#getBlockVertices}.
+     */
+    private final double[][] weightedDistanceSums;
+
+    /**
+     * Builds the block-cut forest and computes the weights.
+     *
+     * @param index      Vertex numbering
+     * @param components The decomposition of the graph
+     */
+    BlockCentrality(GraphIndex<V, E> index,
+                    BiconnectedComponents<V, E> components) {
+        this.index = index;
+        this.components = components;
+        final int numberOfBlocks = components.getNumberOfBlocks();
+        this.order = new ArrayList<Integer>(numberOfBlocks);
+        this.parentCut = new int[numberOfBlocks];
+        this.componentSize = new long[numberOfBlocks];
+        this.weights = new long[numberOfBlocks][];
+        this.weightedDistanceSums = new double[numberOfBlocks][];
+        this.blocksOf = new ArrayList<List<Integer>>();
+        for (int i = 0; i < index.getVertexCount(); i++) {
+            blocksOf.add(new ArrayList<Integer>(1));
+        }
+        for (int b = 0; b < numberOfBlocks; b++) {
+            for (V v : components.getBlockVertices(b)) {
+                blocksOf.get(index.indexOf(v)).add(b);
+            }
+        }
+
+        // Breadth-first search of the block-cut forest.
+        final boolean[] visited = new boolean[numberOfBlocks];
+        for (int root = 0; root < numberOfBlocks; root++) {
+            if (visited[root]) {
+                continue;
+            }
+            final int first = order.size();
+            visited[root] = true;
+            parentCut[root] = -1;
+            order.add(root);
+            for (int j = first; j < order.size(); j++) {
+                final int b = order.get(j);
+                for (V v : components.getBlockVertices(b)) {
+                    final int i = index.indexOf(v);
+                    if (i == parentCut[b]) {
+                        continue;
+                    }
+                    for (int child : blocksOf.get(i)) {
+                        if (!visited[child]) {
+                            visited[child] = true;
+                            parentCut[child] = i;
+                            order.add(child);
+                        }
+                    }
+                }
+            }
+            computeWeights(order.subList(first, order.size()));
+        }
+    }
+
+    /**
+     * Computes the weights of the vertices of the blocks of one connected
+     * component.
+     *
+     * @param tree Blocks of the component, in breadth-first order
+     */
+    private void computeWeights(List<Integer> tree) {
+        // Number of vertices below each block, its parent cut excluded, and
+        // below each articulation point.
+        final Map<Integer, Long> below = new HashMap<Integer, Long>();
+        final long[] belowBlock = new long[components.getNumberOfBlocks()];
+        for (int j = tree.size() - 1; j >= 0; j--) {
+            final int b = tree.get(j);
+            long size = 0;
+            for (V v : components.getBlockVertices(b)) {
+                final int i = index.indexOf(v);
+                if (i != parentCut[b]) {
+                    final Long belowCut = below.get(i);
+                    size += 1 + ((belowCut == null) ? 0 : belowCut);
+                }
+            }
+            belowBlock[b] = size;
+            if (parentCut[b] >= 0) {
+                final Long belowCut = below.get(parentCut[b]);
+                below.put(parentCut[b],
+                          size + ((belowCut == null) ? 0 : belowCut));
+            }
+        }
+        final long n = belowBlock[tree.get(0)];
+        for (int b : tree) {
+            componentSize[b] = n;
+            final List<V> vertices = components.getBlockVertices(b);
+            weights[b] = new long[vertices.size()];
+            for (int k = 0; k < vertices.size(); k++) {
+                final int i = index.indexOf(vertices.get(k));
+                if (i == parentCut[b]) {
+                    weights[b][k] = n - belowBlock[b];
+                } else {
+                    final Long belowCut = below.get(i);
+                    weights[b][k] = 1 + ((belowCut == null) ? 0 : belowCut);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the weight of each vertex of the given block, by id.
+     *
+     * @param block Block
+     *
+     * @return The weights of the vertices of the block, by id
+     */
+    Map<Integer, Long> getWeights(int block) {
+        final List<V> vertices = components.getBlockVertices(block);
+        final Map<Integer, Long> map = new HashMap<Integer, Long>();
+        for (int k = 0; k < vertices.size(); k++) {
+            map.put(vertices.get(k).getID(), weights[block][k]);
+        }
+        return map;
+    }
+
+    /**
+     * Returns the weight of the given vertex of the given block.
+     *
+     * @param block  Block
+     * @param vertex Position of the vertex in the block
+     *
+     * @return The weight of the vertex in the block
+     */
+    long getWeight(int block, int vertex) {
+        return weights[block][vertex];
+    }
+
+    /**
+     * Stores the sums, over the vertices of the given block, of the weight
+     * times the distance from each vertex of the block. Blocks may be stored
+     * from different threads.
+     *
+     * @param block Block
+     * @param sums  Weighted distance sums, in the order of
+     *              {@link BiconnectedComponents#getBlockVertices}
+     */
+    void setWeightedDistanceSums(int block, double[] sums) {
+        weightedDistanceSums[block] = sums;
+    }
+
+    /**
+     * Adds the betweenness of the paths separated by each articulation
+     * point, i.e., of the pairs of vertices lying in two different connected
+     * components of the graph minus the articulation point.
+     */
+    void addArticulationPointBetweenness() {
+        final double[] squares = new double[index.getVertexCount()];
+        final long[] size = new long[index.getVertexCount()];
+        for (int b = 0; b < weights.length; b++) {
+            final List<V> vertices = components.getBlockVertices(b);
+            for (int k = 0; k < vertices.size(); k++) {
+                final int i = index.indexOf(vertices.get(k));
+                // The side of block b holds all the other vertices, except
+                // for those the vertex stands for in b.
+                final double side = componentSize[b] - weights[b][k];
+                squares[i] += side * side;
+                size[i] = componentSize[b];
+            }
+        }
+        for (int i = 0; i < squares.length; i++) {
+            if (blocksOf.get(i).size() > 1) {
+                final double others = size[i] - 1;
+                index.getVertex(i).accumulateBetweenness(
+                        others * others - squares[i]);
+            }
+        }
+    }
+
+    /**
+     * Sets the closeness of every vertex as {@link GraphAnalyzer} defines it,
+     * from the weighted distance sums of all the blocks.
+     */
+    void setCloseness() {
+        final int n = index.getVertexCount();
+        final boolean connected = n > 1 && !order.isEmpty()
+                                  && componentSize[order.get(0)] == n;
+        if (!connected) {
+            for (int i = 0; i < n; i++) {
+                index.getVertex(i).setCloseness(0.0);
+            }
+            return;
+        }
+        // For each block, the sum of the distances from its parent cut to
+        // the vertices below it; then, for each articulation point, the sum
+        // of these over its child blocks.
+        final double[] down = new double[weights.length];
+        final double[] downOfCut = new double[n];
+        for (int j = order.size() - 1; j >= 0; j--) {
+            final int b = order.get(j);
+            final List<V> vertices = components.getBlockVertices(b);
+            for (int k = 0; k < vertices.size(); k++) {
+                final int i = index.indexOf(vertices.get(k));
+                if (i == parentCut[b]) {
+                    down[b] += weightedDistanceSums[b][k];
+                } else {
+                    down[b] += downOfCut[i];
+                }
+            }
+            if (parentCut[b] >= 0) {
+                downOfCut[parentCut[b]] += down[b];
+            }
+        }
+        final double[] farness = new double[n];
+        for (int b : order) {
+            final List<V> vertices = components.getBlockVertices(b);
+            // Sum of the distances from the vertices of the block to the
+            // vertices they stand for.
+            double standIns = 0.0;
+            for (int k = 0; k < vertices.size(); k++) {
+                final int i = index.indexOf(vertices.get(k));
+                if (i == parentCut[b]) {
+                    // Everything not below b, seen from its parent cut.
+                    standIns += farness[i] - down[b];
+                } else {
+                    standIns += downOfCut[i];
+                }
+            }
+            for (int k = 0; k < vertices.size(); k++) {
+                final int i = index.indexOf(vertices.get(k));
+                if (i != parentCut[b]) {
+                    farness[i] = weightedDistanceSums[b][k] + standIns;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            final double avgPathLength = farness[i] / (n - 1);
+            index.getVertex(i).setCloseness(
+                    (avgPathLength > 0.0) ? 1 / avgPathLength : 0.0);
+        }
+    }
+}
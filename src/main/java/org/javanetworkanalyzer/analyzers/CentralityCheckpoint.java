@@ -0,0 +1,415 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import org.javanetworkanalyzer.data.VCent;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.GraphIndex;
+import org.jgrapht.Graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Unnormalized betweenness and closeness values accumulated by a
+ * {@link GraphAnalyzer} from some of its sources, in a compact binary format
+ * that can be written to and read from a file.
+ *
+ * Vertices are identified by their ids and edges by their position in
+ * {@link Graph#edgeSet()}; the ids of the endpoints of each edge are stored
+ * so that we can make sure a checkpoint is restored on the same graph.
+ *
+ * @author Adam Gouge
+ */
+public class CentralityCheckpoint {
+
+    /**
+     * Magic number at the start of every checkpoint file.
+     */
+    private static final int MAGIC = 0x4A4E4143;
+    /**
+     * Version of the file format.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Seed used to choose the pivots.
+     */
+    private final long seed;
+    /**
+     * Number of pivots, or zero if every vertex is a source.
+     */
+    private final int numberOfPivots;
+    /**
+     * Vertex ids, by vertex index.
+     */
+    private final int[] vertexIds;
+    /**
+     * Vertex betweenness, by vertex index.
+     */
+    private final double[] betweenness;
+    /**
+     * Vertex closeness, by vertex index.
+     */
+    private final double[] closeness;
+    /**
+     * Whether each vertex is a finished source, by vertex index.
+     */
+    private final boolean[] finished;
+    /**
+     * Edge source ids, by edge index.
+     */
+    private final int[] edgeSourceIds;
+    /**
+     * Edge target ids, by edge index.
+     */
+    private final int[] edgeTargetIds;
+    /**
+     * Edge betweenness, by edge index.
+     */
+    private final double[] edgeBetweenness;
+
+    /**
+     * Constructor.
+     *
+     * @param seed           Seed used to choose the pivots
+     * @param numberOfPivots Number of pivots, or zero
+     * @param vertexCount    Number of vertices
+     * @param edgeCount      Number of edges
+     */
+    private CentralityCheckpoint(long seed, int numberOfPivots,
+                                 int vertexCount, int edgeCount) {
+        this.seed = seed;
+        this.numberOfPivots = numberOfPivots;
+        this.vertexIds = new int[vertexCount];
+        this.betweenness = new double[vertexCount];
+        this.closeness = new double[vertexCount];
+        this.finished = new boolean[vertexCount];
+        this.edgeSourceIds = new int[edgeCount];
+        this.edgeTargetIds = new int[edgeCount];
+        this.edgeBetweenness = new double[edgeCount];
+    }
+
+    /**
+     * Takes a snapshot of the current (unnormalized) betweenness and closeness
+     * values of the given graph.
+     *
+     * @param graph          The graph
+     * @param index          Vertex and edge numbering of the graph
+     * @param finished       Whether each vertex is a finished source, by
+     *                       vertex index
+     * @param seed           Seed used to choose the pivots
+     * @param numberOfPivots Number of pivots, or zero
+     *
+     * @return The snapshot
+     */
+    public static <V extends VCent, E extends EdgeCent> CentralityCheckpoint
+    capture(Graph<V, E> graph, GraphIndex<V, E> index, boolean[] finished,
+            long seed, int numberOfPivots) {
+        CentralityCheckpoint checkpoint = new CentralityCheckpoint(
+                seed, numberOfPivots,
+                index.getVertexCount(), index.getEdgeCount());
+        for (int i = 0; i < index.getVertexCount(); i++) {
+            V v = index.getVertex(i);
+            checkpoint.vertexIds[i] = v.getID();
+            checkpoint.betweenness[i] = v.getBetweenness();
+            checkpoint.closeness[i] = v.getCloseness();
+            checkpoint.finished[i] = finished[i];
+        }
+        for (int i = 0; i < index.getEdgeCount(); i++) {
+            E e = index.getEdge(i);
+            checkpoint.edgeSourceIds[i] = graph.getEdgeSource(e).getID();
+            checkpoint.edgeTargetIds[i] = graph.getEdgeTarget(e).getID();
+            checkpoint.edgeBetweenness[i] = e.getBetweenness();
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Sets the betweenness and closeness values of the given graph to the
+     * ones stored in this checkpoint and marks the finished sources.
+     *
+     * @param graph    The graph
+     * @param index    Vertex and edge numbering of the graph
+     * @param finished Array in which to mark the finished sources, by vertex
+     *                 index
+     *
+     * @throws IllegalStateException If this checkpoint was not taken on the
+     *                               same graph
+     */
+    public <V extends VCent, E extends EdgeCent> void restore(
+            Graph<V, E> graph, GraphIndex<V, E> index, boolean[] finished) {
+        checkSameGraph(graph, index);
+        for (int i = 0; i < vertexIds.length; i++) {
+            V v = index.getVertex(i);
+            v.setBetweenness(betweenness[i]);
+            v.setCloseness(closeness[i]);
+            finished[i] = this.finished[i];
+        }
+        for (int i = 0; i < edgeBetweenness.length; i++) {
+            index.getEdge(i).setBetweenness(edgeBetweenness[i]);
+        }
+    }
+
+    /**
+     * Adds the betweenness values stored in this checkpoint to those of the
+     * given graph, copies the closeness values of the finished sources and
+     * marks them as finished.
+     *
+     * @param graph    The graph
+     * @param index    Vertex and edge numbering of the graph
+     * @param finished Array in which to mark the finished sources, by vertex
+     *                 index
+     *
+     * @throws IllegalStateException If this checkpoint was not taken on the
+     *                               same graph or a finished source is
+     *                               already marked as finished
+     */
+    public <V extends VCent, E extends EdgeCent> void accumulate(
+            Graph<V, E> graph, GraphIndex<V, E> index, boolean[] finished) {
+        checkSameGraph(graph, index);
+        for (int i = 0; i < vertexIds.length; i++) {
+            V v = index.getVertex(i);
+            v.accumulateBetweenness(betweenness[i]);
+            if (this.finished[i]) {
+                if (finished[i]) {
+                    throw new IllegalStateException("Source " + vertexIds[i]
+                                                    + " was processed twice.");
+                }
+                v.setCloseness(closeness[i]);
+                finished[i] = true;
+            }
+        }
+        for (int i = 0; i < edgeBetweenness.length; i++) {
+            index.getEdge(i).accumulateBetweenness(edgeBetweenness[i]);
+        }
+    }
+
+    /**
+     * Makes sure the given graph has the vertices and edges this checkpoint
+     * was taken on, in the same order.
+     *
+     * @param graph The graph
+     * @param index Vertex and edge numbering of the graph
+     */
+    private <V extends VCent, E extends EdgeCent> void checkSameGraph(
+            Graph<V, E> graph, GraphIndex<V, E> index) {
+        if (index.getVertexCount() != vertexIds.length
+            || index.getEdgeCount() != edgeBetweenness.length) {
+            throw new IllegalStateException(
+                    "The checkpoint was taken on a graph with "
+                    + vertexIds.length + " vertices and "
+                    + edgeBetweenness.length + " edges.");
+        }
+        for (int i = 0; i < vertexIds.length; i++) {
+            if (index.getVertex(i).getID() != vertexIds[i]) {
+                throw new IllegalStateException(
+                        "The checkpoint vertices do not match the graph.");
+            }
+        }
+        for (int i = 0; i < edgeBetweenness.length; i++) {
+            E e = index.getEdge(i);
+            if (graph.getEdgeSource(e).getID() != edgeSourceIds[i]
+                || graph.getEdgeTarget(e).getID() != edgeTargetIds[i]) {
+                throw new IllegalStateException(
+                        "The checkpoint edges do not match the graph.");
+            }
+        }
+    }
+
+    /**
+     * Returns the seed used to choose the pivots.
+     *
+     * @return The seed used to choose the pivots
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the number of pivots, or zero if every vertex is a source.
+     *
+     * @return The number of pivots
+     */
+    public int getNumberOfPivots() {
+        return numberOfPivots;
+    }
+
+    /**
+     * Returns the number of finished sources.
+     *
+     * @return The number of finished sources
+     */
+    public int getNumberOfFinishedSources() {
+        int count = 0;
+        for (boolean f : finished) {
+            if (f) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes this checkpoint to the given file. The checkpoint is first
+     * written to a temporary file (see {@link #temporaryFile(File)}) which is
+     * then renamed over the given file, so that a run killed while writing
+     * never leaves a truncated checkpoint behind. On platforms which cannot
+     * rename over an existing file, the given file is deleted first; a run
+     * killed in between leaves the complete temporary file, which
+     * {@link #readLatest(File)} falls back on.
+     *
+     * @param file The file
+     *
+     * @throws IOException If the file could not be written
+     */
+    public void write(File file) throws IOException {
+        File tmp = temporaryFile(file);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(tmp)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(seed);
+            out.writeInt(numberOfPivots);
+            out.writeInt(vertexIds.length);
+            out.writeInt(edgeBetweenness.length);
+            for (int i = 0; i < vertexIds.length; i++) {
+                out.writeInt(vertexIds[i]);
+                out.writeDouble(betweenness[i]);
+                out.writeDouble(closeness[i]);
+                out.writeBoolean(finished[i]);
+            }
+            for (int i = 0; i < edgeBetweenness.length; i++) {
+                out.writeInt(edgeSourceIds[i]);
+                out.writeInt(edgeTargetIds[i]);
+                out.writeDouble(edgeBetweenness[i]);
+            }
+        } finally {
+            out.close();
+        }
+        if (tmp.renameTo(file)) {
+            return;
+        }
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Could not replace " + file + ".");
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Could not rename " + tmp + " to "
+                                  + file + ".");
+        }
+    }
+
+    /**
+     * Returns the temporary file {@link #write(File)} writes to before
+     * replacing the given file.
+     *
+     * @param file The file
+     *
+     * @return The temporary file
+     */
+    public static File temporaryFile(File file) {
+        return new File(file.getPath() + ".tmp");
+    }
+
+    /**
+     * Reads the last checkpoint written to the given file, from its
+     * temporary file if the given file is missing because a run was killed
+     * while replacing it.
+     *
+     * @param file The file
+     *
+     * @return The checkpoint, or null if there is no complete checkpoint
+     *
+     * @throws IOException If the given file could not be read or is not a
+     *                     checkpoint
+     */
+    public static CentralityCheckpoint readLatest(File file)
+            throws IOException {
+        if (file.exists()) {
+            return read(file);
+        }
+        final File tmp = temporaryFile(file);
+        if (!tmp.exists()) {
+            return null;
+        }
+        try {
+            return read(tmp);
+        } catch (IOException ex) {
+            // The run was killed while writing its first checkpoint.
+            return null;
+        }
+    }
+
+    /**
+     * Reads a checkpoint from the given file.
+     *
+     * @param file The file
+     *
+     * @return The checkpoint
+     *
+     * @throws IOException If the file could not be read or is not a
+     *                     checkpoint
+     */
+    public static CentralityCheckpoint read(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a checkpoint.");
+            }
+            final int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported checkpoint version "
+                                      + version + ".");
+            }
+            final long seed = in.readLong();
+            final int numberOfPivots = in.readInt();
+            final int vertexCount = in.readInt();
+            final int edgeCount = in.readInt();
+            CentralityCheckpoint checkpoint = new CentralityCheckpoint(
+                    seed, numberOfPivots, vertexCount, edgeCount);
+            for (int i = 0; i < vertexCount; i++) {
+                checkpoint.vertexIds[i] = in.readInt();
+                checkpoint.betweenness[i] = in.readDouble();
+                checkpoint.closeness[i] = in.readDouble();
+                checkpoint.finished[i] = in.readBoolean();
+            }
+            for (int i = 0; i < edgeCount; i++) {
+                checkpoint.edgeSourceIds[i] = in.readInt();
+                checkpoint.edgeTargetIds[i] = in.readInt();
+                checkpoint.edgeBetweenness[i] = in.readDouble();
+            }
+            return checkpoint;
+        } finally {
+            in.close();
+        }
+    }
+}
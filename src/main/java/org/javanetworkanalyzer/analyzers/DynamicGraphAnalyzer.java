@@ -0,0 +1,397 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import org.javanetworkanalyzer.data.VCent;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.GraphIndex;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.jgrapht.DirectedGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the (unnormalized) betweenness and closeness values computed by a
+ * {@link GraphAnalyzer} up to date as edges are added, removed or reweighted,
+ * recomputing only the sources whose shortest path DAGs are affected, in the
+ * spirit of Green, McColl and Bader, <i>A fast algorithm for streaming
+ * betweenness centrality</i>, 2012.
+ *
+ * Instead of storing the distances from every source (which takes quadratic
+ * memory), we find the affected sources of a batch of updates with two
+ * searches on the edge-reversed graph per updated edge, which give the
+ * distance from every source to both endpoints. A source s is affected if
+ * <ul>
+ * <li>an edge (u,v) being removed or made longer lies on a shortest path
+ * from s, i.e., d(s,u) + l(u,v) = d(s,v), or</li>
+ * <li>an edge (u,v) being added or made shorter would lie on a shortest path
+ * from s, i.e., d(s,u) + l'(u,v) <= d(s,v),</li>
+ * </ul>
+ * all distances being taken in the graph before the batch (in both
+ * directions for undirected graphs). Every other source keeps the same
+ * shortest path DAG, hence the same contribution. The contributions of the
+ * affected sources are subtracted before applying the batch and added back
+ * afterwards, so the values are those a full recomputation would give, up
+ * to floating point error.
+ *
+ * The vertex set is fixed; only edges may change. All updates must go
+ * through this class. Weight profiles are not supported, since updates
+ * change the weights of the graph: the analyzer must not have one.
+ *
+ * @param <V> Vertex
+ * @param <E> Edge
+ *
+ * @author Adam Gouge
+ */
+public class DynamicGraphAnalyzer<V extends VCent, E extends EdgeCent>
+        extends GeneralizedGraphAnalyzer<V, E> {
+
+    /**
+     * Tolerance used to decide whether a path is a shortest path.
+     */
+    private static final double TOLERANCE = 0.000000001;
+    /**
+     * The analyzer doing the searches.
+     */
+    private final GraphAnalyzer<V, E, ?> analyzer;
+    /**
+     * The graph, which must be the graph of the analyzer.
+     */
+    private final WeightedKeyedGraph<V, E> keyedGraph;
+    /**
+     * Updates waiting for the next call to {@link #update()}.
+     */
+    private final List<EdgeUpdate<E>> pendingUpdates;
+    /**
+     * Number of sources recomputed during the last call to {@link #update()}.
+     */
+    private int numberOfRecomputedSources;
+    /**
+     * A logger.
+     */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(DynamicGraphAnalyzer.class);
+
+    /**
+     * Constructor.
+     *
+     * @param analyzer The analyzer doing the searches, whose graph must be a
+     *                 {@link WeightedKeyedGraph} and which must not have a
+     *                 weight profile
+     */
+    public DynamicGraphAnalyzer(GraphAnalyzer<V, E, ?> analyzer) {
+        super(analyzer.getGraph());
+        if (!(graph instanceof WeightedKeyedGraph)) {
+            throw new IllegalArgumentException(
+                    "Dynamic updates need a WeightedKeyedGraph.");
+        }
+        this.analyzer = analyzer;
+        checkWeightProfile();
+        this.keyedGraph = (WeightedKeyedGraph<V, E>) graph;
+        this.pendingUpdates = new ArrayList<EdgeUpdate<E>>();
+    }
+
+    /**
+     * Accumulates the contributions of every source. Unlike
+     * {@link GraphAnalyzer#computeAll()}, betweenness is not normalized, so
+     * that it can be updated later.
+     */
+    public void computeAll() throws InstantiationException,
+            IllegalAccessException, IllegalArgumentException,
+            InvocationTargetException {
+        checkWeightProfile();
+        analyzer.indexGraph();
+        for (V node : nodeSet) {
+            analyzer.calculateCentralityContributionFromNode(node, 1.0);
+        }
+    }
+
+    /**
+     * Schedules the addition of an edge with the given weight.
+     *
+     * @param sourceId Id of the source vertex
+     * @param targetId Id of the target vertex
+     * @param weight   Weight
+     */
+    public void addEdge(int sourceId, int targetId, double weight) {
+        if (keyedGraph.getVertex(sourceId) == null
+            || keyedGraph.getVertex(targetId) == null) {
+            throw new IllegalArgumentException("Vertex not found.");
+        }
+        pendingUpdates.add(new EdgeUpdate<E>(null, sourceId, targetId, weight));
+    }
+
+    /**
+     * Schedules the removal of the given edge.
+     *
+     * @param edge Edge
+     */
+    public void removeEdge(E edge) {
+        pendingUpdates.add(newUpdate(edge, Double.NaN));
+    }
+
+    /**
+     * Schedules a change of weight of the given edge.
+     *
+     * @param edge   Edge
+     * @param weight New weight
+     */
+    public void setEdgeWeight(E edge, double weight) {
+        pendingUpdates.add(newUpdate(edge, weight));
+    }
+
+    /**
+     * Applies all scheduled updates to the graph and updates the betweenness
+     * and closeness values.
+     */
+    public void update() throws InstantiationException,
+            IllegalAccessException, IllegalArgumentException,
+            InvocationTargetException {
+        final long start = System.currentTimeMillis();
+        checkWeightProfile();
+        analyzer.indexGraph();
+        final GraphIndex<V, E> index = analyzer.index;
+        final boolean[] affected = findAffectedSources(index);
+
+        // Remove the old contributions of the affected sources.
+        numberOfRecomputedSources = 0;
+        for (int i = 0; i < affected.length; i++) {
+            if (affected[i]) {
+                analyzer.calculateCentralityContributionFromNode(
+                        index.getVertex(i), -1.0);
+                numberOfRecomputedSources++;
+            }
+        }
+
+        applyUpdates();
+
+        // Add their new contributions.
+        analyzer.indexGraph();
+        for (int i = 0; i < affected.length; i++) {
+            if (affected[i]) {
+                analyzer.calculateCentralityContributionFromNode(
+                        index.getVertex(i), 1.0);
+            }
+        }
+        LOGGER.info("({} ms) Recomputed {} of {} sources.",
+                    new Object[]{System.currentTimeMillis() - start,
+                                 numberOfRecomputedSources, nodeCount});
+    }
+
+    /**
+     * Returns the number of sources recomputed during the last call to
+     * {@link #update()}.
+     *
+     * @return The number of recomputed sources
+     */
+    public int getNumberOfRecomputedSources() {
+        return numberOfRecomputedSources;
+    }
+
+    /**
+     * Makes sure the analyzer has no weight profile, which would give the
+     * searches weights the updates do not change.
+     */
+    private void checkWeightProfile() {
+        if (analyzer.getWeightProfile() != null) {
+            throw new IllegalArgumentException(
+                    "Dynamic updates do not support weight profiles.");
+        }
+    }
+
+    /**
+     * Marks the sources whose shortest path DAGs are affected by the pending
+     * updates.
+     *
+     * @param index Vertex numbering
+     *
+     * @return Whether each source is affected, by vertex index
+     */
+    private boolean[] findAffectedSources(GraphIndex<V, E> index) {
+        final boolean directed = graph instanceof DirectedGraph;
+        final boolean[] affected = new boolean[index.getVertexCount()];
+        final Map<V, double[]> distances = new HashMap<V, double[]>();
+        for (EdgeUpdate<E> update : pendingUpdates) {
+            final double oldLength = (update.edge == null)
+                    ? Double.NaN
+                    : analyzer.edgeLength(graph.getEdgeWeight(update.edge));
+            final double newLength = Double.isNaN(update.weight)
+                    ? Double.NaN
+                    : analyzer.edgeLength(update.weight);
+            final boolean longer = !Double.isNaN(oldLength)
+                    && (Double.isNaN(newLength)
+                        || newLength > oldLength + TOLERANCE);
+            final boolean shorter = !Double.isNaN(newLength)
+                    && (Double.isNaN(oldLength)
+                        || newLength < oldLength - TOLERANCE);
+            if (!longer && !shorter) {
+                continue;
+            }
+            final double[] du = distancesTo(
+                    keyedGraph.getVertex(update.sourceId), distances);
+            final double[] dv = distancesTo(
+                    keyedGraph.getVertex(update.targetId), distances);
+            for (int s = 0; s < affected.length; s++) {
+                if (affected[s]) {
+                    continue;
+                }
+                if (longer) {
+                    affected[s] = isTight(du[s], oldLength, dv[s])
+                            || (!directed && isTight(dv[s], oldLength, du[s]));
+                } else {
+                    affected[s] = isShortcut(du[s], newLength, dv[s])
+                            || (!directed
+                                && isShortcut(dv[s], newLength, du[s]));
+                }
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * Returns the distances to the given target, searching only once per
+     * target.
+     *
+     * @param target    Target
+     * @param distances Distances already found, keyed by target
+     *
+     * @return The distance from every vertex to the target
+     */
+    private double[] distancesTo(V target, Map<V, double[]> distances) {
+        double[] d = distances.get(target);
+        if (d == null) {
+            d = analyzer.distancesTo(target);
+            distances.put(target, d);
+        }
+        return d;
+    }
+
+    /**
+     * Returns true if an edge (u,v) of the given length lies on a shortest
+     * path to v.
+     *
+     * @param du     d(s,u)
+     * @param length l(u,v)
+     * @param dv     d(s,v)
+     *
+     * @return True if d(s,u) + l(u,v) = d(s,v)
+     */
+    private static boolean isTight(double du, double length, double dv) {
+        return !Double.isInfinite(du) && Math.abs(du + length - dv) < TOLERANCE;
+    }
+
+    /**
+     * Returns true if an edge (u,v) of the given length would lie on a
+     * shortest path to v.
+     *
+     * @param du     d(s,u)
+     * @param length l(u,v)
+     * @param dv     d(s,v)
+     *
+     * @return True if d(s,u) + l(u,v) <= d(s,v)
+     */
+    private static boolean isShortcut(double du, double length, double dv) {
+        return !Double.isInfinite(du) && du + length < dv + TOLERANCE;
+    }
+
+    /**
+     * Applies the pending updates to the graph.
+     */
+    private void applyUpdates() {
+        for (EdgeUpdate<E> update : pendingUpdates) {
+            if (update.edge == null) {
+                E edge = keyedGraph.addEdge(update.sourceId, update.targetId);
+                keyedGraph.setEdgeWeight(edge, update.weight);
+            } else if (Double.isNaN(update.weight)) {
+                keyedGraph.removeEdge(update.edge);
+            } else {
+                keyedGraph.setEdgeWeight(update.edge, update.weight);
+            }
+        }
+        pendingUpdates.clear();
+    }
+
+    /**
+     * Returns an update of the given edge.
+     *
+     * @param edge   Edge
+     * @param weight New weight, or NaN for a removal
+     *
+     * @return The update
+     */
+    private EdgeUpdate<E> newUpdate(E edge, double weight) {
+        if (!graph.containsEdge(edge)) {
+            throw new IllegalArgumentException("Edge not found.");
+        }
+        return new EdgeUpdate<E>(edge, graph.getEdgeSource(edge).getID(),
+                                 graph.getEdgeTarget(edge).getID(), weight);
+    }
+
+    /**
+     * An edge addition, removal or change of weight.
+     *
+     * @param <E> Edge
+     */
+    private static class EdgeUpdate<E> {
+
+        /**
+         * The edge, or null for an addition.
+         */
+        private final E edge;
+        /**
+         * Id of the source vertex.
+         */
+        private final int sourceId;
+        /**
+         * Id of the target vertex.
+         */
+        private final int targetId;
+        /**
+         * New weight, or NaN for a removal.
+         */
+        private final double weight;
+
+        /**
+         * Constructor.
+         *
+         * @param edge     The edge, or null for an addition
+         * @param sourceId Id of the source vertex
+         * @param targetId Id of the target vertex
+         * @param weight   New weight, or NaN for a removal
+         */
+        EdgeUpdate(E edge, int sourceId, int targetId, double weight) {
+            this.edge = edge;
+            this.sourceId = sourceId;
+            this.targetId = targetId;
+            this.weight = weight;
+        }
+    }
+}
@@ -24,23 +24,52 @@
  */
 package org.javanetworkanalyzer.analyzers;
 
+import org.javanetworkanalyzer.alg.BiconnectedComponents;
 import org.javanetworkanalyzer.alg.CentralityAlg;
 import org.javanetworkanalyzer.alg.GraphSearchAlgorithm;
 import org.javanetworkanalyzer.data.PathLengthData;
 import org.javanetworkanalyzer.data.VCent;
 import org.javanetworkanalyzer.data.VDist;
 import org.javanetworkanalyzer.model.Edge;
+import org.javanetworkanalyzer.model.DirectedWeightedPseudoG;
 import org.javanetworkanalyzer.model.EdgeCent;
-import org.javanetworkanalyzer.model.TraversalGraph;
+import org.javanetworkanalyzer.model.GraphIndex;
+import org.javanetworkanalyzer.model.WeightProfile;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.javanetworkanalyzer.model.WeightedPseudoG;
 import org.javanetworkanalyzer.progress.NullProgressMonitor;
 import org.javanetworkanalyzer.progress.ProgressMonitor;
+import org.javanetworkanalyzer.results.CentralitySnapshot;
+import org.javanetworkanalyzer.results.ResultSink;
+import org.javanetworkanalyzer.results.SnapshotListener;
+import org.jgrapht.DirectedGraph;
 import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
+import org.jgrapht.graph.EdgeReversedGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Calculates various centrality measures on the given graph, <b>assumed to be
@@ -51,91 +80,1686 @@ import java.util.Stack;
 public abstract class GraphAnalyzer<V extends VCent, E extends EdgeCent, S extends PathLengthData>
         extends GeneralizedGraphAnalyzer<V, E> {
 
+    /**
+     * Closeness.
+     */
+    public static final int CLOSENESS = 1;
+    /**
+     * Vertex betweenness.
+     */
+    public static final int BETWEENNESS = 2;
+    /**
+     * Edge betweenness.
+     */
+    public static final int EDGE_BETWEENNESS = 4;
+    /**
+     * All metrics.
+     */
+    public static final int ALL_METRICS =
+            CLOSENESS | BETWEENNESS | EDGE_BETWEENNESS;
+
     private double maxBetweenness;
     private double minBetweenness;
     private double maxEdgeBetweenness;
     private double minEdgeBetweenness;
     /**
-     * Progress monitor.
+     * Number of threads used by {@link #computeAll()}.
+     */
+    private int numberOfThreads = 1;
+    /**
+     * Metrics computed by {@link #computeAll()}.
+     */
+    private int metrics = ALL_METRICS;
+    /**
+     * Sink receiving the results of {@link #computeAll()}, or null.
+     */
+    private ResultSink sink;
+    /**
+     * Whether closeness goes to {@link #sink} as soon as each source is
+     * finished, rather than to the vertices.
+     */
+    private boolean streamingCloseness;
+    /**
+     * Number of pivots (randomly chosen start nodes) used to approximate
+     * betweenness, or zero to use every node.
+     */
+    private int numberOfPivots = 0;
+    /**
+     * Seed of the random number generator used to choose the pivots.
+     */
+    private long seed = System.nanoTime();
+    /**
+     * File to which {@link #computeAll()} periodically saves its progress, or
+     * null.
+     */
+    private File checkpointFile;
+    /**
+     * Number of sources to process between two checkpoints.
+     */
+    private int checkpointInterval;
+    /**
+     * Only sources whose id modulo {@link #numberOfParts} equals this value
+     * are processed.
+     */
+    private int part = 0;
+    /**
+     * Number of parts in the hash partition of the sources.
+     */
+    private int numberOfParts = 1;
+    /**
+     * Smallest id of a source to process.
+     */
+    private int minSourceId = Integer.MIN_VALUE;
+    /**
+     * Largest id of a source to process.
+     */
+    private int maxSourceId = Integer.MAX_VALUE;
+    /**
+     * Whether to strip the trees hanging off the core before the searches.
+     */
+    private boolean treePruning;
+    /**
+     * Whether to run the searches on each biconnected component separately.
+     */
+    private boolean blockDecomposition;
+    /**
+     * Biconnected components found by the last call to {@link #computeAll()}
+     * in block decomposition mode, or null.
+     */
+    private BiconnectedComponents<V, E> biconnectedComponents;
+    /**
+     * Time after which {@link #computeAll()} stops processing sources, in
+     * milliseconds, or zero.
+     */
+    private long timeBudget;
+    /**
+     * Listener receiving anytime snapshots, or null.
+     */
+    private SnapshotListener snapshotListener;
+    /**
+     * Time between two snapshots, in milliseconds.
+     */
+    private long snapshotInterval;
+    /**
+     * Number of top vertices in each snapshot.
+     */
+    private int snapshotSize;
+    /**
+     * System time after which no more sources are processed.
+     */
+    private long deadline = Long.MAX_VALUE;
+    /**
+     * Sum of the distances from the sources processed so far to each vertex,
+     * indexed by vertex, in anytime mode on undirected graphs, or null.
+     */
+    private double[] sampledDistanceSum;
+    /**
+     * Length beyond which shortest paths are ignored.
+     */
+    private double radius = Double.POSITIVE_INFINITY;
+    /**
+     * Weight profile giving the edge weights, or null.
+     */
+    private WeightProfile profile;
+    /**
+     * Number of vertices each vertex stands for, by id, when this analyzer
+     * works on the core of a pruned graph or on a block, or null.
+     */
+    private Map<Integer, Long> weights;
+    /**
+     * Progress monitor.
+     */
+    protected ProgressMonitor pm;
+    /**
+     * A logger.
+     */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(GraphAnalyzer.class);
+    // When accumulating dependencies, this stack will return vertices
+    // in order of non-increasing distance from startNode.
+    protected final Stack<V> stack;
+    /**
+     * Vertex and edge numbering used by the arrays below.
+     */
+    protected GraphIndex<V, E> index;
+    /**
+     * Dependency of the current start node on each edge, indexed by edge.
+     */
+    private double[] edgeDependency;
+    /**
+     * Indices of the edges whose dependency was set for the current start
+     * node, so that only these are cleared for the next one.
+     */
+    private int[] dependentEdges;
+    /**
+     * Number of entries of {@link #dependentEdges} in use.
+     */
+    private int dependentEdgeCount;
+    /**
+     * For each vertex w, the sum of the dependencies of the current start
+     * node on the shortest path edges leaving w, indexed by vertex.
+     */
+    private double[] outgoingEdgeDependency;
+    /**
+     * Whether each vertex is a source whose contribution has been
+     * accumulated, indexed by vertex.
+     */
+    private boolean[] finishedSources;
+    /**
+     * Number of vertices each vertex stands for as a source or a target,
+     * indexed by vertex, or null if every vertex stands for itself only.
+     */
+    private double[] vertexWeight;
+
+    /**
+     * Initializes a new instance of a graph analyzer with the given
+     * {@link ProgressMonitor}.
+     *
+     * @param graph The graph to be analyzed.
+     * @param pm    The {@link ProgressMonitor} to be used.
+     */
+    // TODO: Do I need the wildcard on S?
+    public GraphAnalyzer(Graph<V, E> graph,
+                         ProgressMonitor pm)
+            throws NoSuchMethodException, InstantiationException,
+            IllegalAccessException, IllegalArgumentException,
+            InvocationTargetException {
+        super(graph);
+        this.pm = pm;
+        this.stack = new Stack<V>();
+        this.maxBetweenness = Double.NEGATIVE_INFINITY;
+        this.minBetweenness = Double.POSITIVE_INFINITY;
+        this.maxEdgeBetweenness = Double.NEGATIVE_INFINITY;
+        this.minEdgeBetweenness = Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Initializes a new instance of a graph analyzer that doesn't keep track of
+     * progress.
+     *
+     * @param graph The graph to be analyzed.
+     */
+    public GraphAnalyzer(Graph<V, E> graph,
+                         Class<? extends S> pathClass)
+            throws NoSuchMethodException, InstantiationException,
+            IllegalAccessException, IllegalArgumentException,
+            InvocationTargetException {
+        this(graph, new NullProgressMonitor());
+    }
+
+    /**
+     * Sets the number of threads used by {@link #computeAll()} (one by
+     * default).
+     *
+     * With more than one thread, each thread runs its searches on a private
+     * copy of the graph, so that the search state stored on vertices is never
+     * shared. The betweenness values accumulated on the copies are added to
+     * the vertices and edges of this graph before normalization. Vertices
+     * must have distinct ids and a V(Integer) constructor.
+     *
+     * @param numberOfThreads Number of threads
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException(
+                    "The number of threads must be positive.");
+        }
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * Returns the number of threads used by {@link #computeAll()}.
+     *
+     * @return The number of threads used by {@link #computeAll()}
+     */
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the metrics computed by {@link #computeAll()}, as a combination of
+     * {@link #CLOSENESS}, {@link #BETWEENNESS} and {@link #EDGE_BETWEENNESS}
+     * (all of them by default). Values of metrics not requested are left
+     * unchanged.
+     *
+     * Without betweenness, the searches record neither the stack of
+     * vertices nor shortest path counts and predecessors, and no dependency
+     * is accumulated, so each search costs little more than a plain BFS or
+     * Dijkstra. Without edge betweenness, no edge dependency is computed;
+     * without vertex betweenness, no vertex dependency is.
+     *
+     * @param metrics Metrics, e.g., {@code CLOSENESS | EDGE_BETWEENNESS}
+     */
+    public void setMetrics(int metrics) {
+        if (metrics == 0 || (metrics & ~ALL_METRICS) != 0) {
+            throw new IllegalArgumentException("Unknown metrics " + metrics
+                                               + ".");
+        }
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the metrics computed by {@link #computeAll()}.
+     *
+     * @return The metrics computed by {@link #computeAll()}
+     */
+    public int getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns true if the given metric is computed.
+     *
+     * @param metric Metric
+     *
+     * @return True if the given metric is computed
+     */
+    private boolean computes(int metric) {
+        return (metrics & metric) != 0;
+    }
+
+    /**
+     * Returns true if the searches must record the stack of vertices,
+     * shortest path counts and predecessors, i.e., if some betweenness is
+     * computed or if this analyzer works on part of a split graph.
+     *
+     * @return True if the searches must record shortest paths
+     */
+    protected boolean needsShortestPaths() {
+        return computes(BETWEENNESS | EDGE_BETWEENNESS)
+               || vertexWeight != null;
+    }
+
+    /**
+     * Makes {@link #computeAll()} approximate betweenness by running the
+     * searches from the given number of pivots chosen uniformly at random
+     * (without replacement), as described in Brandes and Pich,
+     * <i>Centrality estimation in large networks</i>, 2007. The estimate of
+     * the betweenness of a node is nodeCount / numberOfPivots times the sum
+     * of the dependencies of the pivots on it. The normalization to [0,1]
+     * cancels this common factor, so it is not applied; the partial results
+     * of {@link #computePartial(File)} hold the unscaled sums.
+     *
+     * Closeness is only computed for the pivots; the closeness of the other
+     * nodes is left unchanged. If the number of pivots is at least the number
+     * of nodes, betweenness is computed exactly.
+     *
+     * @param numberOfPivots Number of pivots
+     *
+     * @see #setSeed(long)
+     */
+    public void setNumberOfPivots(int numberOfPivots) {
+        if (numberOfPivots < 1) {
+            throw new IllegalArgumentException(
+                    "The number of pivots must be positive.");
+        }
+        this.numberOfPivots = numberOfPivots;
+    }
+
+    /**
+     * Makes {@link #computeAll()} approximate betweenness using just enough
+     * pivots so that, with probability at least 1 - delta, the estimate of
+     * every node's betweenness (see {@link #setNumberOfPivots(int)}) is
+     * within epsilon * n * (n - 2) of its exact value, where n is the number
+     * of nodes. The number of pivots is
+     * given by {@link #numberOfPivotsFor(double, double, int)}.
+     *
+     * @param epsilon Additive error, relative to n * (n - 2)
+     * @param delta   Probability of exceeding this error
+     *
+     * @see #setNumberOfPivots(int)
+     */
+    public void setApproximation(double epsilon, double delta) {
+        setNumberOfPivots(numberOfPivotsFor(epsilon, delta, nodeCount));
+    }
+
+    /**
+     * Returns the number of pivots needed to approximate the betweenness of
+     * all n nodes within epsilon * n * (n - 2) with probability at least
+     * 1 - delta.
+     *
+     * The dependency of a single start node on a node is at most n - 2, so by
+     * Hoeffding's inequality and the union bound over the n nodes,
+     * ln(2n / delta) / (2 epsilon^2) pivots suffice.
+     *
+     * @param epsilon Additive error, relative to n * (n - 2)
+     * @param delta   Probability of exceeding this error
+     * @param n       Number of nodes
+     *
+     * @return The number of pivots
+     */
+    public static int numberOfPivotsFor(double epsilon, double delta, int n) {
+        if (epsilon <= 0.0 || delta <= 0.0 || delta >= 1.0) {
+            throw new IllegalArgumentException("Epsilon must be positive "
+                                               + "and delta must lie in (0,1).");
+        }
+        final double pivots =
+                Math.ceil(Math.log(2.0 * n / delta) / (2 * epsilon * epsilon));
+        return (int) Math.max(1, Math.min(pivots, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Returns the number of pivots, or zero if every node is used as a start
+     * node.
+     *
+     * @return The number of pivots
+     */
+    public int getNumberOfPivots() {
+        return numberOfPivots;
+    }
+
+    /**
+     * Sets the seed used to choose the pivots, so that approximate runs can be
+     * reproduced. By default the seed depends on the time of construction.
+     *
+     * @param seed Seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the seed used to choose the pivots.
+     *
+     * @return The seed used to choose the pivots
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Makes {@link #computeAll()} save its progress to the given file every
+     * checkpointInterval sources, as well as when it is cancelled. If the file
+     * already exists when {@link #computeAll()} is called, the values it
+     * contains are restored and the sources it lists as finished are skipped
+     * (in approximate mode, the seed of the checkpoint is used so that the
+     * same pivots are chosen). The file is deleted once every source has been
+     * processed.
+     *
+     * @param checkpointFile     Checkpoint file
+     * @param checkpointInterval Number of sources to process between two
+     *                           checkpoints
+     */
+    public void setCheckpoint(File checkpointFile, int checkpointInterval) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException(
+                    "The checkpoint interval must be positive.");
+        }
+        this.checkpointFile = checkpointFile;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Restricts the sources to those whose id modulo numberOfParts equals
+     * part, so that a job can be split among numberOfParts processes with
+     * {@link #computePartial(File)} and {@link #mergePartialResults(List)}.
+     *
+     * @param part          Part to process, between 0 and numberOfParts - 1
+     * @param numberOfParts Number of parts
+     */
+    public void setSourcePartition(int part, int numberOfParts) {
+        if (numberOfParts < 1 || part < 0 || part >= numberOfParts) {
+            throw new IllegalArgumentException("The part must lie between 0 "
+                                               + "and the number of parts - 1.");
+        }
+        this.part = part;
+        this.numberOfParts = numberOfParts;
+    }
+
+    /**
+     * Restricts the sources to those whose id lies between minId and maxId
+     * (inclusive).
+     *
+     * @param minId Smallest id of a source to process
+     * @param maxId Largest id of a source to process
+     *
+     * @see #setSourcePartition(int, int)
+     */
+    public void setSourceRange(int minId, int maxId) {
+        if (minId > maxId) {
+            throw new IllegalArgumentException(
+                    "The range of source ids is empty.");
+        }
+        this.minSourceId = minId;
+        this.maxSourceId = maxId;
+    }
+
+    /**
+     * Makes {@link #computeAll()} repeatedly strip the degree-one vertices of
+     * the graph, run the searches on what is left (the 2-core, plus one
+     * vertex per tree component) only, and add the contributions of the
+     * stripped trees analytically. The results are the same; this is much
+     * faster on graphs with many dead-end trees, such as road or utility
+     * networks.
+     *
+     * Tree pruning is only used on undirected graphs without parallel
+     * edges, in exact mode and without checkpoints, source partitions or
+     * ranges, anytime mode or radius; otherwise the searches run on the
+     * whole graph and a warning is logged.
+     *
+     * @param treePruning True to strip trees before the searches
+     */
+    public void setTreePruning(boolean treePruning) {
+        this.treePruning = treePruning;
+    }
+
+    /**
+     * Returns true if {@link #computeAll()} strips trees before the searches
+     * whenever possible.
+     *
+     * @return True if {@link #computeAll()} strips trees before the searches
+     */
+    public boolean isTreePruning() {
+        return treePruning;
+    }
+
+    /**
+     * Makes {@link #computeAll()} find the biconnected components (blocks)
+     * and articulation points of the graph, run the searches on each block
+     * separately, and add the contributions of the paths separated by
+     * articulation points analytically. Blocks are processed in parallel
+     * when there is more than one thread; blocks too large to share the
+     * threads use them all. The results are the same. Since bridges are
+     * blocks, this covers tree pruning.
+     *
+     * Block decomposition is only used on undirected graphs without
+     * parallel edges, in exact mode and without checkpoints, source
+     * partitions or ranges, anytime mode or radius; otherwise the searches
+     * run on the whole graph and a warning is logged. On directed graphs,
+     * {@link BiconnectedComponents} may still be used on its own; it
+     * ignores edge directions.
+     *
+     * @param blockDecomposition True to run the searches block by block
+     *
+     * @see #getBiconnectedComponents()
+     */
+    public void setBlockDecomposition(boolean blockDecomposition) {
+        this.blockDecomposition = blockDecomposition;
+    }
+
+    /**
+     * Returns true if {@link #computeAll()} runs the searches block by block
+     * whenever possible.
+     *
+     * @return True if {@link #computeAll()} runs the searches block by block
+     */
+    public boolean isBlockDecomposition() {
+        return blockDecomposition;
+    }
+
+    /**
+     * Sets the sink receiving the results of {@link #computeAll()} and
+     * {@link #mergePartialResults(List)}, or null to keep them in the
+     * vertices and edges only (the default). The sink is not closed.
+     *
+     * Whenever the searches run on the whole graph without checkpoints, the
+     * closeness of each source is written to the sink as soon as the source
+     * is finished and is not stored in the vertex. Other values are written
+     * once they are final: betweenness after normalization, and closeness
+     * computed by tree pruning or block decomposition at the end.
+     *
+     * @param sink Result sink, or null
+     */
+    public void setResultSink(ResultSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Returns the sink receiving the results of {@link #computeAll()}, or
+     * null.
+     *
+     * @return The result sink, or null
+     */
+    public ResultSink getResultSink() {
+        return sink;
+    }
+
+    /**
+     * Sets the length beyond which shortest paths are ignored (infinite by
+     * default), in edges for unweighted graphs. Each search then stops at
+     * the radius and only resets the vertices it reached, so its cost
+     * depends on the size of the neighborhood rather than of the graph.
+     *
+     * Betweenness only counts the shortest paths of length at most the
+     * radius, and the closeness of a vertex is the inverse of the average
+     * distance to the other vertices within the radius (zero if there are
+     * none). Tree pruning and block decomposition are disabled.
+     *
+     * @param radius Radius
+     */
+    public void setRadius(double radius) {
+        if (!(radius > 0)) {
+            throw new IllegalArgumentException(
+                    "The radius must be positive.");
+        }
+        this.radius = radius;
+    }
+
+    /**
+     * Returns the length beyond which shortest paths are ignored.
+     *
+     * @return The radius
+     */
+    public double getRadius() {
+        return radius;
+    }
+
+    /**
+     * Sets the weight profile giving the edge weights used by weighted
+     * analysis, or null to use the weights of the graph (the default). This
+     * lets several costs be analyzed on the same graph without copying it.
+     * Unweighted analysis ignores it, and {@link DynamicGraphAnalyzer}
+     * rejects analyzers which have one.
+     *
+     * @param profile Weight profile, or null
+     */
+    public void setWeightProfile(WeightProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Returns the weight profile giving the edge weights, or null.
+     *
+     * @return The weight profile, or null
+     */
+    public WeightProfile getWeightProfile() {
+        return profile;
+    }
+
+    /**
+     * Sets the time after which {@link #computeAll()} stops processing
+     * sources, in milliseconds, or zero for no limit (the default).
+     *
+     * With a time budget or a snapshot listener, {@link #computeAll()} runs
+     * in anytime mode: the sources are processed in random order, and if the
+     * budget is spent or the task is cancelled, the sources processed so far
+     * are used as pivots. Anytime mode does not support checkpoints, and
+     * disables tree pruning and block decomposition.
+     *
+     * @param timeBudget Time budget in milliseconds, or zero
+     *
+     * @see #setSnapshotListener(SnapshotListener, long, int)
+     */
+    public void setTimeBudget(long timeBudget) {
+        if (timeBudget < 0) {
+            throw new IllegalArgumentException(
+                    "The time budget must be non-negative.");
+        }
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * Returns the time budget of {@link #computeAll()} in milliseconds, or
+     * zero.
+     *
+     * @return The time budget, or zero
+     */
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+
+    /**
+     * Makes {@link #computeAll()} run in anytime mode and publish a
+     * {@link CentralitySnapshot} to the given listener every given number of
+     * milliseconds, and once more when it stops processing sources. With
+     * several threads, snapshots are taken between chunks of sources sized
+     * to last about one interval.
+     *
+     * @param listener Listener, or null to stop publishing snapshots
+     * @param interval Time between two snapshots, in milliseconds
+     * @param topK     Number of vertices with the largest betweenness listed
+     *                 in each snapshot
+     *
+     * @see #setTimeBudget(long)
+     */
+    public void setSnapshotListener(SnapshotListener listener, long interval,
+                                    int topK) {
+        if (interval <= 0 || topK < 0) {
+            throw new IllegalArgumentException(
+                    "The interval must be positive and top k non-negative.");
+        }
+        this.snapshotListener = listener;
+        this.snapshotInterval = interval;
+        this.snapshotSize = topK;
+    }
+
+    /**
+     * Returns true if {@link #computeAll()} runs in anytime mode.
+     *
+     * @return True if {@link #computeAll()} runs in anytime mode
+     */
+    public boolean isAnytime() {
+        return timeBudget > 0 || snapshotListener != null;
+    }
+
+    /**
+     * Returns the biconnected components, articulation points and bridges
+     * found by the last call to {@link #computeAll()} in block decomposition
+     * mode, or null.
+     *
+     * @return The biconnected components, or null
+     */
+    public BiconnectedComponents<V, E> getBiconnectedComponents() {
+        return biconnectedComponents;
+    }
+
+    /**
+     * Returns true if {@link #computeAll()} may split the graph before the
+     * searches, i.e., if the graph is undirected without parallel edges and
+     * every vertex is a source. The contributions added analytically count
+     * one path per pair of adjacent vertices, so they would miss the paths
+     * through parallel edges.
+     *
+     * @return True if {@link #computeAll()} may split the graph
+     */
+    private boolean canSplitGraph() {
+        return reasonNotToSplitGraph() == null;
+    }
+
+    /**
+     * Returns why {@link #computeAll()} may not split the graph before the
+     * searches, or null if it may.
+     *
+     * @return The reason, or null
+     */
+    private String reasonNotToSplitGraph() {
+        if (graph instanceof DirectedGraph) {
+            return "the graph is directed";
+        } else if (getSampleSize() < nodeCount) {
+            return "pivots are sampled";
+        } else if (checkpointFile != null) {
+            return "checkpoints are written";
+        } else if (numberOfParts > 1 || minSourceId != Integer.MIN_VALUE
+                   || maxSourceId != Integer.MAX_VALUE) {
+            return "the sources are restricted to a partition or range";
+        } else if (isAnytime()) {
+            return "anytime mode is on";
+        } else if (radius < Double.POSITIVE_INFINITY) {
+            return "the radius is finite";
+        } else if (hasParallelEdges()) {
+            return "the graph has parallel edges";
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if two distinct vertices are joined by more than one
+     * edge. Self-loops are not parallel edges.
+     *
+     * @return True if the graph has parallel edges
+     */
+    private boolean hasParallelEdges() {
+        final Set<Long> pairs = new HashSet<Long>();
+        for (E e : graph.edgeSet()) {
+            final int s = graph.getEdgeSource(e).getID();
+            final int t = graph.getEdgeTarget(e).getID();
+            if (s != t && !pairs.add(((long) Math.min(s, t) << 32)
+                                     | (Math.max(s, t) & 0xFFFFFFFFL))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of start nodes {@link #computeAll()} will process,
+     * i.e., the number of pivots or the number of nodes, whichever is smaller,
+     * restricted to the source partition or range, if any.
+     *
+     * @return The number of start nodes
+     */
+    public int getNumberOfSources() {
+        return chooseSources().size();
+    }
+
+    /**
+     * Returns the number of nodes to sample, i.e., the number of pivots or the
+     * number of nodes, whichever is smaller.
+     *
+     * @return The number of nodes to sample
+     */
+    private int getSampleSize() {
+        if (numberOfPivots > 0 && numberOfPivots < nodeCount) {
+            return numberOfPivots;
+        }
+        return nodeCount;
+    }
+
+    /**
+     * Returns the start nodes {@link #computeAll()} will process: every node,
+     * or a random sample of {@link #numberOfPivots} nodes, restricted to the
+     * source partition or range. Pivots are sampled among all nodes before
+     * the restriction, so that processes using the same seed share the same
+     * pivots.
+     *
+     * @return The start nodes
+     */
+    private List<V> chooseSources() {
+        List<V> sources = new ArrayList<V>(nodeSet);
+        if (getSampleSize() < nodeCount) {
+            Collections.shuffle(sources, new Random(seed));
+            sources = sources.subList(0, getSampleSize());
+        }
+        if (numberOfParts > 1 || minSourceId != Integer.MIN_VALUE
+            || maxSourceId != Integer.MAX_VALUE) {
+            List<V> slice = new ArrayList<V>();
+            for (V node : sources) {
+                final int id = node.getID();
+                if (id >= minSourceId && id <= maxSourceId
+                    && ((id % numberOfParts) + numberOfParts) % numberOfParts
+                       == part) {
+                    slice.add(node);
+                }
+            }
+            sources = slice;
+        }
+        return sources;
+    }
+
+    /**
+     * Performs graph analysis and stores the results in a hash map, mapping
+     * each node to a data structure holding the results of the analysis.
+     */
+    public void computeAll() throws InstantiationException,
+            IllegalAccessException, IllegalArgumentException,
+            InvocationTargetException {
+        boolean closenessWritten = false;
+        if (blockDecomposition && canSplitGraph()) {
+            accumulateContributionsByBlock();
+        } else if (treePruning && canSplitGraph()) {
+            accumulateContributionsWithTreePruning();
+        } else {
+            if (blockDecomposition) {
+                LOGGER.warn("Block decomposition is not used since {}.",
+                            reasonNotToSplitGraph());
+            } else if (treePruning) {
+                LOGGER.warn("Tree pruning is not used since {}.",
+                            reasonNotToSplitGraph());
+            }
+            streamingCloseness = sink != null && checkpointFile == null
+                                 && !isAnytime();
+            closenessWritten = streamingCloseness;
+            try {
+                accumulateContributions();
+            } finally {
+                streamingCloseness = false;
+            }
+        }
+
+        // ***** NORMALIZATION **********************************
+        normalizeBetweenness();
+        if (sink != null) {
+            exportResults(closenessWritten);
+        }
+    }
+
+    /**
+     * Writes the final values of the computed metrics to {@link #sink}.
+     *
+     * @param closenessWritten True if closeness was already written source
+     *                         by source
+     */
+    private void exportResults(boolean closenessWritten) {
+        final boolean closeness = computes(CLOSENESS) && !closenessWritten;
+        final boolean betweenness = computes(BETWEENNESS);
+        if (closeness || betweenness) {
+            for (V node : nodeSet) {
+                if (closeness) {
+                    sink.writeCloseness(node.getID(), node.getCloseness());
+                }
+                if (betweenness) {
+                    sink.writeBetweenness(node.getID(), node.getBetweenness());
+                }
+            }
+        }
+        if (computes(EDGE_BETWEENNESS)) {
+            int i = 0;
+            for (E e : graph.edgeSet()) {
+                sink.writeEdgeBetweenness(i++, graph.getEdgeSource(e).getID(),
+                                          graph.getEdgeTarget(e).getID(),
+                                          e.getBetweenness());
+            }
+        }
+    }
+
+    /**
+     * Strips the trees of the graph, accumulates the contributions of the
+     * core vertices on a copy of the core, and adds the contributions of the
+     * trees.
+     *
+     * @see TreePruning
+     */
+    private void accumulateContributionsWithTreePruning()
+            throws InstantiationException, IllegalAccessException,
+            IllegalArgumentException, InvocationTargetException {
+        long start = System.currentTimeMillis();
+        indexGraph();
+        final double[] edgeLengths = new double[index.getEdgeCount()];
+        for (int i = 0; i < edgeLengths.length; i++) {
+            edgeLengths[i] = edgeLength(edgeWeight(index.getEdge(i)));
+        }
+        final TreePruning<V, E> pruning =
+                new TreePruning<V, E>(graph, index, edgeLengths);
+        final List<V> core = pruning.getCore();
+        LOGGER.info("({} ms) Stripped {} tree vertices, leaving {} core "
+                    + "vertices.", new Object[]{
+                System.currentTimeMillis() - start,
+                pruning.getNumberOfStrippedVertices(), core.size()});
+
+        final List<E> coreEdges = new ArrayList<E>();
+        for (E e : graph.edgeSet()) {
+            if (pruning.isCoreEdge(e)) {
+                coreEdges.add(e);
+            }
+        }
+        final WeightedKeyedGraph<V, E> coreCopy = copyGraph(core);
+        final List<E> copiedCoreEdges = copyEdges(coreCopy, coreEdges);
+        final GraphAnalyzer<V, E, S> worker =
+                createWeightedWorker(coreCopy, pruning.getTreeSizes());
+        worker.pm = pm;
+        worker.numberOfThreads = numberOfThreads;
+        worker.accumulateContributions();
+
+        for (V node : core) {
+            final V copy = coreCopy.getVertex(node.getID());
+            node.accumulateBetweenness(copy.getBetweenness());
+            if (computes(CLOSENESS)) {
+                node.setCloseness(copy.getCloseness());
+            }
+        }
+        for (int i = 0; i < coreEdges.size(); i++) {
+            coreEdges.get(i).accumulateBetweenness(
+                    copiedCoreEdges.get(i).getBetweenness());
+        }
+        pruning.addTreeBetweenness(computes(BETWEENNESS),
+                                   computes(EDGE_BETWEENNESS));
+        if (computes(CLOSENESS)) {
+            pruning.setCloseness();
+        }
+    }
+
+    /**
+     * Finds the blocks of the graph, accumulates the contributions of the
+     * vertices of each block on a copy of the block, and adds the
+     * contributions of the paths separated by articulation points.
+     *
+     * @see BlockCentrality
+     */
+    private void accumulateContributionsByBlock()
+            throws InstantiationException, IllegalAccessException,
+            IllegalArgumentException, InvocationTargetException {
+        final long startTime = System.currentTimeMillis();
+        indexGraph();
+        biconnectedComponents = new BiconnectedComponents<V, E>(graph);
+        final BlockCentrality<V, E> blocks =
+                new BlockCentrality<V, E>(index, biconnectedComponents);
+        final int numberOfBlocks = biconnectedComponents.getNumberOfBlocks();
+        LOGGER.info("({} ms) Found {} blocks, {} articulation points and "
+                    + "{} bridges.", new Object[]{
+                System.currentTimeMillis() - startTime, numberOfBlocks,
+                biconnectedComponents.getArticulationPoints().size(),
+                biconnectedComponents.getBridges().size()});
+
+        // Large blocks are processed one at a time on all threads, the
+        // others in parallel on one thread each.
+        final List<Integer> smallBlocks = new ArrayList<Integer>();
+        final AtomicLong count = new AtomicLong();
+        for (int b = 0; b < numberOfBlocks; b++) {
+            if (pm.isCancelled()) {
+                return;
+            }
+            final int size = biconnectedComponents.getBlockVertices(b).size();
+            if (numberOfThreads > 1 && size > nodeCount / numberOfThreads) {
+                accumulateBlockContributions(blocks, b, numberOfThreads);
+                pm.setProgress(count.addAndGet(size), startTime);
+            } else {
+                smallBlocks.add(b);
+            }
+        }
+        if (numberOfThreads > 1) {
+            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+            for (final int b : smallBlocks) {
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        if (!pm.isCancelled()) {
+                            accumulateBlockContributions(blocks, b, 1);
+                            long processed = count.addAndGet(
+                                    biconnectedComponents
+                                    .getBlockVertices(b).size());
+                            synchronized (pm) {
+                                pm.setProgress(processed, startTime);
+                            }
+                        }
+                        return null;
+                    }
+                });
+            }
+            runTasks(tasks);
+        } else {
+            for (int b : smallBlocks) {
+                if (pm.isCancelled()) {
+                    return;
+                }
+                accumulateBlockContributions(blocks, b, 1);
+                pm.setProgress(count.addAndGet(
+                        biconnectedComponents.getBlockVertices(b).size()),
+                               startTime);
+            }
+        }
+        if (computes(BETWEENNESS)) {
+            blocks.addArticulationPointBetweenness();
+        }
+        if (computes(CLOSENESS)) {
+            blocks.setCloseness();
+        }
+    }
+
+    /**
+     * Accumulates the contributions of the vertices of the given block, and
+     * stores their weighted distance sums. A bridge is handled directly;
+     * other blocks are copied and analyzed by a worker.
+     *
+     * @param blocks          Block weights and distance sums
+     * @param block           Block
+     * @param numberOfThreads Number of threads of the worker
+     */
+    private void accumulateBlockContributions(BlockCentrality<V, E> blocks,
+                                              int block, int numberOfThreads)
+            throws InstantiationException, IllegalAccessException,
+            IllegalArgumentException, InvocationTargetException {
+        final List<V> vertices = biconnectedComponents.getBlockVertices(block);
+        final List<E> edges = biconnectedComponents.getBlockEdges(block);
+        final double[] sums = new double[vertices.size()];
+        if (edges.size() == 1) {
+            // Every path from one side of a bridge to the other crosses it.
+            final long w0 = blocks.getWeight(block, 0);
+            final long w1 = blocks.getWeight(block, 1);
+            final double length = edgeLength(edgeWeight(edges.get(0)));
+            sums[0] = w1 * length;
+            sums[1] = w0 * length;
+            if (computes(EDGE_BETWEENNESS)) {
+                synchronized (this) {
+                    edges.get(0).accumulateBetweenness(2.0 * w0 * w1);
+                }
+            }
+        } else {
+            final WeightedKeyedGraph<V, E> copy = copyGraph(vertices);
+            final List<E> copiedEdges = copyEdges(copy, edges);
+            final GraphAnalyzer<V, E, S> worker =
+                    createWeightedWorker(copy, blocks.getWeights(block));
+            worker.numberOfThreads = numberOfThreads;
+            worker.accumulateContributions();
+            synchronized (this) {
+                for (int k = 0; k < vertices.size(); k++) {
+                    final V v = copy.getVertex(vertices.get(k).getID());
+                    vertices.get(k).accumulateBetweenness(v.getBetweenness());
+                    sums[k] = v.getCloseness();
+                }
+                for (int i = 0; i < edges.size(); i++) {
+                    edges.get(i).accumulateBetweenness(
+                            copiedEdges.get(i).getBetweenness());
+                }
+            }
+        }
+        blocks.setWeightedDistanceSums(block, sums);
+    }
+
+    /**
+     * Returns a worker on the given copy of part of the graph, whose vertices
+     * stand for the given numbers of vertices.
+     *
+     * @param copy    Copy of part of the graph
+     * @param weights Number of vertices each vertex stands for, by id
+     *
+     * @return The worker
      */
-    protected ProgressMonitor pm;
+    private GraphAnalyzer<V, E, S> createWeightedWorker(
+            WeightedKeyedGraph<V, E> copy, Map<Integer, Long> weights)
+            throws InstantiationException, IllegalAccessException,
+            IllegalArgumentException, InvocationTargetException {
+        final GraphAnalyzer<V, E, S> worker;
+        try {
+            worker = createWorker(copy);
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException(
+                    "Could not create a worker analyzer.", ex);
+        }
+        worker.weights = weights;
+        worker.metrics = metrics;
+        return worker;
+    }
+
     /**
-     * A logger.
+     * Accumulates the contributions of the sources in the current source
+     * partition or range and writes the resulting unnormalized betweenness
+     * to the given file, in the format of {@link CentralityCheckpoint}. The
+     * partial files of all parts are combined by
+     * {@link #mergePartialResults(List)}.
+     *
+     * @param file Partial result file
+     *
+     * @throws IOException If the file could not be written
      */
-    private static final Logger LOGGER =
-            LoggerFactory.getLogger(GraphAnalyzer.class);
-    // When accumulating dependencies, this stack will return vertices
-    // in order of non-increasing distance from startNode.
-    protected final Stack<V> stack;
+    public void computePartial(File file) throws IOException,
+            InstantiationException, IllegalAccessException,
+            IllegalArgumentException, InvocationTargetException {
+        pm.startTask("Partial graph analysis", getNumberOfSources());
+        accumulateContributions();
+        CentralityCheckpoint.capture(graph, index, finishedSources,
+                                     seed, numberOfPivots).write(file);
+        pm.endTask();
+    }
 
     /**
-     * Initializes a new instance of a graph analyzer with the given
-     * {@link ProgressMonitor}.
+     * Sums the partial results written by {@link #computePartial(File)} on
+     * copies of this graph, then normalizes the betweenness values as
+     * {@link #computeAll()} does. The vertex and
+     * edge betweenness values of this graph are expected to be zero.
      *
-     * @param graph The graph to be analyzed.
-     * @param pm    The {@link ProgressMonitor} to be used.
+     * @param files Partial result files, one per part
+     *
+     * @throws IOException           If a file could not be read
+     * @throws IllegalStateException If the files were not computed on this
+     *                               graph with the same pivots, if two files
+     *                               share a source, or if a source is
+     *                               missing in exact mode
      */
-    // TODO: Do I need the wildcard on S?
-    public GraphAnalyzer(Graph<V, E> graph,
-                         ProgressMonitor pm)
-            throws NoSuchMethodException, InstantiationException,
+    public void mergePartialResults(List<File> files) throws IOException {
+        indexGraph();
+        for (File file : files) {
+            CentralityCheckpoint partial = CentralityCheckpoint.read(file);
+            if (partial.getNumberOfPivots() != numberOfPivots
+                || (numberOfPivots > 0 && partial.getSeed() != seed)) {
+                throw new IllegalStateException(file + " was computed with "
+                                                + "different pivots.");
+            }
+            partial.accumulate(graph, index, finishedSources);
+        }
+        final List<V> sources = chooseSources();
+        for (V node : sources) {
+            if (!finishedSources[index.indexOf(node)]) {
+                throw new IllegalStateException("No partial result contains "
+                                                + "source " + node.getID() + ".");
+            }
+        }
+        normalizeBetweenness();
+        if (sink != null) {
+            exportResults(false);
+        }
+    }
+
+    /**
+     * Accumulates the betweenness and closeness contributions of every
+     * source, resuming from {@link #checkpointFile} if possible.
+     *
+     * @return The sources, or in anytime mode the sources processed
+     */
+    private List<V> accumulateContributions() throws InstantiationException,
             IllegalAccessException, IllegalArgumentException,
             InvocationTargetException {
-        super(graph);
-        this.pm = pm;
-        this.stack = new Stack<V>();
-        this.maxBetweenness = Double.NEGATIVE_INFINITY;
-        this.minBetweenness = Double.POSITIVE_INFINITY;
-        this.maxEdgeBetweenness = Double.NEGATIVE_INFINITY;
-        this.minEdgeBetweenness = Double.POSITIVE_INFINITY;
+
+        long startTime = System.currentTimeMillis();
+
+        // ***** GLOBAL INITIALIZATION *************************
+        long count = 0;
+        pm.setProgress(count, startTime);
+        indexGraph();
+        final CentralityCheckpoint checkpoint = readCheckpoint();
+        if (checkpoint != null) {
+            seed = checkpoint.getSeed();
+        }
+        final List<V> sources = chooseSources();
+        if (isAnytime()) {
+            if (checkpointFile != null) {
+                throw new IllegalStateException(
+                        "Anytime mode does not support checkpoints.");
+            }
+            return accumulateContributionsAnytime(sources, startTime);
+        }
+        if (checkpoint != null) {
+            checkpoint.restore(graph, index, finishedSources);
+            count = checkpoint.getNumberOfFinishedSources();
+            pm.setProgress(count, startTime);
+        }
+        final List<V> remainingSources = new ArrayList<V>(sources.size());
+        for (V node : sources) {
+            if (!finishedSources[index.indexOf(node)]) {
+                remainingSources.add(node);
+            }
+        }
+        // Without checkpoints, the sources are processed in one chunk.
+        final int chunkSize = (checkpointFile == null)
+                ? Math.max(1, remainingSources.size())
+                : checkpointInterval;
+        // ***** CENTRALITY CONTRIBUTION FROM EACH NODE ********
+        if (numberOfThreads > 1) {
+            final Workers workers = createWorkers();
+            for (int i = 0; i < remainingSources.size(); i += chunkSize) {
+                List<V> chunk = remainingSources.subList(
+                        i, Math.min(i + chunkSize, remainingSources.size()));
+                count = computeAllInParallel(workers, chunk, startTime,
+                                             count);
+                if (pm.isCancelled()) {
+                    break;
+                }
+                writeCheckpoint();
+            }
+        } else {
+            long sinceCheckpoint = 0;
+            for (V node : remainingSources) {
+                // Update the count.
+                count++;
+
+                // See if the task has been cancelled.
+                if (pm.isCancelled()) {
+                    break;
+                }
+                // Calculate betweenness and closeness for each node.
+                calculateCentralityContributionFromNode(node);
+                finishedSources[index.indexOf(node)] = true;
+
+                // Update and print the progress.
+                pm.setProgress(count, startTime);
+
+                if (++sinceCheckpoint == chunkSize) {
+                    writeCheckpoint();
+                    sinceCheckpoint = 0;
+                }
+            }
+        }
+        finishCheckpoint(sources);
+        // ***** END CENTRALITY CONTRIBUTION FROM EACH NODE *****
+        return sources;
     }
 
     /**
-     * Initializes a new instance of a graph analyzer that doesn't keep track of
-     * progress.
+     * Processes the given sources in random order until they are all
+     * processed, the time budget is spent or the task is cancelled, and
+     * publishes snapshots along the way.
      *
-     * @param graph The graph to be analyzed.
+     * @param sources   Sources
+     * @param startTime Start time of the task
+     *
+     * @return The sources processed
      */
-    public GraphAnalyzer(Graph<V, E> graph,
-                         Class<? extends S> pathClass)
+    private List<V> accumulateContributionsAnytime(List<V> sources,
+                                                   long startTime)
+            throws InstantiationException, IllegalAccessException,
+            IllegalArgumentException, InvocationTargetException {
+        final List<V> order = new ArrayList<V>(sources);
+        Collections.shuffle(order, new Random(seed));
+        deadline = (timeBudget > 0) ? startTime + timeBudget : Long.MAX_VALUE;
+        if (!(graph instanceof DirectedGraph)
+            && radius == Double.POSITIVE_INFINITY) {
+            sampledDistanceSum = new double[nodeCount];
+        }
+        try {
+            // The workers and their copies of the graph last the whole run.
+            final Workers workers = (numberOfThreads > 1)
+                    ? createWorkers() : null;
+            long count = 0;
+            long nextSnapshot = startTime + snapshotInterval;
+            int next = 0;
+            while (next < order.size() && !isStopped()) {
+                if (numberOfThreads > 1) {
+                    // Without snapshots, all the sources form one chunk;
+                    // otherwise, a chunk lasts about one interval.
+                    long chunkSize = order.size();
+                    if (snapshotListener != null) {
+                        final long elapsed =
+                                System.currentTimeMillis() - startTime;
+                        chunkSize = (count == 0 || elapsed == 0)
+                                ? numberOfThreads
+                                : Math.max(numberOfThreads,
+                                           count * snapshotInterval / elapsed);
+                    }
+                    final List<V> chunk = order.subList(
+                            next, (int) Math.min(next + chunkSize,
+                                                 order.size()));
+                    count = computeAllInParallel(workers, chunk, startTime,
+                                                 count);
+                    next += chunk.size();
+                } else {
+                    final V node = order.get(next++);
+                    calculateCentralityContributionFromNode(node);
+                    finishedSources[index.indexOf(node)] = true;
+                    pm.setProgress(++count, startTime);
+                }
+                if (snapshotListener != null
+                    && System.currentTimeMillis() >= nextSnapshot) {
+                    publishSnapshot(startTime, sources.size());
+                    nextSnapshot = System.currentTimeMillis()
+                                   + snapshotInterval;
+                }
+            }
+            if (snapshotListener != null) {
+                publishSnapshot(startTime, sources.size());
+            }
+        } finally {
+            deadline = Long.MAX_VALUE;
+            sampledDistanceSum = null;
+        }
+        final List<V> processed = new ArrayList<V>();
+        for (V node : order) {
+            if (finishedSources[index.indexOf(node)]) {
+                processed.add(node);
+            }
+        }
+        LOGGER.info("Processed {} of {} sources.", processed.size(),
+                    sources.size());
+        return processed;
+    }
+
+    /**
+     * Returns true if no more sources should be processed, i.e., if the task
+     * was cancelled or the time budget is spent.
+     *
+     * @return True if no more sources should be processed
+     */
+    private boolean isStopped() {
+        return pm.isCancelled()
+               || (deadline != Long.MAX_VALUE
+                   && System.currentTimeMillis() >= deadline);
+    }
+
+    /**
+     * Publishes a snapshot of the current estimates to
+     * {@link #snapshotListener}.
+     *
+     * @param startTime       Start time of the task
+     * @param numberOfSources Number of sources to process
+     */
+    private void publishSnapshot(long startTime, int numberOfSources) {
+        int processed = 0;
+        for (boolean finished : finishedSources) {
+            if (finished) {
+                processed++;
+            }
+        }
+        final double scale = (processed == 0)
+                ? 0.0
+                : ((double) nodeCount) / processed;
+        final int[] ids = new int[nodeCount];
+        final double[] betweenness = new double[nodeCount];
+        final double[] closeness = new double[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            final V v = index.getVertex(i);
+            ids[i] = v.getID();
+            betweenness[i] = v.getBetweenness() * scale;
+            if (finishedSources[i]) {
+                closeness[i] = v.getCloseness();
+            } else if (sampledDistanceSum == null || processed == 0) {
+                closeness[i] = Double.NaN;
+            } else {
+                // The sources are a uniform sample of the other vertices.
+                final double avgPathLength = sampledDistanceSum[i] / processed;
+                closeness[i] = (avgPathLength > 0.0
+                                && avgPathLength < Double.POSITIVE_INFINITY)
+                        ? 1 / avgPathLength
+                        : 0.0;
+            }
+        }
+        Integer[] order = new Integer[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(betweenness[b], betweenness[a]);
+            }
+        });
+        final int[] top = new int[Math.min(snapshotSize, nodeCount)];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = ids[order[i]];
+        }
+        snapshotListener.snapshotTaken(new CentralitySnapshot(
+                System.currentTimeMillis() - startTime, processed,
+                numberOfSources, ids, betweenness, closeness, top));
+    }
+
+    /**
+     * Returns the checkpoint saved in {@link #checkpointFile}, or null if
+     * there is none.
+     *
+     * @return The checkpoint, or null
+     */
+    private CentralityCheckpoint readCheckpoint() {
+        if (checkpointFile == null) {
+            return null;
+        }
+        try {
+            CentralityCheckpoint checkpoint =
+                    CentralityCheckpoint.readLatest(checkpointFile);
+            if (checkpoint == null) {
+                return null;
+            }
+            if (checkpoint.getNumberOfPivots() != numberOfPivots) {
+                throw new IllegalStateException(
+                        "The checkpoint was taken with "
+                        + checkpoint.getNumberOfPivots() + " pivots.");
+            }
+            LOGGER.info("Resuming from {} with {} finished sources.",
+                        checkpointFile,
+                        checkpoint.getNumberOfFinishedSources());
+            return checkpoint;
+        } catch (IOException ex) {
+            throw new IllegalStateException(
+                    "Could not read the checkpoint " + checkpointFile + ".",
+                    ex);
+        }
+    }
+
+    /**
+     * Saves the current (unnormalized) values and the finished sources to
+     * {@link #checkpointFile}, if any.
+     */
+    private void writeCheckpoint() {
+        if (checkpointFile == null) {
+            return;
+        }
+        try {
+            CentralityCheckpoint.capture(graph, index, finishedSources,
+                                         seed, numberOfPivots)
+                    .write(checkpointFile);
+        } catch (IOException ex) {
+            throw new IllegalStateException(
+                    "Could not write the checkpoint " + checkpointFile + ".",
+                    ex);
+        }
+    }
+
+    /**
+     * Saves a last checkpoint if some of the given sources are not finished
+     * (e.g., because the computation was cancelled), and deletes the
+     * checkpoint file otherwise.
+     *
+     * @param sources Sources
+     */
+    private void finishCheckpoint(List<V> sources) {
+        if (checkpointFile == null) {
+            return;
+        }
+        for (V node : sources) {
+            if (!finishedSources[index.indexOf(node)]) {
+                writeCheckpoint();
+                return;
+            }
+        }
+        final File tmp = CentralityCheckpoint.temporaryFile(checkpointFile);
+        if (tmp.exists() && !tmp.delete()) {
+            LOGGER.warn("Could not delete the checkpoint {}.", tmp);
+        }
+        if (checkpointFile.exists() && !checkpointFile.delete()) {
+            LOGGER.warn("Could not delete the checkpoint {}.", checkpointFile);
+        }
+    }
+
+    /**
+     * Returns a new analyzer of the same type on the given graph, used as a
+     * worker when {@link #computeAll()} runs on several threads.
+     *
+     * @param graphCopy A copy of the graph
+     *
+     * @return A new analyzer on the copy
+     */
+    protected abstract GraphAnalyzer<V, E, S> createWorker(
+            WeightedKeyedGraph<V, E> graphCopy)
             throws NoSuchMethodException, InstantiationException,
             IllegalAccessException, IllegalArgumentException,
-            InvocationTargetException {
-        this(graph, new NullProgressMonitor());
+            InvocationTargetException;
+
+    /**
+     * The workers of a parallel run, each with its own copy of the graph.
+     * They are created once per run and reused for every chunk of sources.
+     */
+    private class Workers {
+
+        /**
+         * Edges of this graph, in the order of the copied edges.
+         */
+        private final List<E> edges;
+        /**
+         * Copy of the graph of each worker.
+         */
+        private final List<WeightedKeyedGraph<V, E>> copies;
+        /**
+         * Copied edges of each worker, in the order of {@link #edges}.
+         */
+        private final List<List<E>> copiedEdges;
+        /**
+         * The workers.
+         */
+        private final List<GraphAnalyzer<V, E, S>> analyzers;
+
+        /**
+         * Constructor.
+         *
+         * @param edges Edges of this graph
+         */
+        Workers(List<E> edges) {
+            this.edges = edges;
+            this.copies =
+                    new ArrayList<WeightedKeyedGraph<V, E>>(numberOfThreads);
+            this.copiedEdges = new ArrayList<List<E>>(numberOfThreads);
+            this.analyzers =
+                    new ArrayList<GraphAnalyzer<V, E, S>>(numberOfThreads);
+        }
     }
 
     /**
-     * Performs graph analysis and stores the results in a hash map, mapping
-     * each node to a data structure holding the results of the analysis.
+     * Creates {@link #numberOfThreads} workers, each with its own copy of
+     * the graph and the settings of this analyzer.
+     *
+     * @return The workers
      */
-    public void computeAll() throws InstantiationException,
+    private Workers createWorkers() throws InstantiationException,
             IllegalAccessException, IllegalArgumentException,
             InvocationTargetException {
+        final Workers workers =
+                new Workers(new ArrayList<E>(graph.edgeSet()));
+        for (int i = 0; i < numberOfThreads; i++) {
+            final WeightedKeyedGraph<V, E> copy = copyGraph(nodeSet);
+            final List<E> copyEdges = copyEdges(copy, workers.edges);
+            final GraphAnalyzer<V, E, S> worker;
+            try {
+                worker = createWorker(copy);
+                worker.weights = weights;
+                worker.metrics = metrics;
+                worker.sink = sink;
+                worker.streamingCloseness = streamingCloseness;
+                worker.radius = radius;
+                if (sampledDistanceSum != null) {
+                    worker.sampledDistanceSum = new double[nodeCount];
+                }
+                worker.indexGraph();
+            } catch (NoSuchMethodException ex) {
+                throw new IllegalStateException(
+                        "Could not create a worker analyzer.", ex);
+            }
+            workers.copies.add(copy);
+            workers.copiedEdges.add(copyEdges);
+            workers.analyzers.add(worker);
+        }
+        return workers;
+    }
 
-        long startTime = System.currentTimeMillis();
+    /**
+     * Calculates the centrality contributions of the given sources using the
+     * given workers. Sources are handed out one at a time, so that fast
+     * workers take over the remaining sources of slow ones. Once every
+     * worker is done, their betweenness values are added to this graph and
+     * cleared, so that the workers can take the next chunk of sources.
+     *
+     * @param workers   Workers
+     * @param sources   Sources
+     * @param startTime Start time of the task
+     * @param done      Number of sources processed before this call
+     *
+     * @return The number of sources processed, including those processed
+     *         before this call
+     */
+    private long computeAllInParallel(final Workers workers,
+                                      final List<V> sources,
+                                      final long startTime,
+                                      final long done)
+            throws InstantiationException, IllegalAccessException,
+            IllegalArgumentException, InvocationTargetException {
+        final List<E> edges = workers.edges;
+        final AtomicInteger nextSource = new AtomicInteger();
+        final AtomicLong count = new AtomicLong(done);
 
-        // ***** GLOBAL INITIALIZATION *************************
-        long count = 0;
-        pm.setProgress(count, startTime);
-        // ***** CENTRALITY CONTRIBUTION FROM EACH NODE ********
-        for (V node : nodeSet) {
-            // Update the count.
-            count++;
+        final List<List<V>> processedSources =
+                new ArrayList<List<V>>(numberOfThreads);
+        List<Callable<Void>> tasks =
+                new ArrayList<Callable<Void>>(numberOfThreads);
+        for (int i = 0; i < numberOfThreads; i++) {
+            final WeightedKeyedGraph<V, E> copy = workers.copies.get(i);
+            final GraphAnalyzer<V, E, S> worker = workers.analyzers.get(i);
+            final List<V> processed = new ArrayList<V>();
+            processedSources.add(processed);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    int index;
+                    while ((index = nextSource.getAndIncrement())
+                           < sources.size()) {
+                        if (isStopped()) {
+                            break;
+                        }
+                        V source = sources.get(index);
+                        worker.calculateCentralityContributionFromNode(
+                                copy.getVertex(source.getID()));
+                        processed.add(source);
+                        long processedCount = count.incrementAndGet();
+                        synchronized (pm) {
+                            pm.setProgress(processedCount, startTime);
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
 
-            // See if the task has been cancelled.
-            if (pm.isCancelled()) {
-                break;
+        runTasks(tasks);
+
+        // ***** MERGE THE WORKER RESULTS ***********************
+        for (int i = 0; i < numberOfThreads; i++) {
+            WeightedKeyedGraph<V, E> copy = workers.copies.get(i);
+            GraphAnalyzer<V, E, S> worker = workers.analyzers.get(i);
+            for (V node : nodeSet) {
+                V copiedNode = copy.getVertex(node.getID());
+                node.accumulateBetweenness(copiedNode.getBetweenness());
+                copiedNode.setBetweenness(0.0);
+                if (sampledDistanceSum != null) {
+                    final int copiedIndex = worker.index.indexOf(copiedNode);
+                    sampledDistanceSum[index.indexOf(node)] +=
+                            worker.sampledDistanceSum[copiedIndex];
+                    worker.sampledDistanceSum[copiedIndex] = 0.0;
+                }
             }
-            // Calculate betweenness and closeness for each node.
-            calculateCentralityContributionFromNode(node);
+            // Closeness was only calculated for the sources this worker
+            // processed.
+            for (V source : processedSources.get(i)) {
+                if (!streamingCloseness) {
+                    source.setCloseness(
+                            copy.getVertex(source.getID()).getCloseness());
+                }
+                finishedSources[index.indexOf(source)] = true;
+            }
+            List<E> copyEdges = workers.copiedEdges.get(i);
+            for (int j = 0; j < edges.size(); j++) {
+                edges.get(j).accumulateBetweenness(
+                        copyEdges.get(j).getBetweenness());
+                copyEdges.get(j).setBetweenness(0.0);
+            }
+        }
+        return count.get();
+    }
 
-            // Update and print the progress.
-            pm.setProgress(count, startTime);
+    /**
+     * Returns an empty weighted graph with the same orientation as this graph
+     * and the ids of the given vertices. Edges are left to the caller.
+     *
+     * @param nodes Vertices to copy
+     *
+     * @return An empty copy of this graph
+     */
+    private WeightedKeyedGraph<V, E> copyGraph(Collection<V> nodes) {
+        Class vertexClass = nodeSet.iterator().next().getClass();
+        WeightedKeyedGraph copy;
+        if (graph instanceof DirectedGraph) {
+            copy = new DirectedWeightedPseudoG(vertexClass,
+                                               graph.getEdgeFactory());
+        } else {
+            copy = new WeightedPseudoG(vertexClass, graph.getEdgeFactory());
         }
-        // ***** END CENTRALITY CONTRIBUTION FROM EACH NODE *****
+        for (V node : nodes) {
+            copy.addVertex(node.getID());
+        }
+        return copy;
+    }
 
-        // ***** NORMALIZATION **********************************
-        normalizeBetweenness();
+    /**
+     * Adds a copy of each of the given edges, with the same weight, to the
+     * given copy of this graph.
+     *
+     * @param copy  A copy of this graph
+     * @param edges Edges of this graph
+     *
+     * @return The copied edges, in the same order
+     */
+    private List<E> copyEdges(WeightedKeyedGraph<V, E> copy, List<E> edges) {
+        final List<E> copyEdges = new ArrayList<E>(edges.size());
+        for (E e : edges) {
+            E copyEdge = copy.addEdge(graph.getEdgeSource(e).getID(),
+                                      graph.getEdgeTarget(e).getID());
+            copy.setEdgeWeight(copyEdge, edgeWeight(e));
+            copyEdges.add(copyEdge);
+        }
+        return copyEdges;
+    }
+
+    /**
+     * Runs the given tasks on {@link #numberOfThreads} threads and waits for
+     * all of them to finish, rethrowing the first exception encountered.
+     *
+     * @param tasks Tasks
+     */
+    private void runTasks(List<Callable<Void>> tasks)
+            throws InstantiationException, IllegalAccessException,
+            IllegalArgumentException, InvocationTargetException {
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for "
+                                            + "the workers to finish.", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof InstantiationException) {
+                throw (InstantiationException) cause;
+            } else if (cause instanceof IllegalAccessException) {
+                throw (IllegalAccessException) cause;
+            } else if (cause instanceof InvocationTargetException) {
+                throw (InvocationTargetException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     /**
@@ -148,17 +1772,57 @@ public abstract class GraphAnalyzer<V extends VCent, E extends EdgeCent, S exten
     private void calculateCentralityContributionFromNode(V startNode) throws
             InstantiationException, IllegalAccessException,
             IllegalArgumentException, InvocationTargetException {
+        calculateCentralityContributionFromNode(startNode, 1.0);
+    }
+
+    /**
+     * Calculates the contribution of the given node to the betweenness and
+     * closeness values of all the other nodes, and adds it to the betweenness
+     * values multiplied by the given factor. A factor of -1 removes a
+     * contribution added earlier on the same graph.
+     *
+     * @param startNode The given node.
+     * @param factor    Factor
+     */
+    void calculateCentralityContributionFromNode(V startNode, double factor)
+            throws InstantiationException, IllegalAccessException,
+            IllegalArgumentException, InvocationTargetException {
 
         // ***** CENTRALITY CONTRIBUTION CALCULATION **********
         // Calculate all the shortest paths from startNode.
         CentralityAlg<V, E, S> alg = calculateShortestPathsFromNode(startNode);
         // At this point, we have all information required to calculate
         // closeness for startNode.
-        calculateClosenessForNode(startNode, alg.getPaths());
+        if (vertexWeight == null) {
+            if (computes(CLOSENESS)) {
+                calculateClosenessForNode(startNode, alg.getPaths());
+            }
+        } else {
+            // On the core of a pruned graph or on a block, keep the weighted
+            // distance sum for TreePruning or BlockCentrality.
+            double distanceSum = 0.0;
+            for (V v : stack) {
+                distanceSum += weightOf(v)
+                        * ((VDist<Number>) v).getDistance().doubleValue();
+            }
+            startNode.setCloseness(distanceSum);
+        }
+        if (sampledDistanceSum != null) {
+            for (int i = 0; i < sampledDistanceSum.length; i++) {
+                final double d = ((VDist<Number>) index.getVertex(i))
+                        .getDistance().doubleValue();
+                // Unreachable vertices have a negative or infinite distance.
+                sampledDistanceSum[i] += (d < 0) ? Double.POSITIVE_INFINITY : d;
+            }
+        }
         // Use the recursion formula to update the dependency
         // values and their contributions to betweenness values.
-        TraversalGraph<V, E> sPT = alg.reconstructTraversalGraph();
-        accumulateDependencies(startNode, sPT);
+        // The predecessor edges recorded by the search are all we need for
+        // edge betweenness, so no shortest path DAG is built here; see
+        // TraversalAlg#reconstructTraversalGraph if you need one.
+        if (computes(BETWEENNESS | EDGE_BETWEENNESS)) {
+            accumulateDependencies(startNode, factor);
+        }
         // ***** END CENTRALITY CONTRIBUTION CALCULATION ******
     }
 
@@ -186,7 +1850,12 @@ public abstract class GraphAnalyzer<V extends VCent, E extends EdgeCent, S exten
         // If all other nodes are reachable, get the average path length
         // for the node.
         final double avgPathLength;
-        if (reachableNodes == nodeCount - 1) {
+        if (radius < Double.POSITIVE_INFINITY) {
+            // Local closeness over the vertices within the radius.
+            avgPathLength = (reachableNodes > 0)
+                    ? paths.getAverageLength()
+                    : -1;
+        } else if (reachableNodes == nodeCount - 1) {
             avgPathLength = paths.getAverageLength();
         } else {
             avgPathLength = -1;
@@ -197,7 +1866,11 @@ public abstract class GraphAnalyzer<V extends VCent, E extends EdgeCent, S exten
                 ? 1 / avgPathLength
                 : 0.0;
         // Store it.
-        node.setCloseness(closeness);
+        if (streamingCloseness) {
+            sink.writeCloseness(node.getID(), closeness);
+        } else {
+            node.setCloseness(closeness);
+        }
     }
 
     /**
@@ -207,37 +1880,51 @@ public abstract class GraphAnalyzer<V extends VCent, E extends EdgeCent, S exten
      * in the appropriate {@link V} of {@link #nodeBetweenness}.
      *
      * @param startNode The start node.
+     * @param factor    Factor by which to multiply the contributions
      */
-    private void accumulateDependencies(
-            V startNode,
-            TraversalGraph<V, E> shortestPathTree) {
+    private void accumulateDependencies(V startNode, double factor) {
 
         // *** Here we update
         // *** (A) the dependency of startNode on the other nodes.
         // *** (B) the corresponding contributions to the betweenness
         // ***     centrality scores of the other nodes.
 
+        final boolean vertexBetweenness = computes(BETWEENNESS);
+        final boolean edgeBetweenness = computes(EDGE_BETWEENNESS);
+        if (edgeBetweenness) {
+            for (int i = 0; i < dependentEdgeCount; i++) {
+                edgeDependency[dependentEdges[i]] = 0.0;
+            }
+            dependentEdgeCount = 0;
+        }
+
+        final double sourceFactor = factor * weightOf(startNode);
+
         // For each node w returned in NON-INCREASING distance from
         // startNode, do:
         while (!stack.empty()) {
             final V w = stack.pop();
 
+            // EDGE BETWEENNESS
+            if (edgeBetweenness) {
+                accumEdgeBetw(w, sourceFactor);
+            }
+            if (!vertexBetweenness) {
+                continue;
+            }
+
             // For every predecessor v of w on shortest paths from
             // startNode, do:
 
             for (V predecessor : (Set<V>) w.getPredecessors()) {
 
-                final double oldDep = predecessor.getDependency();
-
                 // (A) Add the contribution of the dependency of startNode
                 // on w to the dependency of startNode on v.
                 final double sigmaFactor = ((double) predecessor.getSPCount()
                         / w.getSPCount());
-                final double depContribution = sigmaFactor * (1 + w.getDependency());
+                final double depContribution =
+                        sigmaFactor * (weightOf(w) + w.getDependency());
                 predecessor.accumulateDependency(depContribution);
-
-                // EDGE BETWEENNESS
-                accumEdgeBetw(predecessor, w, sigmaFactor, shortestPathTree);
             }
 
             // (The betweenness of w cannot receive contributions from
@@ -246,34 +1933,133 @@ public abstract class GraphAnalyzer<V extends VCent, E extends EdgeCent, S exten
                 // (B) At this point, the dependency of startNode on w
                 // has finished calculating, so we can add it to
                 // the betweenness centrality of w.
-                final double oldBetw = w.getBetweenness();
-                w.accumulateBetweenness(w.getDependency());
+                w.accumulateBetweenness(sourceFactor * w.getDependency());
             }
         } // ***** END STAGE 3, Stack iteration  **************
     }
 
     /**
-     * Accumulate edge dependencies and betweenness.
+     * Accumulate edge dependencies and betweenness for the predecessor edges
+     * of w.
+     *
+     * The dependency of an edge (v, w) on shortest paths from startNode is
+     * sigma(v)/sigma(w) * (1 + the sum of the dependencies of the edges
+     * leaving w on shortest paths). Since w is popped from the stack after
+     * all its successors, that sum is complete by the time we get here.
+     *
+     * @param w      Vertex w
+     * @param factor Factor by which to multiply the contributions
+     */
+    private void accumEdgeBetw(V w, double factor) {
+        final int wIndex = index.indexOf(w);
+        final double depSumFromOutgoing = outgoingEdgeDependency[wIndex];
+        // Reset for the next start node.
+        outgoingEdgeDependency[wIndex] = 0.0;
+        for (E e : (Set<E>) w.getPredecessorEdges()) {
+            final V predecessor = Graphs.getOppositeVertex(graph, e, w);
+            final double sigmaFactor = ((double) predecessor.getSPCount()
+                    / w.getSPCount());
+            final double dependency =
+                    sigmaFactor * (weightOf(w) + depSumFromOutgoing);
+            final int edge = index.edgeIndexOf(e);
+            edgeDependency[edge] = dependency;
+            dependentEdges[dependentEdgeCount++] = edge;
+            outgoingEdgeDependency[index.indexOf(predecessor)] += dependency;
+            e.accumulateBetweenness(factor * dependency);
+        }
+    }
+
+    /**
+     * Returns the number of vertices the given vertex stands for as a source
+     * or a target: one, or more on the core of a pruned graph or on a block.
+     *
+     * @param v Vertex
+     *
+     * @return The weight of the given vertex
+     */
+    private double weightOf(V v) {
+        return (vertexWeight == null) ? 1.0 : vertexWeight[index.indexOf(v)];
+    }
+
+    /**
+     * Returns the distance from every vertex to the given target, indexed by
+     * {@link #index}, or infinity for vertices from which the target cannot
+     * be reached. This uses a plain search, without any centrality
+     * bookkeeping, on the edge-reversed graph.
+     *
+     * @param target Target
+     *
+     * @return The distance from every vertex to the target
+     */
+    protected abstract double[] distancesTo(V target);
+
+    /**
+     * Returns the length of an edge of the given weight, as seen by the
+     * searches of this analyzer.
+     *
+     * @param weight Edge weight
+     *
+     * @return The length of an edge of this weight
+     */
+    protected abstract double edgeLength(double weight);
+
+    /**
+     * Returns the weight of the given edge, from the weight profile if one
+     * is set and from the graph otherwise. Copies of the graph made for the
+     * workers carry these weights, so the workers need no profile.
+     *
+     * @param e Edge
+     *
+     * @return The weight of e
+     */
+    protected double edgeWeight(E e) {
+        return profile == null ? graph.getEdgeWeight(e) : profile.getWeight(e);
+    }
+
+    /**
+     * Returns the graph with the direction of every edge reversed, or the
+     * graph itself if it is undirected.
+     *
+     * @return The reversed graph
+     */
+    protected Graph<V, E> reversedGraph() {
+        if (graph instanceof DirectedGraph) {
+            return new EdgeReversedGraph<V, E>((DirectedGraph<V, E>) graph);
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the dependency of the last start node on the given edge, i.e.,
+     * its contribution to the betweenness of this edge. This is zero for
+     * edges not lying on a shortest path from the last start node.
+     *
+     * @param e Edge
      *
-     * @param predecessor      Predecessor of vertex w
-     * @param w                Vertex w
-     * @param sigmaFactor      Sigma factor for weighting
-     * @param shortestPathTree SP"T"
+     * @return The dependency of the last start node on the given edge
+     */
+    protected double getEdgeDependency(E e) {
+        return edgeDependency[index.edgeIndexOf(e)];
+    }
+
+    /**
+     * Numbers the vertices and edges of the graph and allocates the arrays
+     * used during dependency accumulation. This is done once per call to
+     * {@link #computeAll()}, not once per start node, and again whenever
+     * edges are added or removed.
      */
-    private void accumEdgeBetw(
-            V predecessor,
-            V w,
-            double sigmaFactor,
-            TraversalGraph<V, E> shortestPathTree) {
-        for (E sPTEdge : shortestPathTree.getAllEdges(predecessor, w)) {
-            double depSumFromOutgoing = 0.0;
-            for (E outEdge : shortestPathTree.outgoingEdgesOf(w)) {
-                depSumFromOutgoing += outEdge.getDependency();
+    void indexGraph() {
+        index = new GraphIndex<V, E>(graph);
+        edgeDependency = new double[index.getEdgeCount()];
+        dependentEdges = new int[index.getEdgeCount()];
+        dependentEdgeCount = 0;
+        outgoingEdgeDependency = new double[index.getVertexCount()];
+        finishedSources = new boolean[index.getVertexCount()];
+        if (weights != null) {
+            vertexWeight = new double[index.getVertexCount()];
+            for (int i = 0; i < vertexWeight.length; i++) {
+                vertexWeight[i] = weights.get(index.getVertex(i).getID());
             }
-            sPTEdge.accumulateDependency(sigmaFactor * (1 + depSumFromOutgoing));
-            // It's okay to accumulate dependencies in the SPT, but the
-            // betweenness values have to be accumulated to the base graph!
-            sPTEdge.getBaseGraphEdge().accumulateBetweenness(sPTEdge.getDependency());
         }
     }
 
@@ -286,7 +2072,9 @@ public abstract class GraphAnalyzer<V extends VCent, E extends EdgeCent, S exten
         long start = System.currentTimeMillis();
         findExtremeBetweennessValues();
         final double vertexBetwRange = maxBetweenness - minBetweenness;
-        if (vertexBetwRange == 0.0) {
+        if (!computes(BETWEENNESS)) {
+            // Vertex betweenness was not computed.
+        } else if (vertexBetwRange == 0.0) {
             LOGGER.warn("All vertex betweenness values are zero.");
         } else {
             for (V node : nodeSet) {
@@ -296,7 +2084,9 @@ public abstract class GraphAnalyzer<V extends VCent, E extends EdgeCent, S exten
             }
         }
         final double edgeBetwRange = maxEdgeBetweenness - minEdgeBetweenness;
-        if (edgeBetwRange == 0.0) {
+        if (!computes(EDGE_BETWEENNESS)) {
+            // Edge betweenness was not computed.
+        } else if (edgeBetwRange == 0.0) {
             LOGGER.warn("All edge betweenness values are zero.");
         } else {
             for (E edge : graph.edgeSet()) {
@@ -0,0 +1,432 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import org.javanetworkanalyzer.alg.GraphSearchAlgorithm;
+import org.javanetworkanalyzer.data.VCent;
+import org.javanetworkanalyzer.model.GraphIndex;
+import org.javanetworkanalyzer.progress.NullProgressMonitor;
+import org.javanetworkanalyzer.progress.ProgressMonitor;
+import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+
+/**
+ * Approximates closeness and harmonic centrality on unweighted graphs using
+ * HyperLogLog counters, as in Boldi and Vigna, <i>In-Core Computation of
+ * Geometric Centralities with HyperBall: A Hundred Billion Nodes and
+ * Beyond</i>, 2013.
+ *
+ * After t passes over the edges, the counter of each vertex v estimates the
+ * number of vertices at distance at most t from v, obtained as the union of
+ * its own counter and those of its successors after t - 1 passes. The number
+ * of vertices at distance exactly t is the difference between two successive
+ * estimates, from which we accumulate the sum of distances and the sum of
+ * inverse distances of every vertex. We stop once no counter changes, i.e.,
+ * after one pass more than the diameter of the graph.
+ *
+ * Memory usage is 2 * V * 2^log2NumberOfRegisters bytes, split into arrays
+ * of at most 2^30 bytes so that it may exceed the size of a single Java
+ * array. The relative standard error of each counter is about
+ * 1.04 / sqrt(2^log2NumberOfRegisters).
+ *
+ * Unlike {@link GraphAnalyzer}, the graph need not be connected: closeness is
+ * the inverse of the average distance to the vertices reachable from a vertex
+ * (0.0 if there are none).
+ *
+ * @param <V> Vertex
+ * @param <E> Edge
+ *
+ * @author Adam Gouge
+ */
+public class HyperBallAnalyzer<V extends VCent, E>
+        extends GeneralizedGraphAnalyzer<V, E> {
+
+    /**
+     * Odd constant spreading consecutive elements over the hash input space.
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    /**
+     * Base 2 logarithm of the size in bytes of each array of counters.
+     */
+    private static final int LOG2_CHUNK_SIZE = 30;
+    /**
+     * Number of vertices between two progress updates.
+     */
+    private static final int PROGRESS_INTERVAL = 1024;
+    /**
+     * Base 2 logarithm of the number of registers per counter.
+     */
+    private final int log2m;
+    /**
+     * Number of registers per counter.
+     */
+    private final int m;
+    /**
+     * Base 2 logarithm of the number of counters per array.
+     */
+    private final int chunkShift;
+    /**
+     * Progress monitor.
+     */
+    private final ProgressMonitor pm;
+    /**
+     * Seed of the hash function.
+     */
+    private long seed = 0L;
+    /**
+     * Vertex numbering.
+     */
+    private GraphIndex<V, E> index;
+    /**
+     * Estimated harmonic centrality, by vertex index.
+     */
+    private double[] harmonic;
+    /**
+     * Estimated number of reachable vertices (other than the vertex itself),
+     * by vertex index.
+     */
+    private double[] reachable;
+    /**
+     * Number of passes done during the last call to {@link #computeAll()}.
+     */
+    private int numberOfPasses;
+    /**
+     * A logger.
+     */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(HyperBallAnalyzer.class);
+
+    /**
+     * Constructor.
+     *
+     * @param graph                 The graph to be analyzed
+     * @param log2NumberOfRegisters Base 2 logarithm of the number of registers
+     *                              per counter, between 4 and 16
+     * @param pm                    The {@link ProgressMonitor} to be used
+     */
+    public HyperBallAnalyzer(Graph<V, E> graph, int log2NumberOfRegisters,
+                             ProgressMonitor pm) {
+        this(graph, log2NumberOfRegisters, pm, LOG2_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructor with a given array size, for tests.
+     *
+     * @param graph                 The graph to be analyzed
+     * @param log2NumberOfRegisters Base 2 logarithm of the number of registers
+     *                              per counter, between 4 and 16
+     * @param pm                    The {@link ProgressMonitor} to be used
+     * @param log2ChunkSize         Base 2 logarithm of the size in bytes of
+     *                              each array of counters, at least
+     *                              log2NumberOfRegisters
+     */
+    HyperBallAnalyzer(Graph<V, E> graph, int log2NumberOfRegisters,
+                      ProgressMonitor pm, int log2ChunkSize) {
+        super(graph);
+        if (log2NumberOfRegisters < 4 || log2NumberOfRegisters > 16) {
+            throw new IllegalArgumentException("The base 2 logarithm of the "
+                                               + "number of registers must lie "
+                                               + "between 4 and 16.");
+        }
+        this.log2m = log2NumberOfRegisters;
+        this.m = 1 << log2NumberOfRegisters;
+        this.chunkShift = log2ChunkSize - log2NumberOfRegisters;
+        this.pm = pm;
+    }
+
+    /**
+     * Constructor that doesn't keep track of progress.
+     *
+     * @param graph                 The graph to be analyzed
+     * @param log2NumberOfRegisters Base 2 logarithm of the number of registers
+     *                              per counter, between 4 and 16
+     */
+    public HyperBallAnalyzer(Graph<V, E> graph, int log2NumberOfRegisters) {
+        this(graph, log2NumberOfRegisters, new NullProgressMonitor());
+    }
+
+    /**
+     * Sets the seed of the hash function used to fill the counters.
+     *
+     * @param seed Seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Estimates the closeness and harmonic centrality of every vertex. The
+     * closeness is stored in the vertices.
+     */
+    public void computeAll() {
+        final long start = System.currentTimeMillis();
+        index = new GraphIndex<V, E>(graph);
+        final int n = index.getVertexCount();
+        byte[][] current = newCounters(n);
+        byte[][] next = newCounters(n);
+        final double[] estimate = new double[n];
+        final double[] initialEstimate = new double[n];
+        final double[] distanceSum = new double[n];
+        final boolean[] changed = new boolean[n];
+        harmonic = new double[n];
+        reachable = new double[n];
+
+        for (int v = 0; v < n; v++) {
+            addToCounter(current, v, v);
+            estimate[v] = estimate(current, v);
+            initialEstimate[v] = estimate[v];
+        }
+
+        numberOfPasses = 0;
+        boolean anyChange = true;
+        while (anyChange && !pm.isCancelled()) {
+            numberOfPasses++;
+            final int t = numberOfPasses;
+            // The number of passes is not known in advance, so each pass is
+            // a task over the vertices.
+            final long passStart = System.currentTimeMillis();
+            pm.startTask("HyperBall pass " + t, n);
+            anyChange = false;
+            for (int c = 0; c < current.length; c++) {
+                System.arraycopy(current[c], 0, next[c], 0,
+                                 current[c].length);
+            }
+            for (int v = 0; v < n; v++) {
+                changed[v] = false;
+                for (E e : (Set<E>) GraphSearchAlgorithm.outgoingEdgesOf(
+                        graph, index.getVertex(v))) {
+                    final int w = index.indexOf(
+                            Graphs.getOppositeVertex(graph, e,
+                                                     index.getVertex(v)));
+                    changed[v] |= union(next, v, current, w);
+                }
+                anyChange |= changed[v];
+                if ((v + 1) % PROGRESS_INTERVAL == 0 || v + 1 == n) {
+                    pm.setProgress(v + 1, passStart);
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                if (changed[v]) {
+                    final double newEstimate = estimate(next, v);
+                    final double atDistanceT = newEstimate - estimate[v];
+                    if (atDistanceT > 0) {
+                        distanceSum[v] += t * atDistanceT;
+                        harmonic[v] += atDistanceT / t;
+                    }
+                    estimate[v] = Math.max(estimate[v], newEstimate);
+                }
+            }
+            byte[][] tmp = current;
+            current = next;
+            next = tmp;
+            pm.endTask();
+        }
+
+        for (int v = 0; v < n; v++) {
+            reachable[v] = estimate[v] - initialEstimate[v];
+            index.getVertex(v).setCloseness(
+                    distanceSum[v] > 0 ? reachable[v] / distanceSum[v] : 0.0);
+        }
+        LOGGER.info("({} ms) HyperBall took {} passes with {} registers "
+                    + "per counter.",
+                    new Object[]{System.currentTimeMillis() - start,
+                                 numberOfPasses, m});
+    }
+
+    /**
+     * Returns the estimated harmonic centrality of the given vertex, i.e., the
+     * sum of the inverse distances to all other vertices.
+     *
+     * @param v Vertex
+     *
+     * @return The estimated harmonic centrality
+     */
+    public double getHarmonicCentrality(V v) {
+        return harmonic[index.indexOf(v)];
+    }
+
+    /**
+     * Returns the estimated number of vertices reachable from the given
+     * vertex, not counting the vertex itself.
+     *
+     * @param v Vertex
+     *
+     * @return The estimated number of reachable vertices
+     */
+    public double getReachableCount(V v) {
+        return reachable[index.indexOf(v)];
+    }
+
+    /**
+     * Returns the number of passes done during the last call to
+     * {@link #computeAll()}.
+     *
+     * @return The number of passes
+     */
+    public int getNumberOfPasses() {
+        return numberOfPasses;
+    }
+
+    /**
+     * Returns zeroed counters for n vertices, in arrays of
+     * 2^{@link #chunkShift} counters (the last one possibly shorter).
+     *
+     * @param n Number of vertices
+     *
+     * @return The counters
+     */
+    private byte[][] newCounters(int n) {
+        final int perChunk = 1 << chunkShift;
+        final byte[][] counters = new byte[(n + perChunk - 1) / perChunk][];
+        for (int c = 0; c < counters.length; c++) {
+            counters[c] = new byte[Math.min(perChunk, n - c * perChunk) * m];
+        }
+        return counters;
+    }
+
+    /**
+     * Returns the array holding the counter of vertex v.
+     *
+     * @param counters Counters
+     * @param v        Vertex index
+     *
+     * @return The array holding the counter of v
+     */
+    private byte[] chunk(byte[][] counters, int v) {
+        return counters[v >>> chunkShift];
+    }
+
+    /**
+     * Returns the offset of the counter of vertex v in its array.
+     *
+     * @param v Vertex index
+     *
+     * @return The offset of the counter of v
+     */
+    private int offset(int v) {
+        return (v & ((1 << chunkShift) - 1)) << log2m;
+    }
+
+    /**
+     * Adds the given element to the counter of vertex v.
+     *
+     * @param counters Counters
+     * @param v        Vertex index
+     * @param element  Element
+     */
+    private void addToCounter(byte[][] counters, int v, int element) {
+        final long hash = mix((element + 1) * GOLDEN_GAMMA + seed);
+        final int register = (int) (hash & (m - 1));
+        // Position of the leftmost 1 in the remaining 64 - log2m bits.
+        final int rank = Math.min(Long.numberOfLeadingZeros(hash >>> log2m)
+                                  - log2m + 1, 64 - log2m + 1);
+        final byte[] counter = chunk(counters, v);
+        final int i = offset(v) + register;
+        if (rank > counter[i]) {
+            counter[i] = (byte) rank;
+        }
+    }
+
+    /**
+     * Merges the counter of vertex w in source into the counter of vertex v
+     * in target.
+     *
+     * @param target Target counters
+     * @param v      Vertex index of the target counter
+     * @param source Source counters
+     * @param w      Vertex index of the source counter
+     *
+     * @return True if the target counter changed
+     */
+    private boolean union(byte[][] target, int v, byte[][] source, int w) {
+        boolean changed = false;
+        final byte[] vCounter = chunk(target, v);
+        final byte[] wCounter = chunk(source, w);
+        final int vOffset = offset(v);
+        final int wOffset = offset(w);
+        for (int j = 0; j < m; j++) {
+            if (wCounter[wOffset + j] > vCounter[vOffset + j]) {
+                vCounter[vOffset + j] = wCounter[wOffset + j];
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the HyperLogLog estimate of the cardinality of the counter of
+     * vertex v, using linear counting for small cardinalities.
+     *
+     * @param counters Counters
+     * @param v        Vertex index
+     *
+     * @return The estimated cardinality
+     */
+    private double estimate(byte[][] counters, int v) {
+        double sum = 0.0;
+        int zeros = 0;
+        final byte[] counter = chunk(counters, v);
+        final int offset = offset(v);
+        for (int j = 0; j < m; j++) {
+            final int register = counter[offset + j];
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        final double alpha;
+        if (m == 16) {
+            alpha = 0.673;
+        } else if (m == 32) {
+            alpha = 0.697;
+        } else if (m == 64) {
+            alpha = 0.709;
+        } else {
+            alpha = 0.7213 / (1 + 1.079 / m);
+        }
+        final double raw = alpha * m * m / sum;
+        if (raw <= 2.5 * m && zeros > 0) {
+            return m * Math.log((double) m / zeros);
+        }
+        return raw;
+    }
+
+    /**
+     * Mixes the bits of the given value (the finalizer of SplitMix64).
+     *
+     * @param z Value
+     *
+     * @return The mixed value
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
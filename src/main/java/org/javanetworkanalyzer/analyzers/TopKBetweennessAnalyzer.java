@@ -0,0 +1,426 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import org.javanetworkanalyzer.alg.CentralityAlg;
+import org.javanetworkanalyzer.data.BetweennessEstimate;
+import org.javanetworkanalyzer.data.VCent;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.GraphIndex;
+import org.javanetworkanalyzer.progress.NullProgressMonitor;
+import org.javanetworkanalyzer.progress.ProgressMonitor;
+import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Estimates the k vertices of highest betweenness by sampling shortest paths,
+ * in the style of Riondato and Kornaropoulos, <i>Fast approximation of
+ * betweenness centrality through sampling</i>, 2014, and Borassi and Natale,
+ * <i>KADABRA is an ADaptive Algorithm for Betweenness via Random
+ * Approximation</i>, 2016.
+ *
+ * Each sample picks an ordered pair of distinct vertices (s,t) uniformly at
+ * random, runs the given {@link CentralityAlg} from s and walks back from t
+ * along a shortest path chosen uniformly at random among all shortest paths
+ * from s to t. The betweenness of a vertex is estimated by the fraction of
+ * sampled paths it lies on. Sampling stops as soon as the ranking of the top
+ * k vertices is settled, that is, as soon as the confidence interval of each
+ * of the top k vertices is either disjoint from the intervals of all the
+ * vertices ranked below it or narrower than epsilon. In any case, sampling
+ * stops once Hoeffding's inequality guarantees every estimate to be within
+ * epsilon.
+ *
+ * All confidence intervals hold simultaneously with probability at least
+ * 1 - delta. Unlike {@link GraphAnalyzer}, betweenness is not normalized
+ * and the betweenness values stored on the vertices are left untouched.
+ *
+ * @param <V> Vertex
+ * @param <E> Edge
+ *
+ * @author Adam Gouge
+ */
+public class TopKBetweennessAnalyzer<V extends VCent, E extends EdgeCent>
+        extends GeneralizedGraphAnalyzer<V, E> {
+
+    /**
+     * The smallest number of samples after which we check whether we can
+     * stop.
+     */
+    private static final int MIN_SAMPLES_BEFORE_CHECK = 100;
+    /**
+     * The search used to find shortest paths.
+     */
+    private final CentralityAlg<V, E, ?> alg;
+    /**
+     * Progress monitor.
+     */
+    private final ProgressMonitor pm;
+    /**
+     * Seed of the random number generator used to sample paths.
+     */
+    private long seed = System.nanoTime();
+    /**
+     * Number of samples taken during the last call to {@link #compute}.
+     */
+    private long numberOfSamples;
+    /**
+     * A logger.
+     */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(TopKBetweennessAnalyzer.class);
+
+    /**
+     * Constructor.
+     *
+     * @param graph The graph to be analyzed
+     * @param alg   The search used to find shortest paths, e.g., a
+     *              {@link org.javanetworkanalyzer.alg.BFSForCentrality} or a
+     *              {@link org.javanetworkanalyzer.alg.DijkstraForCentrality}
+     *              on the same graph
+     * @param pm    The {@link ProgressMonitor} to be used
+     */
+    public TopKBetweennessAnalyzer(Graph<V, E> graph,
+                                   CentralityAlg<V, E, ?> alg,
+                                   ProgressMonitor pm) {
+        super(graph);
+        this.alg = alg;
+        this.pm = pm;
+    }
+
+    /**
+     * Constructor that doesn't keep track of progress.
+     *
+     * @param graph The graph to be analyzed
+     * @param alg   The search used to find shortest paths
+     */
+    public TopKBetweennessAnalyzer(Graph<V, E> graph,
+                                   CentralityAlg<V, E, ?> alg) {
+        this(graph, alg, new NullProgressMonitor());
+    }
+
+    /**
+     * Sets the seed used to sample paths, so that runs can be reproduced.
+     *
+     * @param seed Seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the seed used to sample paths.
+     *
+     * @return The seed used to sample paths
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the number of shortest paths sampled during the last call to
+     * {@link #compute}.
+     *
+     * @return The number of samples
+     */
+    public long getNumberOfSamples() {
+        return numberOfSamples;
+    }
+
+    /**
+     * Returns the maximum number of samples needed to estimate the betweenness
+     * of all n vertices to within epsilon * n * (n - 1) with probability at
+     * least 1 - delta / 2, by Hoeffding's inequality and the union bound.
+     *
+     * @param epsilon Additive error, relative to n * (n - 1)
+     * @param delta   Probability of exceeding this error
+     * @param n       Number of vertices
+     *
+     * @return The maximum number of samples
+     */
+    public static long maxNumberOfSamples(double epsilon, double delta, int n) {
+        checkParameters(epsilon, delta);
+        return Math.max(1, (long) Math.ceil(
+                Math.log(4.0 * n / delta) / (2 * epsilon * epsilon)));
+    }
+
+    /**
+     * Estimates the betweenness of the k vertices of highest betweenness.
+     *
+     * @param k       The number of vertices to return
+     * @param epsilon Additive error, relative to n * (n - 1), below which we
+     *                stop trying to separate vertices
+     * @param delta   Probability that some confidence interval does not
+     *                contain the true betweenness
+     *
+     * @return The estimates of the k vertices of highest estimated
+     *         betweenness, in order of non-increasing betweenness
+     */
+    public List<BetweennessEstimate<V>> compute(int k, double epsilon,
+                                                double delta) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive.");
+        }
+        checkParameters(epsilon, delta);
+        final long startTime = System.currentTimeMillis();
+
+        final GraphIndex<V, E> index = new GraphIndex<V, E>(graph);
+        final long[] pathCount = new long[nodeCount];
+        final double[] halfWidth = new double[nodeCount];
+        Arrays.fill(halfWidth, 1.0);
+        final Random random = new Random(seed);
+
+        final long maxSamples = maxNumberOfSamples(epsilon, delta, nodeCount);
+        // We check whether we can stop after maxSamples / 2^j samples for
+        // j = numberOfChecks - 1, ..., 0, and split delta / 2 among these
+        // checks, one more for a run cancelled between two checks, and all
+        // the vertices.
+        int numberOfChecks = 1;
+        while ((maxSamples >> numberOfChecks) >= MIN_SAMPLES_BEFORE_CHECK) {
+            numberOfChecks++;
+        }
+        final double logTerm = Math.log(
+                4.0 * nodeCount * (numberOfChecks + 1) / delta);
+
+        pm.startTask("Top-k betweenness", maxSamples);
+        numberOfSamples = 0;
+        int checksLeft = numberOfChecks;
+        while (nodeCount > 2 && numberOfSamples < maxSamples) {
+            if (pm.isCancelled()) {
+                break;
+            }
+            samplePath(index, random, pathCount);
+            numberOfSamples++;
+            pm.setProgress(numberOfSamples, startTime);
+            if (checksLeft > 1
+                && numberOfSamples == (maxSamples >> (checksLeft - 1))) {
+                checksLeft--;
+                updateHalfWidths(pathCount, logTerm, halfWidth);
+                if (isTopKSettled(pathCount, halfWidth, k, epsilon)) {
+                    break;
+                }
+            }
+        }
+        // This is the last scheduled check, the check the top k settled
+        // at, or the extra check of a cancelled run.
+        if (numberOfSamples > 1) {
+            updateHalfWidths(pathCount, logTerm, halfWidth);
+        }
+        if (numberOfSamples == maxSamples) {
+            // Hoeffding's inequality gives us epsilon for every vertex, with
+            // its own half of delta, around the same estimate.
+            for (int i = 0; i < nodeCount; i++) {
+                halfWidth[i] = Math.min(halfWidth[i], epsilon);
+            }
+        }
+        pm.endTask();
+        LOGGER.info("({} ms) Sampled {} of at most {} shortest paths.",
+                    new Object[]{System.currentTimeMillis() - startTime,
+                                 numberOfSamples, maxSamples});
+
+        return topK(index, pathCount, halfWidth, k);
+    }
+
+    /**
+     * Samples a pair of distinct vertices (s,t) and a shortest path from s to
+     * t, and increments the path count of each vertex strictly inside this
+     * path.
+     *
+     * @param index     Vertex numbering
+     * @param random    Random number generator
+     * @param pathCount Path count of each vertex
+     */
+    private void samplePath(GraphIndex<V, E> index, Random random,
+                            long[] pathCount) {
+        final int sourceIndex = random.nextInt(nodeCount);
+        int targetIndex = random.nextInt(nodeCount - 1);
+        if (targetIndex >= sourceIndex) {
+            targetIndex++;
+        }
+        final V source = index.getVertex(sourceIndex);
+        final V target = index.getVertex(targetIndex);
+        alg.calculate(source);
+        // The target is unreachable.
+        if (target.getSPCount() == 0) {
+            return;
+        }
+        // Walk back to the source, choosing each predecessor edge with
+        // probability proportional to the number of shortest paths through
+        // it.
+        V w = target;
+        while (w != source) {
+            long r = (long) (random.nextDouble() * w.getSPCount());
+            V next = null;
+            for (E e : (Set<E>) w.getPredecessorEdges()) {
+                next = Graphs.getOppositeVertex(graph, e, w);
+                r -= next.getSPCount();
+                if (r < 0) {
+                    break;
+                }
+            }
+            w = next;
+            if (w != source) {
+                pathCount[index.indexOf(w)]++;
+            }
+        }
+    }
+
+    /**
+     * Sets the half-widths of the confidence intervals of the betweenness
+     * (as a fraction of n * (n - 1)) of every vertex, around the current
+     * estimates, using the empirical Bernstein bound of Maurer and Pontil,
+     * which is much tighter than Hoeffding's inequality for vertices of low
+     * betweenness. The widths of earlier checks are centered on earlier
+     * estimates, so they are replaced rather than intersected.
+     *
+     * @param pathCount Path count of each vertex
+     * @param logTerm   ln(2 / delta'), where delta' is the probability of
+     *                  failure allowed for a single vertex and check
+     * @param halfWidth Half-widths to set
+     */
+    private void updateHalfWidths(long[] pathCount, double logTerm,
+                                  double[] halfWidth) {
+        final double tau = numberOfSamples;
+        for (int i = 0; i < nodeCount; i++) {
+            final double p = pathCount[i] / tau;
+            final double variance = p * (1 - p) * tau / (tau - 1);
+            final double width = Math.sqrt(2 * variance * logTerm / tau)
+                                 + 7 * logTerm / (3 * (tau - 1));
+            halfWidth[i] = width;
+        }
+    }
+
+    /**
+     * Returns true if each of the top k vertices either has a confidence
+     * interval disjoint from those of all vertices ranked below it, or a
+     * half-width of at most epsilon.
+     *
+     * @param pathCount Path count of each vertex
+     * @param halfWidth Half-width of each confidence interval
+     * @param k         k
+     * @param epsilon   Epsilon
+     *
+     * @return True if the ranking of the top k vertices is settled
+     */
+    private boolean isTopKSettled(long[] pathCount, double[] halfWidth,
+                                  int k, double epsilon) {
+        final Integer[] ranking = rank(pathCount);
+        final double tau = numberOfSamples;
+        // Maximum upper bound of the vertices ranked below position i.
+        double maxUpperBelow = Double.NEGATIVE_INFINITY;
+        final double[] maxUpperBelowRank = new double[nodeCount];
+        for (int i = nodeCount - 1; i >= 0; i--) {
+            maxUpperBelowRank[i] = maxUpperBelow;
+            final int v = ranking[i];
+            maxUpperBelow = Math.max(maxUpperBelow,
+                                     pathCount[v] / tau + halfWidth[v]);
+        }
+        for (int i = 0; i < Math.min(k, nodeCount); i++) {
+            final int v = ranking[i];
+            if (halfWidth[v] > epsilon
+                && pathCount[v] / tau - halfWidth[v] <= maxUpperBelowRank[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the vertex indices ordered by non-increasing path count.
+     *
+     * @param pathCount Path count of each vertex
+     *
+     * @return The vertex indices ordered by non-increasing path count
+     */
+    private Integer[] rank(final long[] pathCount) {
+        final Integer[] ranking = new Integer[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            ranking[i] = i;
+        }
+        Arrays.sort(ranking, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer v1, Integer v2) {
+                final long c1 = pathCount[v1];
+                final long c2 = pathCount[v2];
+                return c1 > c2 ? -1 : (c1 < c2 ? 1 : v1.compareTo(v2));
+            }
+        });
+        return ranking;
+    }
+
+    /**
+     * Returns the estimates of the top k vertices on the scale of
+     * unnormalized betweenness.
+     *
+     * @param index     Vertex numbering
+     * @param pathCount Path count of each vertex
+     * @param halfWidth Half-width of each confidence interval
+     * @param k         k
+     *
+     * @return The estimates of the top k vertices
+     */
+    private List<BetweennessEstimate<V>> topK(GraphIndex<V, E> index,
+                                              long[] pathCount,
+                                              double[] halfWidth,
+                                              int k) {
+        final Integer[] ranking = rank(pathCount);
+        final double pairs = ((double) nodeCount) * (nodeCount - 1);
+        final double tau = Math.max(1, numberOfSamples);
+        final int size = Math.min(k, nodeCount);
+        final List<BetweennessEstimate<V>> estimates =
+                new ArrayList<BetweennessEstimate<V>>(size);
+        for (int i = 0; i < size; i++) {
+            final int v = ranking[i];
+            final double p = pathCount[v] / tau;
+            final double lower = Math.max(0.0, p - halfWidth[v]);
+            final double upper = Math.min(1.0, p + halfWidth[v]);
+            estimates.add(new BetweennessEstimate<V>(
+                    index.getVertex(v), p * pairs,
+                    lower * pairs, upper * pairs));
+        }
+        return estimates;
+    }
+
+    /**
+     * Makes sure epsilon is positive and delta lies in (0,1).
+     *
+     * @param epsilon Epsilon
+     * @param delta   Delta
+     */
+    private static void checkParameters(double epsilon, double delta) {
+        if (epsilon <= 0.0 || delta <= 0.0 || delta >= 1.0) {
+            throw new IllegalArgumentException("Epsilon must be positive "
+                                               + "and delta must lie in (0,1).");
+        }
+    }
+}
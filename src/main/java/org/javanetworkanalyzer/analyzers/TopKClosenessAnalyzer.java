@@ -0,0 +1,223 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import org.javanetworkanalyzer.alg.GraphSearchAlgorithm;
+import org.javanetworkanalyzer.data.VCent;
+import org.javanetworkanalyzer.progress.NullProgressMonitor;
+import org.javanetworkanalyzer.progress.ProgressMonitor;
+import org.jgrapht.Graph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the k vertices of highest closeness exactly, cutting each search as
+ * soon as a lower bound on the farness (the sum of the distances to all other
+ * vertices) of its start node shows that it cannot enter the current top k,
+ * as in Bergamini, Borassi, Crescenzi, Marino and Meyerhenke, <i>Computing
+ * top-k closeness centrality faster in unweighted graphs</i>, 2016.
+ *
+ * When the search from v settles a node at distance d, every node not yet
+ * settled is at distance at least d from v, so the farness of v is at least
+ * the sum of the distances found so far plus d times the number of nodes not
+ * yet settled. Start nodes are processed by non-increasing (out)degree, so
+ * that good candidates are found early and the cut-off quickly becomes
+ * tight.
+ *
+ * Closeness is defined as in {@link GraphAnalyzer}; it is stored in the top k
+ * vertices only.
+ *
+ * @param <V> Vertex
+ * @param <E> Edge
+ *
+ * @author Adam Gouge
+ */
+public abstract class TopKClosenessAnalyzer<V extends VCent, E>
+        extends GeneralizedGraphAnalyzer<V, E> {
+
+    /**
+     * Progress monitor.
+     */
+    protected final ProgressMonitor pm;
+    /**
+     * Number of searches which were not cut during the last call to
+     * {@link #compute(int)}.
+     */
+    private int numberOfCompleteSearches;
+    /**
+     * A logger.
+     */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(TopKClosenessAnalyzer.class);
+
+    /**
+     * Constructor.
+     *
+     * @param graph The graph to be analyzed
+     * @param pm    The {@link ProgressMonitor} to be used
+     */
+    public TopKClosenessAnalyzer(Graph<V, E> graph, ProgressMonitor pm) {
+        super(graph);
+        this.pm = pm;
+    }
+
+    /**
+     * Constructor that doesn't keep track of progress.
+     *
+     * @param graph The graph to be analyzed
+     */
+    public TopKClosenessAnalyzer(Graph<V, E> graph) {
+        this(graph, new NullProgressMonitor());
+    }
+
+    /**
+     * Returns the farness of the given start node, or infinity if the search
+     * was cut because the farness exceeds the given cut-off or if some node
+     * is unreachable from the start node.
+     *
+     * @param startNode Start node
+     * @param cutoff    Cut-off
+     *
+     * @return The farness of the start node, or infinity
+     */
+    protected abstract double farness(V startNode, double cutoff);
+
+    /**
+     * Called by {@link #compute(int)} before the first call to
+     * {@link #farness}. Searches which only reset the nodes reached by the
+     * previous search must reset every node after this call, since other
+     * searches may have touched the nodes in the meantime.
+     */
+    protected void startSearches() {
+        // Empty on purpose
+    }
+
+    /**
+     * Returns the k vertices of highest closeness, by non-increasing
+     * closeness, and stores their closeness. Ties are broken arbitrarily.
+     * Vertices which cannot reach every other vertex have zero closeness and
+     * are not returned.
+     *
+     * @param k k
+     *
+     * @return The k vertices of highest closeness
+     */
+    public List<V> compute(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive.");
+        }
+        final long start = System.currentTimeMillis();
+        final Map<V, Double> farness = new HashMap<V, Double>();
+        // Max-heap of the best farness values found so far.
+        final PriorityQueue<V> topK = new PriorityQueue<V>(
+                k + 1, new Comparator<V>() {
+            @Override
+            public int compare(V v1, V v2) {
+                return Double.compare(farness.get(v2), farness.get(v1));
+            }
+        });
+
+        pm.startTask("Top-k closeness", nodeCount);
+        numberOfCompleteSearches = 0;
+        startSearches();
+        long count = 0;
+        for (V node : byDecreasingDegree()) {
+            if (pm.isCancelled()) {
+                break;
+            }
+            final double cutoff = (topK.size() < k)
+                    ? Double.POSITIVE_INFINITY
+                    : farness.get(topK.peek());
+            final double f = farness(node, cutoff);
+            if (!Double.isInfinite(f)) {
+                numberOfCompleteSearches++;
+                if (f <= cutoff) {
+                    farness.put(node, f);
+                    topK.add(node);
+                    if (topK.size() > k) {
+                        topK.poll();
+                    }
+                }
+            }
+            pm.setProgress(++count, start);
+        }
+        pm.endTask();
+
+        final List<V> result = new ArrayList<V>(topK);
+        Collections.sort(result, new Comparator<V>() {
+            @Override
+            public int compare(V v1, V v2) {
+                return Double.compare(farness.get(v1), farness.get(v2));
+            }
+        });
+        for (V v : result) {
+            v.setCloseness((nodeCount - 1) / farness.get(v));
+        }
+        LOGGER.info("({} ms) Top-{} closeness: {} of {} searches complete.",
+                    new Object[]{System.currentTimeMillis() - start, k,
+                                 numberOfCompleteSearches, nodeCount});
+        return result;
+    }
+
+    /**
+     * Returns the number of searches which were not cut during the last call
+     * to {@link #compute(int)}.
+     *
+     * @return The number of complete searches
+     */
+    public int getNumberOfCompleteSearches() {
+        return numberOfCompleteSearches;
+    }
+
+    /**
+     * Returns the vertices ordered by non-increasing outdegree (degree for
+     * undirected graphs).
+     *
+     * @return The vertices ordered by non-increasing outdegree
+     */
+    private List<V> byDecreasingDegree() {
+        final Map<V, Integer> degree = new HashMap<V, Integer>();
+        for (V node : nodeSet) {
+            degree.put(node, GraphSearchAlgorithm.outgoingEdgesOf(graph, node)
+                    .size());
+        }
+        final List<V> nodes = new ArrayList<V>(nodeSet);
+        Collections.sort(nodes, new Comparator<V>() {
+            @Override
+            public int compare(V v1, V v2) {
+                return degree.get(v2).compareTo(degree.get(v1));
+            }
+        });
+        return nodes;
+    }
+}
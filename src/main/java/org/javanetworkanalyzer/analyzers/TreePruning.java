@@ -0,0 +1,332 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import org.javanetworkanalyzer.data.VCent;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.GraphIndex;
+import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repeatedly strips the degree-one vertices of an undirected graph, leaving
+ * its 2-core (plus one vertex per tree component), and adds back the exact
+ * betweenness and closeness contributions of the stripped trees once
+ * Brandes' algorithm has been run on the core, as in Baglioni, Geraci,
+ * Pellegrini and Lastres, <i>Fast exact computation of betweenness centrality
+ * in social networks</i>, 2012.
+ *
+ * Every stripped vertex hangs on its parent by a bridge, so all shortest
+ * paths to a vertex of the tree hanging on a core vertex c go through c. The
+ * searches on the core count c as many times as its tree has vertices, both
+ * as a source and as a target; see {@link GraphAnalyzer#setTreePruning}.
+ *
+ * @param <V> Vertex
+ * @param <E> Edge
+ *
+ * @author Adam Gouge
+ */
+class TreePruning<V extends VCent, E extends EdgeCent> {
+
+    /**
+     * The graph.
+     */
+    private final Graph<V, E> graph;
+    /**
+     * Vertex and edge numbering.
+     */
+    private final GraphIndex<V, E> index;
+    /**
+     * Stripped vertices, in the order they were stripped.
+     */
+    private final List<Integer> stripped;
+    /**
+     * Parent of each stripped vertex, or -1 for core vertices.
+     */
+    private final int[] parent;
+    /**
+     * Edge to the parent of each stripped vertex.
+     */
+    private final List<E> parentEdge;
+    /**
+     * Length of the edge to the parent of each stripped vertex.
+     */
+    private final double[] parentEdgeLength;
+    /**
+     * Number of vertices of the tree hanging on each vertex, itself
+     * included.
+     */
+    private final long[] treeSize;
+    /**
+     * Sum of the squared sizes of the subtrees hanging directly on each
+     * vertex.
+     */
+    private final long[] branchSquares;
+    /**
+     * Sum of the distances from each vertex to the vertices of its tree.
+     */
+    private final double[] treeDistanceSum;
+    /**
+     * Number of vertices of the connected component of each vertex.
+     */
+    private final long[] componentSize;
+
+    /**
+     * Strips the trees of the given undirected graph.
+     *
+     * @param graph       The graph
+     * @param index       Vertex and edge numbering
+     * @param edgeLengths Length of each edge, indexed by edge
+     */
+    TreePruning(Graph<V, E> graph, GraphIndex<V, E> index,
+                double[] edgeLengths) {
+        this.graph = graph;
+        this.index = index;
+        final int n = index.getVertexCount();
+        this.stripped = new ArrayList<Integer>();
+        this.parent = new int[n];
+        this.parentEdge = new ArrayList<E>(n);
+        this.parentEdgeLength = new double[n];
+        this.treeSize = new long[n];
+        this.branchSquares = new long[n];
+        this.treeDistanceSum = new double[n];
+        this.componentSize = new long[n];
+
+        // Number of edges to vertices not stripped yet. Loops count twice, so
+        // that a vertex with a loop is never a leaf.
+        final int[] degree = new int[n];
+        final LinkedList<Integer> leaves = new LinkedList<Integer>();
+        for (int i = 0; i < n; i++) {
+            parent[i] = -1;
+            parentEdge.add(null);
+            treeSize[i] = 1;
+            for (E e : graph.edgesOf(index.getVertex(i))) {
+                degree[i] += (graph.getEdgeSource(e)
+                              == graph.getEdgeTarget(e)) ? 2 : 1;
+            }
+            if (degree[i] == 1) {
+                leaves.add(i);
+            }
+        }
+        while (!leaves.isEmpty()) {
+            final int leaf = leaves.poll();
+            // The last vertex of a tree component is never stripped.
+            if (degree[leaf] != 1) {
+                continue;
+            }
+            final V v = index.getVertex(leaf);
+            for (E e : graph.edgesOf(v)) {
+                final int p = index.indexOf(
+                        Graphs.getOppositeVertex(graph, e, v));
+                if (parent[p] < 0 && degree[p] > 0) {
+                    stripped.add(leaf);
+                    parent[leaf] = p;
+                    parentEdge.set(leaf, e);
+                    parentEdgeLength[leaf] =
+                            edgeLengths[index.edgeIndexOf(e)];
+                    degree[leaf] = 0;
+                    if (--degree[p] == 1) {
+                        leaves.add(p);
+                    }
+                    break;
+                }
+            }
+        }
+
+        // Children are stripped before their parents.
+        for (int x : stripped) {
+            final int p = parent[x];
+            treeSize[p] += treeSize[x];
+            branchSquares[p] += treeSize[x] * treeSize[x];
+            treeDistanceSum[p] += treeDistanceSum[x]
+                                  + treeSize[x] * parentEdgeLength[x];
+        }
+        computeComponentSizes();
+    }
+
+    /**
+     * Computes the size of the connected component of every vertex.
+     */
+    private void computeComponentSizes() {
+        final int n = index.getVertexCount();
+        final boolean[] visited = new boolean[n];
+        final List<Integer> component = new ArrayList<Integer>();
+        for (int i = 0; i < n; i++) {
+            if (visited[i]) {
+                continue;
+            }
+            visited[i] = true;
+            component.clear();
+            component.add(i);
+            // The component list doubles as the BFS queue.
+            for (int j = 0; j < component.size(); j++) {
+                final V v = index.getVertex(component.get(j));
+                for (E e : graph.edgesOf(v)) {
+                    final int w = index.indexOf(
+                            Graphs.getOppositeVertex(graph, e, v));
+                    if (!visited[w]) {
+                        visited[w] = true;
+                        component.add(w);
+                    }
+                }
+            }
+            for (int u : component) {
+                componentSize[u] = component.size();
+            }
+        }
+    }
+
+    /**
+     * Returns the vertices which were not stripped.
+     *
+     * @return The core vertices
+     */
+    List<V> getCore() {
+        final List<V> core = new ArrayList<V>();
+        for (int i = 0; i < index.getVertexCount(); i++) {
+            if (parent[i] < 0) {
+                core.add(index.getVertex(i));
+            }
+        }
+        return core;
+    }
+
+    /**
+     * Returns the number of stripped vertices.
+     *
+     * @return The number of stripped vertices
+     */
+    int getNumberOfStrippedVertices() {
+        return stripped.size();
+    }
+
+    /**
+     * Returns true if both ends of the given edge are core vertices.
+     *
+     * @param e Edge
+     *
+     * @return True if both ends of the given edge are core vertices
+     */
+    boolean isCoreEdge(E e) {
+        return parent[index.indexOf(graph.getEdgeSource(e))] < 0
+               && parent[index.indexOf(graph.getEdgeTarget(e))] < 0;
+    }
+
+    /**
+     * Returns the number of vertices of the tree hanging on each core vertex,
+     * itself included, by id.
+     *
+     * @return The tree sizes of the core vertices, by id
+     */
+    Map<Integer, Long> getTreeSizes() {
+        final Map<Integer, Long> sizes = new HashMap<Integer, Long>();
+        for (V v : getCore()) {
+            sizes.put(v.getID(), treeSize[index.indexOf(v)]);
+        }
+        return sizes;
+    }
+
+    /**
+     * Adds the betweenness of the shortest paths which start or end in a
+     * tree. Core vertices and edges are expected to hold the betweenness
+     * found by the searches on the core, and the others to hold zero.
+     *
+     * @param vertices True to add vertex betweenness
+     * @param edges    True to add edge betweenness
+     */
+    void addTreeBetweenness(boolean vertices, boolean edges) {
+        for (int i = 0; i < index.getVertexCount(); i++) {
+            final long size = treeSize[i];
+            final long others = componentSize[i] - 1;
+            final long rest = componentSize[i] - size;
+            if (!vertices) {
+                // Only the edge betweenness below.
+            } else if (parent[i] < 0) {
+                // Paths between the tree and the rest of the component, both
+                // ways, and paths between two branches of the tree.
+                index.getVertex(i).accumulateBetweenness(
+                        2.0 * (size - 1) * rest
+                        + (double) (size - 1) * (size - 1) - branchSquares[i]);
+            } else {
+                // Paths between two of the components left by removing this
+                // vertex.
+                index.getVertex(i).accumulateBetweenness(
+                        (double) others * others - branchSquares[i]
+                        - (double) rest * rest);
+            }
+            if (edges && parent[i] >= 0) {
+                parentEdge.get(i).accumulateBetweenness(2.0 * size * rest);
+            }
+        }
+    }
+
+    /**
+     * Sets the closeness of every vertex as {@link GraphAnalyzer} defines it.
+     * Core vertices are expected to hold, in place of their closeness, the
+     * sum over the core vertices they reach of the tree size times the
+     * distance.
+     */
+    void setCloseness() {
+        final int n = index.getVertexCount();
+        final double[] farness = new double[n];
+        double allTreeDistances = 0.0;
+        for (int i = 0; i < n; i++) {
+            if (parent[i] < 0) {
+                farness[i] = index.getVertex(i).getCloseness();
+                allTreeDistances += treeDistanceSum[i];
+            }
+        }
+        // Closeness is zero unless every node is reachable.
+        if (n < 2 || componentSize[0] < n) {
+            for (int i = 0; i < n; i++) {
+                index.getVertex(i).setCloseness(0.0);
+            }
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            if (parent[i] < 0) {
+                farness[i] += allTreeDistances;
+            }
+        }
+        // Moving from a parent to a child across a bridge brings the child's
+        // tree closer and everything else farther.
+        for (int j = stripped.size() - 1; j >= 0; j--) {
+            final int x = stripped.get(j);
+            farness[x] = farness[parent[x]]
+                         + parentEdgeLength[x] * (n - 2 * treeSize[x]);
+        }
+        for (int i = 0; i < n; i++) {
+            final double avgPathLength = farness[i] / (n - 1);
+            index.getVertex(i).setCloseness(
+                    (avgPathLength > 0.0) ? 1 / avgPathLength : 0.0);
+        }
+    }
+}
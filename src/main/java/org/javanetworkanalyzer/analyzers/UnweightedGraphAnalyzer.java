@@ -24,14 +24,19 @@
  */
 package org.javanetworkanalyzer.analyzers;
 
+import org.javanetworkanalyzer.alg.BFS;
 import org.javanetworkanalyzer.alg.BFSForCentrality;
 import org.javanetworkanalyzer.alg.GraphSearchAlgorithm;
+import org.javanetworkanalyzer.alg.MultiSourceBFS;
 import org.javanetworkanalyzer.data.VUCent;
 import org.javanetworkanalyzer.data.UnweightedPathLengthData;
 import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
 import org.javanetworkanalyzer.progress.NullProgressMonitor;
 import org.javanetworkanalyzer.progress.ProgressMonitor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
 import org.jgrapht.Graph;
 
 /**
@@ -88,16 +93,102 @@ public class UnweightedGraphAnalyzer<E extends EdgeCent>
     @Override
     protected BFSForCentrality<E> calculateShortestPathsFromNode(
             VUCent startNode) {
+        bfs.setRecordingShortestPaths(needsShortestPaths());
+        bfs.setRadius(getRadius());
         bfs.calculate(startNode);
         return bfs;
     }
 
+    /**
+     * Sets whether the BFS used in {@link #computeAll()} should switch
+     * between top-down and bottom-up steps. This is faster on graphs of small
+     * diameter and gives the same results.
+     *
+     * @param directionOptimizing True to use direction-optimizing BFS
+     *
+     * @see BFS#setDirectionOptimizing(boolean)
+     */
+    public void setDirectionOptimizing(boolean directionOptimizing) {
+        bfs.setDirectionOptimizing(directionOptimizing);
+    }
+
     @Override
     public void computeAll() throws InstantiationException,
             IllegalAccessException, IllegalArgumentException,
             InvocationTargetException {
-        pm.startTask("Unweighted graph analysis", nodeCount);
+        pm.startTask("Unweighted graph analysis", getNumberOfSources());
+        bfs.forgetReachedNodes();
         super.computeAll();
         pm.endTask();
     }
+
+    /**
+     * Computes closeness only, running {@link MultiSourceBFS#BATCH_SIZE}
+     * searches at once with a {@link MultiSourceBFS}. This is much faster
+     * than {@link #computeAll()} when betweenness is not needed, and gives
+     * the same closeness values, within the radius if one is set.
+     *
+     * @return The lengths of the shortest paths between all pairs of distinct
+     *         nodes, from which the average and maximum shortest path lengths
+     *         of the graph may be read
+     */
+    public UnweightedPathLengthData computeCloseness() {
+        final long startTime = System.currentTimeMillis();
+        pm.startTask("Unweighted closeness", nodeCount);
+        final MultiSourceBFS<VUCent, E> msbfs =
+                new MultiSourceBFS<VUCent, E>(graph);
+        msbfs.setRadius(getRadius());
+        final UnweightedPathLengthData allPaths =
+                new UnweightedPathLengthData();
+        final List<VUCent> nodes = new ArrayList<VUCent>(nodeSet);
+        for (int i = 0; i < nodes.size(); i += MultiSourceBFS.BATCH_SIZE) {
+            if (pm.isCancelled()) {
+                break;
+            }
+            final List<VUCent> batch = nodes.subList(
+                    i, Math.min(i + MultiSourceBFS.BATCH_SIZE, nodes.size()));
+            final UnweightedPathLengthData[] paths = msbfs.calculate(batch);
+            for (int j = 0; j < paths.length; j++) {
+                calculateClosenessForNode(batch.get(j), paths[j]);
+                allPaths.addAll(paths[j]);
+            }
+            pm.setProgress(i + batch.size(), startTime);
+        }
+        pm.endTask();
+        return allPaths;
+    }
+
+    @Override
+    protected UnweightedGraphAnalyzer<E> createWorker(
+            WeightedKeyedGraph<VUCent, E> graphCopy)
+            throws NoSuchMethodException, InstantiationException,
+            IllegalAccessException, IllegalArgumentException,
+            InvocationTargetException {
+        UnweightedGraphAnalyzer<E> worker = new UnweightedGraphAnalyzer<E>(
+                graphCopy, new NullProgressMonitor());
+        worker.setDirectionOptimizing(bfs.isDirectionOptimizing());
+        return worker;
+    }
+
+    @Override
+    protected double[] distancesTo(VUCent target) {
+        new BFS<VUCent, E>(reversedGraph()).calculate(target);
+        // The labels of the vertices are now those of the reverse search.
+        bfs.forgetReachedNodes();
+        final double[] distances = new double[index.getVertexCount()];
+        for (int i = 0; i < distances.length; i++) {
+            final VUCent v = index.getVertex(i);
+            final int distance = v.getDistance();
+            distances[i] = (distance < 0) ? Double.POSITIVE_INFINITY : distance;
+        }
+        return distances;
+    }
+
+    /**
+     * Every edge has length one in unweighted analysis.
+     */
+    @Override
+    protected double edgeLength(double weight) {
+        return 1.0;
+    }
 }
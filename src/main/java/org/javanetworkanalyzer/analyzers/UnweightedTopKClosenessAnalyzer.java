@@ -0,0 +1,172 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import org.javanetworkanalyzer.alg.BFS;
+import org.javanetworkanalyzer.data.VUCent;
+import org.javanetworkanalyzer.model.EdgeSPT;
+import org.javanetworkanalyzer.progress.ProgressMonitor;
+import org.jgrapht.Graph;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * {@link TopKClosenessAnalyzer} for unweighted graphs, using a BFS cut from
+ * its {@link BFS#dequeueStep} hook.
+ *
+ * @author Adam Gouge
+ */
+public class UnweightedTopKClosenessAnalyzer<E extends EdgeSPT>
+        extends TopKClosenessAnalyzer<VUCent, E> {
+
+    /**
+     * The search, reused for every start node.
+     */
+    private final FarnessSearch search;
+
+    /**
+     * Constructor.
+     *
+     * @param graph The graph to be analyzed
+     * @param pm    The {@link ProgressMonitor} to be used
+     */
+    public UnweightedTopKClosenessAnalyzer(Graph<VUCent, E> graph,
+                                           ProgressMonitor pm) {
+        super(graph, pm);
+        search = new FarnessSearch();
+    }
+
+    /**
+     * Constructor that doesn't keep track of progress.
+     *
+     * @param graph The graph to be analyzed
+     */
+    public UnweightedTopKClosenessAnalyzer(Graph<VUCent, E> graph) {
+        super(graph);
+        search = new FarnessSearch();
+    }
+
+    @Override
+    protected void startSearches() {
+        search.reached = null;
+    }
+
+    @Override
+    protected double farness(VUCent startNode, double cutoff) {
+        search.cutoff = cutoff;
+        search.calculate(startNode);
+        if (search.cut || search.found < nodeCount - 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return search.sum;
+    }
+
+    /**
+     * BFS which counts the nodes it finds and the sum of their distances,
+     * stopping once the farness of the start node exceeds the cut-off. Only
+     * the nodes reached by the previous search are reset.
+     */
+    private class FarnessSearch extends BFS<VUCent, E> {
+
+        /**
+         * Cut-off.
+         */
+        private double cutoff;
+        /**
+         * Number of nodes found, other than the start node.
+         */
+        private long found;
+        /**
+         * Sum of the distances of the nodes found.
+         */
+        private long sum;
+        /**
+         * Whether the search was cut.
+         */
+        private boolean cut;
+        /**
+         * Nodes reached by the previous search, or null if every node must
+         * be reset.
+         */
+        private List<VUCent> reached;
+
+        /**
+         * Constructor.
+         */
+        private FarnessSearch() {
+            super(UnweightedTopKClosenessAnalyzer.this.graph);
+        }
+
+        @Override
+        protected void init(VUCent startNode) {
+            super.init(startNode);
+            found = 0;
+            sum = 0;
+            cut = false;
+            reached.add(startNode);
+        }
+
+        @Override
+        protected void resetNodes() {
+            if (reached == null) {
+                super.resetNodes();
+                reached = new ArrayList<VUCent>();
+            } else {
+                for (VUCent node : reached) {
+                    node.reset();
+                }
+                reached.clear();
+            }
+        }
+
+        @Override
+        protected boolean isBounded() {
+            return true;
+        }
+
+        @Override
+        protected VUCent dequeueStep(LinkedList<VUCent> queue) {
+            VUCent current = queue.poll();
+            // Every node not found yet is at distance at least
+            // d(current) + 1.
+            final double lowerBound = sum + (current.getDistance() + 1.0)
+                    * (nodeCount - 1 - found);
+            if (lowerBound > cutoff) {
+                cut = true;
+                return null;
+            }
+            return current;
+        }
+
+        @Override
+        protected void firstTimeFoundStep(VUCent current, VUCent neighbor) {
+            reached.add(neighbor);
+            found++;
+            sum += neighbor.getDistance();
+        }
+    }
+}
@@ -24,11 +24,13 @@
  */
 package org.javanetworkanalyzer.analyzers;
 
+import org.javanetworkanalyzer.alg.Dijkstra;
 import org.javanetworkanalyzer.alg.DijkstraForCentrality;
 import org.javanetworkanalyzer.alg.GraphSearchAlgorithm;
 import org.javanetworkanalyzer.data.VWCent;
 import org.javanetworkanalyzer.data.WeightedPathLengthData;
 import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
 import org.javanetworkanalyzer.progress.NullProgressMonitor;
 import org.javanetworkanalyzer.progress.ProgressMonitor;
 import java.lang.reflect.InvocationTargetException;
@@ -76,6 +78,28 @@ public class WeightedGraphAnalyzer<E extends EdgeCent>
         this(graph, new NullProgressMonitor());
     }
 
+    /**
+     * Makes the shortest path searches use fixed-point distances with the
+     * given number of units per unit of weight, or floating point distances
+     * if zero (the default). Multiple shortest paths are then detected by
+     * exact equality; see {@link Dijkstra#setFixedPointScale(double)}.
+     *
+     * @param scale Number of fixed-point units per unit of weight, or zero
+     */
+    public void setFixedPointScale(double scale) {
+        dijkstra.setFixedPointScale(scale);
+    }
+
+    /**
+     * Returns the number of fixed-point units per unit of weight, or zero if
+     * distances are floating point.
+     *
+     * @return The fixed-point scale
+     */
+    public double getFixedPointScale() {
+        return dijkstra.getFixedPointScale();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -96,6 +120,9 @@ public class WeightedGraphAnalyzer<E extends EdgeCent>
         // {@link GraphAnalyzer.accumulateDependencies(int, TIntArrayStack)},
         // the nodes are popped in order of non-increasing distance from s.
         // This is IMPORTANT.
+        dijkstra.setRecordingShortestPaths(needsShortestPaths());
+        dijkstra.setRadius(getRadius());
+        dijkstra.setWeightProfile(getWeightProfile());
         dijkstra.calculate(startNode);
         return dijkstra;
     }
@@ -104,8 +131,46 @@ public class WeightedGraphAnalyzer<E extends EdgeCent>
     public void computeAll() throws InstantiationException,
             IllegalAccessException, IllegalArgumentException,
             InvocationTargetException {
-        pm.startTask("Weighted graph analysis", nodeCount);
+        pm.startTask("Weighted graph analysis", getNumberOfSources());
+        dijkstra.forgetReachedNodes();
         super.computeAll();
         pm.endTask();
     }
+
+    @Override
+    protected WeightedGraphAnalyzer<E> createWorker(
+            WeightedKeyedGraph<VWCent, E> graphCopy)
+            throws NoSuchMethodException, InstantiationException,
+            IllegalAccessException, IllegalArgumentException,
+            InvocationTargetException {
+        final WeightedGraphAnalyzer<E> worker = new WeightedGraphAnalyzer<E>(
+                graphCopy, new NullProgressMonitor());
+        worker.setFixedPointScale(getFixedPointScale());
+        return worker;
+    }
+
+    @Override
+    protected double[] distancesTo(VWCent target) {
+        final Dijkstra<VWCent, E> reversedDijkstra =
+                new Dijkstra<VWCent, E>(reversedGraph());
+        reversedDijkstra.setWeightProfile(getWeightProfile());
+        reversedDijkstra.setFixedPointScale(getFixedPointScale());
+        reversedDijkstra.calculate(target);
+        // The labels of the vertices are now those of the reverse search.
+        dijkstra.forgetReachedNodes();
+        final double[] distances = new double[index.getVertexCount()];
+        for (int i = 0; i < distances.length; i++) {
+            final VWCent v = index.getVertex(i);
+            distances[i] = v.getDistance();
+        }
+        return distances;
+    }
+
+    /**
+     * Edge lengths are edge weights in weighted analysis.
+     */
+    @Override
+    protected double edgeLength(double weight) {
+        return weight;
+    }
 }
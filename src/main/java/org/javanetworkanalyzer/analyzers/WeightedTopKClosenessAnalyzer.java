@@ -0,0 +1,173 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import org.javanetworkanalyzer.alg.Dijkstra;
+import org.javanetworkanalyzer.alg.DijkstraQueue;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.model.EdgeSPT;
+import org.javanetworkanalyzer.progress.ProgressMonitor;
+import org.jgrapht.Graph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link TopKClosenessAnalyzer} for weighted graphs, using a Dijkstra search
+ * cut from its {@link Dijkstra#preRelaxStep} hook.
+ *
+ * @author Adam Gouge
+ */
+public class WeightedTopKClosenessAnalyzer<E extends EdgeSPT>
+        extends TopKClosenessAnalyzer<VWCent, E> {
+
+    /**
+     * The search, reused for every start node.
+     */
+    private final FarnessSearch search;
+
+    /**
+     * Constructor.
+     *
+     * @param graph The graph to be analyzed
+     * @param pm    The {@link ProgressMonitor} to be used
+     */
+    public WeightedTopKClosenessAnalyzer(Graph<VWCent, E> graph,
+                                         ProgressMonitor pm) {
+        super(graph, pm);
+        search = new FarnessSearch();
+    }
+
+    /**
+     * Constructor that doesn't keep track of progress.
+     *
+     * @param graph The graph to be analyzed
+     */
+    public WeightedTopKClosenessAnalyzer(Graph<VWCent, E> graph) {
+        super(graph);
+        search = new FarnessSearch();
+    }
+
+    @Override
+    protected void startSearches() {
+        search.reached = null;
+    }
+
+    @Override
+    protected double farness(VWCent startNode, double cutoff) {
+        search.cutoff = cutoff;
+        search.calculate(startNode);
+        if (search.cut || search.settled < nodeCount - 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return search.sum;
+    }
+
+    /**
+     * Dijkstra search which counts the nodes it settles and the sum of their
+     * distances, stopping once the farness of the start node exceeds the
+     * cut-off. Only the nodes reached by the previous search are reset.
+     */
+    private class FarnessSearch extends Dijkstra<VWCent, E> {
+
+        /**
+         * Cut-off.
+         */
+        private double cutoff;
+        /**
+         * Number of nodes settled, other than the start node.
+         */
+        private long settled;
+        /**
+         * Sum of the distances of the nodes settled.
+         */
+        private double sum;
+        /**
+         * Whether the search was cut.
+         */
+        private boolean cut;
+        /**
+         * Nodes reached by the previous search, or null if every node must
+         * be reset.
+         */
+        private List<VWCent> reached;
+
+        /**
+         * Constructor.
+         */
+        private FarnessSearch() {
+            super(WeightedTopKClosenessAnalyzer.this.graph);
+        }
+
+        @Override
+        protected void init(VWCent startNode) {
+            super.init(startNode);
+            settled = 0;
+            sum = 0;
+            cut = false;
+            reached.add(startNode);
+        }
+
+        @Override
+        protected void resetNodes() {
+            if (reached == null) {
+                super.resetNodes();
+                reached = new ArrayList<VWCent>();
+            } else {
+                for (VWCent node : reached) {
+                    node.reset();
+                }
+                reached.clear();
+            }
+        }
+
+        @Override
+        protected boolean preRelaxStep(VWCent startNode, VWCent u) {
+            if (u != startNode) {
+                settled++;
+                sum += u.getDistance();
+            }
+            // Every node not settled yet is at distance at least d(u).
+            final double lowerBound = sum + u.getDistance()
+                    * (nodeCount - 1 - settled);
+            if (lowerBound > cutoff) {
+                cut = true;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        protected void shortestPathSoFarUpdate(VWCent startNode, VWCent u,
+                                               VWCent v, Double uvWeight,
+                                               E e,
+                                               DijkstraQueue<VWCent> queue) {
+            if (v.getDistance() == Double.POSITIVE_INFINITY) {
+                reached.add(v);
+            }
+            super.shortestPathSoFarUpdate(startNode, u, v, uvWeight, e, queue);
+        }
+    }
+}
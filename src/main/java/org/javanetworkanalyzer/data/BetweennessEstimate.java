@@ -0,0 +1,115 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.data;
+
+/**
+ * An estimate of the betweenness of a vertex together with a confidence
+ * interval, as returned by a sampling-based betweenness computation.
+ *
+ * Values are on the scale of unnormalized betweenness, i.e., the sum over all
+ * ordered pairs of distinct vertices (s,t) of the fraction of shortest paths
+ * from s to t passing through the vertex.
+ *
+ * @param <V> Vertex
+ *
+ * @author Adam Gouge
+ */
+public class BetweennessEstimate<V> {
+
+    /**
+     * The vertex.
+     */
+    private final V vertex;
+    /**
+     * The estimated betweenness.
+     */
+    private final double betweenness;
+    /**
+     * Lower bound of the confidence interval.
+     */
+    private final double lowerBound;
+    /**
+     * Upper bound of the confidence interval.
+     */
+    private final double upperBound;
+
+    /**
+     * Constructor.
+     *
+     * @param vertex      The vertex
+     * @param betweenness The estimated betweenness
+     * @param lowerBound  Lower bound of the confidence interval
+     * @param upperBound  Upper bound of the confidence interval
+     */
+    public BetweennessEstimate(V vertex, double betweenness,
+                               double lowerBound, double upperBound) {
+        this.vertex = vertex;
+        this.betweenness = betweenness;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    /**
+     * Returns the vertex.
+     *
+     * @return The vertex
+     */
+    public V getVertex() {
+        return vertex;
+    }
+
+    /**
+     * Returns the estimated betweenness.
+     *
+     * @return The estimated betweenness
+     */
+    public double getBetweenness() {
+        return betweenness;
+    }
+
+    /**
+     * Returns the lower bound of the confidence interval.
+     *
+     * @return The lower bound of the confidence interval
+     */
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Returns the upper bound of the confidence interval.
+     *
+     * @return The upper bound of the confidence interval
+     */
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    @Override
+    public String toString() {
+        return vertex + ": " + betweenness
+               + " [" + lowerBound + ", " + upperBound + "]";
+    }
+}
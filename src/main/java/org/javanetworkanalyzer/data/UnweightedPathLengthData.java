@@ -66,6 +66,20 @@ public class UnweightedPathLengthData extends PathLengthData<Integer> {
         }
     }
 
+    /**
+     * Accumulates all the shortest path lengths accumulated in the given
+     * instance.
+     *
+     * @param other Another instance
+     */
+    public void addAll(UnweightedPathLengthData other) {
+        count += other.count;
+        totalLength += other.totalLength;
+        if (maxLength < other.maxLength) {
+            maxLength = other.maxLength;
+        }
+    }
+
     @Override
     public Integer getMaxLength() {
         return maxLength;
@@ -45,6 +45,14 @@ public class VDijkstra<V extends VDijkstra, E>
      * node (Dijkstra).
      */
     private double distance;
+    /**
+     * Distance as a scaled integer, when Dijkstra runs in fixed-point mode.
+     */
+    private long fixedDistance;
+    /**
+     * Position of this node in the Dijkstra queue, or -1.
+     */
+    private int heapIndex = -1;
 
     /**
      * Constructor: Sets the id.
@@ -65,6 +73,47 @@ public class VDijkstra<V extends VDijkstra, E>
         distance = newDistance;
     }
 
+    /**
+     * Returns the distance as a scaled integer, when Dijkstra runs in
+     * fixed-point mode, or {@link Long#MAX_VALUE} if this node was not
+     * reached.
+     *
+     * @return The fixed-point distance
+     *
+     * @see org.javanetworkanalyzer.alg.Dijkstra#setFixedPointScale(double)
+     */
+    public long getFixedDistance() {
+        return fixedDistance;
+    }
+
+    /**
+     * Sets the distance as a scaled integer.
+     *
+     * @param fixedDistance Fixed-point distance
+     */
+    public void setFixedDistance(long fixedDistance) {
+        this.fixedDistance = fixedDistance;
+    }
+
+    /**
+     * Returns the position of this node in the Dijkstra queue, or -1 if it
+     * was never added. Only meaningful to the queue itself.
+     *
+     * @return The position of this node in the Dijkstra queue
+     */
+    public int getHeapIndex() {
+        return heapIndex;
+    }
+
+    /**
+     * Sets the position of this node in the Dijkstra queue.
+     *
+     * @param heapIndex Position, or -1
+     */
+    public void setHeapIndex(int heapIndex) {
+        this.heapIndex = heapIndex;
+    }
+
     /**
      * Clears the predecessor list and resets the distance to the default
      * distance.
@@ -75,6 +124,7 @@ public class VDijkstra<V extends VDijkstra, E>
         super.clear();
         // Reset the distance to the default distance.
         distance = DEFAULT_DISTANCE;
+        fixedDistance = Long.MAX_VALUE;
     }
 
     /**
@@ -86,5 +136,6 @@ public class VDijkstra<V extends VDijkstra, E>
         super.clear();
         // Set the distance to zero.
         distance = 0.0;
+        fixedDistance = 0;
     }
 }
@@ -28,6 +28,7 @@ import org.javanetworkanalyzer.data.VId;
 import org.javanetworkanalyzer.model.DirectedPseudoG;
 import org.javanetworkanalyzer.model.Edge;
 import org.javanetworkanalyzer.model.KeyedGraph;
+import org.javanetworkanalyzer.model.NodeCoordinates;
 import org.javanetworkanalyzer.model.PseudoG;
 import java.io.BufferedReader;
 import java.io.File;
@@ -55,6 +56,10 @@ public class GraphCreator<V extends VId, E extends Edge> {
      * End node column name.
      */
     protected static final String END_NODE = "end_node";
+    /**
+     * Geometry column name.
+     */
+    protected static final String GEOMETRY = "the_geom";
     /**
      * Orientation.
      */
@@ -79,6 +84,22 @@ public class GraphCreator<V extends VId, E extends Edge> {
      * End node index.
      */
     protected static int endNodeIndex = -1;
+    /**
+     * Id of the next edge loaded, i.e., number of edges loaded so far.
+     */
+    private int nextEdgeId;
+    /**
+     * Geometry index, or -1.
+     */
+    protected int geometryIndex = -1;
+    /**
+     * Whether node coordinates are kept.
+     */
+    private boolean keepingCoordinates;
+    /**
+     * Node coordinates of the last graph loaded, or null.
+     */
+    private NodeCoordinates coordinates;
     /**
      * Specifies a directed graph.
      */
@@ -123,6 +144,29 @@ public class GraphCreator<V extends VId, E extends Edge> {
         this.edgeClass = edgeClass;
     }
 
+    /**
+     * Sets whether {@link #loadGraph()} keeps the coordinates of the nodes,
+     * taken from the first and last points of the (MULTI)LINESTRING in the
+     * {@code the_geom} column of each edge (false by default).
+     *
+     * @param keepingCoordinates True to keep node coordinates
+     *
+     * @see #getCoordinates()
+     */
+    public void setKeepingCoordinates(boolean keepingCoordinates) {
+        this.keepingCoordinates = keepingCoordinates;
+    }
+
+    /**
+     * Returns the node coordinates of the last graph loaded, or null if they
+     * were not kept.
+     *
+     * @return The node coordinates, or null
+     */
+    public NodeCoordinates getCoordinates() {
+        return coordinates;
+    }
+
     /**
      * Returns a new graph from a csv file produced in OrbisGIS as the
      * {@code output.edges} table given by {@code ST_Graph}.
@@ -139,9 +183,16 @@ public class GraphCreator<V extends VId, E extends Edge> {
 
         // Get a scanner on the csv file.
         Scanner scanner = getScannerOnCSVFile(csvFile);
+        nextEdgeId = 0;
+        geometryIndex = -1;
+        coordinates = keepingCoordinates ? new NodeCoordinates(1024) : null;
 
         // Initialize the indices of the start_node, end_node, and weight.
         initializeIndices(scanner);
+        if (coordinates != null && geometryIndex < 0) {
+            throw new IllegalArgumentException(
+                    "No " + GEOMETRY + " column to take coordinates from.");
+        }
 
         // Initialize a graph.
         KeyedGraph<V, E> graph = initializeGraph();
@@ -200,6 +251,9 @@ public class GraphCreator<V extends VId, E extends Edge> {
             } else if (row[i].replace(DOUBLE_QUOTES, EMPTY_STRING)
                     .equals(END_NODE)) {
                 endNodeIndex = i;
+            } else if (row[i].replace(DOUBLE_QUOTES, EMPTY_STRING)
+                    .equals(GEOMETRY)) {
+                geometryIndex = i;
             }
         }
     }
@@ -280,7 +334,65 @@ public class GraphCreator<V extends VId, E extends Edge> {
         } else {
             edge = graph.addEdge(startNode, endNode);
         }
+        // Number the edges in file order.
+        edge.setID(nextEdgeId++);
+        // Record the coordinates of the endpoints.
+        if (coordinates != null) {
+            loadCoordinates(row[geometryIndex], startNode, endNode);
+        }
         // And return it.
         return edge;
     }
+
+    /**
+     * Sets the coordinates of the start and end nodes to the first and last
+     * points of the given WKT (MULTI)LINESTRING.
+     *
+     * @param wkt       Geometry
+     * @param startNode Start node id
+     * @param endNode   End node id
+     */
+    private void loadCoordinates(String wkt, int startNode, int endNode) {
+        final String geometry = deleteDoubleQuotes(wkt);
+        // The first point follows the last opening parenthesis of the run
+        // opening the coordinates.
+        int from = geometry.indexOf('(');
+        if (from < 0) {
+            throw new IllegalArgumentException(
+                    "Unsupported geometry " + geometry + ".");
+        }
+        while (geometry.charAt(from) == '(') {
+            from++;
+        }
+        int to = from;
+        while (geometry.charAt(to) != ',' && geometry.charAt(to) != ')') {
+            to++;
+        }
+        setCoordinates(startNode, geometry.substring(from, to));
+        // The last point precedes the first closing parenthesis of the run
+        // closing the coordinates.
+        to = geometry.lastIndexOf(')');
+        while (geometry.charAt(to - 1) == ')') {
+            to--;
+        }
+        from = to;
+        while (geometry.charAt(from - 1) != ','
+               && geometry.charAt(from - 1) != '(') {
+            from--;
+        }
+        setCoordinates(endNode, geometry.substring(from, to));
+    }
+
+    /**
+     * Sets the coordinates of the given node to those of the given WKT
+     * point, ignoring any z-coordinate.
+     *
+     * @param node  Node id
+     * @param point Point, as "x y" or "x y z"
+     */
+    private void setCoordinates(int node, String point) {
+        final String[] xy = point.trim().split("\\s+");
+        coordinates.set(node, Double.parseDouble(xy[0]),
+                        Double.parseDouble(xy[1]));
+    }
 }
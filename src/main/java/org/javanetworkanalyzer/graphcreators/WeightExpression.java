@@ -0,0 +1,244 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.graphcreators;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An arithmetic expression over the columns of a csv file, such as
+ * {@code length / speed} or {@code 2 * (length + 10)}, used to compute the
+ * edge weights of a weight profile.
+ *
+ * Expressions are made of column names, numbers, parentheses and the
+ * operators {@code + - * /}, with the usual precedence.
+ *
+ * @author Adam Gouge
+ */
+class WeightExpression {
+
+    private final String expression;
+    private final List<String> header;
+    private final Set<Integer> columns;
+    private final Node root;
+    private int position;
+
+    /**
+     * Parses the given expression.
+     *
+     * @param expression Expression
+     * @param header     Column names, in order
+     * @param columns    Set to which the indices of the columns used by the
+     *                   expression are added
+     *
+     * @throws IllegalArgumentException If the expression is malformed or
+     *                                  names an unknown column
+     */
+    WeightExpression(String expression, List<String> header,
+                     Set<Integer> columns) {
+        this.expression = expression;
+        this.header = header;
+        this.columns = columns;
+        this.position = 0;
+        this.root = parseSum();
+        skipSpaces();
+        if (position < expression.length()) {
+            throw error("Unexpected '" + expression.charAt(position) + "'");
+        }
+    }
+
+    /**
+     * Evaluates this expression.
+     *
+     * @param values Column values, by column index
+     *
+     * @return The value of this expression
+     */
+    double evaluate(double[] values) {
+        return root.evaluate(values);
+    }
+
+    private Node parseSum() {
+        Node left = parseProduct();
+        while (true) {
+            skipSpaces();
+            if (accept('+')) {
+                left = new Operation('+', left, parseProduct());
+            } else if (accept('-')) {
+                left = new Operation('-', left, parseProduct());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Node parseProduct() {
+        Node left = parseFactor();
+        while (true) {
+            skipSpaces();
+            if (accept('*')) {
+                left = new Operation('*', left, parseFactor());
+            } else if (accept('/')) {
+                left = new Operation('/', left, parseFactor());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Node parseFactor() {
+        skipSpaces();
+        if (accept('(')) {
+            Node node = parseSum();
+            skipSpaces();
+            if (!accept(')')) {
+                throw error("Missing ')'");
+            }
+            return node;
+        }
+        if (accept('-')) {
+            return new Operation('-', new Constant(0.0), parseFactor());
+        }
+        final int start = position;
+        if (position < expression.length()
+            && (Character.isDigit(expression.charAt(position))
+                || expression.charAt(position) == '.')) {
+            while (position < expression.length()
+                   && (Character.isDigit(expression.charAt(position))
+                       || expression.charAt(position) == '.')) {
+                position++;
+            }
+            try {
+                return new Constant(Double.parseDouble(
+                        expression.substring(start, position)));
+            } catch (NumberFormatException ex) {
+                throw error("Bad number");
+            }
+        }
+        while (position < expression.length()
+               && (Character.isLetterOrDigit(expression.charAt(position))
+                   || expression.charAt(position) == '_')) {
+            position++;
+        }
+        if (start == position) {
+            throw error("Expected a column or a number");
+        }
+        final String name = expression.substring(start, position);
+        final int column = header.indexOf(name);
+        if (column < 0) {
+            throw new IllegalArgumentException(
+                    "Unknown column " + name + " in " + expression + ".");
+        }
+        columns.add(column);
+        return new Column(column);
+    }
+
+    private boolean accept(char c) {
+        if (position < expression.length()
+            && expression.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipSpaces() {
+        while (position < expression.length()
+               && Character.isWhitespace(expression.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(
+                message + " at position " + position + " of " + expression
+                + ".");
+    }
+
+    /**
+     * A node of the expression tree.
+     */
+    private abstract static class Node {
+
+        abstract double evaluate(double[] values);
+    }
+
+    private static class Constant extends Node {
+
+        private final double value;
+
+        Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        double evaluate(double[] values) {
+            return value;
+        }
+    }
+
+    private static class Column extends Node {
+
+        private final int column;
+
+        Column(int column) {
+            this.column = column;
+        }
+
+        @Override
+        double evaluate(double[] values) {
+            return values[column];
+        }
+    }
+
+    private static class Operation extends Node {
+
+        private final char operator;
+        private final Node left;
+        private final Node right;
+
+        Operation(char operator, Node left, Node right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double evaluate(double[] values) {
+            final double a = left.evaluate(values);
+            final double b = right.evaluate(values);
+            switch (operator) {
+                case '+':
+                    return a + b;
+                case '-':
+                    return a - b;
+                case '*':
+                    return a * b;
+                default:
+                    return a / b;
+            }
+        }
+    }
+}
@@ -30,13 +30,25 @@ import org.javanetworkanalyzer.model.DirectedWeightedPseudoG;
 import org.javanetworkanalyzer.model.Edge;
 import org.javanetworkanalyzer.model.KeyedGraph;
 import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.javanetworkanalyzer.model.WeightProfile;
 import org.javanetworkanalyzer.model.WeightedPseudoG;
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
 
 /**
  * Creates weighted JGraphT graphs from a csv file produced by OrbisGIS.
  *
+ * Besides the weight column, which gives the weights of the graph, any
+ * number of weight profiles may be read in the same pass; see
+ * {@link #addWeightProfile(String, String)}.
+ *
  * @author Adam Gouge
  */
 public class WeightedGraphCreator<V extends VId, E extends Edge>
@@ -50,6 +62,35 @@ public class WeightedGraphCreator<V extends VId, E extends Edge>
      * Weight index.
      */
     protected static int weightFieldIndex = -1;
+    /**
+     * Names of the weight profiles, in the order they were added.
+     */
+    private final List<String> profileNames = new ArrayList<String>();
+    /**
+     * Expressions of the weight profiles, in the same order.
+     */
+    private final List<String> profileExpressions = new ArrayList<String>();
+    /**
+     * Parsed expressions, once the header is read.
+     */
+    private WeightExpression[] expressions;
+    /**
+     * Indices of the columns used by the expressions.
+     */
+    private int[] expressionColumns;
+    /**
+     * Values of the columns of the current row, by column index.
+     */
+    private double[] columnValues;
+    /**
+     * Weights of the weight column and of each profile, by edge id.
+     */
+    private double[][] profileWeights;
+    /**
+     * Weight profiles of the last graph loaded.
+     */
+    private final Map<String, WeightProfile> profiles =
+            new LinkedHashMap<String, WeightProfile>();
 
     /**
      * Initializes a new {@link WeightedGraphCreator}.
@@ -67,10 +108,68 @@ public class WeightedGraphCreator<V extends VId, E extends Edge>
         this.weightField = weightField;
     }
 
+    /**
+     * Makes {@link #loadGraph()} compute a weight profile with the given name
+     * from the given expression, evaluated on each row. An expression may
+     * be a column name, such as {@code length}, or combine columns and
+     * numbers with {@code + - * /} and parentheses, such as
+     * {@code length / speed}.
+     *
+     * @param name       Profile name
+     * @param expression Expression
+     */
+    public void addWeightProfile(String name, String expression) {
+        if (name.equals(weightField) || profileNames.contains(name)) {
+            throw new IllegalArgumentException(
+                    "Duplicate weight profile " + name + ".");
+        }
+        profileNames.add(name);
+        profileExpressions.add(expression);
+    }
+
+    /**
+     * Returns the weight profile with the given name computed by the last
+     * call to {@link #loadGraph()}. The weight column is available as a
+     * profile under its own name.
+     *
+     * @param name Profile name
+     *
+     * @return The weight profile, or null if there is none with this name
+     */
+    public WeightProfile getWeightProfile(String name) {
+        return profiles.get(name);
+    }
+
+    /**
+     * Returns the weight profiles computed by the last call to
+     * {@link #loadGraph()}, by name, starting with the weight column.
+     *
+     * @return The weight profiles
+     */
+    public Map<String, WeightProfile> getWeightProfiles() {
+        return profiles;
+    }
+
     @Override
     public WeightedKeyedGraph<V, E> loadGraph()
             throws FileNotFoundException, NoSuchMethodException {
-        return (WeightedKeyedGraph<V, E>) super.loadGraph();
+        profiles.clear();
+        profileWeights = new double[profileNames.size() + 1][1024];
+        int edgeCount = 0;
+        final WeightedKeyedGraph<V, E> graph =
+                (WeightedKeyedGraph<V, E>) super.loadGraph();
+        for (E e : graph.edgeSet()) {
+            edgeCount = Math.max(edgeCount, e.getID() + 1);
+        }
+        profiles.put(weightField, new WeightProfile(
+                weightField, Arrays.copyOf(profileWeights[0], edgeCount)));
+        for (int k = 0; k < profileNames.size(); k++) {
+            profiles.put(profileNames.get(k), new WeightProfile(
+                    profileNames.get(k),
+                    Arrays.copyOf(profileWeights[k + 1], edgeCount)));
+        }
+        profileWeights = null;
+        return graph;
     }
 
     /**
@@ -94,8 +193,28 @@ public class WeightedGraphCreator<V extends VId, E extends Edge>
             } else if (row[i].replace(DOUBLE_QUOTES, EMPTY_STRING)
                     .equals(weightField)) {
                 weightFieldIndex = i;
+            } else if (row[i].replace(DOUBLE_QUOTES, EMPTY_STRING)
+                    .equals(GEOMETRY)) {
+                geometryIndex = i;
             }
         }
+        // Parse the weight profile expressions.
+        final List<String> header = new ArrayList<String>(row.length);
+        for (String column : row) {
+            header.add(column.replace(DOUBLE_QUOTES, EMPTY_STRING));
+        }
+        final Set<Integer> columns = new HashSet<Integer>();
+        expressions = new WeightExpression[profileExpressions.size()];
+        for (int k = 0; k < expressions.length; k++) {
+            expressions[k] = new WeightExpression(
+                    profileExpressions.get(k), header, columns);
+        }
+        expressionColumns = new int[columns.size()];
+        int i = 0;
+        for (int column : columns) {
+            expressionColumns[i++] = column;
+        }
+        columnValues = new double[row.length];
     }
 
     @Override
@@ -128,6 +247,22 @@ public class WeightedGraphCreator<V extends VId, E extends Edge>
         double weight = Double.parseDouble(
                 deleteDoubleQuotes(row[weightFieldIndex]));
         edge.setWeight(weight);
+        // Compute the weight profiles.
+        final int id = edge.getID();
+        if (id >= profileWeights[0].length) {
+            for (int k = 0; k < profileWeights.length; k++) {
+                profileWeights[k] = Arrays.copyOf(
+                        profileWeights[k], 2 * profileWeights[k].length);
+            }
+        }
+        profileWeights[0][id] = weight;
+        for (int column : expressionColumns) {
+            columnValues[column] = Double.parseDouble(
+                    deleteDoubleQuotes(row[column]));
+        }
+        for (int k = 0; k < expressions.length; k++) {
+            profileWeights[k + 1][id] = expressions[k].evaluate(columnValues);
+        }
         return edge;
     }
 }
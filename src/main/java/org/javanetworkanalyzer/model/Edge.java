@@ -37,6 +37,7 @@ public class Edge<E extends Edge<E>> extends DefaultWeightedEdge
 
     private double weight = WeightedGraph.DEFAULT_EDGE_WEIGHT;
     private E baseGraphEdge;
+    private int id = -1;
 
     /**
      * Sets the weight of this edge.
@@ -46,6 +47,25 @@ public class Edge<E extends Edge<E>> extends DefaultWeightedEdge
         return this;
     }
 
+    /**
+     * Returns the id of this edge, i.e., its position in the file it was
+     * loaded from, or -1. Used by {@link WeightProfile}.
+     *
+     * @return The id of this edge, or -1
+     */
+    public int getID() {
+        return id;
+    }
+
+    /**
+     * Sets the id of this edge.
+     *
+     * @param id New id
+     */
+    public void setID(int id) {
+        this.id = id;
+    }
+
     @Override
     protected double getWeight() {
         return weight;
@@ -0,0 +1,158 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jgrapht.Graph;
+
+/**
+ * Numbers the vertices and edges of a graph from zero, so that per-vertex
+ * and per-edge values can be kept in primitive arrays.
+ *
+ * The index is a snapshot: vertices or edges added to the graph afterwards
+ * are not indexed.
+ *
+ * @param <V> Vertex
+ * @param <E> Edge
+ *
+ * @author Adam Gouge
+ */
+public class GraphIndex<V, E> {
+
+    /**
+     * Vertices, by index.
+     */
+    private final List<V> vertices;
+    /**
+     * Edges, by index.
+     */
+    private final List<E> edges;
+    /**
+     * Map of vertices to their index.
+     */
+    private final Map<V, Integer> vertexIndices;
+    /**
+     * Map of edges to their index.
+     */
+    private final Map<E, Integer> edgeIndices;
+
+    /**
+     * Indexes the vertices and edges of the given graph in the order of
+     * {@link Graph#vertexSet()} and {@link Graph#edgeSet()}.
+     *
+     * @param graph The graph
+     */
+    public GraphIndex(Graph<V, E> graph) {
+        this.vertices = new ArrayList<V>(graph.vertexSet());
+        this.edges = new ArrayList<E>(graph.edgeSet());
+        this.vertexIndices = new HashMap<V, Integer>(2 * vertices.size());
+        this.edgeIndices = new HashMap<E, Integer>(2 * edges.size());
+        for (int i = 0; i < vertices.size(); i++) {
+            vertexIndices.put(vertices.get(i), i);
+        }
+        for (int i = 0; i < edges.size(); i++) {
+            edgeIndices.put(edges.get(i), i);
+        }
+    }
+
+    /**
+     * Returns the number of indexed vertices.
+     *
+     * @return The number of indexed vertices
+     */
+    public int getVertexCount() {
+        return vertices.size();
+    }
+
+    /**
+     * Returns the number of indexed edges.
+     *
+     * @return The number of indexed edges
+     */
+    public int getEdgeCount() {
+        return edges.size();
+    }
+
+    /**
+     * Returns the vertex with the given index.
+     *
+     * @param index Index
+     *
+     * @return The vertex with the given index
+     */
+    public V getVertex(int index) {
+        return vertices.get(index);
+    }
+
+    /**
+     * Returns the edge with the given index.
+     *
+     * @param index Index
+     *
+     * @return The edge with the given index
+     */
+    public E getEdge(int index) {
+        return edges.get(index);
+    }
+
+    /**
+     * Returns the index of the given vertex.
+     *
+     * @param v Vertex
+     *
+     * @return The index of the given vertex
+     *
+     * @throws IllegalArgumentException If the vertex is not indexed.
+     */
+    public int indexOf(V v) {
+        Integer index = vertexIndices.get(v);
+        if (index == null) {
+            throw new IllegalArgumentException("Vertex " + v
+                                               + " is not indexed.");
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of the given edge.
+     *
+     * @param e Edge
+     *
+     * @return The index of the given edge
+     *
+     * @throws IllegalArgumentException If the edge is not indexed.
+     */
+    public int edgeIndexOf(E e) {
+        Integer index = edgeIndices.get(e);
+        if (index == null) {
+            throw new IllegalArgumentException("Edge " + e
+                                               + " is not indexed.");
+        }
+        return index;
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.model;
+
+import java.util.Arrays;
+
+/**
+ * Planar coordinates of the nodes of a graph, kept in primitive arrays
+ * indexed by node id.
+ *
+ * @author Adam Gouge
+ * @see org.javanetworkanalyzer.graphcreators.GraphCreator#setKeepingCoordinates(boolean)
+ */
+public class NodeCoordinates {
+
+    private double[] x;
+    private double[] y;
+
+    /**
+     * Constructs a new {@link NodeCoordinates} object with room for the
+     * given number of ids.
+     *
+     * @param capacity Initial capacity
+     */
+    public NodeCoordinates(int capacity) {
+        x = new double[Math.max(capacity, 1)];
+        y = new double[x.length];
+        Arrays.fill(x, Double.NaN);
+        Arrays.fill(y, Double.NaN);
+    }
+
+    /**
+     * Sets the coordinates of the given node.
+     *
+     * @param id Node id
+     * @param x  x-coordinate
+     * @param y  y-coordinate
+     */
+    public void set(int id, double x, double y) {
+        if (id >= this.x.length) {
+            final int oldLength = this.x.length;
+            final int newLength = Math.max(2 * oldLength, id + 1);
+            this.x = Arrays.copyOf(this.x, newLength);
+            this.y = Arrays.copyOf(this.y, newLength);
+            Arrays.fill(this.x, oldLength, newLength, Double.NaN);
+            Arrays.fill(this.y, oldLength, newLength, Double.NaN);
+        }
+        this.x[id] = x;
+        this.y[id] = y;
+    }
+
+    /**
+     * Returns true if the coordinates of the given node are known.
+     *
+     * @param id Node id
+     *
+     * @return True if the coordinates of the given node are known
+     */
+    public boolean contains(int id) {
+        return id >= 0 && id < x.length && !Double.isNaN(x[id]);
+    }
+
+    /**
+     * Returns the x-coordinate of the given node, or NaN if unknown.
+     *
+     * @param id Node id
+     *
+     * @return The x-coordinate
+     */
+    public double getX(int id) {
+        return contains(id) ? x[id] : Double.NaN;
+    }
+
+    /**
+     * Returns the y-coordinate of the given node, or NaN if unknown.
+     *
+     * @param id Node id
+     *
+     * @return The y-coordinate
+     */
+    public double getY(int id) {
+        return contains(id) ? y[id] : Double.NaN;
+    }
+
+    /**
+     * Returns the Euclidean distance between the given nodes, or NaN if the
+     * coordinates of either are unknown.
+     *
+     * @param id1 First node id
+     * @param id2 Second node id
+     *
+     * @return The Euclidean distance between the given nodes
+     */
+    public double distance(int id1, int id2) {
+        if (!contains(id1) || !contains(id2)) {
+            return Double.NaN;
+        }
+        final double dx = x[id1] - x[id2];
+        final double dy = y[id1] - y[id2];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.model;
+
+import java.util.Arrays;
+
+/**
+ * Edge weights kept apart from the graph, in a primitive array indexed by
+ * edge id (see {@link Edge#getID()}), so that several costs (distance,
+ * travel time, ...) can be used on the same graph without copying it.
+ *
+ * @author Adam Gouge
+ * @see org.javanetworkanalyzer.graphcreators.WeightedGraphCreator#addWeightProfile(String, String)
+ */
+public class WeightProfile {
+
+    private final String name;
+    private final double[] weights;
+
+    /**
+     * Constructs a new {@link WeightProfile}.
+     *
+     * @param name    Name
+     * @param weights Weights, by edge id
+     */
+    public WeightProfile(String name, double[] weights) {
+        this.name = name;
+        this.weights = weights;
+    }
+
+    /**
+     * Returns the name of this profile.
+     *
+     * @return The name of this profile
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of edges this profile holds a weight for.
+     *
+     * @return The number of edges
+     */
+    public int size() {
+        return weights.length;
+    }
+
+    /**
+     * Returns the weight of the given edge.
+     *
+     * @param e Edge
+     *
+     * @return The weight of the given edge
+     */
+    public double getWeight(Edge e) {
+        return weights[e.getID()];
+    }
+
+    /**
+     * Sets the weight of the given edge.
+     *
+     * @param e      Edge
+     * @param weight New weight
+     */
+    public void setWeight(Edge e, double weight) {
+        weights[e.getID()] = weight;
+    }
+
+    /**
+     * Returns a copy of the weights, by edge id.
+     *
+     * @return The weights
+     */
+    public double[] getWeights() {
+        return Arrays.copyOf(weights, weights.length);
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.results;
+
+import java.util.Arrays;
+
+/**
+ * A {@link ResultSink} which keeps the results in primitive arrays indexed by
+ * vertex id (or edge index), grown as needed.
+ *
+ * Values which were never written are zero, except for the closest
+ * destination (-1) and the distance to it (infinity), as in
+ * {@link org.javanetworkanalyzer.data.VAccess}.
+ *
+ * @author Adam Gouge
+ */
+public class ArrayResultSink implements ResultSink {
+
+    private double[] closeness;
+    private double[] betweenness;
+    private double[] edgeBetweenness;
+    private int[] closestDestination;
+    private double[] distanceToClosestDestination;
+
+    /**
+     * Constructs a new {@link ArrayResultSink} for vertex ids and edge indices
+     * smaller than the given capacities. Larger ones are accepted but make
+     * the arrays grow.
+     *
+     * @param vertexCapacity Expected largest vertex id plus one
+     * @param edgeCapacity   Expected number of edges
+     */
+    public ArrayResultSink(int vertexCapacity, int edgeCapacity) {
+        closeness = new double[vertexCapacity];
+        betweenness = new double[vertexCapacity];
+        edgeBetweenness = new double[edgeCapacity];
+        closestDestination = new int[vertexCapacity];
+        Arrays.fill(closestDestination, -1);
+        distanceToClosestDestination = new double[vertexCapacity];
+        Arrays.fill(distanceToClosestDestination, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Constructs a new empty {@link ArrayResultSink}.
+     */
+    public ArrayResultSink() {
+        this(0, 0);
+    }
+
+    @Override
+    public synchronized void writeCloseness(int id, double value) {
+        closeness = ensureCapacity(closeness, id, 0.0);
+        closeness[id] = value;
+    }
+
+    @Override
+    public synchronized void writeBetweenness(int id, double value) {
+        betweenness = ensureCapacity(betweenness, id, 0.0);
+        betweenness[id] = value;
+    }
+
+    @Override
+    public synchronized void writeEdgeBetweenness(int edge, int source,
+                                                  int target, double value) {
+        edgeBetweenness = ensureCapacity(edgeBetweenness, edge, 0.0);
+        edgeBetweenness[edge] = value;
+    }
+
+    @Override
+    public synchronized void writeAccessibility(int id, int destination,
+                                                double distance) {
+        if (id >= closestDestination.length) {
+            final int oldLength = closestDestination.length;
+            closestDestination = Arrays.copyOf(closestDestination,
+                                               newLength(oldLength, id));
+            Arrays.fill(closestDestination, oldLength,
+                        closestDestination.length, -1);
+        }
+        distanceToClosestDestination = ensureCapacity(
+                distanceToClosestDestination, id, Double.POSITIVE_INFINITY);
+        closestDestination[id] = destination;
+        distanceToClosestDestination[id] = distance;
+    }
+
+    /**
+     * Does nothing; the results stay available.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Returns the closeness of the given vertex.
+     *
+     * @param id Vertex id
+     *
+     * @return The closeness of the given vertex
+     */
+    public synchronized double getCloseness(int id) {
+        return id < closeness.length ? closeness[id] : 0.0;
+    }
+
+    /**
+     * Returns the betweenness of the given vertex.
+     *
+     * @param id Vertex id
+     *
+     * @return The betweenness of the given vertex
+     */
+    public synchronized double getBetweenness(int id) {
+        return id < betweenness.length ? betweenness[id] : 0.0;
+    }
+
+    /**
+     * Returns the betweenness of the given edge.
+     *
+     * @param edge Edge index
+     *
+     * @return The betweenness of the given edge
+     */
+    public synchronized double getEdgeBetweenness(int edge) {
+        return edge < edgeBetweenness.length ? edgeBetweenness[edge] : 0.0;
+    }
+
+    /**
+     * Returns the id of the closest destination of the given vertex.
+     *
+     * @param id Vertex id
+     *
+     * @return The id of the closest destination, or -1
+     */
+    public synchronized int getClosestDestinationId(int id) {
+        return id < closestDestination.length ? closestDestination[id] : -1;
+    }
+
+    /**
+     * Returns the distance from the given vertex to its closest destination.
+     *
+     * @param id Vertex id
+     *
+     * @return The distance to the closest destination
+     */
+    public synchronized double getDistanceToClosestDestination(int id) {
+        return id < distanceToClosestDestination.length
+                ? distanceToClosestDestination[id]
+                : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the given array, or a copy large enough to hold the given
+     * position with the new entries set to the given default value.
+     *
+     * @param array        Array
+     * @param position     Position
+     * @param defaultValue Default value
+     *
+     * @return An array large enough to hold the given position
+     */
+    private static double[] ensureCapacity(double[] array, int position,
+                                           double defaultValue) {
+        if (position < array.length) {
+            return array;
+        }
+        final double[] larger =
+                Arrays.copyOf(array, newLength(array.length, position));
+        Arrays.fill(larger, array.length, larger.length, defaultValue);
+        return larger;
+    }
+
+    /**
+     * Returns the length to which an array of the given length grows to hold
+     * the given position.
+     *
+     * @param length   Current length
+     * @param position Position
+     *
+     * @return The new length
+     */
+    private static int newLength(int length, int position) {
+        return Math.max(position + 1, 2 * length);
+    }
+}
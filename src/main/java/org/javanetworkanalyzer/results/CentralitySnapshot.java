@@ -0,0 +1,157 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.results;
+
+/**
+ * Betweenness and closeness estimates of an anytime centrality computation
+ * after some of the sources were processed.
+ *
+ * Betweenness is scaled by the number of vertices over the number of sources
+ * processed, as for pivots, and is not normalized. The closeness of a
+ * processed source is exact; that of the other vertices is estimated from
+ * their distances to the processed sources, as proposed by Eppstein and
+ * Wang, <i>Fast approximation of centrality</i>, 2004. This estimate is only
+ * available on undirected graphs without a radius; otherwise it is NaN.
+ *
+ * Values are indexed by vertex index; see {@link #getId(int)}.
+ *
+ * @author Adam Gouge
+ */
+public class CentralitySnapshot {
+
+    private final long elapsedTime;
+    private final int processedSources;
+    private final int numberOfSources;
+    private final int[] ids;
+    private final double[] betweenness;
+    private final double[] closeness;
+    private final int[] topBetweenness;
+
+    /**
+     * Constructs a new {@link CentralitySnapshot}.
+     *
+     * @param elapsedTime      Time elapsed since the beginning of the
+     *                         computation, in milliseconds
+     * @param processedSources Number of sources processed
+     * @param numberOfSources  Number of sources to process
+     * @param ids              Vertex ids, by vertex index
+     * @param betweenness      Betweenness estimates, by vertex index
+     * @param closeness        Closeness estimates, by vertex index
+     * @param topBetweenness   Ids of the vertices with the largest
+     *                         betweenness estimates, largest first
+     */
+    public CentralitySnapshot(long elapsedTime, int processedSources,
+                              int numberOfSources, int[] ids,
+                              double[] betweenness, double[] closeness,
+                              int[] topBetweenness) {
+        this.elapsedTime = elapsedTime;
+        this.processedSources = processedSources;
+        this.numberOfSources = numberOfSources;
+        this.ids = ids;
+        this.betweenness = betweenness;
+        this.closeness = closeness;
+        this.topBetweenness = topBetweenness;
+    }
+
+    /**
+     * Returns the time elapsed since the beginning of the computation.
+     *
+     * @return The elapsed time in milliseconds
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * Returns the number of sources processed.
+     *
+     * @return The number of sources processed
+     */
+    public int getProcessedSources() {
+        return processedSources;
+    }
+
+    /**
+     * Returns the number of sources the computation would process without a
+     * time budget.
+     *
+     * @return The number of sources
+     */
+    public int getNumberOfSources() {
+        return numberOfSources;
+    }
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return The number of vertices
+     */
+    public int getVertexCount() {
+        return ids.length;
+    }
+
+    /**
+     * Returns the id of the vertex with the given index.
+     *
+     * @param index Vertex index
+     *
+     * @return The id of the vertex
+     */
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Returns the betweenness estimate of the vertex with the given index.
+     *
+     * @param index Vertex index
+     *
+     * @return The betweenness estimate
+     */
+    public double getBetweenness(int index) {
+        return betweenness[index];
+    }
+
+    /**
+     * Returns the closeness estimate of the vertex with the given index.
+     *
+     * @param index Vertex index
+     *
+     * @return The closeness estimate, or NaN
+     */
+    public double getCloseness(int index) {
+        return closeness[index];
+    }
+
+    /**
+     * Returns the ids of the vertices with the largest betweenness estimates,
+     * largest first.
+     *
+     * @return The ids of the top vertices
+     */
+    public int[] getTopBetweenness() {
+        return topBetweenness.clone();
+    }
+}
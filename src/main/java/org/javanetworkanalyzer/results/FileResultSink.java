@@ -0,0 +1,188 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.results;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A {@link ResultSink} which writes the results to a file, one per line:
+ * <pre>
+ * closeness,id,value
+ * betweenness,id,value
+ * edge_betweenness,edge,source,target,value
+ * accessibility,id,closestDestination,distance
+ * </pre>
+ *
+ * Lines are collected in a buffer which is written by a background thread
+ * once full, so the analysis goes on while the previous buffer is written.
+ * At most one buffer is waiting to be written at any time.
+ *
+ * @author Adam Gouge
+ */
+public class FileResultSink implements ResultSink {
+
+    /**
+     * Number of characters collected before they are written.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final Writer writer;
+    private final ExecutorService executor;
+    private StringBuilder buffer;
+    /**
+     * The write of the previous buffer, or null.
+     */
+    private Future<Void> pendingWrite;
+
+    /**
+     * Constructs a new {@link FileResultSink} writing to the given file.
+     *
+     * @param file File
+     *
+     * @throws IOException If the file could not be opened
+     */
+    public FileResultSink(File file) throws IOException {
+        this.writer = new OutputStreamWriter(new FileOutputStream(file),
+                                             "UTF-8");
+        this.executor = Executors.newSingleThreadExecutor();
+        this.buffer = new StringBuilder(BUFFER_SIZE);
+    }
+
+    @Override
+    public synchronized void writeCloseness(int id, double closeness) {
+        buffer.append("closeness,").append(id).append(',')
+                .append(closeness).append('\n');
+        flushIfFull();
+    }
+
+    @Override
+    public synchronized void writeBetweenness(int id, double betweenness) {
+        buffer.append("betweenness,").append(id).append(',')
+                .append(betweenness).append('\n');
+        flushIfFull();
+    }
+
+    @Override
+    public synchronized void writeEdgeBetweenness(int edge, int source,
+                                                  int target,
+                                                  double betweenness) {
+        buffer.append("edge_betweenness,").append(edge).append(',')
+                .append(source).append(',').append(target).append(',')
+                .append(betweenness).append('\n');
+        flushIfFull();
+    }
+
+    @Override
+    public synchronized void writeAccessibility(int id, int closestDestination,
+                                                double distance) {
+        buffer.append("accessibility,").append(id).append(',')
+                .append(closestDestination).append(',')
+                .append(distance).append('\n');
+        flushIfFull();
+    }
+
+    /**
+     * Writes the remaining lines and closes the file.
+     *
+     * @throws IOException If the file could not be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+            waitForPendingWrite();
+        } finally {
+            executor.shutdown();
+            writer.close();
+        }
+    }
+
+    /**
+     * Hands the buffer to the background thread if it is full.
+     */
+    private void flushIfFull() {
+        if (buffer.length() >= BUFFER_SIZE) {
+            try {
+                flush();
+            } catch (IOException ex) {
+                throw new IllegalStateException("Could not write results.",
+                                                ex);
+            }
+        }
+    }
+
+    /**
+     * Hands the buffer to the background thread, once the previous one is
+     * written.
+     *
+     * @throws IOException If the previous buffer could not be written
+     */
+    private void flush() throws IOException {
+        waitForPendingWrite();
+        final String chunk = buffer.toString();
+        buffer = new StringBuilder(BUFFER_SIZE);
+        pendingWrite = executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                writer.write(chunk);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Waits for the previous buffer to be written.
+     *
+     * @throws IOException If the previous buffer could not be written
+     */
+    private void waitForPendingWrite() throws IOException {
+        if (pendingWrite == null) {
+            return;
+        }
+        try {
+            pendingWrite.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(
+                    "Interrupted while writing results.", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IllegalStateException("Could not write results.",
+                                            ex.getCause());
+        } finally {
+            pendingWrite = null;
+        }
+    }
+}
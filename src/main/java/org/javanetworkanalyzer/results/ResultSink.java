@@ -0,0 +1,78 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.results;
+
+import java.io.Closeable;
+
+/**
+ * Receives the results of an analysis as they become available, instead of
+ * having them stored in the vertices and edges of the graph.
+ *
+ * Implementations must be thread-safe, since closeness is written by every
+ * thread of a parallel analysis.
+ *
+ * @author Adam Gouge
+ */
+public interface ResultSink extends Closeable {
+
+    /**
+     * Writes the closeness of the given vertex.
+     *
+     * @param id        Vertex id
+     * @param closeness Closeness
+     */
+    void writeCloseness(int id, double closeness);
+
+    /**
+     * Writes the (normalized) betweenness of the given vertex.
+     *
+     * @param id          Vertex id
+     * @param betweenness Betweenness
+     */
+    void writeBetweenness(int id, double betweenness);
+
+    /**
+     * Writes the (normalized) betweenness of the given edge.
+     *
+     * @param edge        Edge index, in the order of the edge set of the
+     *                    graph
+     * @param source      Source vertex id
+     * @param target      Target vertex id
+     * @param betweenness Betweenness
+     */
+    void writeEdgeBetweenness(int edge, int source, int target,
+                              double betweenness);
+
+    /**
+     * Writes the closest destination of the given vertex and the distance to
+     * it.
+     *
+     * @param id                 Vertex id
+     * @param closestDestination Id of the closest destination, or -1 if no
+     *                           destination is reachable
+     * @param distance           Distance to the closest destination
+     */
+    void writeAccessibility(int id, int closestDestination, double distance);
+}
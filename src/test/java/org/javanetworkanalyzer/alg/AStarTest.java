@@ -0,0 +1,167 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import java.util.List;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.WeightedGraphCreator;
+import org.javanetworkanalyzer.model.Edge;
+import org.javanetworkanalyzer.model.NodeCoordinates;
+import org.javanetworkanalyzer.model.WeightProfile;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.javanetworkanalyzer.model.WeightedPseudoG;
+import org.jgrapht.Graphs;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests loading node coordinates from the_geom and compares {@link AStar}
+ * to {@link Dijkstra}.
+ *
+ * @author Adam Gouge
+ */
+public class AStarTest {
+
+    private static final String FILENAME = "./files/graph2D.edges.csv";
+    private static final double TOLERANCE = 1E-10;
+
+    @Test
+    public void testCoordinates() throws Exception {
+        WeightedGraphCreator<VWCent, Edge> creator = creator("length");
+        creator.loadGraph();
+        NodeCoordinates coordinates = creator.getCoordinates();
+        assertEquals(120, coordinates.getX(2), 0.0);
+        assertEquals(322, coordinates.getY(2), 0.0);
+        assertEquals(228, coordinates.getX(6), 0.0);
+        assertEquals(191, coordinates.getY(6), 0.0);
+        assertEquals(229, coordinates.getX(4), 0.0);
+        assertEquals(26, coordinates.getY(4), 0.0);
+        assertEquals(129.63024338479042, coordinates.distance(2, 3),
+                     TOLERANCE);
+        assertFalse(coordinates.contains(7));
+    }
+
+    @Test
+    public void testLengths() throws Exception {
+        for (int orientation : new int[]{GraphCreator.DIRECTED,
+                                         GraphCreator.REVERSED,
+                                         GraphCreator.UNDIRECTED}) {
+            WeightedGraphCreator<VWCent, Edge> creator =
+                    new WeightedGraphCreator<VWCent, Edge>(
+                    FILENAME, orientation, VWCent.class, Edge.class,
+                    "length");
+            creator.setKeepingCoordinates(true);
+            WeightedKeyedGraph<VWCent, Edge> g = creator.loadGraph();
+            assertSameAsDijkstra(g, new AStar<VWCent, Edge>(
+                    g, new EuclideanHeuristic<VWCent>(
+                    creator.getCoordinates())));
+        }
+    }
+
+    @Test
+    public void testTravelTimes() throws Exception {
+        WeightedGraphCreator<VWCent, Edge> creator = creator("length");
+        creator.addWeightProfile("time", "length / speed");
+        WeightedKeyedGraph<VWCent, Edge> g = creator.loadGraph();
+        WeightProfile time = creator.getWeightProfile("time");
+        // Weigh the graph itself by time for Dijkstra.
+        for (Edge e : g.edgeSet()) {
+            g.setEdgeWeight(e, time.getWeight(e));
+        }
+        AStar<VWCent, Edge> aStar = new AStar<VWCent, Edge>(
+                g, new EuclideanHeuristic<VWCent>(
+                creator.getCoordinates(), 90));
+        aStar.setWeightProfile(time);
+        assertSameAsDijkstra(g, aStar);
+    }
+
+    @Test
+    public void testGrid() {
+        final int n = 41;
+        WeightedPseudoG<VWCent, Edge> g =
+                new WeightedPseudoG<VWCent, Edge>(VWCent.class, Edge.class);
+        NodeCoordinates coordinates = new NodeCoordinates(n * n + 1);
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                g.addVertex(r * n + c + 1);
+                coordinates.set(r * n + c + 1, c, r);
+            }
+        }
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                if (c + 1 < n) {
+                    g.addEdge(r * n + c + 1, r * n + c + 2);
+                }
+                if (r + 1 < n) {
+                    g.addEdge(r * n + c + 1, (r + 1) * n + c + 1);
+                }
+            }
+        }
+        VWCent source = g.getVertex(n / 2 * n + 1);
+        VWCent target = g.getVertex(n / 2 * n + n);
+        AStar<VWCent, Edge> aStar = new AStar<VWCent, Edge>(
+                g, new EuclideanHeuristic<VWCent>(coordinates));
+        assertEquals(n - 1, aStar.oneToOne(source, target), 0.0);
+        assertEquals(n - 1, aStar.getPath().size());
+        // The straight line is a shortest path, so only its corridor is
+        // settled.
+        assertTrue(aStar.getSettledCount() < 2 * n);
+    }
+
+    private WeightedGraphCreator<VWCent, Edge> creator(String weight) {
+        WeightedGraphCreator<VWCent, Edge> creator =
+                new WeightedGraphCreator<VWCent, Edge>(
+                FILENAME, GraphCreator.DIRECTED, VWCent.class, Edge.class,
+                weight);
+        creator.setKeepingCoordinates(true);
+        return creator;
+    }
+
+    private void assertSameAsDijkstra(WeightedKeyedGraph<VWCent, Edge> g,
+                                      AStar<VWCent, Edge> aStar) {
+        Dijkstra<VWCent, Edge> dijkstra = new Dijkstra<VWCent, Edge>(g);
+        for (VWCent source : g.vertexSet()) {
+            for (VWCent target : g.vertexSet()) {
+                final double expected = dijkstra.oneToOne(source, target);
+                final double distance = aStar.oneToOne(source, target);
+                assertEquals(expected, distance, TOLERANCE);
+                if (distance < Double.POSITIVE_INFINITY) {
+                    List<Edge> path = aStar.getPath();
+                    VWCent v = source;
+                    double length = 0;
+                    for (Edge e : path) {
+                        v = Graphs.getOppositeVertex(g, e, v);
+                        length += g.getEdgeWeight(e);
+                    }
+                    assertTrue(v == target);
+                    assertEquals(distance, length, TOLERANCE);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.javanetworkanalyzer.data.VUCent;
+import org.javanetworkanalyzer.model.DirectedPseudoG;
+import org.javanetworkanalyzer.model.Edge;
+import org.javanetworkanalyzer.model.KeyedGraph;
+import org.javanetworkanalyzer.model.PseudoG;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link BiconnectedComponents} on small graphs.
+ *
+ * @author Adam Gouge
+ */
+public class BiconnectedComponentsTest {
+
+    /**
+     * Triangle 1-2-3, edge 3-4 (bridge), square 4-5-6-7, double edge 7-8,
+     * isolated vertex 9.
+     */
+    @Test
+    public void testUndirected() {
+        PseudoG<VUCent, Edge> graph =
+                new PseudoG<VUCent, Edge>(VUCent.class, Edge.class);
+        addEdges(graph);
+        BiconnectedComponents<VUCent, Edge> components =
+                new BiconnectedComponents<VUCent, Edge>(graph);
+        check(graph.getVertex(3), graph.getVertex(4), graph.getVertex(7),
+              graph.getEdge(graph.getVertex(3), graph.getVertex(4)),
+              components);
+    }
+
+    /**
+     * Same graph, directed: edge directions are ignored.
+     */
+    @Test
+    public void testDirected() {
+        DirectedPseudoG<VUCent, Edge> graph =
+                new DirectedPseudoG<VUCent, Edge>(VUCent.class, Edge.class);
+        addEdges(graph);
+        BiconnectedComponents<VUCent, Edge> components =
+                new BiconnectedComponents<VUCent, Edge>(graph);
+        check(graph.getVertex(3), graph.getVertex(4), graph.getVertex(7),
+              graph.getEdge(graph.getVertex(3), graph.getVertex(4)),
+              components);
+    }
+
+    private void addEdges(KeyedGraph<VUCent, Edge> graph) {
+        for (int i = 1; i <= 9; i++) {
+            graph.addVertex(i);
+        }
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 3);
+        graph.addEdge(3, 1);
+        graph.addEdge(3, 4);
+        graph.addEdge(4, 5);
+        graph.addEdge(5, 6);
+        graph.addEdge(6, 7);
+        graph.addEdge(7, 4);
+        graph.addEdge(7, 8);
+        graph.addEdge(8, 7);
+        graph.addEdge(5, 5);
+    }
+
+    private void check(VUCent v3, VUCent v4, VUCent v7, Edge bridge,
+                       BiconnectedComponents<VUCent, Edge> components) {
+        Set<VUCent> articulationPoints = new HashSet<VUCent>();
+        articulationPoints.add(v3);
+        articulationPoints.add(v4);
+        articulationPoints.add(v7);
+        assertEquals(articulationPoints, components.getArticulationPoints());
+        assertEquals(1, components.getBridges().size());
+        assertTrue(components.getBridges().contains(bridge));
+        assertEquals(4, components.getNumberOfBlocks());
+        int edges = 0;
+        int vertices = 0;
+        for (int b = 0; b < components.getNumberOfBlocks(); b++) {
+            edges += components.getBlockEdges(b).size();
+            vertices += components.getBlockVertices(b).size();
+        }
+        // The loop belongs to no block.
+        assertEquals(10, edges);
+        // 8 vertices, three of them in two blocks.
+        assertEquals(11, vertices);
+    }
+}
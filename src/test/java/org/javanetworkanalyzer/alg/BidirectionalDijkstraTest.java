@@ -0,0 +1,190 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import java.util.List;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.Edge;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.javanetworkanalyzer.model.WeightedPseudoG;
+import org.jgrapht.Graphs;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares {@link BidirectionalDijkstra} to {@link Dijkstra} on random
+ * graphs and checks that it settles fewer vertices on a grid.
+ *
+ * @author Adam Gouge
+ */
+public class BidirectionalDijkstraTest {
+
+    private static final double TOLERANCE = 1E-10;
+
+    @Test
+    public void testDirected() throws Exception {
+        assertSameAsDijkstra(GraphCreator.DIRECTED);
+    }
+
+    @Test
+    public void testReversed() throws Exception {
+        assertSameAsDijkstra(GraphCreator.REVERSED);
+    }
+
+    @Test
+    public void testUndirected() throws Exception {
+        assertSameAsDijkstra(GraphCreator.UNDIRECTED);
+    }
+
+    @Test
+    public void testUnreachable() throws Exception {
+        WeightedKeyedGraph<VWCent, Edge> g = randomGraph(GraphCreator.DIRECTED);
+        g.addVertex(1000);
+        BidirectionalDijkstra<VWCent, Edge> bidirectional =
+                new BidirectionalDijkstra<VWCent, Edge>(g);
+        assertEquals(Double.POSITIVE_INFINITY,
+                     bidirectional.calculate(g.getVertex(1),
+                                             g.getVertex(1000)), 0.0);
+        assertTrue(bidirectional.getPath().isEmpty());
+    }
+
+    @Test
+    public void testFixedPoint() throws Exception {
+        WeightedKeyedGraph<VWCent, Edge> g = randomGraph(GraphCreator.DIRECTED);
+        // Each weight rounds back to a whole number at scale 1.
+        for (Edge e : g.edgeSet()) {
+            g.setEdgeWeight(e, g.getEdgeWeight(e) + 0.4);
+        }
+        Dijkstra<VWCent, Edge> dijkstra = new Dijkstra<VWCent, Edge>(g);
+        dijkstra.setFixedPointScale(1);
+        BidirectionalDijkstra<VWCent, Edge> bidirectional =
+                new BidirectionalDijkstra<VWCent, Edge>(g);
+        bidirectional.setFixedPointScale(1);
+        for (VWCent source : g.vertexSet()) {
+            dijkstra.calculate(source);
+            final double[] expected = new double[g.vertexSet().size() + 1];
+            for (VWCent v : g.vertexSet()) {
+                expected[v.getID()] = v.getDistance();
+            }
+            for (VWCent target : g.vertexSet()) {
+                assertEquals(expected[target.getID()],
+                             bidirectional.calculate(source, target), 0.0);
+            }
+        }
+        VWCent source = g.getVertex(1);
+        VWCent target = g.getVertex(2);
+        assertEquals(dijkstra.oneToOne(source, target),
+                     dijkstra.bidirectionalOneToOne(source, target), 0.0);
+    }
+
+    @Test
+    public void testGrid() throws Exception {
+        final int n = 41;
+        WeightedPseudoG<VWCent, Edge> g =
+                new WeightedPseudoG<VWCent, Edge>(VWCent.class, Edge.class);
+        for (int i = 1; i <= n * n; i++) {
+            g.addVertex(i);
+        }
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                if (c + 1 < n) {
+                    g.addEdge(r * n + c + 1, r * n + c + 2);
+                }
+                if (r + 1 < n) {
+                    g.addEdge(r * n + c + 1, (r + 1) * n + c + 1);
+                }
+            }
+        }
+        // From the middle of the left side to the middle of the right side.
+        VWCent source = g.getVertex(n / 2 * n + 1);
+        VWCent target = g.getVertex(n / 2 * n + n);
+        BidirectionalDijkstra<VWCent, Edge> bidirectional =
+                new BidirectionalDijkstra<VWCent, Edge>(g);
+        assertEquals(n - 1, bidirectional.calculate(source, target), 0.0);
+        assertPath(g, source, target, bidirectional.getPath(), n - 1);
+        // A forward search settles every vertex closer than the target.
+        new Dijkstra<VWCent, Edge>(g).calculate(source);
+        int closer = 0;
+        for (VWCent v : g.vertexSet()) {
+            if (v.getDistance() < n - 1) {
+                closer++;
+            }
+        }
+        assertTrue(bidirectional.getSettledCount() < 0.75 * closer);
+    }
+
+    private void assertSameAsDijkstra(int orientation) throws Exception {
+        WeightedKeyedGraph<VWCent, Edge> g = randomGraph(orientation);
+        Dijkstra<VWCent, Edge> dijkstra = new Dijkstra<VWCent, Edge>(g);
+        BidirectionalDijkstra<VWCent, Edge> bidirectional =
+                new BidirectionalDijkstra<VWCent, Edge>(g);
+        for (VWCent source : g.vertexSet()) {
+            dijkstra.calculate(source);
+            final double[] expected = new double[g.vertexSet().size() + 1];
+            for (VWCent v : g.vertexSet()) {
+                expected[v.getID()] = v.getDistance();
+            }
+            for (VWCent target : g.vertexSet()) {
+                final double distance =
+                        bidirectional.calculate(source, target);
+                assertEquals(expected[target.getID()], distance, TOLERANCE);
+                assertPath(g, source, target, bidirectional.getPath(),
+                           distance);
+            }
+        }
+        assertEquals(dijkstra.oneToOne(g.getVertex(1), g.getVertex(2)),
+                     dijkstra.bidirectionalOneToOne(g.getVertex(1),
+                                                    g.getVertex(2)),
+                     TOLERANCE);
+    }
+
+    private void assertPath(WeightedKeyedGraph<VWCent, Edge> g,
+                            VWCent source, VWCent target, List<Edge> path,
+                            double distance) {
+        VWCent v = source;
+        double length = 0;
+        for (Edge e : path) {
+            if (g instanceof WeightedPseudoG) {
+                assertTrue(g.getEdgeSource(e) == v
+                           || g.getEdgeTarget(e) == v);
+            } else {
+                assertTrue(g.getEdgeSource(e) == v);
+            }
+            v = Graphs.getOppositeVertex(g, e, v);
+            length += g.getEdgeWeight(e);
+        }
+        assertTrue(v == target);
+        assertEquals(distance, length, TOLERANCE);
+    }
+
+    private WeightedKeyedGraph<VWCent, Edge> randomGraph(int orientation) {
+        return new RandomGraphCreator<VWCent, Edge>(
+                30, 70, 5, 11L, orientation,
+                VWCent.class, Edge.class).loadGraph();
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.Edge;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests many-to-many distance tables on contraction hierarchies against
+ * {@link Dijkstra#manyToMany}.
+ *
+ * @author Adam Gouge
+ */
+public class ContractionHierarchyManyToManyTest {
+
+    private static final double TOLERANCE = 1E-10;
+
+    @Test
+    public void testDirected() {
+        assertExact(GraphCreator.DIRECTED, 1);
+    }
+
+    @Test
+    public void testDirectedInParallel() {
+        assertExact(GraphCreator.DIRECTED, 3);
+    }
+
+    @Test
+    public void testUndirectedInParallel() {
+        assertExact(GraphCreator.UNDIRECTED, 4);
+    }
+
+    @Test
+    public void testUnreachableAndEmpty() {
+        WeightedKeyedGraph<VWCent, Edge> g = graph(GraphCreator.DIRECTED);
+        g.addVertex(1000);
+        ContractionHierarchyManyToMany<VWCent, Edge> manyToMany =
+                new ContractionHierarchyManyToMany<VWCent, Edge>(
+                        new ContractionHierarchyBuilder<VWCent, Edge>(g)
+                        .build());
+        List<VWCent> vertices = new ArrayList<VWCent>();
+        vertices.add(g.getVertex(1));
+        vertices.add(g.getVertex(1000));
+        double[] table = manyToMany.calculate(vertices, vertices);
+        assertEquals(4, table.length);
+        assertEquals(0, table[0], 0.0);
+        assertEquals(Double.POSITIVE_INFINITY, table[1], 0.0);
+        assertEquals(Double.POSITIVE_INFINITY, table[2], 0.0);
+        assertEquals(0, table[3], 0.0);
+        assertEquals(0, manyToMany.calculate(
+                vertices, Collections.<VWCent>emptyList()).length);
+    }
+
+    private void assertExact(int orientation, int threads) {
+        WeightedKeyedGraph<VWCent, Edge> g = graph(orientation);
+        ContractionHierarchyManyToMany<VWCent, Edge> manyToMany =
+                new ContractionHierarchyManyToMany<VWCent, Edge>(
+                        new ContractionHierarchyBuilder<VWCent, Edge>(g)
+                        .build());
+        manyToMany.setNumberOfThreads(threads);
+        List<VWCent> vertices = new ArrayList<VWCent>(g.vertexSet());
+        Collections.shuffle(vertices, new Random(7L));
+        List<VWCent> sources = vertices.subList(0, 40);
+        List<VWCent> targets = vertices.subList(20, 75);
+        double[] table = manyToMany.calculate(sources, targets);
+        assertEquals(sources.size() * targets.size(), table.length);
+
+        Map<VWCent, Map<VWCent, Double>> expected =
+                new Dijkstra<VWCent, Edge>(g).manyToMany(
+                        new HashSet<VWCent>(sources),
+                        new HashSet<VWCent>(targets));
+        for (int i = 0; i < sources.size(); i++) {
+            for (int j = 0; j < targets.size(); j++) {
+                assertEquals(expected.get(sources.get(i))
+                                     .get(targets.get(j)),
+                             table[i * targets.size() + j], TOLERANCE);
+            }
+        }
+    }
+
+    private WeightedKeyedGraph<VWCent, Edge> graph(int orientation) {
+        return new RandomGraphCreator<VWCent, Edge>(
+                100, 250, 9, 17L, orientation,
+                VWCent.class, Edge.class).loadGraph();
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import java.io.File;
+import java.util.List;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.Edge;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.javanetworkanalyzer.model.WeightedPseudoG;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests contraction hierarchies against {@link Dijkstra}.
+ *
+ * @author Adam Gouge
+ */
+public class ContractionHierarchyTest {
+
+    private static final double TOLERANCE = 1E-10;
+
+    @Test
+    public void testDirected() {
+        assertExact(graph(GraphCreator.DIRECTED), 500);
+    }
+
+    @Test
+    public void testUndirected() {
+        assertExact(graph(GraphCreator.UNDIRECTED), 500);
+    }
+
+    @Test
+    public void testSmallWitnessLimit() {
+        assertExact(graph(GraphCreator.DIRECTED), 1);
+        assertExact(graph(GraphCreator.UNDIRECTED), 1);
+    }
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        for (int orientation : new int[]{GraphCreator.DIRECTED,
+                                         GraphCreator.UNDIRECTED}) {
+            WeightedKeyedGraph<VWCent, Edge> g = graph(orientation);
+            ContractionHierarchy<VWCent, Edge> hierarchy =
+                    new ContractionHierarchyBuilder<VWCent, Edge>(g).build();
+            File file = File.createTempFile("hierarchy", ".bin");
+            file.deleteOnExit();
+            hierarchy.save(file);
+            ContractionHierarchy<VWCent, Edge> loaded =
+                    ContractionHierarchy.load(file, g);
+            assertEquals(hierarchy.getArcCount(), loaded.getArcCount());
+            ContractionHierarchyQuery<VWCent, Edge> expected =
+                    new ContractionHierarchyQuery<VWCent, Edge>(hierarchy);
+            ContractionHierarchyQuery<VWCent, Edge> actual =
+                    new ContractionHierarchyQuery<VWCent, Edge>(loaded);
+            for (VWCent source : g.vertexSet()) {
+                assertEquals(hierarchy.getRank(source), loaded.getRank(source));
+                for (VWCent target : g.vertexSet()) {
+                    assertEquals(expected.oneToOne(source, target),
+                                 actual.oneToOne(source, target), 0.0);
+                    assertEquals(expected.getPath(), actual.getPath());
+                }
+            }
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testUnreachable() {
+        WeightedKeyedGraph<VWCent, Edge> g = graph(GraphCreator.DIRECTED);
+        g.addVertex(1000);
+        ContractionHierarchyQuery<VWCent, Edge> query =
+                new ContractionHierarchyQuery<VWCent, Edge>(
+                        new ContractionHierarchyBuilder<VWCent, Edge>(g)
+                        .build());
+        assertEquals(Double.POSITIVE_INFINITY,
+                     query.oneToOne(g.getVertex(1), g.getVertex(1000)), 0.0);
+        assertTrue(query.getPath().isEmpty());
+        assertEquals(Double.POSITIVE_INFINITY,
+                     query.oneToOne(g.getVertex(1000), g.getVertex(1)), 0.0);
+        assertEquals(0, query.oneToOne(g.getVertex(1000),
+                                       g.getVertex(1000)), 0.0);
+        assertTrue(query.getPath().isEmpty());
+    }
+
+    @Test
+    public void testGrid() {
+        final int n = 41;
+        WeightedPseudoG<VWCent, Edge> g =
+                new WeightedPseudoG<VWCent, Edge>(VWCent.class, Edge.class);
+        for (int i = 1; i <= n * n; i++) {
+            g.addVertex(i);
+        }
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                if (c + 1 < n) {
+                    g.addEdge(r * n + c + 1, r * n + c + 2);
+                }
+                if (r + 1 < n) {
+                    g.addEdge(r * n + c + 1, (r + 1) * n + c + 1);
+                }
+            }
+        }
+        ContractionHierarchyQuery<VWCent, Edge> query =
+                new ContractionHierarchyQuery<VWCent, Edge>(
+                        new ContractionHierarchyBuilder<VWCent, Edge>(g)
+                        .build());
+        VWCent source = g.getVertex(1);
+        VWCent target = g.getVertex(n * n);
+        assertEquals(2 * (n - 1), query.oneToOne(source, target), 0.0);
+        assertPath(g, source, target, query.getPath(), 2 * (n - 1));
+        assertTrue(query.getSettledCount() < n * n / 4);
+    }
+
+    private void assertExact(WeightedKeyedGraph<VWCent, Edge> g,
+                             int witnessSettleLimit) {
+        ContractionHierarchyBuilder<VWCent, Edge> builder =
+                new ContractionHierarchyBuilder<VWCent, Edge>(g);
+        builder.setWitnessSettleLimit(witnessSettleLimit);
+        ContractionHierarchyQuery<VWCent, Edge> query =
+                new ContractionHierarchyQuery<VWCent, Edge>(builder.build());
+        Dijkstra<VWCent, Edge> dijkstra = new Dijkstra<VWCent, Edge>(g);
+        for (VWCent source : g.vertexSet()) {
+            dijkstra.calculate(source);
+            final double[] expected = new double[g.vertexSet().size() + 1];
+            for (VWCent v : g.vertexSet()) {
+                expected[v.getID()] = v.getDistance();
+            }
+            for (VWCent target : g.vertexSet()) {
+                final double distance = query.oneToOne(source, target);
+                assertEquals(expected[target.getID()], distance, TOLERANCE);
+                assertPath(g, source, target, query.getPath(), distance);
+            }
+        }
+    }
+
+    /**
+     * Checks that the path goes from the source to the target and has the
+     * given length.
+     */
+    private void assertPath(WeightedKeyedGraph<VWCent, Edge> g,
+                            VWCent source, VWCent target, List<Edge> path,
+                            double length) {
+        VWCent current = source;
+        double total = 0;
+        for (Edge e : path) {
+            VWCent s = g.getEdgeSource(e);
+            VWCent t = g.getEdgeTarget(e);
+            if (s.equals(current)) {
+                current = t;
+            } else {
+                assertTrue(g instanceof WeightedPseudoG && t.equals(current));
+                current = s;
+            }
+            total += g.getEdgeWeight(e);
+        }
+        assertEquals(target, current);
+        assertEquals(length, total, TOLERANCE);
+    }
+
+    private WeightedKeyedGraph<VWCent, Edge> graph(int orientation) {
+        return new RandomGraphCreator<VWCent, Edge>(
+                60, 150, 9, 31L, orientation,
+                VWCent.class, Edge.class).loadGraph();
+    }
+}
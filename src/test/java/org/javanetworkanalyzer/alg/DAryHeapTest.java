@@ -0,0 +1,124 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import org.javanetworkanalyzer.data.VDijkstra;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link DAryHeap}.
+ *
+ * @author Adam Gouge
+ */
+public class DAryHeapTest {
+
+    private static final int SIZE = 1000;
+
+    @Test
+    public void testPollOrder() {
+        for (int arity = 2; arity <= 8; arity++) {
+            final Random random = new Random(arity);
+            final DAryHeap<VDijkstra> heap = new DAryHeap<VDijkstra>(1, arity);
+            final List<VDijkstra> vertices = vertices(random);
+            for (VDijkstra v : vertices) {
+                heap.add(v);
+            }
+            assertEquals(SIZE, heap.size());
+            // Decrease the key of half of the vertices.
+            for (int i = 0; i < SIZE; i += 2) {
+                final VDijkstra v = vertices.get(i);
+                v.setDistance(v.getDistance() * random.nextDouble());
+                heap.decreaseKey(v);
+            }
+            assertSorted(heap, vertices);
+        }
+    }
+
+    @Test
+    public void testDecreaseKeyAddsMissingVertex() {
+        final DAryHeap<VDijkstra> heap = new DAryHeap<VDijkstra>(4);
+        final VDijkstra v = new VDijkstra(1);
+        v.setDistance(2.0);
+        assertFalse(heap.contains(v));
+        heap.decreaseKey(v);
+        assertTrue(heap.contains(v));
+        assertEquals(1, heap.size());
+        assertEquals(v, heap.peek());
+        assertEquals(v, heap.poll());
+        assertFalse(heap.contains(v));
+        assertNull(heap.poll());
+    }
+
+    @Test
+    public void testClear() {
+        final Random random = new Random(0);
+        final DAryHeap<VDijkstra> heap = new DAryHeap<VDijkstra>(SIZE);
+        final DAryHeap<VDijkstra> other = new DAryHeap<VDijkstra>(SIZE);
+        final List<VDijkstra> vertices = vertices(random);
+        for (VDijkstra v : vertices) {
+            heap.add(v);
+        }
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        for (VDijkstra v : vertices) {
+            assertFalse(heap.contains(v));
+            other.add(v);
+        }
+        assertSorted(other, vertices);
+    }
+
+    private List<VDijkstra> vertices(Random random) {
+        final List<VDijkstra> vertices = new ArrayList<VDijkstra>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            final VDijkstra v = new VDijkstra(i);
+            // Include some ties.
+            v.setDistance((double) random.nextInt(SIZE / 2));
+            vertices.add(v);
+        }
+        return vertices;
+    }
+
+    private void assertSorted(DAryHeap<VDijkstra> heap,
+                              List<VDijkstra> vertices) {
+        final double[] expected = new double[vertices.size()];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = vertices.get(i).getDistance();
+        }
+        Arrays.sort(expected);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], heap.poll().getDistance(), 0.0);
+        }
+        assertTrue(heap.isEmpty());
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.model.Edge;
+import org.javanetworkanalyzer.model.WeightedPseudoG;
+import org.jgrapht.Graphs;
+
+/**
+ * Times Dijkstra searches on a road-like grid with the {@link PriorityQueue}
+ * remove/add pair formerly used by {@link Dijkstra} and with a
+ * {@link DAryHeap}. Not a unit test; run it with
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.javanetworkanalyzer.alg.DijkstraQueueBenchmark
+ * </pre>
+ * and optionally the grid side, the number of sources and the number of
+ * rounds as arguments.
+ *
+ * @author Adam Gouge
+ */
+public class DijkstraQueueBenchmark {
+
+    public static void main(String[] args) {
+        final int side = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        final int sources = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        final int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        final WeightedPseudoG<VWCent, Edge> g = grid(side);
+        final Random random = new Random(1L);
+        final List<VWCent> starts = new ArrayList<VWCent>();
+        for (int i = 0; i < sources; i++) {
+            starts.add(g.getVertex(random.nextInt(side * side) + 1));
+        }
+        System.out.println(side + "x" + side + " grid, "
+                           + g.vertexSet().size() + " vertices, "
+                           + g.edgeSet().size() + " edges, "
+                           + sources + " sources per round.");
+
+        final long[] priorityQueue = new long[rounds];
+        final long[] dAryHeap = new long[rounds];
+        double check = 0;
+        for (int r = 0; r < rounds; r++) {
+            long start = System.nanoTime();
+            for (VWCent s : starts) {
+                check += withPriorityQueue(g, s);
+            }
+            priorityQueue[r] = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (VWCent s : starts) {
+                check -= withDAryHeap(g, s);
+            }
+            dAryHeap[r] = System.nanoTime() - start;
+        }
+        if (check != 0) {
+            throw new IllegalStateException("The queues disagree.");
+        }
+        System.out.println("PriorityQueue remove/add: "
+                           + median(priorityQueue) / sources / 1000000.0
+                           + " ms per search (median of " + rounds
+                           + " rounds)");
+        System.out.println("DAryHeap decrease-key:    "
+                           + median(dAryHeap) / sources / 1000000.0
+                           + " ms per search (median of " + rounds
+                           + " rounds)");
+    }
+
+    /**
+     * Returns the sum of the distances from the given source, found with a
+     * {@link PriorityQueue} updated by remove/add as {@link Dijkstra} used
+     * to do.
+     */
+    private static double withPriorityQueue(WeightedPseudoG<VWCent, Edge> g,
+                                            VWCent source) {
+        final PriorityQueue<VWCent> queue = new PriorityQueue<VWCent>(
+                g.vertexSet().size(), new Comparator<VWCent>() {
+            @Override
+            public int compare(VWCent v1, VWCent v2) {
+                return Double.compare(v1.getDistance(), v2.getDistance());
+            }
+        });
+        for (VWCent v : g.vertexSet()) {
+            v.reset();
+        }
+        source.setSource();
+        queue.add(source);
+        double sum = 0;
+        VWCent u;
+        while ((u = queue.poll()) != null) {
+            sum += u.getDistance();
+            for (Edge e : g.edgesOf(u)) {
+                final VWCent v = Graphs.getOppositeVertex(g, e, u);
+                final double distance = u.getDistance() + g.getEdgeWeight(e);
+                if (v.getDistance() > distance) {
+                    v.setDistance(distance);
+                    queue.remove(v);
+                    queue.add(v);
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the sum of the distances from the given source, found with a
+     * {@link DAryHeap}.
+     */
+    private static double withDAryHeap(WeightedPseudoG<VWCent, Edge> g,
+                                       VWCent source) {
+        final DAryHeap<VWCent> queue =
+                new DAryHeap<VWCent>(g.vertexSet().size());
+        for (VWCent v : g.vertexSet()) {
+            v.reset();
+        }
+        source.setSource();
+        queue.add(source);
+        double sum = 0;
+        VWCent u;
+        while ((u = queue.poll()) != null) {
+            sum += u.getDistance();
+            for (Edge e : g.edgesOf(u)) {
+                final VWCent v = Graphs.getOppositeVertex(g, e, u);
+                final double distance = u.getDistance() + g.getEdgeWeight(e);
+                if (v.getDistance() > distance) {
+                    v.setDistance(distance);
+                    queue.decreaseKey(v);
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns an undirected grid of the given side with random integer
+     * weights between 1 and 100.
+     */
+    private static WeightedPseudoG<VWCent, Edge> grid(int side) {
+        final WeightedPseudoG<VWCent, Edge> g =
+                new WeightedPseudoG<VWCent, Edge>(VWCent.class, Edge.class);
+        for (int i = 1; i <= side * side; i++) {
+            g.addVertex(i);
+        }
+        final Random random = new Random(7L);
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                if (c + 1 < side) {
+                    g.setEdgeWeight(g.addEdge(r * side + c + 1,
+                                              r * side + c + 2),
+                                    random.nextInt(100) + 1);
+                }
+                if (r + 1 < side) {
+                    g.setEdgeWeight(g.addEdge(r * side + c + 1,
+                                              (r + 1) * side + c + 1),
+                                    random.nextInt(100) + 1);
+                }
+            }
+        }
+        return g;
+    }
+
+    private static long median(long[] times) {
+        final long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
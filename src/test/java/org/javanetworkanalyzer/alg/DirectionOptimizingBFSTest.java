@@ -0,0 +1,96 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+import org.javanetworkanalyzer.data.VUCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Makes sure that direction-optimizing BFS finds the same distances,
+ * shortest path counts and predecessors as top-down BFS.
+ *
+ * @author Adam Gouge
+ */
+public class DirectionOptimizingBFSTest {
+
+    @Test
+    public void testDirected() {
+        testRandomGraph(GraphCreator.DIRECTED);
+    }
+
+    @Test
+    public void testUndirected() {
+        testRandomGraph(GraphCreator.UNDIRECTED);
+    }
+
+    private void testRandomGraph(int orientation) {
+        // Dense enough for the search to take bottom-up steps.
+        WeightedKeyedGraph<VUCent, EdgeCent> graph =
+                new RandomGraphCreator<VUCent, EdgeCent>(
+                300, 3000, 1, 29L, orientation,
+                VUCent.class, EdgeCent.class).loadGraph();
+        BFSForCentrality<EdgeCent> bfs =
+                new BFSForCentrality<EdgeCent>(graph, new Stack<VUCent>());
+        for (VUCent source : graph.vertexSet()) {
+            bfs.setDirectionOptimizing(false);
+            bfs.calculate(source);
+            Map<VUCent, Integer> distances = new HashMap<VUCent, Integer>();
+            Map<VUCent, Long> spCounts = new HashMap<VUCent, Long>();
+            Map<VUCent, Set> predecessors = new HashMap<VUCent, Set>();
+            Map<VUCent, Set> predecessorEdges = new HashMap<VUCent, Set>();
+            for (VUCent v : graph.vertexSet()) {
+                distances.put(v, v.getDistance());
+                spCounts.put(v, v.getSPCount());
+                predecessors.put(v, new HashSet(v.getPredecessors()));
+                predecessorEdges.put(v, new HashSet(v.getPredecessorEdges()));
+            }
+            final int count = bfs.getPaths().getCount();
+            final int totalLength = bfs.getPaths().getTotalLength();
+
+            bfs.setDirectionOptimizing(true);
+            bfs.calculate(source);
+            for (VUCent v : graph.vertexSet()) {
+                assertEquals(distances.get(v), v.getDistance());
+                assertEquals(spCounts.get(v).longValue(), v.getSPCount());
+                assertEquals(predecessors.get(v), v.getPredecessors());
+                assertEquals(predecessorEdges.get(v),
+                             v.getPredecessorEdges());
+            }
+            assertEquals(count, bfs.getPaths().getCount());
+            assertEquals(totalLength, bfs.getPaths().getTotalLength()
+                    .intValue());
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.Edge;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.javanetworkanalyzer.model.WeightedPseudoG;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests landmark preprocessing and ALT queries against {@link Dijkstra}.
+ *
+ * @author Adam Gouge
+ */
+public class LandmarksTest {
+
+    private static final double TOLERANCE = 1E-10;
+    private static final int LANDMARKS = 4;
+
+    @Test
+    public void testDirectedFarthest() {
+        assertExact(GraphCreator.DIRECTED, LandmarkPreprocessor.FARTHEST, 1);
+    }
+
+    @Test
+    public void testDirectedAvoidInParallel() {
+        assertExact(GraphCreator.DIRECTED, LandmarkPreprocessor.AVOID, 3);
+    }
+
+    @Test
+    public void testUndirectedFarthest() {
+        assertExact(GraphCreator.UNDIRECTED, LandmarkPreprocessor.FARTHEST,
+                    2);
+    }
+
+    @Test
+    public void testUndirectedAvoid() {
+        assertExact(GraphCreator.UNDIRECTED, LandmarkPreprocessor.AVOID, 1);
+    }
+
+    @Test
+    public void testGivenLandmarks() {
+        WeightedKeyedGraph<VWCent, Edge> g = graph(GraphCreator.DIRECTED);
+        LandmarkPreprocessor<VWCent, Edge> preprocessor =
+                new LandmarkPreprocessor<VWCent, Edge>(g);
+        Landmarks<VWCent> selected = preprocessor.compute(LANDMARKS);
+        preprocessor.setNumberOfThreads(3);
+        Landmarks<VWCent> given =
+                preprocessor.compute(selected.getLandmarkIds());
+        assertSameTables(g, selected, given);
+    }
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        for (int orientation : new int[]{GraphCreator.DIRECTED,
+                                         GraphCreator.UNDIRECTED}) {
+            WeightedKeyedGraph<VWCent, Edge> g = graph(orientation);
+            Landmarks<VWCent> landmarks =
+                    new LandmarkPreprocessor<VWCent, Edge>(g)
+                    .compute(LANDMARKS);
+            File file = File.createTempFile("landmarks", ".bin");
+            file.deleteOnExit();
+            landmarks.save(file);
+            Landmarks<VWCent> loaded = Landmarks.load(file);
+            assertEquals(landmarks.isDirected(), loaded.isDirected());
+            assertSameTables(g, landmarks, loaded);
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testUnreachable() {
+        WeightedKeyedGraph<VWCent, Edge> g = graph(GraphCreator.DIRECTED);
+        g.addVertex(1000);
+        Landmarks<VWCent> landmarks =
+                new LandmarkPreprocessor<VWCent, Edge>(g).compute(LANDMARKS);
+        AStar<VWCent, Edge> alt = new AStar<VWCent, Edge>(g, landmarks);
+        assertEquals(Double.POSITIVE_INFINITY,
+                     alt.oneToOne(g.getVertex(1), g.getVertex(1000)), 0.0);
+        assertEquals(Double.POSITIVE_INFINITY,
+                     alt.oneToOne(g.getVertex(1000), g.getVertex(1)), 0.0);
+    }
+
+    @Test
+    public void testGrid() {
+        final int n = 41;
+        WeightedPseudoG<VWCent, Edge> g =
+                new WeightedPseudoG<VWCent, Edge>(VWCent.class, Edge.class);
+        for (int i = 1; i <= n * n; i++) {
+            g.addVertex(i);
+        }
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                if (c + 1 < n) {
+                    g.addEdge(r * n + c + 1, r * n + c + 2);
+                }
+                if (r + 1 < n) {
+                    g.addEdge(r * n + c + 1, (r + 1) * n + c + 1);
+                }
+            }
+        }
+        Landmarks<VWCent> landmarks =
+                new LandmarkPreprocessor<VWCent, Edge>(g).compute(LANDMARKS);
+        VWCent source = g.getVertex(n / 2 * n + 1);
+        VWCent target = g.getVertex(n / 2 * n + n);
+        AStar<VWCent, Edge> alt = new AStar<VWCent, Edge>(g, landmarks);
+        assertEquals(n - 1, alt.oneToOne(source, target), 0.0);
+        new Dijkstra<VWCent, Edge>(g).calculate(source);
+        int closer = 0;
+        for (VWCent v : g.vertexSet()) {
+            if (v.getDistance() < n - 1) {
+                closer++;
+            }
+        }
+        assertTrue(alt.getSettledCount() < closer / 2);
+    }
+
+    private void assertExact(int orientation, int selection, int threads) {
+        WeightedKeyedGraph<VWCent, Edge> g = graph(orientation);
+        LandmarkPreprocessor<VWCent, Edge> preprocessor =
+                new LandmarkPreprocessor<VWCent, Edge>(g);
+        preprocessor.setSelection(selection);
+        preprocessor.setNumberOfThreads(threads);
+        preprocessor.setSeed(5L);
+        Landmarks<VWCent> landmarks = preprocessor.compute(LANDMARKS);
+        assertEquals(LANDMARKS, landmarks.size());
+        assertEquals(LANDMARKS, toSet(landmarks.getLandmarkIds()).size());
+
+        Dijkstra<VWCent, Edge> dijkstra = new Dijkstra<VWCent, Edge>(g);
+        AStar<VWCent, Edge> alt = new AStar<VWCent, Edge>(g, landmarks);
+        Set<VWCent> targets = new HashSet<VWCent>();
+        for (int id = 1; id <= 10; id += 3) {
+            targets.add(g.getVertex(id));
+        }
+        for (VWCent source : g.vertexSet()) {
+            dijkstra.calculate(source);
+            final double[] expected = new double[g.vertexSet().size() + 1];
+            for (VWCent v : g.vertexSet()) {
+                expected[v.getID()] = v.getDistance();
+            }
+            for (VWCent target : g.vertexSet()) {
+                // The bounds are lower bounds.
+                assertTrue(landmarks.estimate(source, target)
+                           <= expected[target.getID()] + TOLERANCE);
+                assertEquals(expected[target.getID()],
+                             alt.oneToOne(source, target), TOLERANCE);
+            }
+            Map<VWCent, Double> distances = alt.oneToMany(source, targets);
+            for (VWCent target : targets) {
+                assertEquals(expected[target.getID()],
+                             distances.get(target), TOLERANCE);
+            }
+        }
+    }
+
+    private void assertSameTables(WeightedKeyedGraph<VWCent, Edge> g,
+                                  Landmarks<VWCent> expected,
+                                  Landmarks<VWCent> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getLandmarkIds()[i],
+                         actual.getLandmarkIds()[i]);
+            for (VWCent v : g.vertexSet()) {
+                assertEquals(expected.getDistanceFrom(i, v.getID()),
+                             actual.getDistanceFrom(i, v.getID()), 0.0);
+                assertEquals(expected.getDistanceTo(i, v.getID()),
+                             actual.getDistanceTo(i, v.getID()), 0.0);
+            }
+        }
+    }
+
+    private static Set<Integer> toSet(int[] ids) {
+        Set<Integer> set = new HashSet<Integer>();
+        for (int id : ids) {
+            set.add(id);
+        }
+        return set;
+    }
+
+    private WeightedKeyedGraph<VWCent, Edge> graph(int orientation) {
+        return new RandomGraphCreator<VWCent, Edge>(
+                60, 150, 9, 31L, orientation,
+                VWCent.class, Edge.class).loadGraph();
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.alg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+import org.javanetworkanalyzer.analyzers.UnweightedGraphAnalyzer;
+import org.javanetworkanalyzer.data.UnweightedPathLengthData;
+import org.javanetworkanalyzer.data.VUCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.PseudoG;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Makes sure that {@link MultiSourceBFS} records the same shortest path
+ * lengths as {@link BFSForCentrality}.
+ *
+ * @author Adam Gouge
+ */
+public class MultiSourceBFSTest {
+
+    private static final double TOLERANCE = 1E-12;
+
+    @Test
+    public void testDirected() throws Exception {
+        testRandomGraph(GraphCreator.DIRECTED);
+    }
+
+    @Test
+    public void testUndirected() throws Exception {
+        testRandomGraph(GraphCreator.UNDIRECTED);
+    }
+
+    @Test
+    public void testDisconnected() {
+        // Two paths 1 - 2 - 3 and 4 - 5.
+        PseudoG<VUCent, EdgeCent> graph =
+                new PseudoG<VUCent, EdgeCent>(VUCent.class, EdgeCent.class);
+        for (int i = 1; i <= 5; i++) {
+            graph.addVertex(i);
+        }
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 3);
+        graph.addEdge(4, 5);
+        List<VUCent> sources = new ArrayList<VUCent>();
+        sources.add(graph.getVertex(1));
+        sources.add(graph.getVertex(5));
+        UnweightedPathLengthData[] paths =
+                new MultiSourceBFS<VUCent, EdgeCent>(graph).calculate(sources);
+        assertEquals(2, paths[0].getCount());
+        assertEquals(3, paths[0].getTotalLength().intValue());
+        assertEquals(2, paths[0].getMaxLength().intValue());
+        assertEquals(1, paths[1].getCount());
+        assertEquals(1, paths[1].getTotalLength().intValue());
+    }
+
+    private void testRandomGraph(int orientation) throws Exception {
+        // More than two batches.
+        WeightedKeyedGraph<VUCent, EdgeCent> graph =
+                new RandomGraphCreator<VUCent, EdgeCent>(
+                150, 300, 1, 11L, orientation,
+                VUCent.class, EdgeCent.class).loadGraph();
+        UnweightedPathLengthData allPaths =
+                new UnweightedGraphAnalyzer<EdgeCent>(graph).computeCloseness();
+
+        BFSForCentrality<EdgeCent> bfs =
+                new BFSForCentrality<EdgeCent>(graph, new Stack<VUCent>());
+        UnweightedPathLengthData expectedPaths = new UnweightedPathLengthData();
+        for (VUCent v : graph.vertexSet()) {
+            final double closeness = v.getCloseness();
+            bfs.calculate(v);
+            UnweightedPathLengthData paths = bfs.getPaths();
+            expectedPaths.addAll(paths);
+            assertEquals(graph.vertexSet().size() - 1, paths.getCount());
+            assertEquals(1 / paths.getAverageLength(), closeness, TOLERANCE);
+        }
+        assertEquals(expectedPaths.getCount(), allPaths.getCount());
+        assertEquals(expectedPaths.getTotalLength(),
+                     allPaths.getTotalLength());
+        assertEquals(expectedPaths.getMaxLength(), allPaths.getMaxLength());
+        assertEquals(expectedPaths.getAverageLength(),
+                     allPaths.getAverageLength(), TOLERANCE);
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import org.javanetworkanalyzer.data.VUCent;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.javanetworkanalyzer.progress.NullProgressMonitor;
+import org.javanetworkanalyzer.results.CentralitySnapshot;
+import org.javanetworkanalyzer.results.SnapshotListener;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the anytime mode of {@link GraphAnalyzer#computeAll()}.
+ *
+ * @author Adam Gouge
+ */
+public class AnytimeGraphAnalyzerTest {
+
+    private static final double TOLERANCE = 1E-10;
+    private static final int NUMBER_OF_VERTICES = 60;
+    private static final int TOP_K = 5;
+
+    @Test
+    public void testUnlimited() throws Exception {
+        testUnlimited(1);
+    }
+
+    @Test
+    public void testUnlimitedInParallel() throws Exception {
+        testUnlimited(3);
+    }
+
+    @Test
+    public void testCancelled() throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> exact =
+                weightedGraph(GraphCreator.UNDIRECTED);
+        new WeightedGraphAnalyzer<EdgeCent>(exact).computeAll();
+
+        WeightedKeyedGraph<VWCent, EdgeCent> graph =
+                weightedGraph(GraphCreator.UNDIRECTED);
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(
+                graph, new CancellingProgressMonitor(10, 0));
+        Snapshots snapshots = new Snapshots();
+        analyzer.setSnapshotListener(snapshots, 1, TOP_K);
+        analyzer.computeAll();
+
+        CentralitySnapshot last = snapshots.getLast();
+        assertEquals(10, last.getProcessedSources());
+        assertEquals(NUMBER_OF_VERTICES, last.getNumberOfSources());
+        int withCloseness = 0;
+        for (int i = 0; i < last.getVertexCount(); i++) {
+            VWCent v = graph.getVertex(last.getId(i));
+            // Unprocessed vertices get an estimate.
+            assertTrue(last.getCloseness(i) > 0);
+            if (v.getCloseness() > 0) {
+                withCloseness++;
+                assertEquals(exact.getVertex(v.getID()).getCloseness(),
+                             v.getCloseness(), TOLERANCE);
+                assertEquals(v.getCloseness(), last.getCloseness(i),
+                             TOLERANCE);
+            }
+            assertTrue(v.getBetweenness() >= 0.0
+                       && v.getBetweenness() <= 1.0);
+        }
+        assertEquals(10, withCloseness);
+    }
+
+    @Test
+    public void testTimeBudget() throws Exception {
+        WeightedKeyedGraph<VUCent, EdgeCent> graph =
+                unweightedGraph(GraphCreator.DIRECTED);
+        // Each source takes at least 5 ms, so 50 ms are not enough.
+        UnweightedGraphAnalyzer<EdgeCent> analyzer =
+                new UnweightedGraphAnalyzer<EdgeCent>(
+                graph, new CancellingProgressMonitor(Long.MAX_VALUE, 5));
+        Snapshots snapshots = new Snapshots();
+        analyzer.setTimeBudget(50);
+        analyzer.setSnapshotListener(snapshots, 10, TOP_K);
+        assertTrue(analyzer.isAnytime());
+        analyzer.computeAll();
+
+        CentralitySnapshot last = snapshots.getLast();
+        assertTrue(last.getProcessedSources() > 0);
+        assertTrue(last.getProcessedSources() < NUMBER_OF_VERTICES);
+        for (int i = 0; i < last.getVertexCount(); i++) {
+            if (graph.getVertex(last.getId(i)).getCloseness() == 0.0) {
+                // No estimate on directed graphs.
+                assertTrue(Double.isNaN(last.getCloseness(i)));
+            }
+        }
+    }
+
+    private void testUnlimited(int numberOfThreads) throws Exception {
+        WeightedKeyedGraph<VUCent, EdgeCent> exact =
+                unweightedGraph(GraphCreator.UNDIRECTED);
+        new UnweightedGraphAnalyzer<EdgeCent>(exact).computeAll();
+
+        WeightedKeyedGraph<VUCent, EdgeCent> graph =
+                unweightedGraph(GraphCreator.UNDIRECTED);
+        final int[] workers = new int[1];
+        UnweightedGraphAnalyzer<EdgeCent> analyzer =
+                new UnweightedGraphAnalyzer<EdgeCent>(graph) {
+                    @Override
+                    protected UnweightedGraphAnalyzer<EdgeCent> createWorker(
+                            WeightedKeyedGraph<VUCent, EdgeCent> graphCopy)
+                            throws NoSuchMethodException,
+                            InstantiationException, IllegalAccessException,
+                            IllegalArgumentException,
+                            InvocationTargetException {
+                        workers[0]++;
+                        return super.createWorker(graphCopy);
+                    }
+                };
+        Snapshots snapshots = new Snapshots();
+        analyzer.setSnapshotListener(snapshots, 1, TOP_K);
+        analyzer.setNumberOfThreads(numberOfThreads);
+        analyzer.computeAll();
+        ParallelGraphAnalyzerTest.assertSameResults(exact, graph, TOLERANCE);
+        // The workers are created once, not once per chunk.
+        assertEquals(numberOfThreads > 1 ? numberOfThreads : 0, workers[0]);
+
+        CentralitySnapshot last = snapshots.getLast();
+        assertEquals(NUMBER_OF_VERTICES, last.getProcessedSources());
+        int[] top = last.getTopBetweenness();
+        assertEquals(TOP_K, top.length);
+        for (int i = 1; i < top.length; i++) {
+            assertTrue(graph.getVertex(top[i - 1]).getBetweenness()
+                       >= graph.getVertex(top[i]).getBetweenness());
+        }
+        for (int i = 0; i < last.getVertexCount(); i++) {
+            assertEquals(graph.getVertex(last.getId(i)).getCloseness(),
+                         last.getCloseness(i), TOLERANCE);
+        }
+        for (VUCent v : graph.vertexSet()) {
+            if (v.getBetweenness() > graph.getVertex(top[TOP_K - 1])
+                    .getBetweenness()) {
+                boolean found = false;
+                for (int id : top) {
+                    found |= id == v.getID();
+                }
+                assertTrue(found);
+            }
+        }
+        assertFalse(snapshots.isEmpty());
+    }
+
+    private WeightedKeyedGraph<VUCent, EdgeCent> unweightedGraph(
+            int orientation) {
+        return new RandomGraphCreator<VUCent, EdgeCent>(
+                NUMBER_OF_VERTICES, 150, 5, 3L, orientation,
+                VUCent.class, EdgeCent.class).loadGraph();
+    }
+
+    private WeightedKeyedGraph<VWCent, EdgeCent> weightedGraph(
+            int orientation) {
+        return new RandomGraphCreator<VWCent, EdgeCent>(
+                NUMBER_OF_VERTICES, 150, 5, 3L, orientation,
+                VWCent.class, EdgeCent.class).loadGraph();
+    }
+
+    /**
+     * Keeps the snapshots it receives.
+     */
+    private static class Snapshots extends ArrayList<CentralitySnapshot>
+            implements SnapshotListener {
+
+        @Override
+        public synchronized void snapshotTaken(CentralitySnapshot snapshot) {
+            add(snapshot);
+        }
+
+        public CentralitySnapshot getLast() {
+            return get(size() - 1);
+        }
+    }
+
+    /**
+     * Cancels the task after the given number of sources and sleeps for the
+     * given time after each source.
+     */
+    private static class CancellingProgressMonitor
+            extends NullProgressMonitor {
+
+        private final long sources;
+        private final long sleep;
+        private long count;
+
+        public CancellingProgressMonitor(long sources, long sleep) {
+            this.sources = sources;
+            this.sleep = sleep;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return count >= sources;
+        }
+
+        @Override
+        public void setProgress(long count, long startTime) {
+            this.count = count;
+            try {
+                Thread.sleep(sleep);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
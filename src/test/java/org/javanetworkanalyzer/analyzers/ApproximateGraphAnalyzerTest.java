@@ -0,0 +1,177 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import java.io.File;
+import org.javanetworkanalyzer.data.VUCent;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests approximating betweenness from a random sample of pivots.
+ *
+ * @author Adam Gouge
+ */
+public class ApproximateGraphAnalyzerTest {
+
+    private static final double TOLERANCE = 1E-10;
+    private static final int NUMBER_OF_PIVOTS = 10;
+    private static final long SEED = 42L;
+
+    @Test
+    public void testNumberOfPivotsFor() {
+        // ln(2 * 100 / 0.1) / (2 * 0.1^2) = 380.03...
+        assertEquals(381, GraphAnalyzer.numberOfPivotsFor(0.1, 0.1, 100));
+        assertEquals(1, GraphAnalyzer.numberOfPivotsFor(100, 0.5, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalDelta() {
+        GraphAnalyzer.numberOfPivotsFor(0.1, 1.0, 100);
+    }
+
+    @Test
+    public void testSameSeedSameResults() throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> first = weightedGraph();
+        WeightedGraphAnalyzer<EdgeCent> firstAnalyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(first);
+        firstAnalyzer.setNumberOfPivots(NUMBER_OF_PIVOTS);
+        firstAnalyzer.setSeed(SEED);
+        assertEquals(NUMBER_OF_PIVOTS, firstAnalyzer.getNumberOfSources());
+        firstAnalyzer.computeAll();
+
+        WeightedKeyedGraph<VWCent, EdgeCent> second = weightedGraph();
+        WeightedGraphAnalyzer<EdgeCent> secondAnalyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(second);
+        secondAnalyzer.setNumberOfPivots(NUMBER_OF_PIVOTS);
+        secondAnalyzer.setSeed(SEED);
+        secondAnalyzer.setNumberOfThreads(3);
+        secondAnalyzer.computeAll();
+
+        ParallelGraphAnalyzerTest.assertSameResults(first, second, TOLERANCE);
+    }
+
+    @Test
+    public void testOnlyPivotsGetCloseness() throws Exception {
+        WeightedKeyedGraph<VUCent, EdgeCent> graph = unweightedGraph();
+        UnweightedGraphAnalyzer<EdgeCent> analyzer =
+                new UnweightedGraphAnalyzer<EdgeCent>(graph);
+        analyzer.setNumberOfPivots(NUMBER_OF_PIVOTS);
+        analyzer.setSeed(SEED);
+        analyzer.computeAll();
+        int withCloseness = 0;
+        for (VUCent v : graph.vertexSet()) {
+            if (v.getCloseness() > 0) {
+                withCloseness++;
+            }
+        }
+        // The ring makes the graph strongly connected.
+        assertEquals(NUMBER_OF_PIVOTS, withCloseness);
+    }
+
+    @Test
+    public void testEnoughPivotsIsExact() throws Exception {
+        WeightedKeyedGraph<VUCent, EdgeCent> exact = unweightedGraph();
+        new UnweightedGraphAnalyzer<EdgeCent>(exact).computeAll();
+
+        WeightedKeyedGraph<VUCent, EdgeCent> sampled = unweightedGraph();
+        UnweightedGraphAnalyzer<EdgeCent> analyzer =
+                new UnweightedGraphAnalyzer<EdgeCent>(sampled);
+        analyzer.setApproximation(0.01, 0.01);
+        assertTrue(analyzer.getNumberOfPivots() > sampled.vertexSet().size());
+        assertEquals(sampled.vertexSet().size(),
+                     analyzer.getNumberOfSources());
+        analyzer.computeAll();
+
+        ParallelGraphAnalyzerTest.assertSameResults(exact, sampled, TOLERANCE);
+    }
+
+    @Test
+    public void testWithinEpsilon() throws Exception {
+        final double epsilon = 0.2;
+        final double delta = 0.1;
+        final int n = 200;
+        WeightedKeyedGraph<VUCent, EdgeCent> exact = largeGraph(n);
+        final double[] expected = rawBetweenness(
+                new UnweightedGraphAnalyzer<EdgeCent>(exact), exact);
+
+        WeightedKeyedGraph<VUCent, EdgeCent> sampled = largeGraph(n);
+        UnweightedGraphAnalyzer<EdgeCent> analyzer =
+                new UnweightedGraphAnalyzer<EdgeCent>(sampled);
+        analyzer.setApproximation(epsilon, delta);
+        analyzer.setSeed(SEED);
+        final int k = analyzer.getNumberOfSources();
+        assertTrue(k < n);
+        final double[] sums = rawBetweenness(analyzer, sampled);
+
+        double maxError = 0;
+        for (int i = 0; i < n; i++) {
+            maxError = Math.max(maxError,
+                                Math.abs(sums[i] * n / k - expected[i]));
+        }
+        assertTrue(maxError <= epsilon * n * (n - 2));
+    }
+
+    /**
+     * Returns the betweenness of every vertex, by id, before normalization.
+     */
+    private static double[] rawBetweenness(
+            GraphAnalyzer analyzer,
+            WeightedKeyedGraph<VUCent, EdgeCent> graph) throws Exception {
+        File file = File.createTempFile("jna", ".partial");
+        file.deleteOnExit();
+        analyzer.computePartial(file);
+        file.delete();
+        final double[] betweenness = new double[graph.vertexSet().size()];
+        for (VUCent v : graph.vertexSet()) {
+            betweenness[v.getID() - 1] = v.getBetweenness();
+        }
+        return betweenness;
+    }
+
+    private WeightedKeyedGraph<VUCent, EdgeCent> largeGraph(int n) {
+        return new RandomGraphCreator<VUCent, EdgeCent>(
+                n, 3 * n, 5, 7L, GraphCreator.UNDIRECTED,
+                VUCent.class, EdgeCent.class).loadGraph();
+    }
+
+    private WeightedKeyedGraph<VUCent, EdgeCent> unweightedGraph() {
+        return new RandomGraphCreator<VUCent, EdgeCent>(
+                50, 120, 5, 7L, GraphCreator.DIRECTED,
+                VUCent.class, EdgeCent.class).loadGraph();
+    }
+
+    private WeightedKeyedGraph<VWCent, EdgeCent> weightedGraph() {
+        return new RandomGraphCreator<VWCent, EdgeCent>(
+                50, 120, 5, 7L, GraphCreator.UNDIRECTED,
+                VWCent.class, EdgeCent.class).loadGraph();
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import java.util.ArrayList;
+import java.util.Random;
+import org.javanetworkanalyzer.data.VId;
+import org.javanetworkanalyzer.data.VUCent;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.javanetworkanalyzer.model.WeightedPseudoG;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Makes sure that running the searches block by block gives the same results
+ * as a plain {@link GraphAnalyzer#computeAll()}.
+ *
+ * @author Adam Gouge
+ */
+public class BlockDecompositionTest {
+
+    private static final double TOLERANCE = 1E-10;
+    private static final int CORE_SIZE = 30;
+    private static final int NUMBER_OF_VERTICES = 150;
+
+    @Test
+    public void testUnweighted() throws Exception {
+        testUnweighted(false, 1);
+    }
+
+    @Test
+    public void testUnweightedInParallel() throws Exception {
+        testUnweighted(false, 4);
+    }
+
+    @Test
+    public void testWeighted() throws Exception {
+        testWeighted(1);
+    }
+
+    @Test
+    public void testWeightedInParallel() throws Exception {
+        testWeighted(4);
+    }
+
+    @Test
+    public void testDisconnected() throws Exception {
+        testUnweighted(true, 1);
+    }
+
+    @Test
+    public void testMultigraph() throws Exception {
+        // Two cycles, one with a parallel edge, sharing a vertex, and a
+        // tail.
+        WeightedKeyedGraph<VUCent, EdgeCent> expected = multigraph();
+        new UnweightedGraphAnalyzer<EdgeCent>(expected).computeAll();
+        WeightedKeyedGraph<VUCent, EdgeCent> actual = multigraph();
+        UnweightedGraphAnalyzer<EdgeCent> analyzer =
+                new UnweightedGraphAnalyzer<EdgeCent>(actual);
+        analyzer.setBlockDecomposition(true);
+        analyzer.computeAll();
+        ParallelGraphAnalyzerTest.assertSameResults(expected, actual,
+                                                    TOLERANCE);
+    }
+
+    @Test
+    public void testRandomMultigraph() throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> expected =
+                graph(false, true, VWCent.class);
+        new WeightedGraphAnalyzer<EdgeCent>(expected).computeAll();
+        WeightedKeyedGraph<VWCent, EdgeCent> actual =
+                graph(false, true, VWCent.class);
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(actual);
+        analyzer.setBlockDecomposition(true);
+        analyzer.setNumberOfThreads(2);
+        analyzer.computeAll();
+        ParallelGraphAnalyzerTest.assertSameResults(expected, actual,
+                                                    TOLERANCE);
+    }
+
+    private void testUnweighted(boolean addPath, int numberOfThreads)
+            throws Exception {
+        WeightedKeyedGraph<VUCent, EdgeCent> expected =
+                graph(addPath, false, VUCent.class);
+        new UnweightedGraphAnalyzer<EdgeCent>(expected).computeAll();
+        WeightedKeyedGraph<VUCent, EdgeCent> actual =
+                graph(addPath, false, VUCent.class);
+        UnweightedGraphAnalyzer<EdgeCent> analyzer =
+                new UnweightedGraphAnalyzer<EdgeCent>(actual);
+        analyzer.setBlockDecomposition(true);
+        analyzer.setNumberOfThreads(numberOfThreads);
+        analyzer.computeAll();
+        ParallelGraphAnalyzerTest.assertSameResults(expected, actual,
+                                                    TOLERANCE);
+        assertTrue(analyzer.getBiconnectedComponents().getNumberOfBlocks()
+                   > analyzer.getBiconnectedComponents().getBridges().size());
+    }
+
+    private void testWeighted(int numberOfThreads) throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> expected =
+                graph(false, false, VWCent.class);
+        new WeightedGraphAnalyzer<EdgeCent>(expected).computeAll();
+        WeightedKeyedGraph<VWCent, EdgeCent> actual =
+                graph(false, false, VWCent.class);
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(actual);
+        analyzer.setBlockDecomposition(true);
+        analyzer.setNumberOfThreads(numberOfThreads);
+        analyzer.computeAll();
+        ParallelGraphAnalyzerTest.assertSameResults(expected, actual,
+                                                    TOLERANCE);
+    }
+
+    /**
+     * Returns two cycles sharing vertex 4, the first one with a parallel
+     * edge, and a tail hanging off vertex 6.
+     *
+     * @return The graph
+     */
+    private WeightedKeyedGraph<VUCent, EdgeCent> multigraph() {
+        WeightedPseudoG<VUCent, EdgeCent> graph =
+                new WeightedPseudoG<VUCent, EdgeCent>(VUCent.class,
+                                                      EdgeCent.class);
+        for (int id = 1; id <= 9; id++) {
+            graph.addVertex(id);
+        }
+        for (int id = 1; id <= 4; id++) {
+            graph.addEdge(id, id % 4 + 1);
+        }
+        graph.addEdge(1, 2);
+        graph.addEdge(4, 5);
+        graph.addEdge(5, 6);
+        graph.addEdge(6, 4);
+        graph.addEdge(6, 7);
+        graph.addEdge(7, 8);
+        graph.addEdge(7, 9);
+        return graph;
+    }
+
+    /**
+     * Returns a random undirected graph made of a random core and of
+     * vertices joined to one random earlier vertex and sometimes to the
+     * previous vertex too, which makes trees, bridges and small blocks.
+     *
+     * @param addPath       Whether to add a path of three vertices as a
+     *                      second component
+     * @param parallelEdges Whether to keep the parallel edges of the core
+     * @param vertexClass   Vertex class
+     *
+     * @return The graph
+     */
+    private <V extends VId> WeightedKeyedGraph<V, EdgeCent> graph(
+            boolean addPath, boolean parallelEdges, Class<V> vertexClass) {
+        WeightedKeyedGraph<V, EdgeCent> graph =
+                new RandomGraphCreator<V, EdgeCent>(
+                CORE_SIZE, 2 * CORE_SIZE, 4, 5L, GraphCreator.UNDIRECTED,
+                vertexClass, EdgeCent.class).loadGraph();
+        // Blocks are only used on graphs without parallel edges.
+        for (EdgeCent e : new ArrayList<EdgeCent>(graph.edgeSet())) {
+            if (!parallelEdges
+                && graph.getAllEdges(graph.getEdgeSource(e),
+                                     graph.getEdgeTarget(e)).size() > 1) {
+                graph.removeEdge(e);
+            }
+        }
+        Random random = new Random(11L);
+        for (int id = CORE_SIZE + 1; id <= NUMBER_OF_VERTICES; id++) {
+            graph.addVertex(id);
+            final int parent = random.nextInt(id - 1) + 1;
+            EdgeCent e = graph.addEdge(parent, id);
+            graph.setEdgeWeight(e, random.nextInt(4) + 1);
+            if (random.nextInt(3) == 0 && parent != id - 1) {
+                e = graph.addEdge(id - 1, id);
+                graph.setEdgeWeight(e, random.nextInt(4) + 1);
+            }
+        }
+        if (addPath) {
+            for (int i = 1; i <= 3; i++) {
+                graph.addVertex(NUMBER_OF_VERTICES + i);
+            }
+            graph.addEdge(NUMBER_OF_VERTICES + 1, NUMBER_OF_VERTICES + 2);
+            graph.addEdge(NUMBER_OF_VERTICES + 2, NUMBER_OF_VERTICES + 3);
+        }
+        return graph;
+    }
+}
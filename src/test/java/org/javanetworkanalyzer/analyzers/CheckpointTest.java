@@ -0,0 +1,251 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.javanetworkanalyzer.progress.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Makes sure a {@link GraphAnalyzer#computeAll()} run that is cancelled and
+ * then resumed from its checkpoint, or split into parts whose partial results
+ * are merged, gives the same results as an uninterrupted run.
+ *
+ * @author Adam Gouge
+ */
+public class CheckpointTest {
+
+    private static final double TOLERANCE = 1E-10;
+    private static final int NUMBER_OF_NODES = 40;
+    private static final int CANCEL_AFTER = 17;
+    private File checkpointFile;
+
+    @Before
+    public void setUp() throws IOException {
+        checkpointFile = File.createTempFile("jna", ".checkpoint");
+        checkpointFile.delete();
+    }
+
+    @After
+    public void tearDown() {
+        checkpointFile.delete();
+        CentralityCheckpoint.temporaryFile(checkpointFile).delete();
+    }
+
+    @Test
+    public void testSerialResume() throws Exception {
+        testResume(1);
+    }
+
+    @Test
+    public void testParallelResume() throws Exception {
+        testResume(3);
+    }
+
+    @Test
+    public void testResumeFromTemporaryFile() throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> expected = graph(1L);
+        new WeightedGraphAnalyzer<EdgeCent>(expected).computeAll();
+
+        WeightedGraphAnalyzer<EdgeCent> cancelled =
+                new WeightedGraphAnalyzer<EdgeCent>(
+                graph(1L), new CancellingProgressMonitor(CANCEL_AFTER));
+        cancelled.setCheckpoint(checkpointFile, 5);
+        cancelled.computeAll();
+        // A run killed after deleting the checkpoint and before renaming
+        // the temporary file.
+        final File tmp = CentralityCheckpoint.temporaryFile(checkpointFile);
+        assertTrue(checkpointFile.renameTo(tmp));
+        assertTrue(CentralityCheckpoint.readLatest(checkpointFile)
+                           .getNumberOfFinishedSources() > 0);
+
+        WeightedKeyedGraph<VWCent, EdgeCent> resumed = graph(1L);
+        CancellingProgressMonitor pm =
+                new CancellingProgressMonitor(Long.MAX_VALUE);
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(resumed, pm);
+        analyzer.setCheckpoint(checkpointFile, 5);
+        analyzer.computeAll();
+        assertTrue(pm.updates < NUMBER_OF_NODES);
+        assertFalse(checkpointFile.exists());
+        assertFalse(tmp.exists());
+        ParallelGraphAnalyzerTest.assertSameResults(
+                expected, resumed, TOLERANCE);
+    }
+
+    @Test
+    public void testIncompleteTemporaryFile() throws Exception {
+        final File tmp = CentralityCheckpoint.temporaryFile(checkpointFile);
+        new FileOutputStream(tmp).close();
+        assertNull(CentralityCheckpoint.readLatest(checkpointFile));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDifferentGraph() throws Exception {
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(
+                graph(1L), new CancellingProgressMonitor(CANCEL_AFTER));
+        analyzer.setCheckpoint(checkpointFile, 5);
+        analyzer.computeAll();
+
+        analyzer = new WeightedGraphAnalyzer<EdgeCent>(graph(2L));
+        analyzer.setCheckpoint(checkpointFile, 5);
+        analyzer.computeAll();
+    }
+
+    @Test
+    public void testMergeHashPartition() throws Exception {
+        final int numberOfParts = 3;
+        List<File> files = new ArrayList<File>();
+        for (int part = 0; part < numberOfParts; part++) {
+            WeightedGraphAnalyzer<EdgeCent> analyzer =
+                    new WeightedGraphAnalyzer<EdgeCent>(graph(1L));
+            analyzer.setSourcePartition(part, numberOfParts);
+            files.add(computePartial(analyzer));
+        }
+        testMerge(files);
+    }
+
+    @Test
+    public void testMergeRanges() throws Exception {
+        List<File> files = new ArrayList<File>();
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(graph(1L));
+        analyzer.setSourceRange(1, 10);
+        assertEquals(10, analyzer.getNumberOfSources());
+        files.add(computePartial(analyzer));
+        analyzer = new WeightedGraphAnalyzer<EdgeCent>(graph(1L));
+        analyzer.setSourceRange(11, NUMBER_OF_NODES);
+        files.add(computePartial(analyzer));
+        testMerge(files);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMergeMissingPart() throws Exception {
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(graph(1L));
+        analyzer.setSourcePartition(0, 2);
+        File file = computePartial(analyzer);
+        new WeightedGraphAnalyzer<EdgeCent>(graph(1L))
+                .mergePartialResults(Collections.singletonList(file));
+    }
+
+    private File computePartial(GraphAnalyzer analyzer) throws Exception {
+        File file = File.createTempFile("jna", ".partial");
+        file.deleteOnExit();
+        analyzer.computePartial(file);
+        return file;
+    }
+
+    private void testMerge(List<File> files) throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> expected = graph(1L);
+        new WeightedGraphAnalyzer<EdgeCent>(expected).computeAll();
+        WeightedKeyedGraph<VWCent, EdgeCent> merged = graph(1L);
+        new WeightedGraphAnalyzer<EdgeCent>(merged).mergePartialResults(files);
+        ParallelGraphAnalyzerTest.assertSameResults(
+                expected, merged, TOLERANCE);
+    }
+
+    private void testResume(int numberOfThreads) throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> expected = graph(1L);
+        new WeightedGraphAnalyzer<EdgeCent>(expected).computeAll();
+
+        WeightedGraphAnalyzer<EdgeCent> cancelled =
+                new WeightedGraphAnalyzer<EdgeCent>(
+                graph(1L), new CancellingProgressMonitor(CANCEL_AFTER));
+        cancelled.setNumberOfThreads(numberOfThreads);
+        cancelled.setCheckpoint(checkpointFile, 5);
+        cancelled.computeAll();
+        assertTrue(checkpointFile.exists());
+        final int finished = CentralityCheckpoint.read(checkpointFile)
+                .getNumberOfFinishedSources();
+        assertTrue(finished > 0);
+        assertTrue(finished < NUMBER_OF_NODES);
+
+        WeightedKeyedGraph<VWCent, EdgeCent> resumed = graph(1L);
+        CancellingProgressMonitor pm =
+                new CancellingProgressMonitor(Long.MAX_VALUE);
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(resumed, pm);
+        analyzer.setNumberOfThreads(numberOfThreads);
+        analyzer.setCheckpoint(checkpointFile, 5);
+        analyzer.computeAll();
+        assertFalse(checkpointFile.exists());
+        // Progress is set once at the start, once after restoring the
+        // checkpoint and once per remaining source.
+        assertEquals(2 + NUMBER_OF_NODES - finished, pm.updates);
+
+        ParallelGraphAnalyzerTest.assertSameResults(
+                expected, resumed, TOLERANCE);
+    }
+
+    private WeightedKeyedGraph<VWCent, EdgeCent> graph(long seed) {
+        return new RandomGraphCreator<VWCent, EdgeCent>(
+                NUMBER_OF_NODES, 100, 5, seed, GraphCreator.UNDIRECTED,
+                VWCent.class, EdgeCent.class).loadGraph();
+    }
+
+    /**
+     * Cancels the task once the given number of sources have been processed.
+     */
+    private static class CancellingProgressMonitor
+            extends NullProgressMonitor {
+
+        private final long cancelAfter;
+        private long count;
+        private int updates;
+
+        CancellingProgressMonitor(long cancelAfter) {
+            this.cancelAfter = cancelAfter;
+        }
+
+        @Override
+        public void setProgress(long count, long startTime) {
+            this.count = count;
+            updates++;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return count >= cancelAfter;
+        }
+    }
+}
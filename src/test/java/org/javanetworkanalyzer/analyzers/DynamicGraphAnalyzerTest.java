@@ -0,0 +1,202 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.javanetworkanalyzer.data.VCent;
+import org.javanetworkanalyzer.data.VUCent;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.WeightProfile;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Makes sure {@link DynamicGraphAnalyzer} gives the same values as a full
+ * recomputation after a batch of edge updates.
+ *
+ * @author Adam Gouge
+ */
+public class DynamicGraphAnalyzerTest {
+
+    private static final double TOLERANCE = 1E-8;
+    private static final int UPDATES = 2;
+
+    @Test
+    public void testWeightedUndirected() throws Exception {
+        testWeighted(GraphCreator.UNDIRECTED);
+    }
+
+    @Test
+    public void testWeightedDirected() throws Exception {
+        testWeighted(GraphCreator.DIRECTED);
+    }
+
+    @Test
+    public void testWeightedWithRadius() throws Exception {
+        // The searches from the edge endpoints must not leave stale labels
+        // behind for the bounded searches.
+        testWeighted(GraphCreator.UNDIRECTED, 4);
+        testWeighted(GraphCreator.DIRECTED, 4);
+    }
+
+    @Test
+    public void testUnweightedDirected() throws Exception {
+        testUnweighted(Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    public void testUnweightedWithRadius() throws Exception {
+        testUnweighted(2);
+    }
+
+    private void testUnweighted(double radius) throws Exception {
+        WeightedKeyedGraph<VUCent, EdgeCent> updated = unweightedGraph();
+        UnweightedGraphAnalyzer<EdgeCent> analyzer =
+                new UnweightedGraphAnalyzer<EdgeCent>(updated);
+        analyzer.setRadius(radius);
+        DynamicGraphAnalyzer<VUCent, EdgeCent> dynamic =
+                new DynamicGraphAnalyzer<VUCent, EdgeCent>(analyzer);
+        dynamic.computeAll();
+        scheduleUpdates(updated, dynamic);
+        dynamic.update();
+
+        WeightedKeyedGraph<VUCent, EdgeCent> expected = unweightedGraph();
+        applyUpdates(expected);
+        UnweightedGraphAnalyzer<EdgeCent> fresh =
+                new UnweightedGraphAnalyzer<EdgeCent>(expected);
+        fresh.setRadius(radius);
+        new DynamicGraphAnalyzer<VUCent, EdgeCent>(fresh).computeAll();
+        ParallelGraphAnalyzerTest.assertSameResults(
+                expected, updated, TOLERANCE);
+    }
+
+    @Test
+    public void testEdgeOffShortestPaths() throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> graph =
+                weightedGraph(GraphCreator.UNDIRECTED);
+        // Far too long to ever be on a shortest path.
+        EdgeCent detour = graph.addEdge(1, 2);
+        graph.setEdgeWeight(detour, 1000);
+        DynamicGraphAnalyzer<VWCent, EdgeCent> dynamic =
+                new DynamicGraphAnalyzer<VWCent, EdgeCent>(
+                new WeightedGraphAnalyzer<EdgeCent>(graph));
+        dynamic.computeAll();
+        dynamic.setEdgeWeight(detour, 2000);
+        dynamic.update();
+        assertEquals(0, dynamic.getNumberOfRecomputedSources());
+        dynamic.removeEdge(detour);
+        dynamic.update();
+        assertEquals(0, dynamic.getNumberOfRecomputedSources());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWeightProfileRejected() throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> graph =
+                weightedGraph(GraphCreator.UNDIRECTED);
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(graph);
+        analyzer.setWeightProfile(new WeightProfile(
+                "double", new double[graph.edgeSet().size()]));
+        new DynamicGraphAnalyzer<VWCent, EdgeCent>(analyzer);
+    }
+
+    private void testWeighted(int orientation) throws Exception {
+        testWeighted(orientation, Double.POSITIVE_INFINITY);
+    }
+
+    private void testWeighted(int orientation, double radius)
+            throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> updated =
+                weightedGraph(orientation);
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(updated);
+        analyzer.setRadius(radius);
+        DynamicGraphAnalyzer<VWCent, EdgeCent> dynamic =
+                new DynamicGraphAnalyzer<VWCent, EdgeCent>(analyzer);
+        dynamic.computeAll();
+        scheduleUpdates(updated, dynamic);
+        dynamic.update();
+        assertTrue(dynamic.getNumberOfRecomputedSources() > 0);
+
+        WeightedKeyedGraph<VWCent, EdgeCent> expected =
+                weightedGraph(orientation);
+        applyUpdates(expected);
+        WeightedGraphAnalyzer<EdgeCent> fresh =
+                new WeightedGraphAnalyzer<EdgeCent>(expected);
+        fresh.setRadius(radius);
+        new DynamicGraphAnalyzer<VWCent, EdgeCent>(fresh).computeAll();
+        ParallelGraphAnalyzerTest.assertSameResults(
+                expected, updated, TOLERANCE);
+    }
+
+    /**
+     * Schedules the removal of {@link #UPDATES} edges, the addition of as many
+     * edges and the change of weight of as many edges.
+     */
+    private <V extends VCent> void scheduleUpdates(
+            WeightedKeyedGraph<V, EdgeCent> graph,
+            DynamicGraphAnalyzer<V, EdgeCent> dynamic) {
+        List<EdgeCent> edges = new ArrayList<EdgeCent>(graph.edgeSet());
+        for (int i = 0; i < UPDATES; i++) {
+            dynamic.removeEdge(edges.get(7 * i + 100));
+            dynamic.setEdgeWeight(edges.get(5 * i + 120), 1 + 4 * i);
+            dynamic.addEdge(3 * i + 10, 3 * i + 11, 5);
+        }
+    }
+
+    /**
+     * Applies the updates of {@link #scheduleUpdates} directly to the graph,
+     * in the same order.
+     */
+    private <V extends VCent> void applyUpdates(
+            WeightedKeyedGraph<V, EdgeCent> graph) {
+        List<EdgeCent> edges = new ArrayList<EdgeCent>(graph.edgeSet());
+        for (int i = 0; i < UPDATES; i++) {
+            graph.removeEdge(edges.get(7 * i + 100));
+            graph.setEdgeWeight(edges.get(5 * i + 120), 1 + 4 * i);
+            EdgeCent e = graph.addEdge(3 * i + 10, 3 * i + 11);
+            graph.setEdgeWeight(e, 5);
+        }
+    }
+
+    private WeightedKeyedGraph<VWCent, EdgeCent> weightedGraph(
+            int orientation) {
+        return new RandomGraphCreator<VWCent, EdgeCent>(
+                80, 160, 5, 99L, orientation,
+                VWCent.class, EdgeCent.class).loadGraph();
+    }
+
+    private WeightedKeyedGraph<VUCent, EdgeCent> unweightedGraph() {
+        return new RandomGraphCreator<VUCent, EdgeCent>(
+                80, 160, 5, 99L, GraphCreator.DIRECTED,
+                VUCent.class, EdgeCent.class).loadGraph();
+    }
+}
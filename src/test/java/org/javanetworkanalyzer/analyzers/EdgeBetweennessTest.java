@@ -0,0 +1,263 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+import org.javanetworkanalyzer.alg.BFSForCentrality;
+import org.javanetworkanalyzer.alg.DijkstraForCentrality;
+import org.javanetworkanalyzer.alg.GraphSearchAlgorithm;
+import org.javanetworkanalyzer.data.VCent;
+import org.javanetworkanalyzer.data.VId;
+import org.javanetworkanalyzer.data.VUCent;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.TraversalGraph;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.javanetworkanalyzer.model.WeightedPseudoG;
+import org.jgrapht.Graph;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Makes sure that the edge betweenness accumulated from the predecessor edges
+ * recorded by the searches is the same as the one accumulated on the shortest
+ * path DAG given by {@link GraphSearchAlgorithm#reconstructTraversalGraph()},
+ * including on graphs with parallel edges.
+ *
+ * @author Adam Gouge
+ */
+public class EdgeBetweennessTest {
+
+    private static final double TOLERANCE = 1E-10;
+
+    @Test
+    public void testUnweightedMultigraph() throws Exception {
+        testUnweighted(multigraph(VUCent.class));
+    }
+
+    @Test
+    public void testWeightedMultigraph() throws Exception {
+        testWeighted(multigraph(VWCent.class));
+    }
+
+    @Test
+    public void testUnweightedDirected() throws Exception {
+        testUnweighted(GraphCreator.DIRECTED);
+    }
+
+    @Test
+    public void testUnweightedUndirected() throws Exception {
+        testUnweighted(GraphCreator.UNDIRECTED);
+    }
+
+    @Test
+    public void testWeightedDirected() throws Exception {
+        testWeighted(GraphCreator.DIRECTED);
+    }
+
+    @Test
+    public void testWeightedUndirected() throws Exception {
+        testWeighted(GraphCreator.UNDIRECTED);
+    }
+
+    private void testUnweighted(int orientation) throws Exception {
+        testUnweighted(new RandomGraphCreator<VUCent, EdgeCent>(
+                60, 150, 5, 123L, orientation,
+                VUCent.class, EdgeCent.class).loadGraph());
+    }
+
+    private void testWeighted(int orientation) throws Exception {
+        testWeighted(new RandomGraphCreator<VWCent, EdgeCent>(
+                60, 150, 5, 123L, orientation,
+                VWCent.class, EdgeCent.class).loadGraph());
+    }
+
+    private void testUnweighted(final WeightedKeyedGraph<VUCent, EdgeCent> graph)
+            throws Exception {
+        final Map<VUCent, Map<EdgeCent, Double>> dependencies =
+                new HashMap<VUCent, Map<EdgeCent, Double>>();
+        new UnweightedGraphAnalyzer<EdgeCent>(graph) {
+            @Override
+            void calculateCentralityContributionFromNode(VUCent startNode,
+                                                         double factor)
+                    throws InstantiationException, IllegalAccessException,
+                    IllegalArgumentException, InvocationTargetException {
+                super.calculateCentralityContributionFromNode(startNode,
+                                                              factor);
+                dependencies.put(startNode, edgeDependencies(this, graph));
+            }
+        }.computeAll();
+        Stack<VUCent> stack = new Stack<VUCent>();
+        check(graph, dependencies,
+              new BFSForCentrality<EdgeCent>(graph, stack), stack);
+    }
+
+    private void testWeighted(final WeightedKeyedGraph<VWCent, EdgeCent> graph)
+            throws Exception {
+        final Map<VWCent, Map<EdgeCent, Double>> dependencies =
+                new HashMap<VWCent, Map<EdgeCent, Double>>();
+        new WeightedGraphAnalyzer<EdgeCent>(graph) {
+            @Override
+            void calculateCentralityContributionFromNode(VWCent startNode,
+                                                         double factor)
+                    throws InstantiationException, IllegalAccessException,
+                    IllegalArgumentException, InvocationTargetException {
+                super.calculateCentralityContributionFromNode(startNode,
+                                                              factor);
+                dependencies.put(startNode, edgeDependencies(this, graph));
+            }
+        }.computeAll();
+        Stack<VWCent> stack = new Stack<VWCent>();
+        check(graph, dependencies,
+              new DijkstraForCentrality<EdgeCent>(graph, stack), stack);
+    }
+
+    /**
+     * Returns the dependencies of the last start node of the given analyzer
+     * on the edges of the given graph.
+     *
+     * @param analyzer Analyzer
+     * @param graph    Graph
+     *
+     * @return The dependencies keyed by edge
+     */
+    private static Map<EdgeCent, Double> edgeDependencies(
+            GraphAnalyzer analyzer, Graph<?, EdgeCent> graph) {
+        final Map<EdgeCent, Double> dependencies =
+                new HashMap<EdgeCent, Double>();
+        for (EdgeCent e : graph.edgeSet()) {
+            dependencies.put(e, analyzer.getEdgeDependency(e));
+        }
+        return dependencies;
+    }
+
+    /**
+     * Accumulates the edge betweenness on the traversal graph of a search
+     * from every vertex, as was done before the predecessor edges were used
+     * directly, and compares it to the edge dependencies of each start node
+     * and to the normalized edge betweenness already stored on the edges of
+     * the graph.
+     *
+     * @param graph        Graph
+     * @param dependencies Edge dependencies of each start node
+     * @param search       Search which pushes the vertices to the given stack
+     * @param stack        Stack
+     */
+    private <V extends VCent> void check(
+            WeightedKeyedGraph<V, EdgeCent> graph,
+            Map<V, Map<EdgeCent, Double>> dependencies,
+            GraphSearchAlgorithm<V, EdgeCent> search,
+            Stack<V> stack) {
+        boolean parallelEdges = false;
+        for (EdgeCent e : graph.edgeSet()) {
+            if (graph.getAllEdges(graph.getEdgeSource(e),
+                                  graph.getEdgeTarget(e)).size() > 1) {
+                parallelEdges = true;
+            }
+        }
+        assertTrue(parallelEdges);
+
+        final Map<EdgeCent, Double> betweenness =
+                new HashMap<EdgeCent, Double>();
+        for (EdgeCent e : graph.edgeSet()) {
+            betweenness.put(e, 0.0);
+        }
+        for (V startNode : graph.vertexSet()) {
+            stack.clear();
+            search.calculate(startNode);
+            TraversalGraph<V, EdgeCent> sPT =
+                    search.reconstructTraversalGraph();
+            final Map<EdgeCent, Double> dependency =
+                    new HashMap<EdgeCent, Double>();
+            while (!stack.empty()) {
+                V w = stack.pop();
+                for (V v : (Set<V>) w.getPredecessors()) {
+                    final double sigmaFactor =
+                            ((double) v.getSPCount()) / w.getSPCount();
+                    double depSumFromOutgoing = 0.0;
+                    for (EdgeCent outEdge : sPT.outgoingEdgesOf(w)) {
+                        depSumFromOutgoing += outEdge.getDependency();
+                    }
+                    for (EdgeCent sPTEdge : sPT.getAllEdges(v, w)) {
+                        sPTEdge.accumulateDependency(
+                                sigmaFactor * (1 + depSumFromOutgoing));
+                        EdgeCent e = sPTEdge.getBaseGraphEdge();
+                        dependency.put(e, sPTEdge.getDependency());
+                        betweenness.put(e, betweenness.get(e)
+                                           + sPTEdge.getDependency());
+                    }
+                }
+            }
+            for (EdgeCent e : graph.edgeSet()) {
+                final Double expected = dependency.get(e);
+                assertEquals(expected == null ? 0.0 : expected,
+                             dependencies.get(startNode).get(e), TOLERANCE);
+            }
+        }
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double b : betweenness.values()) {
+            min = Math.min(min, b);
+            max = Math.max(max, b);
+        }
+        for (EdgeCent e : graph.edgeSet()) {
+            assertEquals((betweenness.get(e) - min) / (max - min),
+                         e.getBetweenness(), TOLERANCE);
+        }
+    }
+
+    /**
+     * Returns a cycle of six vertices with two parallel edges, and a tail of
+     * two vertices.
+     *
+     * @param vertexClass Vertex class
+     *
+     * @return The graph
+     */
+    private <V extends VId & VCent> WeightedKeyedGraph<V, EdgeCent>
+    multigraph(Class<V> vertexClass) {
+        WeightedPseudoG<V, EdgeCent> graph =
+                new WeightedPseudoG<V, EdgeCent>(vertexClass, EdgeCent.class);
+        for (int id = 1; id <= 8; id++) {
+            graph.addVertex(id);
+        }
+        for (int id = 1; id <= 6; id++) {
+            graph.addEdge(id, id % 6 + 1);
+        }
+        graph.addEdge(1, 2);
+        graph.addEdge(4, 5);
+        graph.addEdge(4, 7);
+        graph.addEdge(7, 8);
+        return graph;
+    }
+}
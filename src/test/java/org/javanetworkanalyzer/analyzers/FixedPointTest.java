@@ -0,0 +1,155 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import org.javanetworkanalyzer.alg.Dijkstra;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that weighted analysis in fixed-point mode on weights with one
+ * decimal gives the same results as floating point analysis on the same
+ * weights multiplied by ten, which are exact.
+ *
+ * @author Adam Gouge
+ */
+public class FixedPointTest {
+
+    private static final double TOLERANCE = 1E-10;
+    private static final double SCALE = 10;
+
+    @Test
+    public void testUndirected() throws Exception {
+        assertSameAsFloatingPoint(GraphCreator.UNDIRECTED, 1);
+    }
+
+    @Test
+    public void testDirected() throws Exception {
+        assertSameAsFloatingPoint(GraphCreator.DIRECTED, 1);
+    }
+
+    @Test
+    public void testDirectedInParallel() throws Exception {
+        assertSameAsFloatingPoint(GraphCreator.DIRECTED, 3);
+    }
+
+    @Test
+    public void testDistances() {
+        WeightedKeyedGraph<VWCent, EdgeCent> graph =
+                graph(GraphCreator.DIRECTED, SCALE);
+        Dijkstra<VWCent, EdgeCent> dijkstra =
+                new Dijkstra<VWCent, EdgeCent>(graph);
+        Dijkstra<VWCent, EdgeCent> fixedPoint =
+                new Dijkstra<VWCent, EdgeCent>(graph);
+        fixedPoint.setFixedPointScale(SCALE);
+        for (VWCent source : graph.vertexSet()) {
+            dijkstra.calculate(source);
+            final double[] expected = new double[graph.vertexSet().size()];
+            for (VWCent v : graph.vertexSet()) {
+                expected[v.getID() - 1] = v.getDistance();
+            }
+            fixedPoint.calculate(source);
+            for (VWCent v : graph.vertexSet()) {
+                assertEquals(expected[v.getID() - 1], v.getDistance(),
+                             TOLERANCE);
+                assertEquals(Math.round(expected[v.getID() - 1] * SCALE),
+                             v.getFixedDistance());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeWeight() {
+        WeightedKeyedGraph<VWCent, EdgeCent> graph =
+                graph(GraphCreator.DIRECTED, SCALE);
+        final EdgeCent e = graph.edgeSet().iterator().next();
+        graph.setEdgeWeight(e, -1);
+        Dijkstra<VWCent, EdgeCent> dijkstra =
+                new Dijkstra<VWCent, EdgeCent>(graph);
+        dijkstra.setFixedPointScale(SCALE);
+        dijkstra.calculate(graph.getEdgeSource(e));
+    }
+
+    private static void assertSameAsFloatingPoint(int orientation,
+                                                  int threads)
+            throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> expected =
+                graph(orientation, 1);
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(expected);
+        analyzer.computeAll();
+        WeightedKeyedGraph<VWCent, EdgeCent> actual =
+                graph(orientation, SCALE);
+        WeightedGraphAnalyzer<EdgeCent> fixedPoint =
+                new WeightedGraphAnalyzer<EdgeCent>(actual);
+        fixedPoint.setFixedPointScale(SCALE);
+        fixedPoint.setNumberOfThreads(threads);
+        fixedPoint.computeAll();
+        for (VWCent v : expected.vertexSet()) {
+            VWCent w = actual.getVertex(v.getID());
+            assertEquals(v.getBetweenness(), w.getBetweenness(), TOLERANCE);
+            // Distances are ten times smaller.
+            assertEquals(v.getCloseness() * SCALE, w.getCloseness(),
+                         TOLERANCE);
+        }
+        List<EdgeCent> expectedEdges =
+                new ArrayList<EdgeCent>(expected.edgeSet());
+        List<EdgeCent> actualEdges = new ArrayList<EdgeCent>(actual.edgeSet());
+        for (int i = 0; i < expectedEdges.size(); i++) {
+            assertEquals(expectedEdges.get(i).getBetweenness(),
+                         actualEdges.get(i).getBetweenness(), TOLERANCE);
+        }
+    }
+
+    /**
+     * Returns a random graph whose integer weights are divided by the given
+     * divisor.
+     *
+     * @param orientation Orientation
+     * @param divisor     Divisor
+     *
+     * @return The graph
+     */
+    private static WeightedKeyedGraph<VWCent, EdgeCent> graph(
+            int orientation, double divisor) {
+        WeightedKeyedGraph<VWCent, EdgeCent> graph =
+                new RandomGraphCreator<VWCent, EdgeCent>(
+                50, 150, 5, 23L, orientation,
+                VWCent.class, EdgeCent.class).loadGraph();
+        for (EdgeCent e : graph.edgeSet()) {
+            graph.setEdgeWeight(e, graph.getEdgeWeight(e) / divisor);
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import org.javanetworkanalyzer.alg.BFS;
+import org.javanetworkanalyzer.data.VUCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.PseudoG;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.javanetworkanalyzer.progress.NullProgressMonitor;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the estimates of {@link HyperBallAnalyzer} to exact values
+ * computed by BFS.
+ *
+ * @author Adam Gouge
+ */
+public class HyperBallAnalyzerTest {
+
+    /**
+     * Relative error we accept with 2^10 registers per counter.
+     */
+    private static final double RELATIVE_ERROR = 0.1;
+
+    @Test
+    public void testDirected() {
+        testRandomGraph(GraphCreator.DIRECTED);
+    }
+
+    @Test
+    public void testUndirected() {
+        testRandomGraph(GraphCreator.UNDIRECTED);
+    }
+
+    @Test
+    public void testDisconnected() {
+        // Two paths 1 - 2 - 3 and 4 - 5.
+        PseudoG<VUCent, EdgeCent> graph =
+                new PseudoG<VUCent, EdgeCent>(VUCent.class, EdgeCent.class);
+        for (int i = 1; i <= 5; i++) {
+            graph.addVertex(i);
+        }
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 3);
+        graph.addEdge(4, 5);
+        HyperBallAnalyzer<VUCent, EdgeCent> analyzer =
+                new HyperBallAnalyzer<VUCent, EdgeCent>(graph, 8);
+        analyzer.computeAll();
+        // The diameter is 2, and one more pass finds nothing new.
+        assertEquals(3, analyzer.getNumberOfPasses());
+        assertEquals(2.0, analyzer.getReachableCount(graph.getVertex(1)), 0.1);
+        assertEquals(1.5, analyzer.getHarmonicCentrality(graph.getVertex(1)),
+                     0.1);
+        assertEquals(2.0 / 3, graph.getVertex(1).getCloseness(), 0.05);
+        assertEquals(1.0, graph.getVertex(2).getCloseness(), 0.05);
+        assertEquals(1.0, graph.getVertex(4).getCloseness(), 0.05);
+    }
+
+    @Test
+    public void testSmallArrays() {
+        // Eight counters per array, the last array holding the remainder.
+        WeightedKeyedGraph<VUCent, EdgeCent> graph =
+                new RandomGraphCreator<VUCent, EdgeCent>(
+                203, 400, 1, 5L, GraphCreator.DIRECTED,
+                VUCent.class, EdgeCent.class).loadGraph();
+        HyperBallAnalyzer<VUCent, EdgeCent> expected =
+                new HyperBallAnalyzer<VUCent, EdgeCent>(graph, 6);
+        expected.computeAll();
+        HyperBallAnalyzer<VUCent, EdgeCent> actual =
+                new HyperBallAnalyzer<VUCent, EdgeCent>(
+                graph, 6, new NullProgressMonitor(), 9);
+        actual.computeAll();
+        assertEquals(expected.getNumberOfPasses(),
+                     actual.getNumberOfPasses());
+        for (VUCent v : graph.vertexSet()) {
+            assertEquals(expected.getHarmonicCentrality(v),
+                         actual.getHarmonicCentrality(v), 0.0);
+            assertEquals(expected.getReachableCount(v),
+                         actual.getReachableCount(v), 0.0);
+        }
+    }
+
+    @Test
+    public void testProgress() {
+        WeightedKeyedGraph<VUCent, EdgeCent> graph =
+                new RandomGraphCreator<VUCent, EdgeCent>(
+                200, 400, 1, 5L, GraphCreator.UNDIRECTED,
+                VUCent.class, EdgeCent.class).loadGraph();
+        RecordingProgressMonitor pm = new RecordingProgressMonitor();
+        HyperBallAnalyzer<VUCent, EdgeCent> analyzer =
+                new HyperBallAnalyzer<VUCent, EdgeCent>(graph, 6, pm);
+        analyzer.computeAll();
+        // One task per pass, each counting the vertices up to its end.
+        assertEquals(analyzer.getNumberOfPasses(), pm.tasks);
+        assertEquals(200, pm.end);
+        assertEquals(200, pm.count);
+    }
+
+    private void testRandomGraph(int orientation) {
+        WeightedKeyedGraph<VUCent, EdgeCent> graph =
+                new RandomGraphCreator<VUCent, EdgeCent>(
+                200, 400, 1, 5L, orientation,
+                VUCent.class, EdgeCent.class).loadGraph();
+        HyperBallAnalyzer<VUCent, EdgeCent> analyzer =
+                new HyperBallAnalyzer<VUCent, EdgeCent>(graph, 10);
+        analyzer.computeAll();
+        BFS<VUCent, EdgeCent> bfs = new BFS<VUCent, EdgeCent>(graph);
+        for (VUCent source : graph.vertexSet()) {
+            final double closeness = source.getCloseness();
+            bfs.calculate(source);
+            double harmonic = 0.0;
+            double distanceSum = 0.0;
+            int reachable = 0;
+            for (VUCent v : graph.vertexSet()) {
+                if (v.getDistance() > 0) {
+                    harmonic += 1.0 / v.getDistance();
+                    distanceSum += v.getDistance();
+                    reachable++;
+                }
+            }
+            assertEquals(harmonic, analyzer.getHarmonicCentrality(source),
+                         RELATIVE_ERROR * harmonic);
+            assertEquals(reachable / distanceSum, closeness,
+                         RELATIVE_ERROR * reachable / distanceSum);
+        }
+    }
+
+    /**
+     * Records the tasks and the progress reported.
+     */
+    private static class RecordingProgressMonitor
+            extends NullProgressMonitor {
+
+        private int tasks;
+        private long end;
+        private long count;
+
+        @Override
+        public void startTask(String taskName, long end) {
+            tasks++;
+            this.end = end;
+            this.count = 0;
+        }
+
+        @Override
+        public void setProgress(long count, long startTime) {
+            assertTrue(count > this.count && count <= end);
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.javanetworkanalyzer.data.VCent;
+import org.javanetworkanalyzer.data.VId;
+import org.javanetworkanalyzer.data.VUCent;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Makes sure that computing only some of the metrics gives the same values
+ * for these metrics as computing all of them, and leaves the others unset.
+ *
+ * @author Adam Gouge
+ */
+public class MetricSelectionTest {
+
+    private static final double TOLERANCE = 1E-10;
+    private static final int NUMBER_OF_VERTICES = 60;
+    private static final int[] METRICS = new int[]{
+        GraphAnalyzer.CLOSENESS,
+        GraphAnalyzer.BETWEENNESS,
+        GraphAnalyzer.EDGE_BETWEENNESS,
+        GraphAnalyzer.CLOSENESS | GraphAnalyzer.EDGE_BETWEENNESS,
+        GraphAnalyzer.BETWEENNESS | GraphAnalyzer.EDGE_BETWEENNESS};
+
+    @Test
+    public void testUnweighted() throws Exception {
+        WeightedKeyedGraph<VUCent, EdgeCent> expected = graph(VUCent.class);
+        new UnweightedGraphAnalyzer<EdgeCent>(expected).computeAll();
+        for (int metrics : METRICS) {
+            WeightedKeyedGraph<VUCent, EdgeCent> actual = graph(VUCent.class);
+            UnweightedGraphAnalyzer<EdgeCent> analyzer =
+                    new UnweightedGraphAnalyzer<EdgeCent>(actual);
+            analyzer.setMetrics(metrics);
+            analyzer.computeAll();
+            assertSameResults(expected, actual, metrics);
+        }
+    }
+
+    @Test
+    public void testWeighted() throws Exception {
+        testWeighted(false, false, 1);
+    }
+
+    @Test
+    public void testWeightedInParallel() throws Exception {
+        testWeighted(false, false, 3);
+    }
+
+    @Test
+    public void testTreePruning() throws Exception {
+        testWeighted(true, false, 1);
+    }
+
+    @Test
+    public void testBlockDecomposition() throws Exception {
+        testWeighted(false, true, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoMetric() throws Exception {
+        new UnweightedGraphAnalyzer<EdgeCent>(graph(VUCent.class))
+                .setMetrics(0);
+    }
+
+    private void testWeighted(boolean treePruning,
+                              boolean blockDecomposition,
+                              int numberOfThreads) throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> expected = graph(VWCent.class);
+        new WeightedGraphAnalyzer<EdgeCent>(expected).computeAll();
+        for (int metrics : METRICS) {
+            WeightedKeyedGraph<VWCent, EdgeCent> actual = graph(VWCent.class);
+            WeightedGraphAnalyzer<EdgeCent> analyzer =
+                    new WeightedGraphAnalyzer<EdgeCent>(actual);
+            analyzer.setMetrics(metrics);
+            analyzer.setTreePruning(treePruning);
+            analyzer.setBlockDecomposition(blockDecomposition);
+            analyzer.setNumberOfThreads(numberOfThreads);
+            analyzer.computeAll();
+            assertSameResults(expected, actual, metrics);
+        }
+    }
+
+    /**
+     * Checks that the requested metrics are the same in both graphs and that
+     * the others are zero in the second one.
+     *
+     * @param expected Graph on which all metrics were computed
+     * @param actual   Graph on which the given metrics were computed
+     * @param metrics  Metrics
+     */
+    private static void assertSameResults(
+            WeightedKeyedGraph<? extends VCent, EdgeCent> expected,
+            WeightedKeyedGraph<? extends VCent, EdgeCent> actual,
+            int metrics) {
+        for (VCent v : expected.vertexSet()) {
+            VCent w = actual.getVertex(v.getID());
+            assertEquals((metrics & GraphAnalyzer.BETWEENNESS) != 0
+                         ? v.getBetweenness() : 0.0,
+                         w.getBetweenness(), TOLERANCE);
+            assertEquals((metrics & GraphAnalyzer.CLOSENESS) != 0
+                         ? v.getCloseness() : 0.0,
+                         w.getCloseness(), TOLERANCE);
+        }
+        List<EdgeCent> expectedEdges =
+                new ArrayList<EdgeCent>(expected.edgeSet());
+        List<EdgeCent> actualEdges = new ArrayList<EdgeCent>(actual.edgeSet());
+        for (int i = 0; i < expectedEdges.size(); i++) {
+            assertEquals((metrics & GraphAnalyzer.EDGE_BETWEENNESS) != 0
+                         ? expectedEdges.get(i).getBetweenness() : 0.0,
+                         actualEdges.get(i).getBetweenness(), TOLERANCE);
+        }
+    }
+
+    /**
+     * Returns a random undirected simple graph with a few trees and blocks.
+     *
+     * @param vertexClass Vertex class
+     *
+     * @return The graph
+     */
+    private <V extends VId & VCent> WeightedKeyedGraph<V, EdgeCent> graph(
+            Class<V> vertexClass) {
+        final int coreSize = NUMBER_OF_VERTICES / 2;
+        WeightedKeyedGraph<V, EdgeCent> graph =
+                new RandomGraphCreator<V, EdgeCent>(
+                coreSize, 2 * coreSize, 4, 5L, GraphCreator.UNDIRECTED,
+                vertexClass, EdgeCent.class).loadGraph();
+        // Keep one edge between any two vertices, since the vertex
+        // dependencies do not count parallel edges.
+        for (EdgeCent e : new ArrayList<EdgeCent>(graph.edgeSet())) {
+            if (graph.getAllEdges(graph.getEdgeSource(e),
+                                  graph.getEdgeTarget(e)).size() > 1) {
+                graph.removeEdge(e);
+            }
+        }
+        Random random = new Random(11L);
+        for (int id = coreSize + 1; id <= NUMBER_OF_VERTICES; id++) {
+            graph.addVertex(id);
+            EdgeCent e = graph.addEdge(random.nextInt(id - 1) + 1, id);
+            graph.setEdgeWeight(e, random.nextInt(4) + 1);
+        }
+        return graph;
+    }
+}
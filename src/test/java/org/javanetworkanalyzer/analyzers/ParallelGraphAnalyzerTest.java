@@ -0,0 +1,137 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.javanetworkanalyzer.data.VCent;
+import org.javanetworkanalyzer.data.VUCent;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Makes sure that running {@link GraphAnalyzer#computeAll()} on several
+ * threads gives the same results as the serial computation.
+ *
+ * @author Adam Gouge
+ */
+public class ParallelGraphAnalyzerTest {
+
+    private static final double TOLERANCE = 1E-10;
+    private static final int NUMBER_OF_THREADS = 4;
+
+    @Test
+    public void testUnweightedDirected() throws Exception {
+        testUnweighted(GraphCreator.DIRECTED);
+    }
+
+    @Test
+    public void testUnweightedUndirected() throws Exception {
+        testUnweighted(GraphCreator.UNDIRECTED);
+    }
+
+    @Test
+    public void testWeightedDirected() throws Exception {
+        testWeighted(GraphCreator.DIRECTED);
+    }
+
+    @Test
+    public void testWeightedUndirected() throws Exception {
+        testWeighted(GraphCreator.UNDIRECTED);
+    }
+
+    private void testUnweighted(int orientation) throws Exception {
+        WeightedKeyedGraph<VUCent, EdgeCent> serial =
+                unweightedGraph(orientation);
+        new UnweightedGraphAnalyzer<EdgeCent>(serial).computeAll();
+        WeightedKeyedGraph<VUCent, EdgeCent> parallel =
+                unweightedGraph(orientation);
+        UnweightedGraphAnalyzer<EdgeCent> analyzer =
+                new UnweightedGraphAnalyzer<EdgeCent>(parallel);
+        analyzer.setNumberOfThreads(NUMBER_OF_THREADS);
+        analyzer.computeAll();
+        assertSameResults(serial, parallel, TOLERANCE);
+    }
+
+    private void testWeighted(int orientation) throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> serial =
+                weightedGraph(orientation);
+        new WeightedGraphAnalyzer<EdgeCent>(serial).computeAll();
+        WeightedKeyedGraph<VWCent, EdgeCent> parallel =
+                weightedGraph(orientation);
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(parallel);
+        analyzer.setNumberOfThreads(NUMBER_OF_THREADS);
+        analyzer.computeAll();
+        assertSameResults(serial, parallel, TOLERANCE);
+    }
+
+    private WeightedKeyedGraph<VUCent, EdgeCent> unweightedGraph(
+            int orientation) {
+        return new RandomGraphCreator<VUCent, EdgeCent>(
+                60, 150, 5, 123L, orientation,
+                VUCent.class, EdgeCent.class).loadGraph();
+    }
+
+    private WeightedKeyedGraph<VWCent, EdgeCent> weightedGraph(
+            int orientation) {
+        return new RandomGraphCreator<VWCent, EdgeCent>(
+                60, 150, 5, 123L, orientation,
+                VWCent.class, EdgeCent.class).loadGraph();
+    }
+
+    /**
+     * Checks that two copies of the same graph carry the same betweenness and
+     * closeness values.
+     *
+     * @param expected  Graph holding the expected values
+     * @param actual    Graph holding the actual values
+     * @param tolerance Tolerance
+     */
+    static void assertSameResults(
+            WeightedKeyedGraph<? extends VCent, EdgeCent> expected,
+            WeightedKeyedGraph<? extends VCent, EdgeCent> actual,
+            double tolerance) {
+        assertEquals(expected.vertexSet().size(), actual.vertexSet().size());
+        for (VCent v : expected.vertexSet()) {
+            VCent w = actual.getVertex(v.getID());
+            assertEquals(v.getBetweenness(), w.getBetweenness(), tolerance);
+            assertEquals(v.getCloseness(), w.getCloseness(), tolerance);
+        }
+        List<EdgeCent> expectedEdges =
+                new ArrayList<EdgeCent>(expected.edgeSet());
+        List<EdgeCent> actualEdges = new ArrayList<EdgeCent>(actual.edgeSet());
+        assertEquals(expectedEdges.size(), actualEdges.size());
+        for (int i = 0; i < expectedEdges.size(); i++) {
+            assertEquals(expectedEdges.get(i).getBetweenness(),
+                         actualEdges.get(i).getBetweenness(), tolerance);
+        }
+    }
+}
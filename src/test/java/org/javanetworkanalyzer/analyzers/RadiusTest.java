@@ -0,0 +1,308 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.javanetworkanalyzer.data.VCent;
+import org.javanetworkanalyzer.data.VId;
+import org.javanetworkanalyzer.data.VUCent;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.Graphs;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares radius-bounded betweenness and closeness to a brute force
+ * computation over all pairs of vertices.
+ *
+ * @author Adam Gouge
+ */
+public class RadiusTest {
+
+    private static final double TOLERANCE = 1E-10;
+    private static final int NUMBER_OF_VERTICES = 40;
+
+    @Test
+    public void testUnweighted() throws Exception {
+        for (double radius : new double[]{1, 2, 3.5}) {
+            WeightedKeyedGraph<VUCent, EdgeCent> graph =
+                    graph(GraphCreator.UNDIRECTED, VUCent.class);
+            UnweightedGraphAnalyzer<EdgeCent> analyzer =
+                    new UnweightedGraphAnalyzer<EdgeCent>(graph);
+            analyzer.setRadius(radius);
+            analyzer.computeAll();
+            assertBruteForce(graph, radius, false);
+        }
+    }
+
+    @Test
+    public void testUnweightedClosenessOnly() throws Exception {
+        for (double radius : new double[]{1, 2, 3.5}) {
+            WeightedKeyedGraph<VUCent, EdgeCent> graph =
+                    graph(GraphCreator.UNDIRECTED, VUCent.class);
+            UnweightedGraphAnalyzer<EdgeCent> analyzer =
+                    new UnweightedGraphAnalyzer<EdgeCent>(graph);
+            analyzer.setRadius(radius);
+            analyzer.computeCloseness();
+            assertBruteForce(graph, radius, false, false);
+        }
+    }
+
+    @Test
+    public void testWeighted() throws Exception {
+        for (double radius : new double[]{2, 4, 7}) {
+            WeightedKeyedGraph<VWCent, EdgeCent> graph =
+                    graph(GraphCreator.UNDIRECTED, VWCent.class);
+            WeightedGraphAnalyzer<EdgeCent> analyzer =
+                    new WeightedGraphAnalyzer<EdgeCent>(graph);
+            analyzer.setRadius(radius);
+            analyzer.computeAll();
+            assertBruteForce(graph, radius, true);
+        }
+    }
+
+    @Test
+    public void testWeightedDirectedInParallel() throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> graph =
+                graph(GraphCreator.DIRECTED, VWCent.class);
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(graph);
+        analyzer.setRadius(5);
+        analyzer.setNumberOfThreads(3);
+        analyzer.computeAll();
+        assertBruteForce(graph, 5, true);
+    }
+
+    @Test
+    public void testLargeRadius() throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> expected =
+                graph(GraphCreator.UNDIRECTED, VWCent.class);
+        new WeightedGraphAnalyzer<EdgeCent>(expected).computeAll();
+        WeightedKeyedGraph<VWCent, EdgeCent> actual =
+                graph(GraphCreator.UNDIRECTED, VWCent.class);
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(actual);
+        analyzer.setRadius(1000);
+        analyzer.computeAll();
+        ParallelGraphAnalyzerTest.assertSameResults(expected, actual,
+                                                    TOLERANCE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveRadius() throws Exception {
+        new WeightedGraphAnalyzer<EdgeCent>(
+                graph(GraphCreator.UNDIRECTED, VWCent.class)).setRadius(0);
+    }
+
+    /**
+     * Checks the results stored in the graph against all shortest paths of
+     * length at most the radius, counted pair by pair.
+     *
+     * @param graph    Analyzed graph
+     * @param radius   Radius
+     * @param weighted Whether edge weights are used
+     */
+    private static <V extends VCent> void assertBruteForce(
+            WeightedKeyedGraph<V, EdgeCent> graph, double radius,
+            boolean weighted) {
+        assertBruteForce(graph, radius, weighted, true);
+    }
+
+    /**
+     * Checks the closeness stored in the graph, and the betweenness if
+     * asked to, against all shortest paths of length at most the radius,
+     * counted pair by pair.
+     *
+     * @param graph            Analyzed graph
+     * @param radius           Radius
+     * @param weighted         Whether edge weights are used
+     * @param checkBetweenness Whether to check betweenness
+     */
+    private static <V extends VCent> void assertBruteForce(
+            WeightedKeyedGraph<V, EdgeCent> graph, double radius,
+            boolean weighted, boolean checkBetweenness) {
+        final List<V> vertices = new ArrayList<V>(graph.vertexSet());
+        final List<EdgeCent> edges = new ArrayList<EdgeCent>(graph.edgeSet());
+        final int n = vertices.size();
+        final double[][] d = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                d[i][j] = (i == j) ? 0 : Double.POSITIVE_INFINITY;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            for (EdgeCent e : outgoing(graph, vertices.get(i))) {
+                int j = vertices.indexOf(
+                        Graphs.getOppositeVertex(graph, e, vertices.get(i)));
+                d[i][j] = Math.min(d[i][j], length(graph, e, weighted));
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    d[i][j] = Math.min(d[i][j], d[i][k] + d[k][j]);
+                }
+            }
+        }
+        // Number of shortest paths, filled by increasing distance.
+        final double[][] sigma = new double[n][n];
+        for (int s = 0; s < n; s++) {
+            final Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            final int source = s;
+            java.util.Arrays.sort(order, new java.util.Comparator<Integer>() {
+                @Override
+                public int compare(Integer a, Integer b) {
+                    return Double.compare(d[source][a], d[source][b]);
+                }
+            });
+            sigma[s][s] = 1;
+            for (int t : order) {
+                for (int u = 0; u < n; u++) {
+                    for (EdgeCent e : outgoing(graph, vertices.get(u))) {
+                        if (vertices.indexOf(Graphs.getOppositeVertex(
+                                graph, e, vertices.get(u))) == t
+                            && u != t && Math.abs(d[s][u] + length(graph, e,
+                                                                    weighted)
+                                                  - d[s][t]) < TOLERANCE) {
+                            sigma[s][t] += sigma[s][u];
+                        }
+                    }
+                }
+            }
+        }
+        final double[] betweenness = new double[n];
+        final double[] edgeBetweenness = new double[edges.size()];
+        for (int s = 0; s < n; s++) {
+            int count = 0;
+            double sum = 0;
+            for (int t = 0; t < n; t++) {
+                if (t == s || d[s][t] > radius) {
+                    continue;
+                }
+                count++;
+                sum += d[s][t];
+                for (int v = 0; v < n; v++) {
+                    if (v != s && v != t
+                        && Math.abs(d[s][v] + d[v][t] - d[s][t]) < TOLERANCE) {
+                        betweenness[v] += sigma[s][v] * sigma[v][t]
+                                          / sigma[s][t];
+                    }
+                }
+                for (int k = 0; k < edges.size(); k++) {
+                    EdgeCent e = edges.get(k);
+                    int a = vertices.indexOf(graph.getEdgeSource(e));
+                    int b = vertices.indexOf(graph.getEdgeTarget(e));
+                    double w = length(graph, e, weighted);
+                    if (Math.abs(d[s][a] + w + d[b][t] - d[s][t]) < TOLERANCE) {
+                        edgeBetweenness[k] += sigma[s][a] * sigma[b][t]
+                                              / sigma[s][t];
+                    }
+                    if (!(graph instanceof DirectedGraph)
+                        && Math.abs(d[s][b] + w + d[a][t] - d[s][t])
+                           < TOLERANCE) {
+                        edgeBetweenness[k] += sigma[s][b] * sigma[a][t]
+                                              / sigma[s][t];
+                    }
+                }
+            }
+            assertEquals(count > 0 ? count / sum : 0.0,
+                         vertices.get(s).getCloseness(), TOLERANCE);
+        }
+        if (!checkBetweenness) {
+            return;
+        }
+        normalize(betweenness);
+        normalize(edgeBetweenness);
+        for (int v = 0; v < n; v++) {
+            assertEquals(betweenness[v], vertices.get(v).getBetweenness(),
+                         TOLERANCE);
+        }
+        for (int k = 0; k < edges.size(); k++) {
+            assertEquals(edgeBetweenness[k], edges.get(k).getBetweenness(),
+                         TOLERANCE);
+        }
+    }
+
+    private static <V> Set<EdgeCent> outgoing(
+            WeightedKeyedGraph<V, EdgeCent> graph, V v) {
+        return (graph instanceof DirectedGraph)
+                ? ((DirectedGraph<V, EdgeCent>) graph).outgoingEdgesOf(v)
+                : graph.edgesOf(v);
+    }
+
+    private static <V> double length(WeightedKeyedGraph<V, EdgeCent> graph,
+                                     EdgeCent e, boolean weighted) {
+        return weighted ? graph.getEdgeWeight(e) : 1.0;
+    }
+
+    private static void normalize(double[] values) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : values) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        if (max > min) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = (values[i] - min) / (max - min);
+            }
+        }
+    }
+
+    /**
+     * Returns a random graph without parallel edges, since the vertex
+     * dependencies do not count them.
+     *
+     * @param orientation Orientation
+     * @param vertexClass Vertex class
+     *
+     * @return The graph
+     */
+    private static <V extends VId> WeightedKeyedGraph<V, EdgeCent> graph(
+            int orientation, Class<V> vertexClass) {
+        WeightedKeyedGraph<V, EdgeCent> graph =
+                new RandomGraphCreator<V, EdgeCent>(
+                NUMBER_OF_VERTICES, 80, 4, 17L, orientation,
+                vertexClass, EdgeCent.class).loadGraph();
+        for (EdgeCent e : new ArrayList<EdgeCent>(graph.edgeSet())) {
+            if (graph.getAllEdges(graph.getEdgeSource(e),
+                                  graph.getEdgeTarget(e)).size() > 1
+                || graph.getEdgeSource(e) == graph.getEdgeTarget(e)) {
+                graph.removeEdge(e);
+            }
+        }
+        return graph;
+    }
+}
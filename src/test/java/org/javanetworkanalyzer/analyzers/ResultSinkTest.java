@@ -0,0 +1,228 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.javanetworkanalyzer.data.VAccess;
+import org.javanetworkanalyzer.data.VCent;
+import org.javanetworkanalyzer.data.VId;
+import org.javanetworkanalyzer.data.VUCent;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.javanetworkanalyzer.results.ArrayResultSink;
+import org.javanetworkanalyzer.results.FileResultSink;
+import org.junit.Test;
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Makes sure that the results written to a
+ * {@link org.javanetworkanalyzer.results.ResultSink} are those stored in the
+ * graph without one.
+ *
+ * @author Adam Gouge
+ */
+public class ResultSinkTest {
+
+    private static final double TOLERANCE = 1E-10;
+    private static final int NUMBER_OF_VERTICES = 60;
+
+    @Test
+    public void testUnweighted() throws Exception {
+        WeightedKeyedGraph<VUCent, EdgeCent> expected = graph(VUCent.class);
+        new UnweightedGraphAnalyzer<EdgeCent>(expected).computeAll();
+        WeightedKeyedGraph<VUCent, EdgeCent> actual = graph(VUCent.class);
+        UnweightedGraphAnalyzer<EdgeCent> analyzer =
+                new UnweightedGraphAnalyzer<EdgeCent>(actual);
+        ArrayResultSink sink = new ArrayResultSink();
+        analyzer.setResultSink(sink);
+        analyzer.computeAll();
+        assertSameResults(expected, sink);
+        // Closeness was streamed rather than stored.
+        for (VUCent v : actual.vertexSet()) {
+            assertEquals(0.0, v.getCloseness());
+        }
+    }
+
+    @Test
+    public void testWeightedInParallel() throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> expected = graph(VWCent.class);
+        new WeightedGraphAnalyzer<EdgeCent>(expected).computeAll();
+        WeightedKeyedGraph<VWCent, EdgeCent> actual = graph(VWCent.class);
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(actual);
+        ArrayResultSink sink = new ArrayResultSink(NUMBER_OF_VERTICES + 1,
+                                                   actual.edgeSet().size());
+        analyzer.setResultSink(sink);
+        analyzer.setNumberOfThreads(3);
+        analyzer.computeAll();
+        assertSameResults(expected, sink);
+        for (VWCent v : actual.vertexSet()) {
+            assertEquals(0.0, v.getCloseness());
+        }
+    }
+
+    @Test
+    public void testTreePruning() throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> expected = graph(VWCent.class);
+        new WeightedGraphAnalyzer<EdgeCent>(expected).computeAll();
+        WeightedKeyedGraph<VWCent, EdgeCent> actual = graph(VWCent.class);
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(actual);
+        ArrayResultSink sink = new ArrayResultSink();
+        analyzer.setResultSink(sink);
+        analyzer.setTreePruning(true);
+        analyzer.computeAll();
+        assertSameResults(expected, sink);
+    }
+
+    @Test
+    public void testFile() throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> expected = graph(VWCent.class);
+        new WeightedGraphAnalyzer<EdgeCent>(expected).computeAll();
+        WeightedKeyedGraph<VWCent, EdgeCent> actual = graph(VWCent.class);
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(actual);
+        File file = File.createTempFile("results", ".csv");
+        file.deleteOnExit();
+        FileResultSink sink = new FileResultSink(file);
+        analyzer.setResultSink(sink);
+        analyzer.setNumberOfThreads(2);
+        analyzer.computeAll();
+        sink.close();
+
+        Map<String, Double> values = new HashMap<String, Double>();
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                String key = fields[0] + "," + fields[1];
+                assertEquals(null, values.put(
+                        key, Double.valueOf(fields[fields.length - 1])));
+            }
+        } finally {
+            reader.close();
+        }
+        int edgeCount = expected.edgeSet().size();
+        assertEquals(2 * NUMBER_OF_VERTICES + edgeCount, values.size());
+        for (VWCent v : expected.vertexSet()) {
+            assertEquals(v.getCloseness(),
+                         values.get("closeness," + v.getID()), TOLERANCE);
+            assertEquals(v.getBetweenness(),
+                         values.get("betweenness," + v.getID()), TOLERANCE);
+        }
+        int i = 0;
+        for (EdgeCent e : expected.edgeSet()) {
+            assertEquals(e.getBetweenness(),
+                         values.get("edge_betweenness," + i++), TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testAccessibility() throws Exception {
+        WeightedKeyedGraph<VAccess, EdgeCent> g = graph(VAccess.class);
+        Set<VAccess> destinations = new HashSet<VAccess>();
+        destinations.add(g.getVertex(3));
+        destinations.add(g.getVertex(17));
+        destinations.add(g.getVertex(42));
+        AccessibilityAnalyzer<EdgeCent> analyzer =
+                new AccessibilityAnalyzer<EdgeCent>(g, destinations);
+        ArrayResultSink sink = new ArrayResultSink();
+        analyzer.setResultSink(sink);
+        analyzer.compute();
+        for (VAccess v : g.vertexSet()) {
+            assertEquals(v.getClosestDestinationId(),
+                         sink.getClosestDestinationId(v.getID()));
+            assertEquals(v.getDistanceToClosestDestination(),
+                         sink.getDistanceToClosestDestination(v.getID()),
+                         TOLERANCE);
+        }
+    }
+
+    /**
+     * Checks that the sink holds the values stored in the given graph.
+     *
+     * @param expected Graph analyzed without a sink
+     * @param sink     Sink
+     */
+    private static void assertSameResults(
+            WeightedKeyedGraph<? extends VCent, EdgeCent> expected,
+            ArrayResultSink sink) {
+        for (VCent v : expected.vertexSet()) {
+            assertEquals(v.getCloseness(), sink.getCloseness(v.getID()),
+                         TOLERANCE);
+            assertEquals(v.getBetweenness(), sink.getBetweenness(v.getID()),
+                         TOLERANCE);
+        }
+        List<EdgeCent> edges = new ArrayList<EdgeCent>(expected.edgeSet());
+        for (int i = 0; i < edges.size(); i++) {
+            assertEquals(edges.get(i).getBetweenness(),
+                         sink.getEdgeBetweenness(i), TOLERANCE);
+        }
+    }
+
+    /**
+     * Returns a random connected undirected simple graph with a few trees.
+     *
+     * @param vertexClass Vertex class
+     *
+     * @return The graph
+     */
+    private <V extends VId> WeightedKeyedGraph<V, EdgeCent> graph(
+            Class<V> vertexClass) {
+        final int coreSize = NUMBER_OF_VERTICES / 2;
+        WeightedKeyedGraph<V, EdgeCent> graph =
+                new RandomGraphCreator<V, EdgeCent>(
+                coreSize, 3 * coreSize, 4, 9L, GraphCreator.UNDIRECTED,
+                vertexClass, EdgeCent.class).loadGraph();
+        // Keep one edge between any two vertices, since the vertex
+        // dependencies do not count parallel edges.
+        for (EdgeCent e : new ArrayList<EdgeCent>(graph.edgeSet())) {
+            if (graph.getAllEdges(graph.getEdgeSource(e),
+                                  graph.getEdgeTarget(e)).size() > 1) {
+                graph.removeEdge(e);
+            }
+        }
+        Random random = new Random(13L);
+        for (int id = coreSize + 1; id <= NUMBER_OF_VERTICES; id++) {
+            graph.addVertex(id);
+            EdgeCent e = graph.addEdge(random.nextInt(id - 1) + 1, id);
+            graph.setEdgeWeight(e, random.nextInt(4) + 1);
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,173 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import java.util.List;
+import java.util.Stack;
+import org.javanetworkanalyzer.alg.BFSForCentrality;
+import org.javanetworkanalyzer.alg.DijkstraForCentrality;
+import org.javanetworkanalyzer.data.BetweennessEstimate;
+import org.javanetworkanalyzer.data.VUCent;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.PseudoG;
+import org.javanetworkanalyzer.model.WeightedPseudoG;
+import org.javanetworkanalyzer.progress.NullProgressMonitor;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link TopKBetweennessAnalyzer} on small graphs whose betweenness is
+ * known.
+ *
+ * @author Adam Gouge
+ */
+public class TopKBetweennessAnalyzerTest {
+
+    private static final double DELTA = 0.1;
+    private static final long SEED = 1234L;
+
+    @Test
+    public void testMaxNumberOfSamples() {
+        // ln(4 * 100 / 0.1) / (2 * 0.1^2) = 414.7...
+        assertEquals(415, TopKBetweennessAnalyzer.maxNumberOfSamples(
+                0.1, 0.1, 100));
+    }
+
+    /**
+     * On the path 1 - 2 - ... - 9, the (unnormalized) betweenness of vertex i
+     * is 2 * (i - 1) * (9 - i).
+     */
+    @Test
+    public void testPath() {
+        final int n = 9;
+        PseudoG<VUCent, EdgeCent> graph =
+                new PseudoG<VUCent, EdgeCent>(VUCent.class, EdgeCent.class);
+        for (int i = 1; i <= n; i++) {
+            graph.addVertex(i);
+        }
+        for (int i = 1; i < n; i++) {
+            graph.addEdge(i, i + 1);
+        }
+        TopKBetweennessAnalyzer<VUCent, EdgeCent> analyzer =
+                new TopKBetweennessAnalyzer<VUCent, EdgeCent>(
+                graph, new BFSForCentrality<EdgeCent>(
+                graph, new Stack<VUCent>()));
+        analyzer.setSeed(SEED);
+        List<BetweennessEstimate<VUCent>> top = analyzer.compute(3, 0.05, DELTA);
+        assertEquals(3, top.size());
+        for (int i = 0; i < top.size(); i++) {
+            BetweennessEstimate<VUCent> estimate = top.get(i);
+            final int id = estimate.getVertex().getID();
+            assertTrue(4 <= id && id <= 6);
+            final double exact = 2 * (id - 1) * (n - id);
+            assertTrue(estimate.getLowerBound() <= exact);
+            assertTrue(exact <= estimate.getUpperBound());
+            if (i > 0) {
+                assertTrue(estimate.getBetweenness()
+                           <= top.get(i - 1).getBetweenness());
+            }
+        }
+    }
+
+    /**
+     * A run cancelled between two checks still reports intervals around
+     * its final estimates.
+     */
+    @Test
+    public void testCancelled() {
+        final int n = 9;
+        PseudoG<VUCent, EdgeCent> graph =
+                new PseudoG<VUCent, EdgeCent>(VUCent.class, EdgeCent.class);
+        for (int i = 1; i <= n; i++) {
+            graph.addVertex(i);
+        }
+        for (int i = 1; i < n; i++) {
+            graph.addEdge(i, i + 1);
+        }
+        final long cancelAfter = 777;
+        TopKBetweennessAnalyzer<VUCent, EdgeCent> analyzer =
+                new TopKBetweennessAnalyzer<VUCent, EdgeCent>(
+                graph, new BFSForCentrality<EdgeCent>(
+                graph, new Stack<VUCent>()), new NullProgressMonitor() {
+                    private long count;
+
+                    @Override
+                    public void setProgress(long count, long startTime) {
+                        this.count = count;
+                    }
+
+                    @Override
+                    public boolean isCancelled() {
+                        return count >= cancelAfter;
+                    }
+                });
+        analyzer.setSeed(SEED);
+        List<BetweennessEstimate<VUCent>> top = analyzer.compute(n, 0.01,
+                                                                 DELTA);
+        assertEquals(cancelAfter, analyzer.getNumberOfSamples());
+        for (BetweennessEstimate<VUCent> estimate : top) {
+            final int id = estimate.getVertex().getID();
+            final double exact = 2 * (id - 1) * (n - id);
+            assertTrue(estimate.getLowerBound() <= estimate.getBetweenness());
+            assertTrue(estimate.getBetweenness() <= estimate.getUpperBound());
+            assertTrue(estimate.getLowerBound() <= exact);
+            assertTrue(exact <= estimate.getUpperBound());
+        }
+    }
+
+    /**
+     * The center of a star is separated from the leaves long before every
+     * estimate is within epsilon.
+     */
+    @Test
+    public void testStarStopsEarly() {
+        final int n = 10;
+        WeightedPseudoG<VWCent, EdgeCent> graph =
+                new WeightedPseudoG<VWCent, EdgeCent>(
+                VWCent.class, EdgeCent.class);
+        for (int i = 1; i <= n; i++) {
+            graph.addVertex(i);
+        }
+        for (int i = 2; i <= n; i++) {
+            graph.addEdge(1, i).setWeight(i);
+        }
+        TopKBetweennessAnalyzer<VWCent, EdgeCent> analyzer =
+                new TopKBetweennessAnalyzer<VWCent, EdgeCent>(
+                graph, new DijkstraForCentrality<EdgeCent>(
+                graph, new Stack<VWCent>()));
+        analyzer.setSeed(SEED);
+        final double epsilon = 0.005;
+        List<BetweennessEstimate<VWCent>> top =
+                analyzer.compute(1, epsilon, DELTA);
+        assertEquals(1, top.get(0).getVertex().getID());
+        assertTrue(top.get(0).getLowerBound() <= (n - 1) * (n - 2));
+        assertTrue((n - 1) * (n - 2) <= top.get(0).getUpperBound());
+        assertTrue(analyzer.getNumberOfSamples()
+                   < TopKBetweennessAnalyzer.maxNumberOfSamples(
+                epsilon, DELTA, n));
+    }
+}
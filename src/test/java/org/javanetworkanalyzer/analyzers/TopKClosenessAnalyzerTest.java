@@ -0,0 +1,153 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.javanetworkanalyzer.data.VCent;
+import org.javanetworkanalyzer.data.VUCent;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Makes sure that {@link TopKClosenessAnalyzer} finds the same top k
+ * closeness values as a full {@link GraphAnalyzer#computeAll()}, and that it
+ * actually cuts some searches.
+ *
+ * @author Adam Gouge
+ */
+public class TopKClosenessAnalyzerTest {
+
+    private static final double TOLERANCE = 1E-10;
+    private static final int N = 200;
+    private static final int K = 10;
+
+    @Test
+    public void testUnweightedDirected() throws Exception {
+        testUnweighted(GraphCreator.DIRECTED);
+    }
+
+    @Test
+    public void testUnweightedUndirected() throws Exception {
+        testUnweighted(GraphCreator.UNDIRECTED);
+    }
+
+    @Test
+    public void testWeightedDirected() throws Exception {
+        testWeighted(GraphCreator.DIRECTED);
+    }
+
+    @Test
+    public void testWeightedUndirected() throws Exception {
+        testWeighted(GraphCreator.UNDIRECTED);
+    }
+
+    @Test
+    public void testUnweightedAfterOtherSearches() throws Exception {
+        WeightedKeyedGraph<VUCent, EdgeCent> full =
+                unweightedGraph(GraphCreator.DIRECTED);
+        new UnweightedGraphAnalyzer<EdgeCent>(full).computeAll();
+        WeightedKeyedGraph<VUCent, EdgeCent> graph =
+                unweightedGraph(GraphCreator.DIRECTED);
+        UnweightedTopKClosenessAnalyzer<EdgeCent> analyzer =
+                new UnweightedTopKClosenessAnalyzer<EdgeCent>(graph);
+        analyzer.compute(K);
+        // The searches of another analyzer leave every node touched.
+        new UnweightedGraphAnalyzer<EdgeCent>(graph).computeAll();
+        check(full, analyzer.compute(K), analyzer);
+    }
+
+    @Test
+    public void testWeightedAfterOtherSearches() throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> full =
+                weightedGraph(GraphCreator.DIRECTED);
+        new WeightedGraphAnalyzer<EdgeCent>(full).computeAll();
+        WeightedKeyedGraph<VWCent, EdgeCent> graph =
+                weightedGraph(GraphCreator.DIRECTED);
+        WeightedTopKClosenessAnalyzer<EdgeCent> analyzer =
+                new WeightedTopKClosenessAnalyzer<EdgeCent>(graph);
+        analyzer.compute(K);
+        // The searches of another analyzer leave every node touched.
+        new WeightedGraphAnalyzer<EdgeCent>(graph).computeAll();
+        check(full, analyzer.compute(K), analyzer);
+    }
+
+    private void testUnweighted(int orientation) throws Exception {
+        WeightedKeyedGraph<VUCent, EdgeCent> full = unweightedGraph(orientation);
+        new UnweightedGraphAnalyzer<EdgeCent>(full).computeAll();
+        UnweightedTopKClosenessAnalyzer<EdgeCent> analyzer =
+                new UnweightedTopKClosenessAnalyzer<EdgeCent>(
+                unweightedGraph(orientation));
+        check(full, analyzer.compute(K), analyzer);
+    }
+
+    private void testWeighted(int orientation) throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> full = weightedGraph(orientation);
+        new WeightedGraphAnalyzer<EdgeCent>(full).computeAll();
+        WeightedTopKClosenessAnalyzer<EdgeCent> analyzer =
+                new WeightedTopKClosenessAnalyzer<EdgeCent>(
+                weightedGraph(orientation));
+        check(full, analyzer.compute(K), analyzer);
+    }
+
+    private void check(WeightedKeyedGraph<? extends VCent, EdgeCent> full,
+                       List<? extends VCent> topK,
+                       TopKClosenessAnalyzer analyzer) {
+        List<Double> expected = new ArrayList<Double>();
+        for (VCent v : full.vertexSet()) {
+            expected.add(v.getCloseness());
+        }
+        Collections.sort(expected, Collections.reverseOrder());
+        assertEquals(K, topK.size());
+        for (int i = 0; i < K; i++) {
+            VCent v = topK.get(i);
+            assertEquals(expected.get(i), v.getCloseness(), TOLERANCE);
+            assertEquals(full.getVertex(v.getID()).getCloseness(),
+                         v.getCloseness(), TOLERANCE);
+        }
+        assertTrue(analyzer.getNumberOfCompleteSearches() < N);
+    }
+
+    private WeightedKeyedGraph<VUCent, EdgeCent> unweightedGraph(
+            int orientation) {
+        return new RandomGraphCreator<VUCent, EdgeCent>(
+                N, 500, 5, 17L, orientation,
+                VUCent.class, EdgeCent.class).loadGraph();
+    }
+
+    private WeightedKeyedGraph<VWCent, EdgeCent> weightedGraph(
+            int orientation) {
+        return new RandomGraphCreator<VWCent, EdgeCent>(
+                N, 500, 5, 17L, orientation,
+                VWCent.class, EdgeCent.class).loadGraph();
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.analyzers;
+
+import java.util.ArrayList;
+import java.util.Random;
+import org.javanetworkanalyzer.data.VId;
+import org.javanetworkanalyzer.data.VUCent;
+import org.javanetworkanalyzer.data.VWCent;
+import org.javanetworkanalyzer.graphcreators.GraphCreator;
+import org.javanetworkanalyzer.graphcreators.RandomGraphCreator;
+import org.javanetworkanalyzer.model.EdgeCent;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.javanetworkanalyzer.model.WeightedPseudoG;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Makes sure that stripping the trees of a graph before the searches gives
+ * the same results as a plain {@link GraphAnalyzer#computeAll()}.
+ *
+ * @author Adam Gouge
+ */
+public class TreePruningTest {
+
+    private static final double TOLERANCE = 1E-10;
+    private static final int CORE_SIZE = 40;
+    private static final int NUMBER_OF_VERTICES = 150;
+
+    @Test
+    public void testUnweighted() throws Exception {
+        testUnweighted(CORE_SIZE, false);
+    }
+
+    @Test
+    public void testWeighted() throws Exception {
+        testWeighted(CORE_SIZE, 1);
+    }
+
+    @Test
+    public void testWeightedInParallel() throws Exception {
+        testWeighted(CORE_SIZE, 3);
+    }
+
+    @Test
+    public void testTree() throws Exception {
+        // Only one vertex is left.
+        testWeighted(0, 1);
+        testUnweighted(0, false);
+    }
+
+    @Test
+    public void testDisconnected() throws Exception {
+        testUnweighted(CORE_SIZE, true);
+    }
+
+    @Test
+    public void testMultigraph() throws Exception {
+        // A cycle with a parallel edge, and a tail.
+        WeightedKeyedGraph<VUCent, EdgeCent> expected = multigraph();
+        new UnweightedGraphAnalyzer<EdgeCent>(expected).computeAll();
+        WeightedKeyedGraph<VUCent, EdgeCent> actual = multigraph();
+        UnweightedGraphAnalyzer<EdgeCent> analyzer =
+                new UnweightedGraphAnalyzer<EdgeCent>(actual);
+        analyzer.setTreePruning(true);
+        analyzer.computeAll();
+        ParallelGraphAnalyzerTest.assertSameResults(expected, actual,
+                                                    TOLERANCE);
+        assertEquals(actual.getVertex(1).getBetweenness(),
+                     expected.getVertex(1).getBetweenness(), 0.0);
+    }
+
+    @Test
+    public void testRandomMultigraph() throws Exception {
+        testWeighted(CORE_SIZE, 1, true);
+    }
+
+    private void testUnweighted(int coreSize, boolean addPath)
+            throws Exception {
+        WeightedKeyedGraph<VUCent, EdgeCent> expected =
+                graph(coreSize, addPath, false, VUCent.class);
+        new UnweightedGraphAnalyzer<EdgeCent>(expected).computeAll();
+        WeightedKeyedGraph<VUCent, EdgeCent> actual =
+                graph(coreSize, addPath, false, VUCent.class);
+        UnweightedGraphAnalyzer<EdgeCent> analyzer =
+                new UnweightedGraphAnalyzer<EdgeCent>(actual);
+        analyzer.setTreePruning(true);
+        analyzer.computeAll();
+        ParallelGraphAnalyzerTest.assertSameResults(expected, actual,
+                                                    TOLERANCE);
+    }
+
+    private void testWeighted(int coreSize, int numberOfThreads)
+            throws Exception {
+        testWeighted(coreSize, numberOfThreads, false);
+    }
+
+    private void testWeighted(int coreSize, int numberOfThreads,
+                              boolean parallelEdges) throws Exception {
+        WeightedKeyedGraph<VWCent, EdgeCent> expected =
+                graph(coreSize, false, parallelEdges, VWCent.class);
+        new WeightedGraphAnalyzer<EdgeCent>(expected).computeAll();
+        WeightedKeyedGraph<VWCent, EdgeCent> actual =
+                graph(coreSize, false, parallelEdges, VWCent.class);
+        WeightedGraphAnalyzer<EdgeCent> analyzer =
+                new WeightedGraphAnalyzer<EdgeCent>(actual);
+        analyzer.setTreePruning(true);
+        analyzer.setNumberOfThreads(numberOfThreads);
+        analyzer.computeAll();
+        ParallelGraphAnalyzerTest.assertSameResults(expected, actual,
+                                                    TOLERANCE);
+    }
+
+    /**
+     * Returns a cycle of six vertices with a parallel edge, and a tail of
+     * two vertices.
+     *
+     * @return The graph
+     */
+    private WeightedKeyedGraph<VUCent, EdgeCent> multigraph() {
+        WeightedPseudoG<VUCent, EdgeCent> graph =
+                new WeightedPseudoG<VUCent, EdgeCent>(VUCent.class,
+                                                      EdgeCent.class);
+        for (int id = 1; id <= 8; id++) {
+            graph.addVertex(id);
+        }
+        for (int id = 1; id <= 6; id++) {
+            graph.addEdge(id, id % 6 + 1);
+        }
+        graph.addEdge(1, 2);
+        graph.addEdge(4, 7);
+        graph.addEdge(7, 8);
+        return graph;
+    }
+
+    /**
+     * Returns a random undirected graph made of a core (or a single vertex
+     * if the core size is zero) and random trees hanging off it, for a
+     * total of {@link #NUMBER_OF_VERTICES} vertices.
+     *
+     * @param coreSize      Number of core vertices
+     * @param addPath       Whether to add a path of three vertices as a
+     *                      second component
+     * @param parallelEdges Whether to keep the parallel edges of the core
+     * @param vertexClass   Vertex class
+     *
+     * @return The graph
+     */
+    private <V extends VId> WeightedKeyedGraph<V, EdgeCent> graph(
+            int coreSize, boolean addPath, boolean parallelEdges,
+            Class<V> vertexClass) {
+        WeightedKeyedGraph<V, EdgeCent> graph;
+        if (coreSize > 0) {
+            graph = new RandomGraphCreator<V, EdgeCent>(
+                    coreSize, 2 * coreSize, 4, 3L, GraphCreator.UNDIRECTED,
+                    vertexClass, EdgeCent.class).loadGraph();
+            // Trees are only pruned from graphs without parallel edges.
+            for (EdgeCent e : new ArrayList<EdgeCent>(graph.edgeSet())) {
+                if (!parallelEdges
+                    && graph.getAllEdges(graph.getEdgeSource(e),
+                                         graph.getEdgeTarget(e)).size() > 1) {
+                    graph.removeEdge(e);
+                }
+            }
+        } else {
+            graph = new WeightedPseudoG<V, EdgeCent>(vertexClass,
+                                                     EdgeCent.class);
+            graph.addVertex(1);
+            coreSize = 1;
+        }
+        Random random = new Random(7L);
+        for (int id = coreSize + 1; id <= NUMBER_OF_VERTICES; id++) {
+            graph.addVertex(id);
+            EdgeCent e = graph.addEdge(random.nextInt(id - 1) + 1, id);
+            graph.setEdgeWeight(e, random.nextInt(4) + 1);
+        }
+        if (addPath) {
+            for (int i = 1; i <= 3; i++) {
+                graph.addVertex(NUMBER_OF_VERTICES + i);
+            }
+            graph.addEdge(NUMBER_OF_VERTICES + 1, NUMBER_OF_VERTICES + 2);
+            graph.addEdge(NUMBER_OF_VERTICES + 2, NUMBER_OF_VERTICES + 3);
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.graphcreators;
+
+import java.util.Random;
+import org.javanetworkanalyzer.data.VId;
+import org.javanetworkanalyzer.model.DirectedWeightedPseudoG;
+import org.javanetworkanalyzer.model.Edge;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import org.javanetworkanalyzer.model.WeightedPseudoG;
+
+/**
+ * Creates reproducible random weighted graphs for comparing the results of
+ * different algorithms on the same input.
+ *
+ * The vertices 1, ..., n are first joined in a ring, so that the graph is
+ * (strongly) connected; the remaining edges join random pairs of vertices.
+ * Weights are small integers so that multiple shortest paths are common.
+ *
+ * @param <V> Vertex
+ * @param <E> Edge
+ *
+ * @author Adam Gouge
+ */
+public class RandomGraphCreator<V extends VId, E extends Edge> {
+
+    private final int numberOfVertices;
+    private final int numberOfEdges;
+    private final int maxWeight;
+    private final long seed;
+    private final int orientation;
+    private final Class<? extends V> vertexClass;
+    private final Class<? extends E> edgeClass;
+
+    /**
+     * Initializes a new {@link RandomGraphCreator}.
+     *
+     * @param numberOfVertices Number of vertices
+     * @param numberOfEdges    Number of edges (at least the number of
+     *                         vertices)
+     * @param maxWeight        Edge weights are drawn from 1, ..., maxWeight
+     * @param seed             Seed of the random number generator
+     * @param orientation      The desired graph orientation
+     * @param vertexClass      The vertex class
+     * @param edgeClass        The edge class
+     */
+    public RandomGraphCreator(int numberOfVertices,
+                              int numberOfEdges,
+                              int maxWeight,
+                              long seed,
+                              int orientation,
+                              Class<? extends V> vertexClass,
+                              Class<? extends E> edgeClass) {
+        if (numberOfEdges < numberOfVertices) {
+            throw new IllegalArgumentException("The ring needs at least as "
+                                               + "many edges as vertices.");
+        }
+        this.numberOfVertices = numberOfVertices;
+        this.numberOfEdges = numberOfEdges;
+        this.maxWeight = maxWeight;
+        this.seed = seed;
+        this.orientation = orientation;
+        this.vertexClass = vertexClass;
+        this.edgeClass = edgeClass;
+    }
+
+    /**
+     * Returns a new random graph; the same parameters always give the same
+     * graph.
+     *
+     * @return The graph
+     */
+    public WeightedKeyedGraph<V, E> loadGraph() {
+        Random random = new Random(seed);
+        WeightedKeyedGraph<V, E> graph;
+        if (orientation == GraphCreator.UNDIRECTED) {
+            graph = new WeightedPseudoG<V, E>(vertexClass, edgeClass);
+        } else {
+            graph = new DirectedWeightedPseudoG<V, E>(vertexClass, edgeClass);
+        }
+        for (int i = 1; i <= numberOfVertices; i++) {
+            graph.addVertex(i);
+        }
+        for (int i = 0; i < numberOfEdges; i++) {
+            int source;
+            int target;
+            if (i < numberOfVertices) {
+                source = i + 1;
+                target = (i + 1) % numberOfVertices + 1;
+            } else {
+                source = random.nextInt(numberOfVertices) + 1;
+                target = random.nextInt(numberOfVertices) + 1;
+                if (source == target) {
+                    target = source % numberOfVertices + 1;
+                }
+            }
+            E edge = (orientation == GraphCreator.REVERSED)
+                    ? graph.addEdge(target, source)
+                    : graph.addEdge(source, target);
+            graph.setEdgeWeight(edge, random.nextInt(maxWeight) + 1);
+        }
+        return graph;
+    }
+}
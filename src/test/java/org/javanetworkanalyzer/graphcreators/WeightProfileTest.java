@@ -0,0 +1,157 @@
+/**
+ * Java Network Analyzer provides a collection of graph theory and social
+ * network analysis algorithms implemented on mathematical graphs using the
+ * <a href="http://www.jgrapht.org/">JGraphT</a> library.
+ *
+ * Java Network Analyzer is distributed under the GPL 3 license. It is produced
+ * by the "Atelier SIG" team of the <a href="http://www.irstv.fr">IRSTV
+ * Institute</a>, CNRS FR 2488.
+ *
+ * Copyright 2013 IRSTV (CNRS FR 2488).
+ *
+ * Java Network Analyzer is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Java Network Analyzer is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Java Network Analyzer. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.javanetworkanalyzer.graphcreators;
+
+import org.javanetworkanalyzer.alg.Dijkstra;
+import org.javanetworkanalyzer.data.VDijkstra;
+import org.javanetworkanalyzer.model.Edge;
+import org.javanetworkanalyzer.model.WeightProfile;
+import org.javanetworkanalyzer.model.WeightedKeyedGraph;
+import java.io.FileNotFoundException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests loading weight profiles from the 2D graph and using them in
+ * {@link Dijkstra}.
+ *
+ * @author Adam Gouge
+ */
+public class WeightProfileTest {
+
+    private static final String FILENAME = "./files/graph2D.edges.csv";
+    private static final double TOLERANCE = 0.000000001;
+
+    @Test
+    public void testProfiles() throws FileNotFoundException,
+            NoSuchMethodException {
+        final WeightedGraphCreator<VDijkstra, Edge> creator = creator("length");
+        creator.addWeightProfile("time", "length / (speed / 3.6)");
+        creator.addWeightProfile("penalized", "-(-2 * length) + 10");
+        final WeightedKeyedGraph<VDijkstra, Edge> graph = creator.loadGraph();
+        final WeightedKeyedGraph<VDijkstra, Edge> speeds =
+                creator("speed").loadGraph();
+
+        final WeightProfile length = creator.getWeightProfile("length");
+        final WeightProfile time = creator.getWeightProfile("time");
+        final WeightProfile penalized = creator.getWeightProfile("penalized");
+        assertNull(creator.getWeightProfile("speed"));
+        assertEquals(graph.edgeSet().size(), time.size());
+        for (Edge e : graph.edgeSet()) {
+            final double speed =
+                    speeds.getEdgeWeight(edgeWithId(speeds, e.getID()));
+            assertEquals(graph.getEdgeWeight(e), length.getWeight(e),
+                         TOLERANCE);
+            assertEquals(graph.getEdgeWeight(e) / (speed / 3.6),
+                         time.getWeight(e), TOLERANCE);
+            assertEquals(2 * graph.getEdgeWeight(e) + 10,
+                         penalized.getWeight(e), TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testDijkstraWithProfile() throws FileNotFoundException,
+            NoSuchMethodException {
+        final WeightedGraphCreator<VDijkstra, Edge> creator = creator("length");
+        creator.addWeightProfile("time", "length / speed");
+        final WeightedKeyedGraph<VDijkstra, Edge> graph = creator.loadGraph();
+        final WeightProfile time = creator.getWeightProfile("time");
+
+        // The same graph, weighted by time.
+        final WeightedKeyedGraph<VDijkstra, Edge> timeGraph =
+                creator("length").loadGraph();
+        for (Edge e : timeGraph.edgeSet()) {
+            timeGraph.setEdgeWeight(e, time.getWeights()[e.getID()]);
+        }
+
+        final Dijkstra<VDijkstra, Edge> dijkstra =
+                new Dijkstra<VDijkstra, Edge>(graph);
+        final Dijkstra<VDijkstra, Edge> expected =
+                new Dijkstra<VDijkstra, Edge>(timeGraph);
+        for (VDijkstra source : graph.vertexSet()) {
+            final double[] withProfile =
+                    distances(dijkstra, graph, time, source);
+            final double[] withWeights = distances(
+                    expected, timeGraph, null,
+                    timeGraph.getVertex(source.getID()));
+            for (int i = 0; i < withProfile.length; i++) {
+                assertEquals(withWeights[i], withProfile[i], TOLERANCE);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownColumn() throws FileNotFoundException,
+            NoSuchMethodException {
+        final WeightedGraphCreator<VDijkstra, Edge> creator = creator("length");
+        creator.addWeightProfile("time", "length / velocity");
+        creator.loadGraph();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedExpression() throws FileNotFoundException,
+            NoSuchMethodException {
+        final WeightedGraphCreator<VDijkstra, Edge> creator = creator("length");
+        creator.addWeightProfile("time", "length / (speed");
+        creator.loadGraph();
+    }
+
+    private WeightedGraphCreator<VDijkstra, Edge> creator(String weight) {
+        return new WeightedGraphCreator<VDijkstra, Edge>(
+                FILENAME,
+                GraphCreator.DIRECTED,
+                VDijkstra.class,
+                Edge.class,
+                weight);
+    }
+
+    private Edge edgeWithId(WeightedKeyedGraph<VDijkstra, Edge> graph, int id) {
+        for (Edge e : graph.edgeSet()) {
+            if (e.getID() == id) {
+                return e;
+            }
+        }
+        throw new IllegalStateException("No edge " + id + ".");
+    }
+
+    private double[] distances(Dijkstra<VDijkstra, Edge> dijkstra,
+                               WeightedKeyedGraph<VDijkstra, Edge> graph,
+                               WeightProfile profile,
+                               VDijkstra source) {
+        dijkstra.setWeightProfile(profile);
+        dijkstra.calculate(source);
+        final double[] distances = new double[graph.vertexSet().size()];
+        int i = 0;
+        for (int id = 1; i < distances.length; id++) {
+            final VDijkstra v = graph.getVertex(id);
+            if (v != null) {
+                distances[i++] = v.getDistance();
+            }
+        }
+        return distances;
+    }
+}